@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.source.solr;
+
+import ddf.catalog.data.AttributeDescriptor;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.MetacardCreationException;
+import ddf.catalog.data.MetacardType;
+import ddf.catalog.filter.proxy.adapter.GeotoolsFilterAdapterImpl;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.SolrInputField;
+import org.codice.ddf.catalog.benchmark.MetacardFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the conversion of metacards into Solr documents and back by {@link
+ * DynamicSchemaResolver}, without the cost of talking to Solr.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class DynamicSchemaResolverBenchmark {
+
+  @Param({"10", "100"})
+  public int attributeCount;
+
+  @Param({"5", "1000"})
+  public int wktPoints;
+
+  private DynamicSchemaResolver resolver;
+
+  private SolrMetacardClientImpl metacardClient;
+
+  private Metacard metacard;
+
+  private SolrDocument solrDocument;
+
+  @Setup
+  public void setUp() throws MetacardCreationException {
+    MetacardType metacardType = MetacardFixtures.metacardType(attributeCount);
+    resolver = new DynamicSchemaResolver();
+    resolver.addMetacardType(metacardType);
+    metacardClient =
+        new SolrMetacardClientImpl(
+            null, new GeotoolsFilterAdapterImpl(), new SolrFilterDelegateFactoryImpl(), resolver);
+
+    metacard = MetacardFixtures.metacard(metacardType, 1, wktPoints);
+    solrDocument = toStoredDocument(addFields());
+  }
+
+  @Benchmark
+  public SolrInputDocument addFields() throws MetacardCreationException {
+    SolrInputDocument solrInputDocument = new SolrInputDocument();
+    resolver.addFields(metacard, solrInputDocument);
+    return solrInputDocument;
+  }
+
+  @Benchmark
+  public Metacard createMetacard() throws MetacardCreationException {
+    return metacardClient.createMetacard(solrDocument);
+  }
+
+  /** Solr only returns stored fields, so the fields that are only indexed are left out. */
+  private SolrDocument toStoredDocument(SolrInputDocument solrInputDocument) {
+    Set<String> storedFields = new HashSet<>();
+    for (AttributeDescriptor descriptor : metacard.getMetacardType().getAttributeDescriptors()) {
+      storedFields.add(
+          resolver.getField(
+              descriptor.getName(),
+              descriptor.getType().getAttributeFormat(),
+              true,
+              Collections.emptyMap()));
+    }
+
+    SolrDocument document = new SolrDocument();
+    for (SolrInputField field : solrInputDocument) {
+      if (storedFields.contains(field.getName()) || resolver.isPrivateField(field.getName())) {
+        document.setField(field.getName(), field.getValue());
+      }
+    }
+    return document;
+  }
+}
@@ -0,0 +1,208 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.source.solr;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.MetacardType;
+import ddf.catalog.data.types.Core;
+import ddf.catalog.filter.FilterBuilder;
+import ddf.catalog.filter.impl.SortByImpl;
+import ddf.catalog.filter.proxy.adapter.GeotoolsFilterAdapterImpl;
+import ddf.catalog.filter.proxy.builder.GeotoolsFilterBuilder;
+import ddf.catalog.operation.CreateResponse;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.SourceResponse;
+import ddf.catalog.operation.impl.CreateRequestImpl;
+import ddf.catalog.operation.impl.QueryImpl;
+import ddf.catalog.operation.impl.QueryRequestImpl;
+import ddf.catalog.source.IngestException;
+import ddf.catalog.source.UnsupportedQueryException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.apache.solr.client.solrj.embedded.JettyConfig;
+import org.apache.solr.cloud.MiniSolrCloudCluster;
+import org.codice.ddf.catalog.benchmark.MetacardFixtures;
+import org.codice.solr.client.solrj.SolrClient;
+import org.codice.solr.factory.impl.SolrCloudClientFactory;
+import org.opengis.filter.Filter;
+import org.opengis.filter.sort.SortOrder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures end-to-end ingest and query throughput of {@link SolrCatalogProviderImpl} against an
+ * embedded single node Solr cloud, set up the same way as the Solr provider tests.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class SolrCatalogProviderBenchmark {
+
+  private static final String[] SYSTEM_PROPERTIES = {
+    "ddf.home",
+    "solr.cloud.shardCount",
+    "solr.cloud.replicationFactor",
+    "solr.cloud.maxShardPerNode",
+    "solr.cloud.zookeeper.chroot",
+    "solr.cloud.zookeeper"
+  };
+
+  @Param({"10", "100"})
+  public int attributeCount;
+
+  @Param({"5", "500"})
+  public int wktPoints;
+
+  @Param({"100"})
+  public int batchSize;
+
+  @Param({"10000"})
+  public int preloadedMetacards;
+
+  private final FilterBuilder filterBuilder = new GeotoolsFilterBuilder();
+
+  private final AtomicInteger nextIndex = new AtomicInteger();
+
+  private Path baseDir;
+
+  private MiniSolrCloudCluster miniSolrCloud;
+
+  private SolrClient solrClient;
+
+  private SolrCatalogProviderImpl provider;
+
+  private MetacardType metacardType;
+
+  private QueryRequest textQueryRequest;
+
+  private QueryRequest spatialQueryRequest;
+
+  @Setup
+  public void setUp() throws Exception {
+    baseDir = Files.createTempDirectory("solr-benchmark");
+    System.setProperty("ddf.home", baseDir.resolve("ddf").toString());
+    ConfigurationStore.getInstance().setDataDirectoryPath(baseDir.resolve("ddf").toString());
+
+    miniSolrCloud =
+        new MiniSolrCloudCluster(
+            1, baseDir.resolve("solr"), JettyConfig.builder().setContext("/solr").build());
+
+    System.setProperty("solr.cloud.shardCount", "1");
+    System.setProperty("solr.cloud.replicationFactor", "1");
+    System.setProperty("solr.cloud.maxShardPerNode", "1");
+    System.setProperty("solr.cloud.zookeeper.chroot", "/solr");
+    System.setProperty("solr.cloud.zookeeper", miniSolrCloud.getZkServer().getZkHost());
+
+    solrClient = new SolrCloudClientFactory().newClient("catalog");
+    if (!solrClient.isAvailable(30L, TimeUnit.SECONDS)) {
+      throw new IllegalStateException("Embedded Solr did not become available.");
+    }
+
+    metacardType = MetacardFixtures.metacardType(attributeCount);
+    DynamicSchemaResolver resolver = new DynamicSchemaResolver();
+    resolver.addMetacardType(metacardType);
+    provider =
+        new SolrCatalogProviderImpl(
+            solrClient,
+            new GeotoolsFilterAdapterImpl(),
+            new SolrFilterDelegateFactoryImpl(),
+            resolver);
+
+    // commit the preloaded metacards right away so that they can be queried
+    ConfigurationStore.getInstance().setForceAutoCommit(true);
+    for (int i = 0; i < preloadedMetacards; i += batchSize) {
+      ingest();
+    }
+    ConfigurationStore.getInstance().setForceAutoCommit(false);
+
+    textQueryRequest =
+        queryRequest(filterBuilder.attribute(Metacard.ANY_TEXT).is().like().text("harbor"));
+    spatialQueryRequest =
+        queryRequest(
+            filterBuilder
+                .attribute(Metacard.ANY_GEO)
+                .intersecting()
+                .wkt(MetacardFixtures.polygonWkt(0, 0, wktPoints)));
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    try {
+      if (solrClient != null) {
+        solrClient.close();
+      }
+      if (miniSolrCloud != null) {
+        miniSolrCloud.shutdown();
+      }
+    } finally {
+      for (String property : SYSTEM_PROPERTIES) {
+        System.clearProperty(property);
+      }
+      deleteBaseDir();
+    }
+  }
+
+  @Benchmark
+  public CreateResponse ingest() throws IngestException {
+    int firstIndex = nextIndex.getAndAdd(batchSize);
+    return provider.create(
+        new CreateRequestImpl(
+            MetacardFixtures.metacards(metacardType, firstIndex, batchSize, wktPoints)));
+  }
+
+  @Benchmark
+  public SourceResponse textQuery() throws UnsupportedQueryException {
+    return provider.query(textQueryRequest);
+  }
+
+  @Benchmark
+  public SourceResponse spatialQuery() throws UnsupportedQueryException {
+    return provider.query(spatialQueryRequest);
+  }
+
+  private QueryRequest queryRequest(Filter filter) {
+    return new QueryRequestImpl(
+        new QueryImpl(
+            filter, 1, 100, new SortByImpl(Core.MODIFIED, SortOrder.DESCENDING), true, 0));
+  }
+
+  private void deleteBaseDir() throws IOException {
+    if (baseDir == null) {
+      return;
+    }
+    try (Stream<Path> paths = Files.walk(baseDir)) {
+      for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+        Files.delete(path);
+      }
+    }
+  }
+}
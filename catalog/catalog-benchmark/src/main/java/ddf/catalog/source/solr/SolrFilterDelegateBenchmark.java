@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.source.solr;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.types.Core;
+import ddf.catalog.filter.FilterAdapter;
+import ddf.catalog.filter.FilterBuilder;
+import ddf.catalog.filter.proxy.adapter.GeotoolsFilterAdapterImpl;
+import ddf.catalog.filter.proxy.builder.GeotoolsFilterBuilder;
+import ddf.catalog.source.UnsupportedQueryException;
+import java.util.Collections;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.codice.ddf.catalog.benchmark.MetacardFixtures;
+import org.opengis.filter.Filter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Measures the translation of catalog filters into Solr queries by {@link SolrFilterDelegate}. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SolrFilterDelegateBenchmark {
+
+  @Param({"5", "500"})
+  public int wktPoints;
+
+  private final FilterBuilder filterBuilder = new GeotoolsFilterBuilder();
+
+  private final FilterAdapter filterAdapter = new GeotoolsFilterAdapterImpl();
+
+  private final SolrFilterDelegateFactory filterDelegateFactory =
+      new SolrFilterDelegateFactoryImpl();
+
+  private DynamicSchemaResolver resolver;
+
+  private Filter textFilter;
+
+  private Filter spatialFilter;
+
+  private Filter temporalFilter;
+
+  private Filter compoundFilter;
+
+  @Setup
+  public void setUp() {
+    resolver = new DynamicSchemaResolver();
+    resolver.addMetacardType(MetacardFixtures.metacardType(100));
+
+    textFilter = filterBuilder.attribute(Metacard.ANY_TEXT).is().like().text("harbor*");
+    spatialFilter =
+        filterBuilder
+            .attribute(Metacard.ANY_GEO)
+            .intersecting()
+            .wkt(MetacardFixtures.polygonWkt(10, 10, wktPoints));
+    temporalFilter =
+        filterBuilder
+            .attribute(Core.MODIFIED)
+            .is()
+            .during()
+            .dates(new Date(0), new Date(TimeUnit.DAYS.toMillis(20000)));
+    compoundFilter =
+        filterBuilder.allOf(
+            textFilter,
+            spatialFilter,
+            temporalFilter,
+            filterBuilder.anyOf(
+                filterBuilder
+                    .attribute(MetacardFixtures.EXTENSION_ATTRIBUTE_PREFIX + 3)
+                    .is()
+                    .equalTo()
+                    .text("river depot ridge"),
+                filterBuilder
+                    .attribute(MetacardFixtures.EXTENSION_ATTRIBUTE_PREFIX + 0)
+                    .is()
+                    .greaterThan()
+                    .number(100L)),
+            filterBuilder.not(filterBuilder.attribute(Core.TITLE).is().like().text("convoy")));
+  }
+
+  @Benchmark
+  public SolrQuery textQuery() throws UnsupportedQueryException {
+    return translate(textFilter);
+  }
+
+  @Benchmark
+  public SolrQuery spatialQuery() throws UnsupportedQueryException {
+    return translate(spatialFilter);
+  }
+
+  @Benchmark
+  public SolrQuery temporalQuery() throws UnsupportedQueryException {
+    return translate(temporalFilter);
+  }
+
+  @Benchmark
+  public SolrQuery compoundQuery() throws UnsupportedQueryException {
+    return translate(compoundFilter);
+  }
+
+  private SolrQuery translate(Filter filter) throws UnsupportedQueryException {
+    return filterAdapter.adapt(
+        filter, filterDelegateFactory.newInstance(resolver, Collections.emptyMap()));
+  }
+}
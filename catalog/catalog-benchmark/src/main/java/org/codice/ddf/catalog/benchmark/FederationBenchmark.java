@@ -0,0 +1,196 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.benchmark;
+
+import ddf.catalog.data.ContentType;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.MetacardType;
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.federation.impl.SortedFederationStrategy;
+import ddf.catalog.filter.impl.SortByImpl;
+import ddf.catalog.filter.proxy.builder.GeotoolsFilterBuilder;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.QueryResponse;
+import ddf.catalog.operation.SourceResponse;
+import ddf.catalog.operation.impl.QueryImpl;
+import ddf.catalog.operation.impl.QueryRequestImpl;
+import ddf.catalog.operation.impl.SourceResponseImpl;
+import ddf.catalog.source.Source;
+import ddf.catalog.source.SourceMonitor;
+import ddf.catalog.source.UnsupportedQueryException;
+import ddf.catalog.util.impl.DescribableImpl;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.codice.ddf.platform.util.BlockingIoExecutors;
+import org.opengis.filter.sort.SortOrder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures federated queries through {@link SortedFederationStrategy}, including the merging of the
+ * sorted source results by the sorted query monitor.
+ *
+ * <p>Each invocation starts {@code concurrentQueries} federated queries at once against sources
+ * that block for {@code sourceLatencyMillis} before responding, and waits for every result. The
+ * {@code threads} parameter selects whether the query thread pool uses platform or virtual threads,
+ * see {@link BlockingIoExecutors}. Virtual threads require Java 21; on older JVMs both settings use
+ * platform threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class FederationBenchmark {
+
+  private static final String VIRTUAL_THREADS = "virtual";
+
+  @Param({"10"})
+  public int sourceCount;
+
+  @Param({"100", "1000"})
+  public int resultsPerSource;
+
+  @Param({"20"})
+  public int sourceLatencyMillis;
+
+  @Param({"1", "1000"})
+  public int concurrentQueries;
+
+  @Param({"platform", VIRTUAL_THREADS})
+  public String threads;
+
+  private ExecutorService queryExecutor;
+
+  private SortedFederationStrategy federationStrategy;
+
+  private List<Source> sources;
+
+  private QueryRequest queryRequest;
+
+  @Setup
+  public void setUp() {
+    System.setProperty(
+        BlockingIoExecutors.VIRTUAL_THREADS_PROPERTY,
+        Boolean.toString(VIRTUAL_THREADS.equals(threads)));
+    try {
+      queryExecutor = BlockingIoExecutors.newCachedThreadPool("benchmarkFederationThread");
+    } finally {
+      System.clearProperty(BlockingIoExecutors.VIRTUAL_THREADS_PROPERTY);
+    }
+
+    federationStrategy =
+        new SortedFederationStrategy(
+            queryExecutor, Collections.emptyList(), Collections.emptyList());
+    // measure the thread pool and the merging, not the per-source limits
+    federationStrategy.setMaximumSourceConcurrency(concurrentQueries);
+    federationStrategy.setCircuitBreakerEnabled(false);
+
+    MetacardType metacardType = MetacardFixtures.metacardType(10);
+    sources = new ArrayList<>(sourceCount);
+    for (int i = 0; i < sourceCount; i++) {
+      List<Result> results = new ArrayList<>(resultsPerSource);
+      for (Metacard metacard :
+          MetacardFixtures.metacards(metacardType, i * resultsPerSource, resultsPerSource, 5)) {
+        results.add(new ResultImpl(metacard));
+      }
+      // sources return their results already sorted, newest first
+      Collections.reverse(results);
+      sources.add(new StubSource("source" + i, results, sourceLatencyMillis));
+    }
+
+    queryRequest =
+        new QueryRequestImpl(
+            new QueryImpl(
+                new GeotoolsFilterBuilder().attribute(Metacard.ANY_TEXT).is().like().text("*"),
+                1,
+                resultsPerSource,
+                new SortByImpl(Result.TEMPORAL, SortOrder.DESCENDING),
+                false,
+                TimeUnit.MINUTES.toMillis(1)));
+  }
+
+  @TearDown
+  public void tearDown() {
+    queryExecutor.shutdownNow();
+  }
+
+  @Benchmark
+  public void federate(Blackhole blackhole) {
+    List<QueryResponse> responses = new ArrayList<>(concurrentQueries);
+    for (int i = 0; i < concurrentQueries; i++) {
+      responses.add(federationStrategy.federate(sources, queryRequest));
+    }
+    for (QueryResponse response : responses) {
+      blackhole.consume(response.getResults());
+    }
+  }
+
+  /** Source that answers every query with the same results after a fixed delay. */
+  private static class StubSource extends DescribableImpl implements Source {
+
+    private final List<Result> results;
+
+    private final long latencyMillis;
+
+    StubSource(String id, List<Result> results, long latencyMillis) {
+      setId(id);
+      this.results = results;
+      this.latencyMillis = latencyMillis;
+    }
+
+    @Override
+    public boolean isAvailable() {
+      return true;
+    }
+
+    @Override
+    public boolean isAvailable(SourceMonitor callback) {
+      return true;
+    }
+
+    @Override
+    public SourceResponse query(QueryRequest request) throws UnsupportedQueryException {
+      try {
+        Thread.sleep(latencyMillis);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new UnsupportedQueryException("Interrupted while querying " + getId(), e);
+      }
+      return new SourceResponseImpl(request, results, (long) results.size());
+    }
+
+    @Override
+    public Set<ContentType> getContentTypes() {
+      return Collections.emptySet();
+    }
+  }
+}
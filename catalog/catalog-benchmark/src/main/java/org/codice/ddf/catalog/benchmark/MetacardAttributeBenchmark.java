@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.benchmark;
+
+import ddf.catalog.data.AttributeDescriptor;
+import ddf.catalog.data.MetacardType;
+import ddf.catalog.data.impl.MetacardImpl;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Measures reading, writing and copying the attributes of a {@link MetacardImpl}. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class MetacardAttributeBenchmark {
+
+  @Param({"10", "100"})
+  public int attributeCount;
+
+  private MetacardImpl metacard;
+
+  private List<String> attributeNames;
+
+  @Setup
+  public void setUp() {
+    MetacardType metacardType = MetacardFixtures.metacardType(attributeCount);
+    metacard = MetacardFixtures.metacard(metacardType, 1, 20);
+    attributeNames =
+        metacardType.getAttributeDescriptors().stream()
+            .map(AttributeDescriptor::getName)
+            .collect(Collectors.toList());
+  }
+
+  @Benchmark
+  public void getAttributes(Blackhole blackhole) {
+    for (String name : attributeNames) {
+      blackhole.consume(metacard.getAttribute(name));
+    }
+  }
+
+  @Benchmark
+  public MetacardImpl setAttributes() {
+    MetacardImpl copy = new MetacardImpl(metacard.getMetacardType());
+    for (String name : attributeNames) {
+      copy.setAttribute(metacard.getAttribute(name));
+    }
+    return copy;
+  }
+
+  @Benchmark
+  public MetacardImpl copy() {
+    return new MetacardImpl(metacard);
+  }
+}
@@ -0,0 +1,204 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.benchmark;
+
+import ddf.catalog.data.AttributeDescriptor;
+import ddf.catalog.data.AttributeType;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.MetacardType;
+import ddf.catalog.data.impl.AttributeDescriptorImpl;
+import ddf.catalog.data.impl.BasicTypes;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.MetacardTypeImpl;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates deterministic metacards for the benchmarks. The metacards have the attributes of {@link
+ * MetacardImpl#BASIC_METACARD} plus a configurable number of extension attributes of mixed types, a
+ * polygon location with a configurable number of points and an {@code OBJECT} attribute.
+ */
+public final class MetacardFixtures {
+
+  public static final String OBJECT_ATTRIBUTE = "ext.object";
+
+  public static final String EXTENSION_ATTRIBUTE_PREFIX = "ext.attribute";
+
+  private static final long BASE_TIME = 1577836800000L;
+
+  private static final String[] WORDS = {
+    "harbor",
+    "bridge",
+    "convoy",
+    "airfield",
+    "river",
+    "antenna",
+    "depot",
+    "ridge",
+    "pizza",
+    "valley"
+  };
+
+  private MetacardFixtures() {}
+
+  /**
+   * @param extensionAttributeCount number of attributes added to the basic metacard attributes
+   * @return metacard type named after the number of extension attributes
+   */
+  public static MetacardType metacardType(int extensionAttributeCount) {
+    Set<AttributeDescriptor> descriptors =
+        new HashSet<>(MetacardImpl.BASIC_METACARD.getAttributeDescriptors());
+    for (int i = 0; i < extensionAttributeCount; i++) {
+      descriptors.add(
+          new AttributeDescriptorImpl(
+              EXTENSION_ATTRIBUTE_PREFIX + i, true, true, false, false, extensionType(i)));
+    }
+    descriptors.add(
+        new AttributeDescriptorImpl(
+            OBJECT_ATTRIBUTE, false, true, false, false, BasicTypes.OBJECT_TYPE));
+    return new MetacardTypeImpl("benchmark." + extensionAttributeCount, descriptors);
+  }
+
+  /**
+   * @param index distinguishes the metacard from the other metacards of the same type; metacards
+   *     with the same index and type are equal
+   * @param wktPoints number of points in the location polygon
+   */
+  public static MetacardImpl metacard(MetacardType type, int index, int wktPoints) {
+    MetacardImpl metacard = new MetacardImpl(type);
+    Date created = new Date(BASE_TIME + TimeUnit.MINUTES.toMillis(index));
+
+    metacard.setId(String.format(Locale.ROOT, "%032x", index));
+    metacard.setTitle(words(index, 4));
+    metacard.setDescription(words(index + 1, 20));
+    metacard.setMetadata(metadata(index));
+    metacard.setContentTypeName("benchmark");
+    metacard.setContentTypeVersion("1.0");
+    metacard.setCreatedDate(created);
+    metacard.setModifiedDate(created);
+    metacard.setEffectiveDate(created);
+    metacard.setResourceSize(Integer.toString(1024 * (index % 100 + 1)));
+    metacard.setLocation(
+        polygonWkt((index % 360) - 180 + 0.5, (index % 170) - 85 + 0.5, wktPoints));
+
+    for (AttributeDescriptor descriptor : type.getAttributeDescriptors()) {
+      String name = descriptor.getName();
+      if (name.startsWith(EXTENSION_ATTRIBUTE_PREFIX)) {
+        int attributeIndex = Integer.parseInt(name.substring(EXTENSION_ATTRIBUTE_PREFIX.length()));
+        metacard.setAttribute(name, extensionValue(attributeIndex, index));
+      }
+    }
+    metacard.setAttribute(OBJECT_ATTRIBUTE, objectValue(index));
+
+    return metacard;
+  }
+
+  /** @return {@code count} metacards with consecutive indexes starting at {@code firstIndex} */
+  public static List<Metacard> metacards(
+      MetacardType type, int firstIndex, int count, int wktPoints) {
+    List<Metacard> metacards = new ArrayList<>(count);
+    for (int i = firstIndex; i < firstIndex + count; i++) {
+      metacards.add(metacard(type, i, wktPoints));
+    }
+    return metacards;
+  }
+
+  /**
+   * @param points number of distinct points of the polygon, at least 3
+   * @return WKT of a polygon that approximates a circle with a radius of half a degree
+   */
+  public static String polygonWkt(double centerX, double centerY, int points) {
+    int pointCount = Math.max(3, points);
+    StringBuilder wkt = new StringBuilder("POLYGON ((");
+    for (int i = 0; i <= pointCount; i++) {
+      double angle = 2 * Math.PI * (i % pointCount) / pointCount;
+      if (i > 0) {
+        wkt.append(", ");
+      }
+      wkt.append(
+          String.format(
+              Locale.ROOT,
+              "%.6f %.6f",
+              centerX + 0.5 * Math.cos(angle),
+              centerY + 0.5 * Math.sin(angle)));
+    }
+    return wkt.append("))").toString();
+  }
+
+  private static AttributeType<?> extensionType(int attributeIndex) {
+    switch (attributeIndex % 4) {
+      case 0:
+        return BasicTypes.LONG_TYPE;
+      case 1:
+        return BasicTypes.DATE_TYPE;
+      case 2:
+        return BasicTypes.DOUBLE_TYPE;
+      default:
+        return BasicTypes.STRING_TYPE;
+    }
+  }
+
+  private static Serializable extensionValue(int attributeIndex, int index) {
+    switch (attributeIndex % 4) {
+      case 0:
+        return (long) attributeIndex * index;
+      case 1:
+        return new Date(BASE_TIME + TimeUnit.HOURS.toMillis(attributeIndex + (long) index));
+      case 2:
+        return attributeIndex + index / 1000.0;
+      default:
+        return words(attributeIndex + index, 3);
+    }
+  }
+
+  private static Serializable objectValue(int index) {
+    if (index % 2 == 0) {
+      return words(index, 8);
+    }
+
+    HashMap<String, Serializable> value = new HashMap<>();
+    value.put("index", index);
+    value.put("label", words(index, 2));
+    value.put("created", new Date(BASE_TIME + index));
+    return value;
+  }
+
+  private static String metadata(int index) {
+    return "<metadata xmlns=\"urn:benchmark\"><title>"
+        + words(index, 4)
+        + "</title><abstract>"
+        + words(index + 2, 50)
+        + "</abstract><keywords>"
+        + words(index + 3, 6)
+        + "</keywords></metadata>";
+  }
+
+  private static String words(int seed, int count) {
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < count; i++) {
+      if (i > 0) {
+        text.append(' ');
+      }
+      text.append(WORDS[Math.abs(seed * 31 + i * 7) % WORDS.length]);
+    }
+    return text.toString();
+  }
+}
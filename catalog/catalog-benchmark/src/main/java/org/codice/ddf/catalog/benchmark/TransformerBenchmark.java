@@ -0,0 +1,111 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.benchmark;
+
+import ddf.catalog.data.BinaryContent;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.MetacardType;
+import ddf.catalog.transform.CatalogTransformerException;
+import ddf.catalog.transformer.input.geojson.GeoJsonInputTransformer;
+import ddf.catalog.transformer.metacard.geojson.GeoJsonMetacardTransformer;
+import ddf.catalog.transformer.xml.MetacardMarshallerImpl;
+import ddf.catalog.transformer.xml.PrintWriterProviderImpl;
+import ddf.catalog.transformer.xml.XmlInputTransformer;
+import ddf.catalog.transformer.xml.XmlMetacardTransformer;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.codice.ddf.parser.xml.XmlParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Measures the XML and GeoJSON metacard and input transformers in both directions. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TransformerBenchmark {
+
+  @Param({"10", "100"})
+  public int attributeCount;
+
+  @Param({"5", "1000"})
+  public int wktPoints;
+
+  private XmlMetacardTransformer xmlMetacardTransformer;
+
+  private XmlInputTransformer xmlInputTransformer;
+
+  private GeoJsonMetacardTransformer geoJsonMetacardTransformer;
+
+  private GeoJsonInputTransformer geoJsonInputTransformer;
+
+  private Metacard metacard;
+
+  private byte[] xml;
+
+  private byte[] geoJson;
+
+  @Setup
+  public void setUp() throws CatalogTransformerException, IOException {
+    MetacardType metacardType = MetacardFixtures.metacardType(attributeCount);
+    metacard = MetacardFixtures.metacard(metacardType, 1, wktPoints);
+
+    XmlParser parser = new XmlParser();
+    xmlMetacardTransformer =
+        new XmlMetacardTransformer(
+            new MetacardMarshallerImpl(parser, new PrintWriterProviderImpl()));
+    xmlInputTransformer = new XmlInputTransformer(parser);
+    xmlInputTransformer.setMetacardTypes(Collections.singletonList(metacardType));
+
+    geoJsonMetacardTransformer = new GeoJsonMetacardTransformer();
+    geoJsonInputTransformer = new GeoJsonInputTransformer();
+    geoJsonInputTransformer.setMetacardTypes(Collections.singletonList(metacardType));
+
+    xml = metacardToXml().getByteArray();
+    geoJson = metacardToGeoJson().getByteArray();
+  }
+
+  @Benchmark
+  public BinaryContent metacardToXml() throws CatalogTransformerException {
+    return xmlMetacardTransformer.transform(metacard, Collections.emptyMap());
+  }
+
+  @Benchmark
+  public Metacard xmlToMetacard() throws CatalogTransformerException, IOException {
+    return xmlInputTransformer.transform(new ByteArrayInputStream(xml));
+  }
+
+  @Benchmark
+  public BinaryContent metacardToGeoJson() throws CatalogTransformerException {
+    return geoJsonMetacardTransformer.transform(metacard, Collections.emptyMap());
+  }
+
+  @Benchmark
+  public Metacard geoJsonToMetacard() throws CatalogTransformerException, IOException {
+    return geoJsonInputTransformer.transform(new ByteArrayInputStream(geoJson));
+  }
+}
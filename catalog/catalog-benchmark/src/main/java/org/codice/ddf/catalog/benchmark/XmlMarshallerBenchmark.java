@@ -0,0 +1,147 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.benchmark;
+
+import com.google.common.collect.ImmutableMap;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.MetacardType;
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.operation.impl.SourceResponseImpl;
+import ddf.catalog.transform.CatalogTransformerException;
+import ddf.catalog.transformer.api.MetacardMarshaller;
+import ddf.catalog.transformer.xml.MetacardMarshallerImpl;
+import ddf.catalog.transformer.xml.PrintWriterProviderImpl;
+import ddf.catalog.transformer.xml.XmlResponseQueueTransformer;
+import ddf.catalog.transformer.xml.XmlValidationEventHandler;
+import ddf.catalog.transformer.xml.adapter.AdaptedMetacard;
+import ddf.catalog.transformer.xml.adapter.MetacardTypeAdapter;
+import ddf.catalog.transformer.xml.binding.MetacardElement;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.activation.MimeType;
+import net.opengis.gml.v_3_1_1.AbstractGeometryType;
+import org.codice.ddf.parser.ParserConfigurator;
+import org.codice.ddf.parser.ParserException;
+import org.codice.ddf.parser.xml.XmlParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xmlpull.v1.XmlPullParserException;
+
+/**
+ * Compares the streaming {@link MetacardMarshallerImpl} with marshalling the {@link
+ * AdaptedMetacard} object graph through JAXB, and measures whole query responses written by the
+ * {@link XmlResponseQueueTransformer}.
+ *
+ * <p>Run with {@code -t} greater than one to include the contention between threads marshalling at
+ * the same time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class XmlMarshallerBenchmark {
+
+  private static final Map<String, Serializable> OMIT_XML_DECLARATION =
+      ImmutableMap.of(MetacardMarshallerImpl.OMIT_XML_DECL, Boolean.TRUE);
+
+  private static final List<String> CONTEXT_PATH =
+      Arrays.asList(
+          MetacardElement.class.getPackage().getName(),
+          AdaptedMetacard.class.getPackage().getName(),
+          AbstractGeometryType.class.getPackage().getName());
+
+  @Param({"10", "100"})
+  public int attributeCount;
+
+  @Param({"5", "1000"})
+  public int wktPoints;
+
+  @Param({"100"})
+  public int resultCount;
+
+  private XmlParser parser;
+
+  private MetacardMarshaller metacardMarshaller;
+
+  private XmlResponseQueueTransformer responseTransformer;
+
+  private MetacardType metacardType;
+
+  private Metacard metacard;
+
+  private SourceResponseImpl response;
+
+  @Setup
+  public void setUp() {
+    metacardType = MetacardFixtures.metacardType(attributeCount);
+    metacard = MetacardFixtures.metacard(metacardType, 1, wktPoints);
+
+    parser = new XmlParser();
+    PrintWriterProviderImpl printWriterProvider = new PrintWriterProviderImpl();
+    metacardMarshaller = new MetacardMarshallerImpl(parser, printWriterProvider);
+    responseTransformer =
+        new XmlResponseQueueTransformer(
+            parser, printWriterProvider, metacardMarshaller, new MimeType());
+    responseTransformer.setThreshold(50);
+
+    List<Result> results =
+        MetacardFixtures.metacards(metacardType, 0, resultCount, wktPoints).stream()
+            .map(ResultImpl::new)
+            .collect(Collectors.toList());
+    // the transformer only writes the results
+    response = new SourceResponseImpl(null, results);
+  }
+
+  @Benchmark
+  public String streamingMarshaller()
+      throws XmlPullParserException, IOException, CatalogTransformerException {
+    return metacardMarshaller.marshal(metacard, OMIT_XML_DECLARATION);
+  }
+
+  @Benchmark
+  public byte[] jaxbObjectGraph() throws ParserException {
+    ParserConfigurator configurator =
+        parser
+            .configureParser(CONTEXT_PATH, AdaptedMetacard.class.getClassLoader())
+            .setAdapter(new MetacardTypeAdapter(Collections.singletonList(metacardType)))
+            .setHandler(new XmlValidationEventHandler());
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    parser.marshal(configurator, new AdaptedMetacard(metacard), outputStream);
+    return outputStream.toByteArray();
+  }
+
+  @Benchmark
+  public byte[] queryResponse() throws CatalogTransformerException, IOException {
+    return responseTransformer.transform(response, Collections.emptyMap()).getByteArray();
+  }
+}
@@ -0,0 +1,155 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.data.impl;
+
+import ddf.catalog.data.StreamingBinaryContent;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import javax.activation.MimeType;
+import org.apache.commons.lang.Validate;
+import org.codice.ddf.platform.util.TemporaryFileBackedOutputStream;
+
+/**
+ * Common implementation of the {@link StreamingBinaryContent} interface that encodes its content
+ * with a {@link ContentWriter}.
+ *
+ * <p>Callers that do not know about {@link StreamingBinaryContent} still get a working {@link
+ * #getInputStream()}. The content is encoded when the stream is first read, into a buffer that
+ * moves to a temporary file once it grows large, and the temporary file is deleted when the stream
+ * is closed.
+ */
+public class StreamingBinaryContentImpl implements StreamingBinaryContent {
+
+  private final ContentWriter contentWriter;
+
+  private final MimeType mimeType;
+
+  private byte[] byteArray;
+
+  /**
+   * @param contentWriter encodes the content every time it is written
+   * @param mimeType the mime type of the content
+   */
+  public StreamingBinaryContentImpl(ContentWriter contentWriter, MimeType mimeType) {
+    Validate.notNull(contentWriter, "Content writer cannot be null");
+    this.contentWriter = contentWriter;
+    this.mimeType = mimeType;
+  }
+
+  @Override
+  public void writeTo(OutputStream outputStream) throws IOException {
+    if (byteArray != null) {
+      outputStream.write(byteArray);
+    } else {
+      contentWriter.write(outputStream);
+    }
+  }
+
+  @Override
+  public InputStream getInputStream() {
+    if (byteArray != null) {
+      return new ByteArrayInputStream(byteArray);
+    }
+    return new BufferedContentInputStream();
+  }
+
+  @Override
+  public MimeType getMimeType() {
+    return mimeType;
+  }
+
+  @Override
+  public String getMimeTypeValue() {
+    return mimeType != null ? mimeType.getBaseType() : null;
+  }
+
+  @Override
+  public long getSize() {
+    return BinaryContentImpl.UNKNOWN_SIZE;
+  }
+
+  @Override
+  public byte[] getByteArray() throws IOException {
+    if (byteArray == null) {
+      ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+      contentWriter.write(outputStream);
+      byteArray = outputStream.toByteArray();
+    }
+    return byteArray;
+  }
+
+  /** Encodes content to a stream. */
+  @FunctionalInterface
+  public interface ContentWriter {
+
+    /**
+     * @param outputStream stream to write the content to, must not be closed
+     * @throws IOException if the content could not be encoded or written
+     */
+    void write(OutputStream outputStream) throws IOException;
+  }
+
+  /** Encodes the content when it is first read, so that encoding errors surface as read errors. */
+  private class BufferedContentInputStream extends InputStream {
+
+    private TemporaryFileBackedOutputStream buffer;
+
+    private InputStream delegate;
+
+    @Override
+    public int read() throws IOException {
+      return delegate().read();
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      return delegate().read(b, off, len);
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      return delegate().skip(n);
+    }
+
+    @Override
+    public int available() throws IOException {
+      return delegate != null ? delegate.available() : 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        if (delegate != null) {
+          delegate.close();
+        }
+      } finally {
+        if (buffer != null) {
+          buffer.close();
+        }
+      }
+    }
+
+    private InputStream delegate() throws IOException {
+      if (delegate == null) {
+        buffer = new TemporaryFileBackedOutputStream();
+        contentWriter.write(buffer);
+        delegate = buffer.asByteSource().openStream();
+      }
+      return delegate;
+    }
+  }
+}
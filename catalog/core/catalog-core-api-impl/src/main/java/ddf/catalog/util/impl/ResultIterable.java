@@ -14,13 +14,18 @@
 package ddf.catalog.util.impl;
 
 import static com.google.common.collect.Iterators.limit;
+import static ddf.catalog.Constants.QUERY_CURSOR_MARK_KEY;
+import static ddf.catalog.Constants.QUERY_CURSOR_MARK_START;
+import static ddf.catalog.Constants.QUERY_NEXT_CURSOR_MARK_KEY;
 import static org.apache.commons.lang.Validate.isTrue;
 import static org.apache.commons.lang.Validate.notNull;
 
 import ddf.catalog.CatalogFramework;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
+import ddf.catalog.data.types.Core;
 import ddf.catalog.federation.FederationException;
+import ddf.catalog.filter.impl.SortByImpl;
 import ddf.catalog.operation.Query;
 import ddf.catalog.operation.QueryRequest;
 import ddf.catalog.operation.SourceResponse;
@@ -28,11 +33,14 @@
 import ddf.catalog.operation.impl.QueryRequestImpl;
 import ddf.catalog.source.SourceUnavailableException;
 import ddf.catalog.source.UnsupportedQueryException;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.Set;
@@ -41,6 +49,8 @@
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 import javax.annotation.Nullable;
+import org.opengis.filter.sort.SortBy;
+import org.opengis.filter.sort.SortOrder;
 
 /**
  * Class used to iterate over the {@link Result} objects contained in a {@link
@@ -50,6 +60,11 @@
  *
  * <p>Since the class may use the page size provided in the {@link Query} to fetch the results, its
  * value should be carefully set to avoid any memory or performance issues.
+ *
+ * <p>If the {@link QueryRequest} contains a {@link ddf.catalog.Constants#QUERY_CURSOR_MARK_KEY}
+ * property and targets a single source, pages are fetched by following the cursor returned by the
+ * source instead of increasing the start index. Sources that do not return a cursor are paged by
+ * start index. {@link #withKeysetPaging(QueryRequest)} creates such a request.
  */
 public class ResultIterable implements Iterable<Result> {
   public static final int DEFAULT_PAGE_SIZE = 64;
@@ -135,6 +150,60 @@ public static ResultIterable resultIterable(
     return new ResultIterable(queryFunction, queryRequest, maxResultCount);
   }
 
+  /**
+   * Creates a copy of a request that pages with a cursor from the first result. See {@link
+   * #withKeysetPaging(QueryRequest, String)}.
+   *
+   * @param queryRequest request to copy
+   */
+  public static QueryRequest withKeysetPaging(QueryRequest queryRequest) {
+    return withKeysetPaging(queryRequest, QUERY_CURSOR_MARK_START);
+  }
+
+  /**
+   * Creates a copy of a request that asks the source to page by keyset, resuming after the given
+   * cursor mark, instead of skipping an ever larger number of results for every page. Sources that
+   * support cursors add their unique key to the sort as a tiebreaker so that every result has a
+   * stable position. Requests without a sort are sorted by modified date, oldest first, so records
+   * modified while the results are being walked move behind the cursor and are returned again
+   * rather than skipped.
+   *
+   * <p>Requests that target several sources, and sources that do not support cursors, fall back to
+   * start index paging when the request is iterated with a {@link ResultIterable}.
+   *
+   * @param queryRequest request to copy
+   * @param cursorMark cursor mark returned with the previous page, or {@link
+   *     ddf.catalog.Constants#QUERY_CURSOR_MARK_START} to start from the first result
+   */
+  public static QueryRequest withKeysetPaging(QueryRequest queryRequest, String cursorMark) {
+    notNull(queryRequest, "Query request cannot be null");
+    notNull(cursorMark, "Cursor mark cannot be null");
+
+    Query query = queryRequest.getQuery();
+    SortBy sortBy = query.getSortBy();
+    if (sortBy == null || sortBy.getPropertyName() == null) {
+      sortBy = new SortByImpl(Core.MODIFIED, SortOrder.ASCENDING);
+    }
+
+    Map<String, Serializable> properties =
+        queryRequest.getProperties() != null
+            ? new HashMap<>(queryRequest.getProperties())
+            : new HashMap<>();
+    properties.put(QUERY_CURSOR_MARK_KEY, cursorMark);
+
+    return new QueryRequestImpl(
+        new QueryImpl(
+            query.getFilter(),
+            query.getStartIndex(),
+            query.getPageSize(),
+            sortBy,
+            query.requestsTotalResultsCount(),
+            query.getTimeoutMillis()),
+        queryRequest.isEnterprise(),
+        queryRequest.getSourceIds(),
+        properties);
+  }
+
   private static Stream<Result> stream(Iterator<Result> iterator) {
     return StreamSupport.stream(
         Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false);
@@ -161,6 +230,7 @@ private static class ResultIterator implements Iterator<Result> {
     private QueryRequestImpl queryRequestCopy;
     private Iterator<Result> results = Collections.emptyIterator();
     private boolean finished = false;
+    @Nullable private String cursorMark;
 
     ResultIterator(QueryFunction queryFunction, QueryRequest queryRequest) {
       this.queryFunction = queryFunction;
@@ -208,6 +278,9 @@ public Result next() {
     @SuppressWarnings("squid:CommentedOutCodeLine")
     private void fetchNextResults() {
       queryCopy.setStartIndex(currentIndex);
+      if (cursorMark != null) {
+        queryRequestCopy.getProperties().put(QUERY_CURSOR_MARK_KEY, cursorMark);
+      }
 
       try {
         SourceResponse response = queryFunction.query(queryRequestCopy);
@@ -236,7 +309,12 @@ private void fetchNextResults() {
           finished = true;
           return;
         }
-        currentIndex += actualResultSize;
+
+        if (cursorMark != null) {
+          advanceCursor(response, actualResultSize);
+        } else {
+          currentIndex += actualResultSize;
+        }
 
         List<Result> dedupedResults = new ArrayList<>(resultList.size());
         for (Result result : resultList) {
@@ -259,6 +337,23 @@ private void fetchNextResults() {
       }
     }
 
+    private void advanceCursor(SourceResponse response, int actualResultSize) {
+      Serializable nextCursorMark = response.getPropertyValue(QUERY_NEXT_CURSOR_MARK_KEY);
+
+      if (nextCursorMark instanceof String) {
+        // An unchanged cursor mark means the source has no more results
+        if (cursorMark.equals(nextCursorMark)) {
+          finished = true;
+        }
+        cursorMark = (String) nextCursorMark;
+      } else {
+        // The source does not support cursors and used the start index instead
+        cursorMark = null;
+        queryRequestCopy.getProperties().remove(QUERY_CURSOR_MARK_KEY);
+        currentIndex += actualResultSize;
+      }
+    }
+
     private boolean isDistinctResult(@Nullable Result result) {
       return result != null
           && (result.getMetacard() == null
@@ -281,12 +376,27 @@ private void copyQueryRequestAndQuery(QueryRequest queryRequest) {
               // always get the hit count
               query.getTimeoutMillis());
 
+      Map<String, Serializable> properties = queryRequest.getProperties();
+      Serializable requestedCursorMark =
+          properties != null ? properties.get(QUERY_CURSOR_MARK_KEY) : null;
+      if (requestedCursorMark != null) {
+        properties = new HashMap<>(properties);
+        if (requestedCursorMark instanceof String && isSingleSource(queryRequest)) {
+          cursorMark = (String) requestedCursorMark;
+        } else {
+          // Results merged from several sources cannot be paged with a single source's cursor
+          properties.remove(QUERY_CURSOR_MARK_KEY);
+        }
+      }
+
       this.queryRequestCopy =
           new QueryRequestImpl(
-              queryCopy,
-              queryRequest.isEnterprise(),
-              queryRequest.getSourceIds(),
-              queryRequest.getProperties());
+              queryCopy, queryRequest.isEnterprise(), queryRequest.getSourceIds(), properties);
+    }
+
+    private boolean isSingleSource(QueryRequest queryRequest) {
+      return !queryRequest.isEnterprise()
+          && (queryRequest.getSourceIds() == null || queryRequest.getSourceIds().size() <= 1);
     }
   }
 }
@@ -17,17 +17,25 @@ import ddf.catalog.CatalogFramework
 import ddf.catalog.data.Metacard
 import ddf.catalog.data.Result
 import ddf.catalog.data.impl.ResultImpl
+import ddf.catalog.data.types.Core
 import ddf.catalog.federation.FederationException
+import ddf.catalog.filter.impl.SortByImpl
 import ddf.catalog.operation.Query
 import ddf.catalog.operation.QueryRequest
 import ddf.catalog.operation.QueryResponse
+import ddf.catalog.operation.impl.QueryImpl
 import ddf.catalog.operation.impl.QueryRequestImpl
 import ddf.catalog.operation.impl.QueryResponseImpl
 import ddf.catalog.source.SourceUnavailableException
 import ddf.catalog.source.UnsupportedQueryException
+import org.opengis.filter.Filter
+import org.opengis.filter.sort.SortOrder
 import spock.lang.Specification
 import spock.lang.Unroll
 
+import static ddf.catalog.Constants.QUERY_CURSOR_MARK_KEY
+import static ddf.catalog.Constants.QUERY_CURSOR_MARK_START
+import static ddf.catalog.Constants.QUERY_NEXT_CURSOR_MARK_KEY
 import static ddf.catalog.util.impl.ResultIterable.resultIterable
 import static java.util.stream.Collectors.toList
 
@@ -493,6 +501,99 @@ class ResultIterableSpec extends Specification {
         thrown NoSuchElementException
     }
 
+    def "next() follows the cursor mark returned by the source"() {
+        setup:
+        def requestedCursorMarks = []
+        def requestedStartIndexes = []
+        def queryRequest = new QueryRequestImpl(new QueryImpl(Mock(Filter), 1, 2, null, true, 0L),
+                [(QUERY_CURSOR_MARK_KEY): QUERY_CURSOR_MARK_START] as HashMap)
+
+        3 * catalogFramework.query(_ as QueryRequest) >> { QueryRequest request ->
+            requestedCursorMarks << request.getPropertyValue(QUERY_CURSOR_MARK_KEY)
+            requestedStartIndexes << request.getQuery().getStartIndex()
+            buildCursorQueryResponse(request, 2, "AoE")
+        } >> { QueryRequest request ->
+            requestedCursorMarks << request.getPropertyValue(QUERY_CURSOR_MARK_KEY)
+            requestedStartIndexes << request.getQuery().getStartIndex()
+            buildCursorQueryResponse(request, 2, "AoF")
+        } >> { QueryRequest request ->
+            requestedCursorMarks << request.getPropertyValue(QUERY_CURSOR_MARK_KEY)
+            requestedStartIndexes << request.getQuery().getStartIndex()
+            buildCursorQueryResponse(request, 1, "AoF")
+        }
+
+        when:
+        def results = resultIterable(catalogFramework, queryRequest).stream().collect(toList())
+
+        then:
+        results.size() == 5
+        requestedCursorMarks == [QUERY_CURSOR_MARK_START, "AoE", "AoF"]
+        requestedStartIndexes == [1, 1, 1]
+        queryRequest.getPropertyValue(QUERY_CURSOR_MARK_KEY) == QUERY_CURSOR_MARK_START
+    }
+
+    def "next() pages by start index when the source does not return a cursor mark"() {
+        setup:
+        def requestedStartIndexes = []
+        def queryRequest = new QueryRequestImpl(new QueryImpl(Mock(Filter), 1, 2, null, true, 0L),
+                [(QUERY_CURSOR_MARK_KEY): QUERY_CURSOR_MARK_START] as HashMap)
+
+        3 * catalogFramework.query(_ as QueryRequest) >> { QueryRequest request ->
+            requestedStartIndexes << request.getQuery().getStartIndex()
+            buildCursorQueryResponse(request, 2, null)
+        } >> { QueryRequest request ->
+            requestedStartIndexes << request.getQuery().getStartIndex()
+            buildCursorQueryResponse(request, 2, null)
+        } >> { QueryRequest request ->
+            requestedStartIndexes << request.getQuery().getStartIndex()
+            buildCursorQueryResponse(request, 0, null)
+        }
+
+        when:
+        def results = resultIterable(catalogFramework, queryRequest).stream().collect(toList())
+
+        then:
+        results.size() == 4
+        requestedStartIndexes == [1, 3, 5]
+    }
+
+    def "withKeysetPaging() sorts by modified date when the query has no sort"() {
+        setup:
+        def filter = Mock(Filter)
+        def queryRequest = new QueryRequestImpl(new QueryImpl(filter, 1, 50, null, true, 1000L),
+                false, ["source1"], ["key": "value"] as HashMap)
+
+        when:
+        def keysetRequest = ResultIterable.withKeysetPaging(queryRequest)
+
+        then:
+        keysetRequest.getQuery().getFilter() == filter
+        keysetRequest.getQuery().getPageSize() == 50
+        keysetRequest.getQuery().getTimeoutMillis() == 1000L
+        keysetRequest.getQuery().getSortBy().getPropertyName().getPropertyName() == Core.MODIFIED
+        keysetRequest.getQuery().getSortBy().getSortOrder() == SortOrder.ASCENDING
+        keysetRequest.getSourceIds() == ["source1"] as Set
+        keysetRequest.getPropertyValue("key") == "value"
+        keysetRequest.getPropertyValue(QUERY_CURSOR_MARK_KEY) == QUERY_CURSOR_MARK_START
+        queryRequest.getQuery().getSortBy() == null
+        queryRequest.getPropertyValue(QUERY_CURSOR_MARK_KEY) == null
+    }
+
+    def "withKeysetPaging() keeps the sort of the query and resumes from a cursor mark"() {
+        setup:
+        def sortBy = new SortByImpl(Metacard.EFFECTIVE, SortOrder.DESCENDING)
+        def queryRequest = new QueryRequestImpl(new QueryImpl(Mock(Filter), 11, 10, sortBy, true,
+                0L))
+
+        when:
+        def keysetRequest = ResultIterable.withKeysetPaging(queryRequest, "AoE")
+
+        then:
+        keysetRequest.getQuery().getSortBy() == sortBy
+        keysetRequest.getQuery().getStartIndex() == 11
+        keysetRequest.getPropertyValue(QUERY_CURSOR_MARK_KEY) == "AoE"
+    }
+
     def "catalog query() throws UnsupportedQueryException"() {
         setup:
         catalogFramework.query(_ as QueryRequest) >> { throw new UnsupportedQueryException() }
@@ -632,6 +733,17 @@ class ResultIterableSpec extends Specification {
         return queryResponse
     }
 
+    private QueryResponse buildCursorQueryResponse(QueryRequest queryRequest, int resultListSize,
+                                                   String nextCursorMark) {
+        def results = getResultListOfSize(queryRequest.getQuery().getStartIndex(), resultListSize,
+                resultListSize)
+        def properties = ["actualResultSize": resultListSize] as HashMap
+        if (nextCursorMark != null) {
+            properties.put(QUERY_NEXT_CURSOR_MARK_KEY, nextCursorMark)
+        }
+        return new QueryResponseImpl(queryRequest, results, true, -1L, properties)
+    }
+
     // Gets a list of results with each Result's distanceInMeters set to a value equal to
     // startIndex up to the resultListSize or totalResults, whichever is reached first.
     private List<Result> getResultListOfSize(int startIndex, int resultListSize, int totalResults) {
@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.data.impl;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.activation.MimeType;
+import org.apache.commons.io.IOUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+public class StreamingBinaryContentImplTest {
+
+  private static final String CONTENT = "{\"hits\":1}";
+
+  private AtomicInteger writes;
+
+  private StreamingBinaryContentImpl binaryContent;
+
+  @Before
+  public void setUp() throws Exception {
+    writes = new AtomicInteger();
+    binaryContent =
+        new StreamingBinaryContentImpl(
+            outputStream -> {
+              writes.incrementAndGet();
+              outputStream.write(CONTENT.getBytes(StandardCharsets.UTF_8));
+            },
+            new MimeType("application/json"));
+  }
+
+  @Test
+  public void testWriteTo() throws Exception {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    binaryContent.writeTo(outputStream);
+
+    assertThat(outputStream.toString(StandardCharsets.UTF_8.name()), is(CONTENT));
+    assertThat(binaryContent.getMimeTypeValue(), is("application/json"));
+    assertThat(binaryContent.getSize(), is(BinaryContentImpl.UNKNOWN_SIZE));
+  }
+
+  @Test
+  public void testInputStreamIsEncodedWhenRead() throws Exception {
+    try (InputStream inputStream = binaryContent.getInputStream()) {
+      assertThat(writes.get(), is(0));
+      assertThat(IOUtils.toString(inputStream, StandardCharsets.UTF_8), is(CONTENT));
+    }
+    assertThat(writes.get(), is(1));
+  }
+
+  @Test
+  public void testByteArrayIsEncodedOnce() throws Exception {
+    assertThat(new String(binaryContent.getByteArray(), StandardCharsets.UTF_8), is(CONTENT));
+    assertThat(new String(binaryContent.getByteArray(), StandardCharsets.UTF_8), is(CONTENT));
+    assertThat(
+        IOUtils.toString(binaryContent.getInputStream(), StandardCharsets.UTF_8), is(CONTENT));
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    binaryContent.writeTo(outputStream);
+    assertThat(outputStream.toString(StandardCharsets.UTF_8.name()), is(CONTENT));
+    assertThat(writes.get(), is(1));
+  }
+
+  @Test(expected = IOException.class)
+  public void testEncodingErrorSurfacesOnRead() throws Exception {
+    StreamingBinaryContentImpl failingContent =
+        new StreamingBinaryContentImpl(
+            outputStream -> {
+              throw new IOException("Unable to encode");
+            },
+            null);
+
+    try (InputStream inputStream = failingContent.getInputStream()) {
+      inputStream.read();
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullContentWriter() {
+    new StreamingBinaryContentImpl(null, null);
+  }
+}
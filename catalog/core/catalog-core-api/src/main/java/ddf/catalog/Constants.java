@@ -141,6 +141,13 @@ public final class Constants {
 
   public static final String STORE_REFERENCE_KEY = "storeReference";
 
+  /**
+   * Property of a create storage request holding a {@code Map<String, String>} from the URIs of the
+   * content items being created to the URIs of stored content items with the same content. Storage
+   * providers can use it to share the stored content instead of storing another copy.
+   */
+  public static final String STORE_CONTENT_SOURCES_KEY = "storeContentSources";
+
   public static final String EXPERIMENTAL_FACET_PROPERTIES_KEY = "facet-properties";
 
   public static final String EXPERIMENTAL_FACET_RESULTS_KEY = "facet-results";
@@ -159,5 +166,18 @@ public final class Constants {
 
   public static final String ADDITIONAL_SORT_BYS = "additional-sort-bys";
 
+  /**
+   * Query request property holding the cursor mark to resume a deep paging query from. Sources that
+   * support cursors ignore the start index when this property is present and return the cursor mark
+   * for the following page in the {@link #QUERY_NEXT_CURSOR_MARK_KEY} response property.
+   */
+  public static final String QUERY_CURSOR_MARK_KEY = "cursor-mark";
+
+  /** Response property holding the cursor mark for the page after the one returned. */
+  public static final String QUERY_NEXT_CURSOR_MARK_KEY = "next-cursor-mark";
+
+  /** Value of {@link #QUERY_CURSOR_MARK_KEY} used to start a new cursor. */
+  public static final String QUERY_CURSOR_MARK_START = "*";
+
   private Constants() {}
 }
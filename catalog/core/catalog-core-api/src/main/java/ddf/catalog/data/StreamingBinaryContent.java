@@ -0,0 +1,40 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.data;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * {@link BinaryContent} that is produced by writing it to an {@link OutputStream}. Endpoints that
+ * recognize it should call {@link #writeTo(OutputStream)} with the response stream so the content
+ * is sent while it is being encoded, instead of reading it from {@link #getInputStream()}, which
+ * has to encode the whole content before the first byte can be read.
+ *
+ * @see ddf.catalog.transform.QueryResponseTransformer
+ * @see ddf.catalog.transform.MetacardTransformer
+ */
+public interface StreamingBinaryContent extends BinaryContent {
+
+  /**
+   * Encodes the content to the given stream. The stream is not closed.
+   *
+   * <p>Unlike {@link #getInputStream()}, this method may be called more than once and encodes the
+   * content again every time.
+   *
+   * @param outputStream stream to write the content to
+   * @throws IOException if the content could not be encoded or written
+   */
+  void writeTo(OutputStream outputStream) throws IOException;
+}
@@ -267,7 +267,8 @@ protected final Object executeWithSubject() throws Exception {
             StandardThreadFactoryBuilder.newThreadFactory("dumpCommandThread"),
             rejectedExecutionHandler);
 
-    QueryRequest queryRequest = new QueryRequestImpl(query);
+    // Follow a cursor where the catalog supports it so deep pages do not get slower
+    QueryRequest queryRequest = ResultIterable.withKeysetPaging(new QueryRequestImpl(query));
     if (LOGGER.isDebugEnabled()) {
       LOGGER.debug("Hits for Search: {}", catalog.query(queryRequest).getHits());
     }
@@ -14,6 +14,7 @@
 package org.codice.ddf.commands.catalog;
 
 import com.google.common.collect.Iterables;
+import ddf.catalog.Constants;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
 import ddf.catalog.data.impl.MetacardImpl;
@@ -32,6 +33,7 @@
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectOutputStream;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -46,6 +48,7 @@
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.apache.commons.lang.StringUtils;
@@ -138,6 +141,9 @@ protected void duplicateInBatches(
                     TimeUnit.MINUTES.toMillis(5)),
                 Collections.singletonList(sourceId));
 
+    // Remember the cursor of the first batch so a single threaded run can resume from it instead
+    // of paging by offset. Sources that do not support cursors never return one.
+    AtomicReference<String> nextCursorMark = new AtomicReference<>();
     List<Metacard> initialMetacards =
         ResultIterable.resultIterable(
                 (queryRequest -> {
@@ -145,9 +151,14 @@ protected void duplicateInBatches(
                   if (response.getHits() != -1) {
                     maxMetacards = (int) response.getHits();
                   }
+                  Serializable cursorMark =
+                      response.getPropertyValue(Constants.QUERY_NEXT_CURSOR_MARK_KEY);
+                  if (cursorMark instanceof String) {
+                    nextCursorMark.set((String) cursorMark);
+                  }
                   return response;
                 }),
-                queryTemplate.apply(queryIndex.get()),
+                ResultIterable.withKeysetPaging(queryTemplate.apply(queryIndex.get())),
                 (int) originalQuerySize)
             .stream()
             .map(Result::getMetacard)
@@ -227,14 +238,16 @@ protected void duplicateInBatches(
 
       printProgressAndFlush(start, Math.max(totalWanted, ingestedCount.get()), ingestedCount.get());
     } else { // Single threaded
+      QueryRequest nextRequest = queryTemplate.apply(1 + batchSize);
+      if (nextCursorMark.get() != null) {
+        nextRequest = ResultIterable.withKeysetPaging(nextRequest, nextCursorMark.get());
+      }
+
       ResultIterable iter;
       if (maxMetacards > 0) {
-        iter =
-            ResultIterable.resultIterable(
-                queryFacade::query, queryTemplate.apply(1 + batchSize), maxMetacards);
+        iter = ResultIterable.resultIterable(queryFacade::query, nextRequest, maxMetacards);
       } else {
-        iter =
-            ResultIterable.resultIterable(queryFacade::query, queryTemplate.apply(1 + batchSize));
+        iter = ResultIterable.resultIterable(queryFacade::query, nextRequest);
       }
 
       Iterables.partition(iter, batchSize)
@@ -14,6 +14,7 @@
 package org.codice.ddf.commands.catalog;
 
 import static ddf.catalog.util.impl.ResultIterable.resultIterable;
+import static ddf.catalog.util.impl.ResultIterable.withKeysetPaging;
 
 import ddf.catalog.CatalogFramework;
 import ddf.catalog.content.StorageException;
@@ -366,9 +367,9 @@ private List<ExportItem> doMetacardExport(
     List<ExportItem> exportedItems = new ArrayList<>();
 
     QueryImpl query = new QueryImpl(filter);
-    QueryRequest queryRequest = new QueryRequestImpl(query);
-
     query.setPageSize(PAGE_SIZE);
+    // Follow a cursor where the catalog supports it so deep pages do not get slower
+    QueryRequest queryRequest = withKeysetPaging(new QueryRequestImpl(query));
 
     for (Result result : resultIterable(catalogFramework, queryRequest)) {
       if (!seenIds.contains(result.getMetacard().getId())) {
@@ -13,6 +13,7 @@
  */
 package org.codice.ddf.commands.catalog;
 
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
@@ -26,6 +27,7 @@
 import static org.mockito.Mockito.when;
 
 import ddf.catalog.CatalogFramework;
+import ddf.catalog.Constants;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
 import ddf.catalog.data.impl.MetacardImpl;
@@ -38,10 +40,14 @@
 import ddf.catalog.operation.QueryRequest;
 import ddf.catalog.operation.QueryResponse;
 import java.io.InputStream;
+import java.io.Serializable;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -233,6 +239,41 @@ public void testFailedtoIngestHalf() throws Exception {
             + " record(s) failed;");
   }
 
+  @Test
+  public void testSingleThreadedFollowsCursor() throws Exception {
+    List<Serializable> requestedCursorMarks = new ArrayList<>();
+    Map<String, String> nextCursorMarks = new HashMap<>();
+    nextCursorMarks.put(Constants.QUERY_CURSOR_MARK_START, "page1");
+    nextCursorMarks.put("page1", "page2");
+    nextCursorMarks.put("page2", "page2");
+    when(catalogFramework.query(isA(QueryRequest.class)))
+        .thenAnswer(
+            invocation -> {
+              QueryRequest request = (QueryRequest) invocation.getArguments()[0];
+              Serializable cursorMark = request.getPropertyValue(Constants.QUERY_CURSOR_MARK_KEY);
+              requestedCursorMarks.add(cursorMark);
+              QueryResponse mockQueryResponse = mock(QueryResponse.class);
+              when(mockQueryResponse.getHits()).thenReturn(20L);
+              when(mockQueryResponse.getResults())
+                  .thenReturn(getResultList("page2".equals(cursorMark) ? 0 : 10));
+              when(mockQueryResponse.getPropertyValue(Constants.QUERY_NEXT_CURSOR_MARK_KEY))
+                  .thenReturn(nextCursorMarks.get(cursorMark));
+              return mockQueryResponse;
+            });
+
+    replicateCommand.isUseTemporal = false;
+    replicateCommand.sourceId = "sourceId1";
+    replicateCommand.batchSize = 10;
+    replicateCommand.temporalProperty = Metacard.EFFECTIVE;
+
+    replicateCommand.executeWithSubject();
+
+    assertThat(
+        requestedCursorMarks,
+        contains((Serializable) Constants.QUERY_CURSOR_MARK_START, "page1", "page2"));
+    verifyConsoleOutput(20 + " record(s) replicated; " + 0 + " record(s) failed;");
+  }
+
   private List<Result> getResultList(int size) {
     return Stream.generate(
             () -> {
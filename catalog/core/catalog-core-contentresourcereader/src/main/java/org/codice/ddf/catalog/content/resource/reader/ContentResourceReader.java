@@ -55,6 +55,8 @@ public class ContentResourceReader implements ResourceReader {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(ContentResourceReader.class);
 
+  private static final String BYTES_TO_SKIP = "BytesToSkip";
+
   private static Set<String> qualifierSet = Collections.singleton(ContentItem.CONTENT_SCHEME);
 
   private List<StorageProvider> storageProviders;
@@ -177,6 +179,7 @@ public ResourceResponse retrieveResource(URI resourceUri, Map<String, Serializab
           String fileName = contentItem.getFilename();
           LOGGER.debug("resource name: {}", fileName);
           InputStream is = contentItem.getInputStream();
+          skipBytes(is, arguments);
           response =
               new ResourceResponseImpl(
                   new ResourceImpl(
@@ -191,4 +194,21 @@ public ResourceResponse retrieveResource(URI resourceUri, Map<String, Serializab
 
     return response;
   }
+
+  private void skipBytes(InputStream is, Map<String, Serializable> arguments) throws IOException {
+    if (arguments == null || arguments.get(BYTES_TO_SKIP) == null) {
+      return;
+    }
+
+    long bytesToSkip = Long.parseLong(arguments.get(BYTES_TO_SKIP).toString());
+    LOGGER.debug("Skipping {} bytes", bytesToSkip);
+    long bytesSkipped = is.skip(bytesToSkip);
+    if (bytesSkipped != bytesToSkip) {
+      LOGGER.debug(
+          "Did not skip specified bytes while retrieving resource."
+              + " Bytes to skip: {} -- Skipped Bytes: {}",
+          bytesToSkip,
+          bytesSkipped);
+    }
+  }
 }
@@ -0,0 +1,251 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.content.impl;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import ddf.security.encryption.crypter.Crypter;
+import ddf.security.encryption.crypter.Crypter.CrypterException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.BiPredicate;
+import java.util.regex.Pattern;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Content addressed store for the encrypted content written by the {@link
+ * FileSystemStorageProvider}.
+ *
+ * <p>Every blob is stored once, under the HMAC-SHA256 of its plain content, together with one
+ * reference for each content item that uses it. The blob is removed when its last reference is
+ * released. The HMAC key is generated when the store is first used and kept encrypted in the store,
+ * so the directory names do not reveal which content is stored.
+ */
+class ContentBlobStore {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ContentBlobStore.class);
+
+  private static final Pattern DIGEST_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+  private static final String BLOB_FILE = "blob";
+
+  private static final String REFERENCES_DIR = "references";
+
+  private static final String ADDRESS_KEY_FILE = "address.key";
+
+  private static final int ADDRESS_KEY_LENGTH = 32;
+
+  private final Path baseDirectory;
+
+  private final Crypter crypter;
+
+  private HashFunction addressFunction;
+
+  ContentBlobStore(Path baseDirectory, Crypter crypter) {
+    this.baseDirectory = baseDirectory;
+    this.crypter = crypter;
+  }
+
+  /**
+   * @return the function that computes the address of plain content, whose lowercase hex string is
+   *     the address
+   * @throws IOException if the address key cannot be read or created
+   */
+  synchronized HashFunction getAddressFunction() throws IOException {
+    if (addressFunction == null) {
+      addressFunction = Hashing.hmacSha256(loadAddressKey());
+    }
+    return addressFunction;
+  }
+
+  private byte[] loadAddressKey() throws IOException {
+    Path keyFile = baseDirectory.resolve(ADDRESS_KEY_FILE);
+    try {
+      if (keyFile.toFile().exists()) {
+        String encryptedKey = new String(Files.readAllBytes(keyFile), StandardCharsets.UTF_8);
+        return Base64.getDecoder().decode(crypter.decrypt(encryptedKey));
+      }
+
+      byte[] key = new byte[ADDRESS_KEY_LENGTH];
+      new SecureRandom().nextBytes(key);
+      Files.createDirectories(baseDirectory);
+      Files.write(
+          keyFile,
+          crypter
+              .encrypt(Base64.getEncoder().encodeToString(key))
+              .getBytes(StandardCharsets.UTF_8));
+      LOGGER.debug("Created blob address key {}.", keyFile);
+      return key;
+    } catch (CrypterException | IllegalArgumentException e) {
+      throw new IOException("Unable to read blob address key " + keyFile, e);
+    }
+  }
+
+  /**
+   * @return the path of the encrypted blob with the given address, which does not need to exist
+   * @throws IOException if {@code address} is not a valid blob address
+   */
+  Path getBlobPath(String address) throws IOException {
+    return getBlobDir(address).resolve(BLOB_FILE);
+  }
+
+  /**
+   * Adds a reference to a blob, storing the blob first if it does not exist yet.
+   *
+   * @param address address of the blob
+   * @param reference name of the content item that references the blob
+   * @param pendingBlob encrypted content with the given address that is moved into the store if the
+   *     blob does not exist yet and deleted otherwise, can be {@code null} if the blob is expected
+   *     to exist already
+   * @throws IOException if the blob does not exist and no pending blob was given, or if the store
+   *     cannot be updated
+   */
+  synchronized void addReference(String address, String reference, Path pendingBlob)
+      throws IOException {
+    Path blob = getBlobPath(address);
+    if (!blob.toFile().exists()) {
+      if (pendingBlob == null) {
+        throw new IOException("Blob " + address + " does not exist.");
+      }
+      Files.createDirectories(blob.getParent());
+      Files.move(pendingBlob, blob);
+      LOGGER.debug("Stored new blob {}.", address);
+    } else if (pendingBlob != null) {
+      Files.deleteIfExists(pendingBlob);
+    }
+
+    Path references = Files.createDirectories(blob.resolveSibling(REFERENCES_DIR));
+    Path referencePath = references.resolve(reference);
+    if (!referencePath.toFile().exists()) {
+      Files.createFile(referencePath);
+    }
+  }
+
+  /**
+   * Releases a reference to a blob and removes the blob if it is no longer referenced.
+   *
+   * @param address address of the blob
+   * @param reference name of the content item that no longer references the blob
+   * @throws IOException if the store cannot be updated
+   */
+  synchronized void releaseReference(String address, String reference) throws IOException {
+    Path blobDir = getBlobDir(address);
+    Path references = blobDir.resolve(REFERENCES_DIR);
+    Files.deleteIfExists(references.resolve(reference));
+
+    if (getReferenceCount(address) == 0) {
+      FileUtils.deleteDirectory(blobDir.toFile());
+      LOGGER.debug("Removed unreferenced blob {}.", address);
+      deleteIfEmpty(blobDir.getParent());
+      deleteIfEmpty(blobDir.getParent().getParent());
+    }
+  }
+
+  /**
+   * @return the number of content items that reference the blob, {@code 0} if it does not exist
+   * @throws IOException if the references cannot be read
+   */
+  synchronized int getReferenceCount(String address) throws IOException {
+    return listReferences(address).size();
+  }
+
+  /**
+   * Removes the references that are no longer backed by a content item, and the blobs that are left
+   * without references. References are left behind when the store is stopped between removing a
+   * content item and releasing its references.
+   *
+   * @param isReferenced tells whether the named content item still references the blob with the
+   *     given address
+   * @throws IOException if the store cannot be read or updated
+   */
+  synchronized void removeStaleReferences(BiPredicate<String, String> isReferenced)
+      throws IOException {
+    for (Path part0 : listDirectories(baseDirectory)) {
+      for (Path part1 : listDirectories(part0)) {
+        for (Path blobDir : listDirectories(part1)) {
+          String address = blobDir.getFileName().toString();
+          if (!DIGEST_PATTERN.matcher(address).matches()) {
+            continue;
+          }
+          for (String reference : listReferences(address)) {
+            if (!isReferenced.test(address, reference)) {
+              LOGGER.debug("Removing stale reference {} of blob {}.", reference, address);
+              releaseReference(address, reference);
+            }
+          }
+          if (blobDir.toFile().exists() && getReferenceCount(address) == 0) {
+            LOGGER.debug("Removing unreferenced blob {}.", address);
+            FileUtils.deleteDirectory(blobDir.toFile());
+          }
+        }
+        deleteIfEmpty(part1);
+      }
+      deleteIfEmpty(part0);
+    }
+  }
+
+  private List<String> listReferences(String address) throws IOException {
+    Path references = getBlobDir(address).resolve(REFERENCES_DIR);
+    List<String> names = new ArrayList<>();
+    if (references.toFile().isDirectory()) {
+      try (DirectoryStream<Path> stream = Files.newDirectoryStream(references)) {
+        for (Path reference : stream) {
+          names.add(reference.getFileName().toString());
+        }
+      }
+    }
+    return names;
+  }
+
+  private List<Path> listDirectories(Path dir) throws IOException {
+    List<Path> directories = new ArrayList<>();
+    if (dir.toFile().isDirectory()) {
+      try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, Files::isDirectory)) {
+        stream.forEach(directories::add);
+      }
+    }
+    return directories;
+  }
+
+  // blobs are spread over two directory levels just like the content items
+  private Path getBlobDir(String address) throws IOException {
+    if (address == null || !DIGEST_PATTERN.matcher(address).matches()) {
+      throw new IOException("Invalid blob address: " + address);
+    }
+    return baseDirectory
+        .resolve(address.substring(0, 2))
+        .resolve(address.substring(2, 4))
+        .resolve(address);
+  }
+
+  private void deleteIfEmpty(Path dir) throws IOException {
+    if (dir.toFile().isDirectory()) {
+      try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+        if (stream.iterator().hasNext()) {
+          return;
+        }
+      }
+      Files.deleteIfExists(dir);
+    }
+  }
+}
@@ -0,0 +1,140 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.content.impl;
+
+import com.google.common.base.Optional;
+import com.google.common.io.ByteSource;
+import ddf.security.encryption.crypter.Crypter;
+import ddf.security.encryption.crypter.Crypter.CrypterException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * {@link ByteSource} over an encrypted file that decrypts the content as it is read instead of
+ * copying the decrypted content to a temporary file first.
+ *
+ * <p>The content is stored in authenticated segments, so skipping on the opened streams, and
+ * therefore {@link #slice(long, long)}, seeks directly to the requested position and only decrypts
+ * the segments that are actually read.
+ */
+class DecryptingFileByteSource extends ByteSource {
+
+  private final Path path;
+
+  private final Crypter crypter;
+
+  DecryptingFileByteSource(Path path, Crypter crypter) {
+    this.path = path;
+    this.crypter = crypter;
+  }
+
+  @Override
+  public InputStream openStream() throws IOException {
+    return new SeekableChannelInputStream(openChannel());
+  }
+
+  @Override
+  public Optional<Long> sizeIfKnown() {
+    try {
+      return Optional.of(size());
+    } catch (IOException e) {
+      return Optional.absent();
+    }
+  }
+
+  @Override
+  public long size() throws IOException {
+    try (SeekableByteChannel channel = openChannel()) {
+      // the decrypting channel only knows the plain text size once the first segment was read
+      channel.read(ByteBuffer.allocate(1));
+      return channel.size();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "DecryptingFileByteSource(" + path + ")";
+  }
+
+  private SeekableByteChannel openChannel() throws IOException {
+    SeekableByteChannel encryptedChannel = Files.newByteChannel(path);
+    try {
+      return crypter.decrypt(encryptedChannel);
+    } catch (CrypterException e) {
+      encryptedChannel.close();
+      throw new IOException("Cannot decrypt " + path, e);
+    }
+  }
+
+  /** {@link InputStream} over a seekable channel that skips by moving the channel position. */
+  private static class SeekableChannelInputStream extends InputStream {
+
+    private final SeekableByteChannel channel;
+
+    private boolean started = false;
+
+    SeekableChannelInputStream(SeekableByteChannel channel) {
+      this.channel = channel;
+    }
+
+    @Override
+    public int read() throws IOException {
+      byte[] single = new byte[1];
+      int read = read(single, 0, 1);
+      return read == -1 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+      if (length == 0) {
+        return 0;
+      }
+
+      started = true;
+      ByteBuffer buffer = ByteBuffer.wrap(bytes, offset, length);
+      int read;
+      do {
+        read = channel.read(buffer);
+      } while (read == 0);
+      return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      if (n <= 0) {
+        return 0;
+      }
+
+      long position = channel.position();
+      if (!started) {
+        // the plain text size is only known once the first segment was read
+        channel.read(ByteBuffer.allocate(1));
+        channel.position(position);
+        started = true;
+      }
+      long newPosition = Math.min(position + n, channel.size());
+      channel.position(newPosition);
+      return newPosition - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+      channel.close();
+    }
+  }
+}
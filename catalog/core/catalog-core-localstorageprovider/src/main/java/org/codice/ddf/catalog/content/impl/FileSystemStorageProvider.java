@@ -14,6 +14,7 @@
 package org.codice.ddf.catalog.content.impl;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.HashingInputStream;
 import com.google.common.io.ByteSource;
 import com.google.common.io.FileBackedOutputStream;
 import ddf.catalog.Constants;
@@ -44,10 +45,12 @@
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Serializable;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.DirectoryIteratorException;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
@@ -58,6 +61,7 @@
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -81,6 +85,8 @@ public class FileSystemStorageProvider implements StorageProvider {
 
   public static final String DEFAULT_TMP = "tmp";
 
+  public static final String DEFAULT_BLOBS = "blobs";
+
   public static final String KARAF_HOME = "karaf.home";
 
   private static final String DEFAULT_MIME_TYPE = "application/octet-stream";
@@ -91,6 +97,11 @@ public class FileSystemStorageProvider implements StorageProvider {
 
   public static final String REF_EXT = "external-reference";
 
+  public static final String BLOB_REF_EXT = "blob-reference";
+
+  /** Prefix of the blob references that keep shared blobs until the sharing request is done. */
+  private static final String PENDING_REFERENCE_PREFIX = "pending-";
+
   /** Mapper for file extensions-to-mime types (and vice versa) */
   private MimeTypeMapper mimeTypeMapper;
 
@@ -99,10 +110,14 @@ public class FileSystemStorageProvider implements StorageProvider {
 
   private Path baseContentTmpDirectory;
 
+  private ContentBlobStore blobStore;
+
   private Map<String, List<Metacard>> deletionMap = new ConcurrentHashMap<>();
 
   private Map<String, Set<String>> updateMap = new ConcurrentHashMap<>();
 
+  private Map<String, List<String>> sharedBlobMap = new ConcurrentHashMap<>();
+
   private Crypter crypter;
 
   /** Default constructor, invoked by blueprint. */
@@ -120,6 +135,8 @@ public CreateStorageResponse create(CreateStorageRequest createRequest) throws S
 
     List<ContentItem> createdContentItems = new ArrayList<>(createRequest.getContentItems().size());
 
+    Map<?, ?> contentSources = getContentSources(createRequest);
+
     for (ContentItem contentItem : contentItems) {
       try {
         if (!ContentItemValidator.validate(contentItem)) {
@@ -131,10 +148,22 @@ public CreateStorageResponse create(CreateStorageRequest createRequest) throws S
 
         Path contentDirectory = Files.createDirectories(contentIdDir);
 
+        ContentItem sharedContentItem =
+            shareBlob(
+                createRequest.getId(),
+                contentItem,
+                contentDirectory,
+                contentSources.get(contentItem.getUri()));
+        if (sharedContentItem != null) {
+          createdContentItems.add(sharedContentItem);
+          continue;
+        }
+
         createdContentItems.add(
             generateContentFile(
                 contentItem,
                 contentDirectory,
+                getTempBlobDir(createRequest.getId()),
                 (String) createRequest.getPropertyValue(Constants.STORE_REFERENCE_KEY)));
       } catch (IOException | URISyntaxException | IllegalArgumentException e) {
         throw new StorageException(e);
@@ -194,6 +223,7 @@ public UpdateStorageResponse update(UpdateStorageRequest updateRequest) throws S
             generateContentFile(
                 updateItem,
                 contentIdDir,
+                getTempBlobDir(updateRequest.getId()),
                 (String) updateRequest.getPropertyValue(Constants.STORE_REFERENCE_KEY)));
       } catch (IOException | URISyntaxException | IllegalArgumentException e) {
         throw new StorageException(e);
@@ -309,7 +339,9 @@ private void commitDeletes(StorageRequest request) throws StorageException {
         }
 
         try {
+          List<String> blobAddresses = getBlobAddresses(contentIdDir);
           FileUtils.deleteDirectory(contentIdDir.toFile());
+          releaseBlobReferences(blobAddresses, metacardId);
 
           Path part1 = contentIdDir.getParent();
           if (part1.toFile().isDirectory() && isDirectoryEmpty(part1)) {
@@ -350,6 +382,9 @@ private void commitUpdates(StorageRequest request) throws StorageException {
               contentUri);
           continue;
         }
+        String contentId = new URI(contentUri).getSchemeSpecificPart();
+        List<String> replacedBlobAddresses =
+            commitBlobReferences(request, contentId, contentIdDir, target);
         try {
           if (contentIdDir.toFile().exists()) {
             if (target.toFile().exists()) {
@@ -380,6 +415,7 @@ private void commitUpdates(StorageRequest request) throws StorageException {
                 "Unable to commit changes for request: " + request.getId(), e1);
           }
         }
+        releaseBlobReferences(replacedBlobAddresses, contentId);
       }
     } catch (URISyntaxException e) {
       throw new StorageException(e);
@@ -388,12 +424,52 @@ private void commitUpdates(StorageRequest request) throws StorageException {
     }
   }
 
+  /**
+   * Adds the references of the blobs used by the committed content item, moving blobs that are new
+   * into the blob store.
+   *
+   * @return the addresses of the blobs that were used by the replaced content item only
+   */
+  private List<String> commitBlobReferences(
+      StorageRequest request, String contentId, Path contentIdDir, Path target)
+      throws StorageException {
+    try {
+      List<String> blobAddresses = getBlobAddresses(contentIdDir);
+      for (String blobAddress : blobAddresses) {
+        Path pendingBlob = getTempBlobDir(request.getId()).resolve(blobAddress);
+        blobStore.addReference(
+            blobAddress, contentId, pendingBlob.toFile().exists() ? pendingBlob : null);
+      }
+
+      List<String> replacedBlobAddresses =
+          contentIdDir.toFile().exists() ? getBlobAddresses(target) : new ArrayList<>();
+      replacedBlobAddresses.removeAll(blobAddresses);
+      return replacedBlobAddresses;
+    } catch (IOException e) {
+      throw new StorageException("Unable to commit changes for request: " + request.getId(), e);
+    }
+  }
+
+  private void releaseBlobReferences(List<String> blobAddresses, String contentId) {
+    for (String blobAddress : blobAddresses) {
+      try {
+        blobStore.releaseReference(blobAddress, contentId);
+      } catch (IOException e) {
+        LOGGER.debug("Unable to release blob {} of content ID: {}", blobAddress, contentId, e);
+      }
+    }
+  }
+
   @Override
   public void rollback(StorageRequest request) throws StorageException {
     String id = request.getId();
     Path requestIdDir = Paths.get(baseContentTmpDirectory.toAbsolutePath().toString(), id);
     deletionMap.remove(id);
     updateMap.remove(id);
+    List<String> sharedBlobAddresses = sharedBlobMap.remove(id);
+    if (sharedBlobAddresses != null) {
+      releaseBlobReferences(sharedBlobAddresses, PENDING_REFERENCE_PREFIX + id);
+    }
     try {
       FileUtils.deleteDirectory(requestIdDir.toFile());
     } catch (IOException e) {
@@ -412,9 +488,9 @@ private ContentItem readContent(URI uri) throws StorageException {
 
     String filename = path.getFileName().toString();
 
-    // resolve external reference if necessary, determine the extension, and retrieve an
-    // InputStream to the content
-    InputStream contentInputStream;
+    // resolve external reference if necessary, determine the extension, and create a ByteSource
+    // that decrypts the content
+    ByteSource byteSource;
     String extension;
 
     try {
@@ -423,26 +499,36 @@ private ContentItem readContent(URI uri) throws StorageException {
         extension =
             FilenameUtils.getExtension(
                 FilenameUtils.removeExtension(path.getFileName().toString()));
-        contentInputStream = getInputStreamFromReference(path);
+        URI reference = getReference(path);
+        Path referencePath = getPathFromReference(reference);
+        if (referencePath == null) {
+          byteSource = decryptStream(reference.toURL().openStream());
+        } else {
+          byteSource = new DecryptingFileByteSource(referencePath, crypter);
+        }
+      } else if (BLOB_REF_EXT.equals(FilenameUtils.getExtension(filename))) {
+        // the content is shared in the blob store, so it is presented under its own file name
+        filename = FilenameUtils.removeExtension(filename);
+        extension = FilenameUtils.getExtension(filename);
+        byteSource =
+            new DecryptingFileByteSource(blobStore.getBlobPath(readBlobReference(path)), crypter);
       } else {
         extension = FilenameUtils.getExtension(path.getFileName().toString());
-        contentInputStream = getInputStreamFromResource(path);
+        byteSource = new DecryptingFileByteSource(path, crypter);
       }
     } catch (IOException e) {
       throw new StorageException(
           String.format("Unable to resolve InputStream given URI of %s", uri), e);
     }
 
-    // decrypt the content and return as a ByteSource
-    ByteSource byteSource = decryptStream(contentInputStream);
-
-    // determine the size of the content
-    long size = 0;
+    // determine the size of the content, which also verifies that it can be decrypted
+    long size;
 
     try {
       size = byteSource.size();
     } catch (IOException e) {
-      LOGGER.debug("Problem determining size of resource; defaulting to {}.", size, e);
+      LOGGER.debug("Error decrypting {}. Failing StorageProvider read.", byteSource, e);
+      throw new StorageException(String.format("Cannot decrypt %s.", byteSource), e);
     }
 
     // determine the MimeType of the content
@@ -452,19 +538,24 @@ private ContentItem readContent(URI uri) throws StorageException {
         uri.getSchemeSpecificPart(), uri.getFragment(), byteSource, mimeType, filename, size, null);
   }
 
-  private InputStream getInputStreamFromReference(Path externalReferencePath) throws IOException {
-    URI reference;
-
+  private URI getReference(Path externalReferencePath) throws IOException {
     try {
       byte[] encryptedRefBytes = Files.readAllBytes(externalReferencePath);
       String encryptedRefString = new String(encryptedRefBytes, Charset.forName("UTF-8"));
 
-      reference = new URI(crypter.decrypt(encryptedRefString));
+      return new URI(crypter.decrypt(encryptedRefString));
     } catch (IOException | URISyntaxException e) {
       throw new IOException(e);
     }
+  }
 
-    // try and represent the reference as a path
+  /**
+   * Represents an external reference as a path if possible.
+   *
+   * @return the referenced path, or {@code null} if the reference is not a file
+   * @throws IOException if the referenced file does not exist
+   */
+  private Path getPathFromReference(URI reference) throws IOException {
     Path newPath = null;
     if (reference.getScheme() == null) {
       newPath = Paths.get(reference.toASCIIString());
@@ -472,19 +563,10 @@ private InputStream getInputStreamFromReference(Path externalReferencePath) thro
       newPath = Paths.get(reference);
     }
 
-    // if the reference can be represented as a path
-    if (newPath != null) {
-      if (!newPath.toFile().exists()) {
-        throw new IOException("Cannot read " + reference + ".");
-      }
-      return getInputStreamFromResource(newPath);
+    if (newPath != null && !newPath.toFile().exists()) {
+      throw new IOException("Cannot read " + reference + ".");
     }
-
-    return reference.toURL().openStream();
-  }
-
-  private InputStream getInputStreamFromResource(Path path) throws IOException {
-    return Files.newInputStream(path);
+    return newPath;
   }
 
   private String determineMimeType(String extension, Path path, ByteSource byteSource) {
@@ -536,6 +618,90 @@ private ByteSource decryptStream(InputStream contentInputStream) throws StorageE
     return decryptedOutputStream.asByteSource();
   }
 
+  private String readBlobReference(Path blobReferencePath) throws IOException {
+    return new String(Files.readAllBytes(blobReferencePath), StandardCharsets.UTF_8);
+  }
+
+  /** @return the addresses of the blobs referenced by the files directly within {@code dir} */
+  private List<String> getBlobAddresses(Path dir) throws IOException {
+    List<String> blobAddresses = new ArrayList<>();
+    for (Path path : listPaths(dir)) {
+      if (BLOB_REF_EXT.equals(FilenameUtils.getExtension(path.getFileName().toString()))
+          && !path.toFile().isDirectory()) {
+        blobAddresses.add(readBlobReference(path));
+      }
+    }
+    return blobAddresses;
+  }
+
+  private Map<?, ?> getContentSources(StorageRequest request) {
+    Serializable contentSources = request.getPropertyValue(Constants.STORE_CONTENT_SOURCES_KEY);
+    return contentSources instanceof Map ? (Map<?, ?>) contentSources : Collections.emptyMap();
+  }
+
+  /**
+   * Stores a content item by referencing the blob of another stored content item with the same
+   * content, instead of copying the content. The blob gets a pending reference for the request, so
+   * that it is kept even if the other content item is deleted before the request is committed.
+   *
+   * @param sourceUri URI of the stored content item with the same content, can be {@code null}
+   * @return the created content item, or {@code null} if the content has to be copied because the
+   *     source content is not kept in the blob store
+   */
+  private ContentItem shareBlob(
+      String requestId, ContentItem item, Path contentDirectory, Object sourceUri)
+      throws IOException, URISyntaxException {
+    if (!(sourceUri instanceof String) || StringUtils.isNotBlank(item.getQualifier())) {
+      return null;
+    }
+
+    Path sourcePath;
+    try {
+      sourcePath = getContentFilePath(new URI((String) sourceUri));
+    } catch (StorageException e) {
+      LOGGER.debug("Unable to share the content of {}, copying it instead.", sourceUri, e);
+      return null;
+    }
+    if (sourcePath == null
+        || !BLOB_REF_EXT.equals(FilenameUtils.getExtension(sourcePath.getFileName().toString()))) {
+      return null;
+    }
+
+    String blobAddress = readBlobReference(sourcePath);
+    try {
+      blobStore.addReference(blobAddress, PENDING_REFERENCE_PREFIX + requestId, null);
+    } catch (IOException e) {
+      LOGGER.debug("Blob of {} was removed, copying the content instead.", sourceUri, e);
+      return null;
+    }
+    sharedBlobMap.computeIfAbsent(requestId, id -> new ArrayList<>()).add(blobAddress);
+
+    Path blobReferencePath =
+        Paths.get(
+            contentDirectory.toAbsolutePath().toString(), item.getFilename() + "." + BLOB_REF_EXT);
+    Files.write(blobReferencePath, blobAddress.getBytes(StandardCharsets.UTF_8));
+    LOGGER.debug("Content item {} shares blob {} with {}.", item.getId(), blobAddress, sourceUri);
+
+    return new ContentItemImpl(
+        item.getId(),
+        item.getQualifier(),
+        new DecryptingFileByteSource(blobStore.getBlobPath(blobAddress), crypter),
+        item.getMimeType().toString(),
+        item.getFilename(),
+        item.getSize(),
+        item.getMetacard());
+  }
+
+  /**
+   * Content is kept in the blob store when the checksum of the original product has been computed,
+   * as derived content and external references are never shared.
+   */
+  private boolean isBlobContent(ContentItem item) {
+    return StringUtils.isBlank(item.getQualifier())
+        && item.getMetacard() != null
+        && item.getMetacard().getAttribute(Metacard.CHECKSUM) != null;
+  }
+
   private List<Path> listPaths(Path dir) throws IOException {
     List<Path> result = new ArrayList<>();
     if (dir.toFile().exists()) {
@@ -562,6 +728,10 @@ private Path getTempContentItemDir(String requestId, URI contentUri) {
         pathParts.toArray(new String[pathParts.size()]));
   }
 
+  private Path getTempBlobDir(String requestId) {
+    return Paths.get(baseContentTmpDirectory.toAbsolutePath().toString(), requestId, DEFAULT_BLOBS);
+  }
+
   private Path getContentItemDir(URI contentUri) {
     List<String> pathParts =
         getContentFilePathParts(contentUri.getSchemeSpecificPart(), contentUri.getFragment());
@@ -619,7 +789,8 @@ private Path getContentFilePath(URI uri) throws StorageException {
   }
 
   private ContentItem generateContentFile(
-      ContentItem item, Path contentDirectory, String storeReference) throws IOException {
+      ContentItem item, Path contentDirectory, Path blobDirectory, String storeReference)
+      throws IOException {
     LOGGER.trace("ENTERING: generateContentFile");
 
     if (!contentDirectory.toFile().exists()) {
@@ -645,6 +816,40 @@ public InputStream openStream() throws IOException {
               return crypter.decrypt(referenceInputStream);
             }
           };
+    } else if (isBlobContent(item)) {
+      // the content is written to the request's blob directory under its address, and moved into
+      // the blob store on commit unless a blob with the same content is stored already
+      Path pendingBlob = Files.createTempFile(Files.createDirectories(blobDirectory), null, null);
+      HashingInputStream plainInputStream =
+          new HashingInputStream(blobStore.getAddressFunction(), item.getInputStream());
+      try (InputStream encryptedInputStream = crypter.encrypt(plainInputStream)) {
+        copySize =
+            Files.copy(encryptedInputStream, pendingBlob, StandardCopyOption.REPLACE_EXISTING);
+      } finally {
+        plainInputStream.close();
+      }
+      String blobAddress = plainInputStream.hash().toString();
+      Path addressedBlob = blobDirectory.resolve(blobAddress);
+      if (addressedBlob.toFile().exists()) {
+        Files.delete(pendingBlob);
+      } else {
+        Files.move(pendingBlob, addressedBlob);
+      }
+      Files.write(
+          Paths.get(contentItemPath.toString() + "." + BLOB_REF_EXT),
+          blobAddress.getBytes(StandardCharsets.UTF_8));
+      byteSource =
+          new ByteSource() {
+            @Override
+            public InputStream openStream() throws IOException {
+              Path blob =
+                  addressedBlob.toFile().exists()
+                      ? addressedBlob
+                      : blobStore.getBlobPath(blobAddress);
+              return new DecryptingFileByteSource(blob, crypter).openStream();
+            }
+          };
+      warnIfTruncated(item, copySize, itemSize);
     } else {
       try (InputStream plainInputStream = item.getInputStream();
           InputStream encryptedInputStream = crypter.encrypt(plainInputStream)) {
@@ -660,15 +865,7 @@ public InputStream openStream() throws IOException {
             }
           };
 
-      if (copySize < itemSize && LOGGER.isWarnEnabled()) {
-        LOGGER.warn(
-            "Created content item {} encrypted size {} is not greater than plain size {}.{}"
-                + "Verify filesystem and/or network integrity.",
-            item.getId(),
-            copySize,
-            item.getSize(),
-            System.lineSeparator());
-      }
+      warnIfTruncated(item, copySize, itemSize);
     }
 
     ContentItemImpl contentItem =
@@ -686,6 +883,18 @@ public InputStream openStream() throws IOException {
     return contentItem;
   }
 
+  private void warnIfTruncated(ContentItem item, long copySize, long itemSize) throws IOException {
+    if (copySize < itemSize && LOGGER.isWarnEnabled()) {
+      LOGGER.warn(
+          "Created content item {} encrypted size {} is not greater than plain size {}.{}"
+              + "Verify filesystem and/or network integrity.",
+          item.getId(),
+          copySize,
+          item.getSize(),
+          System.lineSeparator());
+    }
+  }
+
   public MimeTypeMapper getMimeTypeMapper() {
     return mimeTypeMapper;
   }
@@ -735,6 +944,29 @@ public void setBaseContentDirectory(final String baseDirectory) throws IOExcepti
 
     this.baseContentDirectory = directories;
     this.baseContentTmpDirectory = tmpDirectories;
+    this.blobStore =
+        new ContentBlobStore(
+            Paths.get(directories.toAbsolutePath().toString(), DEFAULT_BLOBS), crypter);
+    blobStore.removeStaleReferences(this::isBlobReferenced);
+  }
+
+  /**
+   * @return true unless the content item named by the reference is known to no longer use the blob
+   */
+  private boolean isBlobReferenced(String blobAddress, String reference) {
+    if (reference.startsWith(PENDING_REFERENCE_PREFIX)) {
+      return sharedBlobMap.containsKey(reference.substring(PENDING_REFERENCE_PREFIX.length()));
+    }
+
+    List<String> parts = getContentFilePathParts(reference, "");
+    Path contentIdDir =
+        Paths.get(baseContentDirectory.toString(), parts.toArray(new String[parts.size()]));
+    try {
+      return getBlobAddresses(contentIdDir).contains(blobAddress);
+    } catch (IOException | InvalidPathException e) {
+      LOGGER.debug("Unable to check the blob references of content ID: {}", reference, e);
+      return true;
+    }
   }
 
   private String tryCanonicalizeDirectory(String directory) {
@@ -19,6 +19,7 @@
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.isEmptyString;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
@@ -32,6 +33,7 @@
 import static org.mockito.Mockito.when;
 
 import com.google.common.collect.Lists;
+import com.google.common.hash.Hashing;
 import com.google.common.io.ByteSource;
 import ddf.catalog.Constants;
 import ddf.catalog.content.StorageException;
@@ -51,6 +53,7 @@
 import ddf.catalog.content.operation.impl.UpdateStorageRequestImpl;
 import ddf.catalog.data.Attribute;
 import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.AttributeImpl;
 import ddf.mime.MimeTypeMapper;
 import ddf.mime.MimeTypeResolver;
 import ddf.mime.mapper.MimeTypeMapperImpl;
@@ -63,6 +66,7 @@
 import java.io.Serializable;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -74,6 +78,7 @@
 import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
@@ -168,6 +173,25 @@ public void testRead() throws Exception {
     assertReadRequest(uriString, NITF_MIME_TYPE);
   }
 
+  @Test
+  public void testReadByteRange() throws Exception {
+    String data = StringUtils.repeat("0123456789", 2000);
+    CreateStorageResponse createResponse =
+        assertContentItem(data, NITF_MIME_TYPE, TEST_INPUT_FILENAME);
+    URI uri = new URI(createResponse.getCreatedContentItems().get(0).getUri());
+
+    ContentItem item =
+        provider.read(new ReadStorageRequestImpl(uri, Collections.emptyMap())).getContentItem();
+    assertThat(item.getSize(), is((long) data.length()));
+
+    try (InputStream inputStream = item.getInputStream()) {
+      assertThat(inputStream.skip(12345), is(12345L));
+      byte[] bytes = new byte[10];
+      IOUtils.readFully(inputStream, bytes);
+      assertThat(new String(bytes), is(data.substring(12345, 12355)));
+    }
+  }
+
   @Test(expected = StorageException.class)
   public void testReadDeletedReference() throws Exception {
     Path tempFile = Files.createTempFile("test", "nitf");
@@ -626,7 +650,208 @@ public void testCreateAndReadReference() throws Exception {
     assertReadRequest(uriString, NITF_MIME_TYPE);
   }
 
+  @Test
+  public void testIdenticalContentSharesBlob() throws Exception {
+    ContentItem first = createBlobContent(byteSource(TEST_INPUT_CONTENTS), null);
+    ContentItem second = createBlobContent(byteSource(TEST_INPUT_CONTENTS), null);
+
+    ContentItem read = readContent(first.getUri());
+    assertThat(read.getFilename(), is(TEST_INPUT_FILENAME));
+    assertThat(IOUtils.toString(read.getInputStream(), "UTF-8"), is(TEST_INPUT_CONTENTS));
+    assertThat(
+        IOUtils.toString(readContent(second.getUri()).getInputStream(), "UTF-8"),
+        is(TEST_INPUT_CONTENTS));
+    assertThat(getBlobs(), hasSize(1));
+
+    deleteContent(first);
+    assertThat(getBlobs(), hasSize(1));
+    assertThat(
+        IOUtils.toString(readContent(second.getUri()).getInputStream(), "UTF-8"),
+        is(TEST_INPUT_CONTENTS));
+
+    deleteContent(second);
+    assertThat(getBlobs(), hasSize(0));
+  }
+
+  @Test
+  public void testCreateWithContentSourceSharesBlob() throws Exception {
+    ContentItem original = createBlobContent(byteSource(TEST_INPUT_CONTENTS), null);
+    ByteSource unreadSource =
+        new ByteSource() {
+          @Override
+          public InputStream openStream() throws IOException {
+            throw new IOException("Shared content should not be copied");
+          }
+        };
+
+    ContentItem version = createBlobContent(unreadSource, original.getUri());
+
+    assertThat(
+        IOUtils.toString(readContent(version.getUri()).getInputStream(), "UTF-8"),
+        is(TEST_INPUT_CONTENTS));
+    assertThat(getBlobs(), hasSize(1));
+
+    deleteContent(original);
+    assertThat(
+        IOUtils.toString(readContent(version.getUri()).getInputStream(), "UTF-8"),
+        is(TEST_INPUT_CONTENTS));
+  }
+
+  @Test
+  public void testUpdateReleasesReplacedBlob() throws Exception {
+    ContentItem original = createBlobContent(byteSource(TEST_INPUT_CONTENTS), null);
+    ContentItem updateItem =
+        new ContentItemImpl(
+            original.getId(),
+            byteSource("Updated NITF"),
+            NITF_MIME_TYPE,
+            TEST_INPUT_FILENAME,
+            "Updated NITF".length(),
+            checksummedMetacard(original.getId()));
+    UpdateStorageRequest updateRequest =
+        new UpdateStorageRequestImpl(Collections.singletonList(updateItem), null);
+
+    provider.update(updateRequest);
+    provider.commit(updateRequest);
+
+    assertThat(
+        IOUtils.toString(readContent(original.getUri()).getInputStream(), "UTF-8"),
+        is("Updated NITF"));
+    assertThat(getBlobs(), hasSize(1));
+  }
+
+  @Test
+  public void testSharedBlobIsKeptWhenSourceIsDeletedBeforeCommit() throws Exception {
+    ContentItem original = createBlobContent(byteSource(TEST_INPUT_CONTENTS), null);
+    CreateStorageRequest createRequest = blobContentRequest(byteSource(""), original.getUri());
+    CreateStorageResponse createResponse = provider.create(createRequest);
+
+    deleteContent(original);
+    provider.commit(createRequest);
+
+    ContentItem version = createResponse.getCreatedContentItems().get(0);
+    assertThat(
+        IOUtils.toString(readContent(version.getUri()).getInputStream(), "UTF-8"),
+        is(TEST_INPUT_CONTENTS));
+    assertThat(getBlobs(), hasSize(1));
+
+    deleteContent(version);
+    assertThat(getBlobs(), hasSize(0));
+  }
+
+  @Test
+  public void testRollbackReleasesSharedBlob() throws Exception {
+    ContentItem original = createBlobContent(byteSource(TEST_INPUT_CONTENTS), null);
+    CreateStorageRequest createRequest = blobContentRequest(byteSource(""), original.getUri());
+    provider.create(createRequest);
+    provider.rollback(createRequest);
+
+    deleteContent(original);
+    assertThat(getBlobs(), hasSize(0));
+  }
+
+  @Test
+  public void testStaleBlobReferencesAreRemovedOnStartup() throws Exception {
+    ContentItem contentItem = createBlobContent(byteSource(TEST_INPUT_CONTENTS), null);
+    List<String> parts = provider.getContentFilePathParts(contentItem.getId(), "");
+    // the content item was removed, but its blob reference was not released
+    FileUtils.deleteDirectory(
+        Paths.get(
+                baseDir,
+                FileSystemStorageProvider.DEFAULT_CONTENT_REPOSITORY,
+                FileSystemStorageProvider.DEFAULT_CONTENT_STORE,
+                parts.get(0),
+                parts.get(1),
+                parts.get(2))
+            .toFile());
+    ContentItem kept = createBlobContent(byteSource("Kept NITF"), null);
+
+    provider.setBaseContentDirectory(baseDir);
+
+    assertThat(getBlobs(), hasSize(1));
+    assertThat(
+        IOUtils.toString(readContent(kept.getUri()).getInputStream(), "UTF-8"), is("Kept NITF"));
+  }
+
+  @Test
+  public void testBlobAddressIsKeyed() throws Exception {
+    createBlobContent(byteSource(TEST_INPUT_CONTENTS), null);
+
+    String plainDigest =
+        Hashing.sha256().hashString(TEST_INPUT_CONTENTS, StandardCharsets.UTF_8).toString();
+    assertThat(getBlobs(), hasSize(1));
+    assertThat(getBlobs().get(0).getParent().getFileName().toString(), not(plainDigest));
+  }
+
   /** ******************************************************************************* */
+  private ContentItem createBlobContent(ByteSource byteSource, String sourceUri) throws Exception {
+    CreateStorageRequest createRequest = blobContentRequest(byteSource, sourceUri);
+    CreateStorageResponse createResponse = provider.create(createRequest);
+    provider.commit(createRequest);
+    return createResponse.getCreatedContentItems().get(0);
+  }
+
+  private CreateStorageRequest blobContentRequest(ByteSource byteSource, String sourceUri) {ByteSource byteSource, String sourceUri) throws Exception {
+    String id = UUID.randomUUID().toString().replaceAll("-", "");
+    ContentItem contentItem =
+        new ContentItemImpl(
+            id,
+            byteSource,
+            NITF_MIME_TYPE,
+            TEST_INPUT_FILENAME,
+            TEST_INPUT_CONTENTS.length(),
+            checksummedMetacard(id));
+
+    HashMap<String, String> contentSources = new HashMap<>();
+    contentSources.put(contentItem.getUri(), sourceUri);
+    Map<String, Serializable> properties = new HashMap<>();
+    properties.put(Constants.STORE_CONTENT_SOURCES_KEY, contentSources);
+
+    return new CreateStorageRequestImpl(Collections.singletonList(contentItem), properties);
+  }
+
+  private Metacard checksummedMetacard(String id) {
+    Metacard metacard = mock(Metacard.class);
+    when(metacard.getId()).thenReturn(id);
+    when(metacard.getAttribute(Metacard.CHECKSUM))
+        .thenReturn(new AttributeImpl(Metacard.CHECKSUM, "1234"));
+    return metacard;
+  }
+
+  private ByteSource byteSource(String data) {
+    return ByteSource.wrap(data.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private ContentItem readContent(String uri) throws Exception {
+    return provider
+        .read(new ReadStorageRequestImpl(new URI(uri), Collections.emptyMap()))
+        .getContentItem();
+  }
+
+  private void deleteContent(ContentItem contentItem) throws Exception {
+    DeleteStorageRequest deleteRequest =
+        new DeleteStorageRequestImpl(Collections.singletonList(contentItem.getMetacard()), null);
+    provider.delete(deleteRequest);
+    provider.commit(deleteRequest);
+  }
+
+  private List<Path> getBlobs() throws IOException {
+    Path blobs =
+        Paths.get(
+            baseDir,
+            FileSystemStorageProvider.DEFAULT_CONTENT_REPOSITORY,
+            FileSystemStorageProvider.DEFAULT_CONTENT_STORE,
+            FileSystemStorageProvider.DEFAULT_BLOBS);
+    if (!blobs.toFile().exists()) {
+      return Collections.emptyList();
+    }
+    try (Stream<Path> paths = Files.walk(blobs)) {
+      return paths
+          .filter(path -> path.getFileName().toString().equals("blob"))
+          .collect(Collectors.toList());
+    }
+  }
+
   private CreateStorageResponse assertContentItem(
       String data, String mimeTypeRawData, String filename, Map<String, Serializable> properties)
       throws Exception {
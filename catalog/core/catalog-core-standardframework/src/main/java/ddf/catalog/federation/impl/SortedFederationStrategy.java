@@ -14,6 +14,7 @@
 package ddf.catalog.federation.impl;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
 import ddf.catalog.data.Result;
 import ddf.catalog.federation.FederationException;
 import ddf.catalog.federation.FederationStrategy;
@@ -30,17 +31,29 @@
 import ddf.catalog.plugin.PreFederatedQueryPlugin;
 import ddf.catalog.plugin.StopProcessingException;
 import ddf.catalog.source.Source;
+import ddf.catalog.source.UnsupportedQueryException;
 import ddf.catalog.util.impl.RelevanceResultComparator;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import org.apache.commons.lang3.Validate;
 import org.opengis.filter.sort.SortOrder;
 import org.slf4j.Logger;
@@ -80,6 +93,10 @@ public class SortedFederationStrategy implements FederationStrategy {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(SortedFederationStrategy.class);
 
+  private static final String METRICS_HEDGED = "ddf.catalog.source.query.hedged";
+
+  private static final String SOURCE_TAG = "source";
+
   /**
    * The {@link List} of pre-federated query plugins to execute on the query request before the
    * query is executed on the {@link Source}.
@@ -96,8 +113,16 @@ public class SortedFederationStrategy implements FederationStrategy {
 
   private final ExecutorService queryExecutorService;
 
+  private final SourceConcurrencyLimiter sourceConcurrencyLimiter;
+
   private int maxStartIndex;
 
+  private boolean circuitBreakerEnabled = false;
+
+  private volatile Set<String> hedgedSourceIds = Collections.emptySet();
+
+  private long hedgeDelayMillis = 1000;
+
   /**
    * Instantiates an {@code AbstractFederationStrategy} with the provided {@link ExecutorService}.
    *
@@ -118,6 +143,22 @@ public SortedFederationStrategy(
       List<PostFederatedQueryPlugin> postQuery,
       SortedQueryMonitorFactory sortedQueryMonitorFactory) {
 
+    this(
+        queryExecutorService,
+        preQuery,
+        postQuery,
+        sortedQueryMonitorFactory,
+        Ticker.systemTicker());
+  }
+
+  @VisibleForTesting
+  SortedFederationStrategy(
+      ExecutorService queryExecutorService,
+      List<PreFederatedQueryPlugin> preQuery,
+      List<PostFederatedQueryPlugin> postQuery,
+      SortedQueryMonitorFactory sortedQueryMonitorFactory,
+      Ticker ticker) {
+
     Validate.notNull(queryExecutorService, "Valid queryExecutorService required.");
     Validate.notNull(preQuery, "Valid List<PreFederatedQueryPlugin> required.");
     Validate.noNullElements(preQuery, "preQuery cannot contain null elements.");
@@ -130,6 +171,7 @@ public SortedFederationStrategy(
     this.postQuery = postQuery;
     this.maxStartIndex = DEFAULT_MAX_START_INDEX;
     this.sortedQueryMonitorFactory = sortedQueryMonitorFactory;
+    this.sourceConcurrencyLimiter = new SourceConcurrencyLimiter(queryExecutorService, ticker);
   }
 
   @Override
@@ -168,12 +210,29 @@ public QueryResponse federate(List<Source> sources, QueryRequest queryRequest) {
             queryRequest.getSourceIds(),
             queryRequest.getProperties());
 
+    // every source gets its own completion service, limited by its concurrency limit, that
+    // reports to the same queue as the completion service handed to the query monitor
+    BlockingQueue<Future<SourceResponse>> completedQueries = new LinkedBlockingQueue<>();
     CompletionService<SourceResponse> queryCompletion =
-        new ExecutorCompletionService<>(queryExecutorService);
+        new ExecutorCompletionService<>(queryExecutorService, completedQueries);
 
     // Do NOT call source.isAvailable() when checking sources
     for (final Source source : sources) {
       if (source != null) {
+        if (circuitBreakerEnabled
+            && sourceConcurrencyLimiter.isCircuitOpen(
+                source.getId(), modifiedQuery.getTimeoutMillis())) {
+          LOGGER.debug("skipping source with open circuit: {}", source.getId());
+          queryResponseQueue
+              .getProcessingDetails()
+              .add(
+                  new ProcessingDetailsImpl(
+                      source.getId(),
+                      new FederationException(
+                          "Source was skipped because its recent response times exceed the query timeout.")));
+          continue;
+        }
+
         LOGGER.debug("running query on source: {}", source.getId());
 
         QueryRequest sourceQueryRequest =
@@ -195,9 +254,25 @@ public QueryResponse federate(List<Source> sources, QueryRequest queryRequest) {
         }
 
         QueryRequest finalSourceQueryRequest = sourceQueryRequest;
-        futures.put(
-            queryCompletion.submit(() -> new TimedSource(source).query(finalSourceQueryRequest)),
-            sourceQueryRequest);
+        CompletionService<SourceResponse> sourceCompletion =
+            new ExecutorCompletionService<>(
+                sourceConcurrencyLimiter.executorFor(source.getId()), completedQueries);
+        try {
+          futures.put(
+              sourceCompletion.submit(
+                  sourceConcurrencyLimiter.measure(
+                      source.getId(), () -> query(source, finalSourceQueryRequest))),
+              sourceQueryRequest);
+        } catch (RejectedExecutionException e) {
+          LOGGER.debug("skipping source with too many waiting queries: {}", source.getId(), e);
+          queryResponseQueue
+              .getProcessingDetails()
+              .add(
+                  new ProcessingDetailsImpl(
+                      source.getId(),
+                      new FederationException(
+                          "Source was skipped because too many queries to it are waiting.")));
+        }
       }
     }
 
@@ -233,6 +308,73 @@ public QueryResponse federate(List<Source> sources, QueryRequest queryRequest) {
     return queryResponse;
   }
 
+  private SourceResponse query(Source source, QueryRequest request)
+      throws UnsupportedQueryException, InterruptedException, TimeoutException {
+    TimedSource timedSource = new TimedSource(source);
+    if (!hedgedSourceIds.contains(source.getId())) {
+      return timedSource.query(request);
+    }
+
+    long timeoutMillis = request.getQuery().getTimeoutMillis();
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    CompletionService<SourceResponse> hedgeCompletion =
+        new ExecutorCompletionService<>(queryExecutorService);
+    List<Future<SourceResponse>> attempts = new ArrayList<>(2);
+    attempts.add(hedgeCompletion.submit(() -> timedSource.query(request)));
+    try {
+      Future<SourceResponse> completed =
+          hedgeCompletion.poll(hedgeDelayMillis, TimeUnit.MILLISECONDS);
+      if (completed == null) {
+        LOGGER.debug("sending hedged query to source: {}", source.getId());
+        Metrics.counter(METRICS_HEDGED, Tags.of(SOURCE_TAG, source.getId())).increment();
+        attempts.add(hedgeCompletion.submit(() -> timedSource.query(request)));
+        completed = nextCompleted(hedgeCompletion, timeoutMillis, deadline);
+      }
+
+      try {
+        return completed.get();
+      } catch (ExecutionException e) {
+        if (attempts.size() < 2) {
+          throw e;
+        }
+        LOGGER.debug("Query to source {} failed, waiting for hedged query.", source.getId(), e);
+        return nextCompleted(hedgeCompletion, timeoutMillis, deadline).get();
+      }
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof UnsupportedQueryException) {
+        throw (UnsupportedQueryException) e.getCause();
+      }
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException(e.getCause());
+    } finally {
+      attempts.forEach(attempt -> attempt.cancel(true));
+    }
+  }
+
+  /**
+   * Waits for the next hedged query to complete, but no longer than the timeout of the query.
+   *
+   * @param timeoutMillis timeout of the query, or a value less than 1 if the query never times out
+   * @param deadline {@link System#nanoTime()} at which the query times out
+   */
+  private Future<SourceResponse> nextCompleted(
+      CompletionService<SourceResponse> hedgeCompletion, long timeoutMillis, long deadline)
+      throws InterruptedException, TimeoutException {
+    if (timeoutMillis < 1) {
+      return hedgeCompletion.take();
+    }
+
+    Future<SourceResponse> completed =
+        hedgeCompletion.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+    if (completed == null) {
+      throw new TimeoutException(
+          String.format("Hedged queries did not complete within %dms.", timeoutMillis));
+    }
+    return completed;
+  }
+
   private Query getModifiedQuery(
       Query originalQuery, int numberOfSources, int offset, int pageSize) {
 
@@ -296,6 +438,47 @@ public void setMaxStartIndex(int maxStartIndex) {
     }
   }
 
+  /**
+   * Sets the most queries that can run against a single source at the same time. The actual limit
+   * of each source adapts to its latency and stays between 1 and this maximum.
+   */
+  public void setMaximumSourceConcurrency(int maximumSourceConcurrency) {
+    sourceConcurrencyLimiter.setMaximumLimit(maximumSourceConcurrency);
+  }
+
+  /**
+   * Sets the most queries that can wait for a single source once its concurrency limit is reached.
+   * Further queries skip the source until some of the waiting queries ran.
+   */
+  public void setMaximumQueuedSourceQueries(int maximumQueuedSourceQueries) {
+    sourceConcurrencyLimiter.setMaximumQueued(maximumQueuedSourceQueries);
+  }
+
+  public void setCircuitBreakerEnabled(boolean circuitBreakerEnabled) {
+    this.circuitBreakerEnabled = circuitBreakerEnabled;
+  }
+
+  /**
+   * @param circuitBreakerResetMillis how long a source is skipped before a probe query is sent to
+   *     it again
+   */
+  public void setCircuitBreakerResetMillis(long circuitBreakerResetMillis) {
+    sourceConcurrencyLimiter.setCircuitBreakerResetMillis(circuitBreakerResetMillis);
+  }
+
+  /**
+   * Sets the sources that are replicated behind their endpoint. When a query to one of them has not
+   * completed after the hedge delay, the same query is sent again and the first response is used.
+   */
+  public void setHedgedSourceIds(List<String> hedgedSourceIds) {
+    this.hedgedSourceIds =
+        hedgedSourceIds == null ? Collections.emptySet() : new HashSet<>(hedgedSourceIds);
+  }
+
+  public void setHedgeDelayMillis(long hedgeDelayMillis) {
+    this.hedgeDelayMillis = hedgeDelayMillis;
+  }
+
   static class OffsetResultHandler implements Runnable {
 
     private QueryResponseImpl originalResults = null;
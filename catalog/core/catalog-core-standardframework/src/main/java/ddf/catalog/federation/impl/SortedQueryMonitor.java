@@ -35,6 +35,8 @@
 import ddf.catalog.util.impl.DistanceResultComparator;
 import ddf.catalog.util.impl.RelevanceResultComparator;
 import ddf.catalog.util.impl.TemporalResultComparator;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -47,6 +49,7 @@
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
@@ -62,6 +65,8 @@
 class SortedQueryMonitor implements Runnable {
   private static final Logger LOGGER = LoggerFactory.getLogger(SortedQueryMonitor.class);
 
+  private static final String MERGE_METRIC_PREFIX = "ddf.catalog.federation.merge";
+
   private final QueryRequest request;
 
   private final CompletionService<SourceResponse> completionService;
@@ -141,7 +146,8 @@ public void run() {
       resultComparator.addComparator(coreComparator);
     }
 
-    List<Result> resultList = new ArrayList<>();
+    SortedResultMerger resultMerger = new SortedResultMerger(resultComparator, query.getPageSize());
+    long mergeNanos = 0;
     long totalHits = 0;
     Set<ProcessingDetails> detailsOfReturnResults = returnResults.getProcessingDetails();
 
@@ -193,13 +199,15 @@ public void run() {
         interruptRemainingSources(detailsOfReturnResults, e);
         Thread.currentThread().interrupt();
         break;
-      } catch (ExecutionException e) {
+      } catch (ExecutionException | CancellationException e) {
         LOGGER.info(
             "Couldn't get results from completed federated query for sourceId = {}", sourceId, e);
         sourceResponse =
             executePostFederationQueryPluginsWithSourceError(queryRequest, sourceId, e);
       }
-      resultList.addAll(sourceResponse.getResults());
+      long mergeStart = System.nanoTime();
+      resultMerger.addAll(sourceResponse.getResults());
+      mergeNanos += System.nanoTime() - mergeStart;
       long hits = sourceResponse.getHits();
       totalHits += hits;
       hitsPerSource.merge(sourceId, hits, (l1, l2) -> l1 + l2);
@@ -210,10 +218,27 @@ public void run() {
           sourceProcessingDetailsToProcessingDetails(sourceId, sourceResponse));
     }
     returnProperties.put("hitsPerSource", hitsPerSource);
-    LOGGER.debug("All sources finished returning results: {}", resultList.size());
+
+    long mergeStart = System.nanoTime();
+    List<Result> sortedResults = resultMerger.getSortedResults();
+    mergeNanos += System.nanoTime() - mergeStart;
+    LOGGER.debug(
+        "All sources finished returning results: {} kept, {} dropped",
+        sortedResults.size(),
+        resultMerger.getDroppedCount());
+    recordMergeMetrics(mergeNanos, resultMerger.getDroppedCount());
 
     returnResults.setHits(totalHits);
-    returnResults.addResults(sortedResults(resultList, resultComparator), true);
+    returnResults.addResults(sortedResults, true);
+  }
+
+  private void recordMergeMetrics(long mergeNanos, long droppedCount) {
+    DistributionSummary.builder(MERGE_METRIC_PREFIX + ".latency")
+        .baseUnit("milliseconds")
+        .publishPercentiles(0.5, 0.95)
+        .register(Metrics.globalRegistry)
+        .record(TimeUnit.NANOSECONDS.toMillis(mergeNanos));
+    Metrics.counter(MERGE_METRIC_PREFIX + ".dropped").increment(droppedCount);
   }
 
   private Set<ProcessingDetails> sourceProcessingDetailsToProcessingDetails(
@@ -230,17 +255,6 @@ private Set<ProcessingDetails> sourceProcessingDetailsToProcessingDetails(
     return tempProcessingDetails;
   }
 
-  List<Result> sortedResults(List<Result> results, Comparator<? super Result> comparator) {
-    Collections.sort(results, comparator);
-
-    int maxResults = Integer.MAX_VALUE;
-    if (query.getPageSize() > 0) {
-      maxResults = query.getPageSize();
-    }
-
-    return results.size() > maxResults ? results.subList(0, maxResults) : results;
-  }
-
   private static Comparable getAttributeValue(Result r, String attributeName) {
     if (r == null) {
       return null;
@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.federation.impl;
+
+import ddf.catalog.data.Result;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Merges the results of several sources as they arrive while only keeping the best {@code capacity}
+ * results seen so far. Results that can no longer make it into the final page are dropped
+ * immediately instead of being held until every source has responded.
+ *
+ * <p>Results that compare as equal keep the order in which they were added, which matches sorting
+ * the concatenation of every source's results with a stable sort.
+ *
+ * <p>This class is not thread-safe.
+ */
+class SortedResultMerger {
+
+  private static final int MAX_INITIAL_CAPACITY = 1024;
+
+  private final int capacity;
+
+  private final Comparator<Entry> entryComparator;
+
+  /** Ordered so that the worst result kept is at the head and can be evicted first. */
+  private final PriorityQueue<Entry> heap;
+
+  private long sequence = 0;
+
+  private long droppedCount = 0;
+
+  /**
+   * @param comparator order of the merged results
+   * @param capacity maximum number of results to keep, or a value less than 1 to keep every result
+   */
+  SortedResultMerger(Comparator<? super Result> comparator, int capacity) {
+    this.capacity = capacity > 0 ? capacity : Integer.MAX_VALUE;
+    this.entryComparator =
+        Comparator.<Entry, Result>comparing(entry -> entry.result, comparator)
+            .thenComparingLong(entry -> entry.sequence);
+    this.heap =
+        new PriorityQueue<>(
+            Math.min(this.capacity, MAX_INITIAL_CAPACITY), entryComparator.reversed());
+  }
+
+  void addAll(List<Result> results) {
+    for (Result result : results) {
+      add(result);
+    }
+  }
+
+  void add(Result result) {
+    Entry entry = new Entry(result, sequence++);
+
+    if (heap.size() < capacity) {
+      heap.offer(entry);
+    } else if (entryComparator.compare(entry, heap.peek()) < 0) {
+      heap.poll();
+      heap.offer(entry);
+      droppedCount++;
+    } else {
+      droppedCount++;
+    }
+  }
+
+  /** @return the results kept so far, in sorted order */
+  List<Result> getSortedResults() {
+    List<Entry> entries = new ArrayList<>(heap);
+    entries.sort(entryComparator);
+
+    List<Result> results = new ArrayList<>(entries.size());
+    for (Entry entry : entries) {
+      results.add(entry.result);
+    }
+    return results;
+  }
+
+  /** @return the number of results that were discarded because they fell outside the capacity */
+  long getDroppedCount() {
+    return droppedCount;
+  }
+
+  private static class Entry {
+    private final Result result;
+
+    private final long sequence;
+
+    Entry(Result result, long sequence) {
+      this.result = result;
+      this.sequence = sequence;
+    }
+  }
+}
@@ -0,0 +1,312 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.federation.impl;
+
+import com.google.common.base.Ticker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Limits how many queries run against each source at the same time, so that a slow source cannot
+ * fill the shared query thread pool and starve queries to every other source.
+ *
+ * <p>The limit of each source adapts to its latency using additive increase, multiplicative
+ * decrease: every successful query that completes close to the best latency seen for the source
+ * raises the limit a little, and every query that takes much longer lowers it. Failed queries never
+ * lower the best latency, so a source that fails fast does not lose its limit. Queries over the
+ * limit wait in a bounded per-source queue instead of occupying a pool thread.
+ *
+ * <p>The limiter also acts as a circuit breaker. A source whose recent latency exceeds the timeout
+ * of a query is skipped for that query, except for one probe query per reset interval that is used
+ * to find out whether the source recovered.
+ */
+class SourceConcurrencyLimiter {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SourceConcurrencyLimiter.class);
+
+  private static final String METRICS_PREFIX = "ddf.catalog.source";
+
+  private static final String SOURCE_TAG = "source";
+
+  /** Weight of the latest query in the smoothed latency of a source. */
+  private static final double LATENCY_SMOOTHING = 0.2;
+
+  /** How quickly the best latency of a source drifts towards its recent latency. */
+  private static final double BASELINE_DRIFT = 0.01;
+
+  /** How many times the best latency a query may take before the limit is lowered. */
+  private static final double LATENCY_TOLERANCE = 2.0;
+
+  /** Factor applied to the limit when a query is slow. */
+  private static final double BACKOFF_RATIO = 0.9;
+
+  private static final int MINIMUM_LIMIT = 1;
+
+  private final Executor executor;
+
+  private final Ticker ticker;
+
+  private final Map<String, SourceLimit> sourceLimits = new ConcurrentHashMap<>();
+
+  private volatile int maximumLimit = 20;
+
+  private volatile int maximumQueued = 100;
+
+  private volatile long circuitBreakerResetMillis = TimeUnit.SECONDS.toMillis(30);
+
+  /** @param executor executor that runs the queries allowed by the limits */
+  SourceConcurrencyLimiter(Executor executor) {
+    this(executor, Ticker.systemTicker());
+  }
+
+  /**
+   * @param executor executor that runs the queries allowed by the limits
+   * @param ticker source of the time used to measure latencies
+   */
+  SourceConcurrencyLimiter(Executor executor, Ticker ticker) {
+    this.executor = executor;
+    this.ticker = ticker;
+  }
+
+  /**
+   * @return executor that runs tasks for the given source on the underlying executor without
+   *     exceeding the current limit of the source, and that rejects tasks when too many of them are
+   *     already waiting
+   */
+  Executor executorFor(String sourceId) {
+    return getSourceLimit(sourceId)::execute;
+  }
+
+  /**
+   * Wraps a query to the given source so that its latency adjusts the limit of the source. Only
+   * queries that actually run are measured; queries cancelled while waiting are not.
+   *
+   * @param query query to the source, which succeeded if it returns normally
+   * @return the wrapped query
+   */
+  <T> Callable<T> measure(String sourceId, Callable<T> query) {
+    SourceLimit sourceLimit = getSourceLimit(sourceId);
+    return () -> {
+      long start = ticker.read();
+      boolean succeeded = false;
+      try {
+        T result = query.call();
+        succeeded = true;
+        return result;
+      } finally {
+        sourceLimit.record(TimeUnit.NANOSECONDS.toMillis(ticker.read() - start), succeeded);
+      }
+    };
+  }
+
+  /**
+   * Checks whether queries to the given source should currently be skipped. When the reset interval
+   * has passed since the circuit was opened, a single call returns {@code false} to let a probe
+   * query through.
+   *
+   * @param timeoutMillis timeout of the query, or a value less than 1 if the query never times out
+   * @return true if the source should be skipped
+   */
+  boolean isCircuitOpen(String sourceId, long timeoutMillis) {
+    if (timeoutMillis < 1 || circuitBreakerResetMillis < 1) {
+      return false;
+    }
+    return getSourceLimit(sourceId).isCircuitOpen(timeoutMillis);
+  }
+
+  int getLimit(String sourceId) {
+    return (int) getSourceLimit(sourceId).limit;
+  }
+
+  void setMaximumLimit(int maximumLimit) {
+    this.maximumLimit = Math.max(MINIMUM_LIMIT, maximumLimit);
+  }
+
+  void setMaximumQueued(int maximumQueued) {
+    this.maximumQueued = Math.max(0, maximumQueued);
+  }
+
+  void setCircuitBreakerResetMillis(long circuitBreakerResetMillis) {
+    this.circuitBreakerResetMillis = circuitBreakerResetMillis;
+  }
+
+  private long currentTimeMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(ticker.read());
+  }
+
+  private SourceLimit getSourceLimit(String sourceId) {
+    return sourceLimits.computeIfAbsent(String.valueOf(sourceId), SourceLimit::new);
+  }
+
+  private class SourceLimit {
+
+    private final String sourceId;
+
+    private final Deque<Runnable> queued = new ArrayDeque<>();
+
+    private final Counter circuitOpenCounter;
+
+    private final Counter rejectedCounter;
+
+    private double limit = maximumLimit;
+
+    private int inFlight = 0;
+
+    private double smoothedLatency = -1;
+
+    private double baselineLatency = -1;
+
+    private boolean circuitOpen = false;
+
+    private long circuitOpenedAt = 0;
+
+    SourceLimit(String sourceId) {
+      this.sourceId = sourceId;
+      Tags tags = Tags.of(SOURCE_TAG, sourceId);
+      circuitOpenCounter = Metrics.counter(METRICS_PREFIX + ".circuit.open", tags);
+      rejectedCounter = Metrics.counter(METRICS_PREFIX + ".concurrency.rejected", tags);
+      Metrics.gauge(METRICS_PREFIX + ".concurrency.limit", tags, this, s -> s.limit);
+      Metrics.gauge(METRICS_PREFIX + ".concurrency.inflight", tags, this, s -> s.inFlight);
+      Metrics.gauge(METRICS_PREFIX + ".concurrency.queued", tags, this, s -> s.queued.size());
+    }
+
+    void execute(Runnable task) {
+      synchronized (this) {
+        if (inFlight >= (int) limit) {
+          if (queued.size() >= maximumQueued) {
+            rejectedCounter.increment();
+            throw new RejectedExecutionException(
+                String.format(
+                    "%d queries to source %s are already waiting.", queued.size(), sourceId));
+          }
+          LOGGER.trace("Queueing query to source {}, limit of {} reached.", sourceId, inFlight);
+          queued.add(task);
+          return;
+        }
+        inFlight++;
+      }
+      dispatch(task);
+    }
+
+    synchronized boolean isCircuitOpen(long timeoutMillis) {
+      if (smoothedLatency < timeoutMillis) {
+        circuitOpen = false;
+        return false;
+      }
+
+      long now = currentTimeMillis();
+      if (!circuitOpen) {
+        LOGGER.debug(
+            "Opening circuit for source {}, latency of {}ms exceeds query timeout of {}ms.",
+            sourceId,
+            (long) smoothedLatency,
+            timeoutMillis);
+        circuitOpen = true;
+        circuitOpenedAt = now;
+      } else if (now - circuitOpenedAt >= circuitBreakerResetMillis) {
+        LOGGER.debug("Sending probe query to source {}.", sourceId);
+        circuitOpenedAt = now;
+        return false;
+      }
+
+      circuitOpenCounter.increment();
+      return true;
+    }
+
+    synchronized void record(long latency, boolean succeeded) {
+      if (smoothedLatency < 0 || circuitOpen) {
+        // a probe replaces the latency that opened the circuit
+        smoothedLatency = latency;
+      } else {
+        smoothedLatency += LATENCY_SMOOTHING * (latency - smoothedLatency);
+      }
+
+      if (succeeded) {
+        if (baselineLatency < 0 || latency < baselineLatency) {
+          baselineLatency = latency;
+        } else {
+          baselineLatency += BASELINE_DRIFT * (latency - baselineLatency);
+        }
+      }
+
+      if (baselineLatency >= 0 && latency > LATENCY_TOLERANCE * Math.max(baselineLatency, 1)) {
+        limit = Math.max(MINIMUM_LIMIT, limit * BACKOFF_RATIO);
+      } else if (succeeded) {
+        limit = Math.min(maximumLimit, limit + 1 / limit);
+      }
+    }
+
+    private void dispatch(Runnable task) {
+      try {
+        executor.execute(
+            () -> {
+              try {
+                task.run();
+              } finally {
+                release();
+              }
+            });
+      } catch (RuntimeException e) {
+        synchronized (this) {
+          inFlight--;
+        }
+        throw e;
+      }
+    }
+
+    private void release() {
+      List<Runnable> ready = new ArrayList<>();
+      synchronized (this) {
+        inFlight--;
+        while (inFlight < (int) limit && !queued.isEmpty()) {
+          inFlight++;
+          ready.add(queued.poll());
+        }
+      }
+      for (Runnable task : ready) {
+        try {
+          dispatch(task);
+        } catch (RejectedExecutionException e) {
+          fail(task, e);
+        }
+      }
+    }
+
+    /**
+     * Completes a waiting task that could not be dispatched, for example because the executor is
+     * shutting down, so that whoever waits for its result is not left waiting forever.
+     */
+    private void fail(Runnable task, RejectedExecutionException e) {
+      rejectedCounter.increment();
+      LOGGER.debug("Unable to run waiting query to source {}.", sourceId, e);
+      if (task instanceof Future) {
+        ((Future<?>) task).cancel(false);
+      }
+    }
+  }
+}
@@ -17,6 +17,7 @@
 
 import com.google.common.collect.Lists;
 import com.google.common.io.ByteSource;
+import ddf.catalog.Constants;
 import ddf.catalog.content.StorageException;
 import ddf.catalog.content.StorageProvider;
 import ddf.catalog.content.data.ContentItem;
@@ -57,6 +58,7 @@
 import ddf.security.audit.SecurityLogger;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Serializable;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.ArrayList;
@@ -528,22 +530,27 @@ private ReadStorageResponse getStorageItem(ReadStorageRequest r) {
   private CreateStorageResponse versionContentItems(
       Map<String, List<ContentItem>> items, Map<String, Metacard> versionedMetacards)
       throws SourceUnavailableException, IngestException {
-    List<ContentItem> contentItems =
-        items.entrySet().stream()
-            .map(e -> getVersionedContentItems(e.getValue(), versionedMetacards))
-            .flatMap(Collection::stream)
-            .collect(Collectors.toList());
+    List<ContentItem> contentItems = new ArrayList<>();
+    // lets the storage provider share the stored content with the versions instead of copying it
+    HashMap<String, String> contentSources = new HashMap<>();
+    for (List<ContentItem> entry : items.values()) {
+      for (ContentItem content : entry) {
+        ContentItem versionedContent = createContentItem(content, versionedMetacards);
+        contentItems.add(versionedContent);
+        contentSources.put(versionedContent.getUri(), content.getUri());
+      }
+    }
 
     if (contentItems.isEmpty()) {
       LOGGER.debug("No content items to version");
       return null;
     }
 
+    Map<String, Serializable> properties = new HashMap<>();
+    properties.put(Constants.STORE_CONTENT_SOURCES_KEY, contentSources);
     CreateStorageResponse createStorageResponse =
         executeAsSystem(
-            () ->
-                storageProvider()
-                    .create(new CreateStorageRequestImpl(contentItems, new HashMap<>())));
+            () -> storageProvider().create(new CreateStorageRequestImpl(contentItems, properties)));
     tryCommitStorage(createStorageResponse);
     if (LOGGER.isTraceEnabled()) {
       LOGGER.trace(
@@ -567,13 +574,6 @@ private void tryCommitStorage(CreateStorageResponse createStorageResponse)
     }
   }
 
-  private List<ContentItemImpl> getVersionedContentItems(
-      List<ContentItem> entry, Map<String, Metacard> versionedMetacards) {
-    return entry.stream()
-        .map(content -> createContentItem(content, versionedMetacards))
-        .collect(Collectors.toList());
-  }
-
   private ContentItemImpl createContentItem(
       ContentItem content, Map<String, Metacard> versionedMetacards) {
     long size = 0;
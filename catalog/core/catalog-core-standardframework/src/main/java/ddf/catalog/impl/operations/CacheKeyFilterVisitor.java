@@ -0,0 +1,409 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.impl.operations;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.opengis.filter.And;
+import org.opengis.filter.BinaryComparisonOperator;
+import org.opengis.filter.BinaryLogicOperator;
+import org.opengis.filter.ExcludeFilter;
+import org.opengis.filter.Filter;
+import org.opengis.filter.FilterVisitor;
+import org.opengis.filter.Id;
+import org.opengis.filter.IncludeFilter;
+import org.opengis.filter.MultiValuedFilter;
+import org.opengis.filter.Not;
+import org.opengis.filter.Or;
+import org.opengis.filter.PropertyIsBetween;
+import org.opengis.filter.PropertyIsEqualTo;
+import org.opengis.filter.PropertyIsGreaterThan;
+import org.opengis.filter.PropertyIsGreaterThanOrEqualTo;
+import org.opengis.filter.PropertyIsLessThan;
+import org.opengis.filter.PropertyIsLessThanOrEqualTo;
+import org.opengis.filter.PropertyIsLike;
+import org.opengis.filter.PropertyIsNil;
+import org.opengis.filter.PropertyIsNotEqualTo;
+import org.opengis.filter.PropertyIsNull;
+import org.opengis.filter.expression.Expression;
+import org.opengis.filter.expression.Literal;
+import org.opengis.filter.expression.PropertyName;
+import org.opengis.filter.identity.Identifier;
+import org.opengis.filter.spatial.BBOX;
+import org.opengis.filter.spatial.Beyond;
+import org.opengis.filter.spatial.BinarySpatialOperator;
+import org.opengis.filter.spatial.Contains;
+import org.opengis.filter.spatial.Crosses;
+import org.opengis.filter.spatial.DWithin;
+import org.opengis.filter.spatial.Disjoint;
+import org.opengis.filter.spatial.DistanceBufferOperator;
+import org.opengis.filter.spatial.Equals;
+import org.opengis.filter.spatial.Intersects;
+import org.opengis.filter.spatial.Overlaps;
+import org.opengis.filter.spatial.Touches;
+import org.opengis.filter.spatial.Within;
+import org.opengis.filter.temporal.After;
+import org.opengis.filter.temporal.AnyInteracts;
+import org.opengis.filter.temporal.Before;
+import org.opengis.filter.temporal.Begins;
+import org.opengis.filter.temporal.BegunBy;
+import org.opengis.filter.temporal.BinaryTemporalOperator;
+import org.opengis.filter.temporal.During;
+import org.opengis.filter.temporal.EndedBy;
+import org.opengis.filter.temporal.Ends;
+import org.opengis.filter.temporal.Meets;
+import org.opengis.filter.temporal.MetBy;
+import org.opengis.filter.temporal.OverlappedBy;
+import org.opengis.filter.temporal.TContains;
+import org.opengis.filter.temporal.TEquals;
+import org.opengis.filter.temporal.TOverlaps;
+
+/**
+ * Renders a filter as a {@link QueryResponseCache} key. Every setting that changes which results
+ * match, such as the case sensitivity, the match action and the wildcard characters of a {@code
+ * PropertyIsLike}, is part of the key, and the children of {@code And} and {@code Or} are sorted so
+ * that filters that only differ in their order produce the same key.
+ *
+ * <p>Each visit returns the key as a {@link String}, or {@code null} if part of the filter cannot
+ * be rendered, in which case the query is not cached.
+ */
+class CacheKeyFilterVisitor implements FilterVisitor {
+
+  static final CacheKeyFilterVisitor INSTANCE = new CacheKeyFilterVisitor();
+
+  /** @return the cache key of the filter, or {@code null} if the filter cannot be cached */
+  @Nullable
+  static String toKey(@Nullable Filter filter) {
+    return filter == null
+        ? (String) INSTANCE.visitNullFilter(null)
+        : (String) filter.accept(INSTANCE, null);
+  }
+
+  @Override
+  public Object visitNullFilter(Object extraData) {
+    return "NULL";
+  }
+
+  @Override
+  public Object visit(ExcludeFilter filter, Object extraData) {
+    return "EXCLUDE";
+  }
+
+  @Override
+  public Object visit(IncludeFilter filter, Object extraData) {
+    return "INCLUDE";
+  }
+
+  @Override
+  public Object visit(And filter, Object extraData) {
+    return logical("AND", filter);
+  }
+
+  @Override
+  public Object visit(Or filter, Object extraData) {
+    return logical("OR", filter);
+  }
+
+  @Override
+  public Object visit(Not filter, Object extraData) {
+    String child = toKey(filter.getFilter());
+    return child == null ? null : "NOT[" + child + "]";
+  }
+
+  @Override
+  public Object visit(Id filter, Object extraData) {
+    List<String> ids = new ArrayList<>();
+    for (Identifier identifier : filter.getIdentifiers()) {
+      ids.add(String.valueOf(identifier.getID()));
+    }
+    Collections.sort(ids);
+    return "ID" + ids;
+  }
+
+  @Override
+  public Object visit(PropertyIsBetween filter, Object extraData) {
+    return operator(
+        "BETWEEN",
+        filter,
+        filter.getExpression(),
+        filter.getLowerBoundary(),
+        filter.getUpperBoundary());
+  }
+
+  @Override
+  public Object visit(PropertyIsEqualTo filter, Object extraData) {
+    return comparison("EQ", filter);
+  }
+
+  @Override
+  public Object visit(PropertyIsNotEqualTo filter, Object extraData) {
+    return comparison("NE", filter);
+  }
+
+  @Override
+  public Object visit(PropertyIsGreaterThan filter, Object extraData) {
+    return comparison("GT", filter);
+  }
+
+  @Override
+  public Object visit(PropertyIsGreaterThanOrEqualTo filter, Object extraData) {
+    return comparison("GTE", filter);
+  }
+
+  @Override
+  public Object visit(PropertyIsLessThan filter, Object extraData) {
+    return comparison("LT", filter);
+  }
+
+  @Override
+  public Object visit(PropertyIsLessThanOrEqualTo filter, Object extraData) {
+    return comparison("LTE", filter);
+  }
+
+  @Override
+  public Object visit(PropertyIsLike filter, Object extraData) {
+    String key = operator("LIKE", filter, filter.getExpression());
+    if (key == null) {
+      return null;
+    }
+    return key
+        + "[pattern="
+        + filter.getLiteral()
+        + ",wildCard="
+        + filter.getWildCard()
+        + ",singleChar="
+        + filter.getSingleChar()
+        + ",escape="
+        + filter.getEscape()
+        + ",matchCase="
+        + filter.isMatchingCase()
+        + "]";
+  }
+
+  @Override
+  public Object visit(PropertyIsNull filter, Object extraData) {
+    return operator("NULL", filter, filter.getExpression());
+  }
+
+  @Override
+  public Object visit(PropertyIsNil filter, Object extraData) {
+    String key = operator("NIL", filter, filter.getExpression());
+    return key == null ? null : key + "[reason=" + filter.getNilReason() + "]";
+  }
+
+  @Override
+  public Object visit(BBOX filter, Object extraData) {
+    return spatial("BBOX", filter);
+  }
+
+  @Override
+  public Object visit(Beyond filter, Object extraData) {
+    return distance("BEYOND", filter);
+  }
+
+  @Override
+  public Object visit(Contains filter, Object extraData) {
+    return spatial("CONTAINS", filter);
+  }
+
+  @Override
+  public Object visit(Crosses filter, Object extraData) {
+    return spatial("CROSSES", filter);
+  }
+
+  @Override
+  public Object visit(Disjoint filter, Object extraData) {
+    return spatial("DISJOINT", filter);
+  }
+
+  @Override
+  public Object visit(DWithin filter, Object extraData) {
+    return distance("DWITHIN", filter);
+  }
+
+  @Override
+  public Object visit(Equals filter, Object extraData) {
+    return spatial("EQUALS", filter);
+  }
+
+  @Override
+  public Object visit(Intersects filter, Object extraData) {
+    return spatial("INTERSECTS", filter);
+  }
+
+  @Override
+  public Object visit(Overlaps filter, Object extraData) {
+    return spatial("OVERLAPS", filter);
+  }
+
+  @Override
+  public Object visit(Touches filter, Object extraData) {
+    return spatial("TOUCHES", filter);
+  }
+
+  @Override
+  public Object visit(Within filter, Object extraData) {
+    return spatial("WITHIN", filter);
+  }
+
+  @Override
+  public Object visit(After after, Object extraData) {
+    return temporal("AFTER", after);
+  }
+
+  @Override
+  public Object visit(AnyInteracts anyInteracts, Object extraData) {
+    return temporal("ANYINTERACTS", anyInteracts);
+  }
+
+  @Override
+  public Object visit(Before before, Object extraData) {
+    return temporal("BEFORE", before);
+  }
+
+  @Override
+  public Object visit(Begins begins, Object extraData) {
+    return temporal("BEGINS", begins);
+  }
+
+  @Override
+  public Object visit(BegunBy begunBy, Object extraData) {
+    return temporal("BEGUNBY", begunBy);
+  }
+
+  @Override
+  public Object visit(During during, Object extraData) {
+    return temporal("DURING", during);
+  }
+
+  @Override
+  public Object visit(EndedBy endedBy, Object extraData) {
+    return temporal("ENDEDBY", endedBy);
+  }
+
+  @Override
+  public Object visit(Ends ends, Object extraData) {
+    return temporal("ENDS", ends);
+  }
+
+  @Override
+  public Object visit(Meets meets, Object extraData) {
+    return temporal("MEETS", meets);
+  }
+
+  @Override
+  public Object visit(MetBy metBy, Object extraData) {
+    return temporal("METBY", metBy);
+  }
+
+  @Override
+  public Object visit(OverlappedBy overlappedBy, Object extraData) {
+    return temporal("OVERLAPPEDBY", overlappedBy);
+  }
+
+  @Override
+  public Object visit(TContains contains, Object extraData) {
+    return temporal("TCONTAINS", contains);
+  }
+
+  @Override
+  public Object visit(TEquals equals, Object extraData) {
+    return temporal("TEQUALS", equals);
+  }
+
+  @Override
+  public Object visit(TOverlaps contains, Object extraData) {
+    return temporal("TOVERLAPS", contains);
+  }
+
+  @Nullable
+  private static String logical(String name, BinaryLogicOperator filter) {
+    List<String> children = new ArrayList<>();
+    for (Filter child : filter.getChildren()) {
+      String key = toKey(child);
+      if (key == null) {
+        return null;
+      }
+      children.add(key);
+    }
+    Collections.sort(children);
+    return name + children;
+  }
+
+  @Nullable
+  private static String comparison(String name, BinaryComparisonOperator filter) {
+    String key = operator(name, filter, filter.getExpression1(), filter.getExpression2());
+    return key == null ? null : key + "[matchCase=" + filter.isMatchingCase() + "]";
+  }
+
+  @Nullable
+  private static String spatial(String name, BinarySpatialOperator filter) {
+    return operator(name, filter, filter.getExpression1(), filter.getExpression2());
+  }
+
+  @Nullable
+  private static String distance(String name, DistanceBufferOperator filter) {
+    String key = spatial(name, filter);
+    return key == null
+        ? null
+        : key + "[distance=" + filter.getDistance() + ",units=" + filter.getDistanceUnits() + "]";
+  }
+
+  @Nullable
+  private static String temporal(String name, BinaryTemporalOperator filter) {
+    return operator(name, filter, filter.getExpression1(), filter.getExpression2());
+  }
+
+  @Nullable
+  private static String operator(String name, Filter filter, Expression... expressions) {
+    StringBuilder key = new StringBuilder(name).append('[');
+    for (Expression expression : expressions) {
+      String expressionKey = toKey(expression);
+      if (expressionKey == null) {
+        return null;
+      }
+      key.append(expressionKey).append(',');
+    }
+    if (filter instanceof MultiValuedFilter) {
+      key.append("matchAction=").append(((MultiValuedFilter) filter).getMatchAction());
+    }
+    return key.append(']').toString();
+  }
+
+  @Nullable
+  private static String toKey(@Nullable Expression expression) {
+    if (expression == null) {
+      return "null";
+    } else if (expression instanceof PropertyName) {
+      return "property:" + ((PropertyName) expression).getPropertyName();
+    } else if (expression instanceof Literal) {
+      Object value = ((Literal) expression).getValue();
+      if (value instanceof Date) {
+        return "date:" + ((Date) value).getTime();
+      }
+      return hasStringForm(value) ? "literal:" + value : null;
+    }
+    return hasStringForm(expression) ? "expression:" + expression : null;
+  }
+
+  /** @return false if the object only has the default {@link Object#toString()} */
+  private static boolean hasStringForm(@Nullable Object object) {
+    return object == null
+        || !String.valueOf(object)
+            .equals(object.getClass().getName() + "@" + Integer.toHexString(object.hashCode()));
+  }
+}
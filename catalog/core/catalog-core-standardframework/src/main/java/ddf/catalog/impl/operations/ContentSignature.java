@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.impl.operations;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Describes the format of a piece of content from its first bytes, so that content of the same
+ * format can be recognized without parsing it.
+ *
+ * <p>XML content is described by the namespace and name of its root element, JSON content by its
+ * first character and anything else by its first bytes.
+ */
+final class ContentSignature {
+
+  /** Number of bytes read to determine the signature. */
+  static final int SNIFF_LENGTH = 8192;
+
+  private static final int MAGIC_LENGTH = 4;
+
+  private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
+  private ContentSignature() {}
+
+  /**
+   * @param content path of the content
+   * @return the signature of the content
+   * @throws IOException if the content cannot be read
+   */
+  static String of(Path content) throws IOException {
+    byte[] prefix = new byte[SNIFF_LENGTH];
+    int length;
+    try (InputStream inputStream = Files.newInputStream(content)) {
+      length = IOUtils.read(inputStream, prefix);
+    }
+    return of(prefix, length);
+  }
+
+  static String of(byte[] prefix, int length) {
+    int start = skipByteOrderMarkAndWhitespace(prefix, length);
+    if (start == length) {
+      return "empty";
+    }
+
+    switch (prefix[start]) {
+      case '<':
+        return "xml:" + StringUtils.defaultString(readRootElement(prefix, length));
+      case '{':
+      case '[':
+        return "json";
+      default:
+        StringBuilder magic = new StringBuilder("magic:");
+        for (int i = 0; i < Math.min(MAGIC_LENGTH, length); i++) {
+          magic.append(String.format("%02x", prefix[i]));
+        }
+        return magic.toString();
+    }
+  }
+
+  /** @return the qualified name of the root element, or {@code null} if it cannot be read */
+  private static String readRootElement(byte[] prefix, int length) {
+    XMLStreamReader reader = null;
+    try {
+      reader = XML_INPUT_FACTORY.createXMLStreamReader(new ByteArrayInputStream(prefix, 0, length));
+      while (reader.hasNext()) {
+        if (reader.next() == XMLStreamReader.START_ELEMENT) {
+          return reader.getName().toString();
+        }
+      }
+    } catch (XMLStreamException e) {
+      // the root element did not fit into the prefix or the content is not well-formed
+    } finally {
+      if (reader != null) {
+        try {
+          reader.close();
+        } catch (XMLStreamException e) {
+          // nothing to release for an in-memory reader
+        }
+      }
+    }
+    return null;
+  }
+
+  private static int skipByteOrderMarkAndWhitespace(byte[] prefix, int length) {
+    int start = 0;
+    if (length >= 3
+        && (prefix[0] & 0xFF) == 0xEF
+        && (prefix[1] & 0xFF) == 0xBB
+        && (prefix[2] & 0xFF) == 0xBF) {
+      start = 3;
+    }
+    while (start < length && Character.isWhitespace(prefix[start])) {
+      start++;
+    }
+    return start;
+  }
+
+  private static XMLInputFactory createXmlInputFactory() {
+    XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
+    xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+    xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+    xmlInputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+    return xmlInputFactory;
+  }
+}
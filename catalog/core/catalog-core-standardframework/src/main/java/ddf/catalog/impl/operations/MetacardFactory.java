@@ -13,6 +13,9 @@
  */
 package ddf.catalog.impl.operations;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.MoreExecutors;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.MetacardCreationException;
 import ddf.catalog.data.impl.AttributeImpl;
@@ -23,12 +26,21 @@
 import java.io.InputStream;
 import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import javax.activation.MimeType;
 import javax.activation.MimeTypeParseException;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.exception.ExceptionUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
 import org.codice.ddf.platform.util.uuidgenerator.UuidGenerator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,10 +51,27 @@
  * <p>This factory class contains methods specific to metacard creation for the CFI and its support
  * classes. No operations/support methods should be added to this class except in support of CFI
  * metacard creation.
+ *
+ * <p>Candidates are tried in service ranking order. A candidate that failed to create a metacard
+ * for {@value #SKIP_AFTER_FAILURES} contents in a row with the same mime type and {@link
+ * ContentSignature} is tried after the other candidates for a while, and is still tried if they all
+ * fail. The {@value #PARALLEL_CANDIDATES_PROPERTY} system property sets how many candidates are run
+ * at the same time, in which case the highest ranked candidate that creates a metacard is used and
+ * the others are cancelled. Candidates are tried one at a time by default.
  */
 public class MetacardFactory {
   private static final Logger LOGGER = LoggerFactory.getLogger(MetacardFactory.class);
 
+  static final String PARALLEL_CANDIDATES_PROPERTY = "catalog.transformer.parallelCandidates";
+
+  private static final int DEFAULT_PARALLEL_CANDIDATES = 1;
+
+  private static final long MAXIMUM_SIGNATURES = 1000;
+
+  static final int SKIP_AFTER_FAILURES = 3;
+
+  private static final long FAILURE_EXPIRATION_MINUTES = 10;
+
   //
   // Injected properties
   //
@@ -50,47 +79,92 @@ public class MetacardFactory {
 
   private UuidGenerator uuidGenerator;
 
+  private final int parallelCandidates;
+
+  private final ExecutorService candidateExecutor;
+
+  /**
+   * Number of contents in a row each transformer failed to create a metacard for, keyed by mime
+   * type and content signature.
+   */
+  private final Cache<String, Map<InputTransformer, Integer>> failures =
+      CacheBuilder.newBuilder()
+          .maximumSize(MAXIMUM_SIGNATURES)
+          .expireAfterWrite(FAILURE_EXPIRATION_MINUTES, TimeUnit.MINUTES)
+          .build();
+
   public MetacardFactory(
       MimeTypeToTransformerMapper mimeTypeToTransformerMapper, UuidGenerator uuidGenerator) {
+    this(
+        mimeTypeToTransformerMapper,
+        uuidGenerator,
+        NumberUtils.toInt(
+            System.getProperty(PARALLEL_CANDIDATES_PROPERTY), DEFAULT_PARALLEL_CANDIDATES));
+  }
+
+  MetacardFactory(
+      MimeTypeToTransformerMapper mimeTypeToTransformerMapper,
+      UuidGenerator uuidGenerator,
+      int parallelCandidates) {
     this.mimeTypeToTransformerMapper = mimeTypeToTransformerMapper;
     this.uuidGenerator = uuidGenerator;
+    this.parallelCandidates = Math.max(1, parallelCandidates);
+    this.candidateExecutor =
+        this.parallelCandidates > 1
+            ? Executors.newFixedThreadPool(
+                Runtime.getRuntime().availableProcessors(),
+                StandardThreadFactoryBuilder.newThreadFactory("metacardFactoryThread"))
+            : null;
+  }
+
+  public void destroy() {
+    if (candidateExecutor != null) {
+      MoreExecutors.shutdownAndAwaitTermination(candidateExecutor, 5, TimeUnit.SECONDS);
+    }
   }
 
   Metacard generateMetacard(String mimeTypeRaw, String id, String fileName, Path tmpContentPath)
       throws MetacardCreationException, MimeTypeParseException {
 
-    Metacard generatedMetacard = null;
-
     MimeType mimeType = new MimeType(mimeTypeRaw);
 
     List<InputTransformer> listOfCandidates =
         mimeTypeToTransformerMapper.findMatches(InputTransformer.class, mimeType);
-    List<String> stackTraceList = new ArrayList<>();
+    List<String> errors = new ArrayList<>();
 
     LOGGER.debug("List of matches for mimeType [{}]: {}", mimeType, listOfCandidates);
 
-    for (InputTransformer candidate : listOfCandidates) {
-      try (InputStream transformerStream =
-          com.google.common.io.Files.asByteSource(tmpContentPath.toFile()).openStream()) {
-        generatedMetacard = candidate.transform(transformerStream);
-      } catch (RuntimeException | CatalogTransformerException | IOException e) {
-        List<String> stackTraces = Arrays.asList(ExceptionUtils.getRootCauseStackTrace(e));
-        stackTraceList.add(String.format("Transformer [%s] could not create metacard.", candidate));
-        stackTraceList.addAll(stackTraces);
-        LOGGER.debug("Transformer [{}] could not create metacard.", candidate, e);
-      }
-      if (generatedMetacard != null) {
-        break;
-      }
+    String signatureKey = getSignatureKey(mimeType, tmpContentPath);
+    Map<InputTransformer, Integer> signatureFailures =
+        signatureKey == null ? null : getSignatureFailures(signatureKey);
+    List<InputTransformer> rankedCandidates = rankCandidates(listOfCandidates, signatureFailures);
+
+    Selection selection = null;
+    for (int start = 0;
+        start < rankedCandidates.size() && selection == null;
+        start += parallelCandidates) {
+      List<InputTransformer> candidates =
+          rankedCandidates.subList(
+              start, Math.min(start + parallelCandidates, rankedCandidates.size()));
+      selection =
+          candidates.size() == 1
+              ? transform(candidates.get(0), tmpContentPath, errors)
+              : race(candidates, tmpContentPath, errors);
     }
 
-    if (generatedMetacard == null) {
+    if (signatureFailures != null) {
+      recordFailures(signatureFailures, rankedCandidates, selection);
+    }
+
+    if (selection == null) {
       throw new MetacardCreationException(
           String.format(
               "Could not create metacard with mimeType %s : %s",
-              mimeTypeRaw, StringUtils.join(stackTraceList, "\n")));
+              mimeTypeRaw, StringUtils.join(errors, "\n")));
     }
 
+    Metacard generatedMetacard = selection.metacard;
+
     if (id != null) {
       generatedMetacard.setAttribute(new AttributeImpl(Metacard.ID, id));
     } else {
@@ -103,4 +177,139 @@ Metacard generateMetacard(String mimeTypeRaw, String id, String fileName, Path t
 
     return generatedMetacard;
   }
+
+  private String getSignatureKey(MimeType mimeType, Path tmpContentPath) {
+    try {
+      return mimeType + " " + ContentSignature.of(tmpContentPath);
+    } catch (IOException e) {
+      LOGGER.debug("Could not determine the signature of {}.", tmpContentPath, e);
+      return null;
+    }
+  }
+
+  private Map<InputTransformer, Integer> getSignatureFailures(String signatureKey) {
+    try {
+      return failures.get(signatureKey, () -> Collections.synchronizedMap(new WeakHashMap<>()));
+    } catch (ExecutionException e) {
+      LOGGER.debug("Could not remember the failures for [{}].", signatureKey, e);
+      return null;
+    }
+  }
+
+  /**
+   * Keeps the service ranking order, except that candidates that keep failing for content of the
+   * same kind are moved to the end.
+   */
+  private List<InputTransformer> rankCandidates(
+      List<InputTransformer> candidates, Map<InputTransformer, Integer> signatureFailures) {
+    if (signatureFailures == null || signatureFailures.isEmpty()) {
+      return candidates;
+    }
+
+    List<InputTransformer> rankedCandidates = new ArrayList<>(candidates.size());
+    List<InputTransformer> failingCandidates = new ArrayList<>();
+    for (InputTransformer candidate : candidates) {
+      if (signatureFailures.getOrDefault(candidate, 0) >= SKIP_AFTER_FAILURES) {
+        failingCandidates.add(candidate);
+      } else {
+        rankedCandidates.add(candidate);
+      }
+    }
+    if (!failingCandidates.isEmpty()) {
+      LOGGER.debug("Trying transformers {} last.", failingCandidates);
+    }
+    rankedCandidates.addAll(failingCandidates);
+    return rankedCandidates;
+  }
+
+  /**
+   * Counts a failure for every candidate ranked ahead of the selected one, which were all tried,
+   * and resets the count of the selected one.
+   */
+  private void recordFailures(
+      Map<InputTransformer, Integer> signatureFailures,
+      List<InputTransformer> rankedCandidates,
+      Selection selection) {
+    int selected =
+        selection == null
+            ? rankedCandidates.size()
+            : rankedCandidates.indexOf(selection.transformer);
+    for (InputTransformer failed : rankedCandidates.subList(0, selected)) {
+      signatureFailures.merge(failed, 1, Integer::sum);
+    }
+    if (selection != null) {
+      signatureFailures.remove(selection.transformer);
+    }
+  }
+
+  /** Runs the candidates at the same time and keeps the highest ranked metacard. */
+  private Selection race(
+      List<InputTransformer> candidates, Path tmpContentPath, List<String> errors)
+      throws MetacardCreationException {
+    List<Future<Selection>> futures = new ArrayList<>(candidates.size());
+    List<List<String>> candidateErrors = new ArrayList<>(candidates.size());
+    for (InputTransformer candidate : candidates) {
+      List<String> errorsOfCandidate = new ArrayList<>();
+      candidateErrors.add(errorsOfCandidate);
+      futures.add(
+          candidateExecutor.submit(() -> transform(candidate, tmpContentPath, errorsOfCandidate)));
+    }
+
+    try {
+      for (int i = 0; i < futures.size(); i++) {
+        Selection selection;
+        try {
+          selection = futures.get(i).get();
+        } catch (ExecutionException e) {
+          candidateErrors.get(i).add(getFailure(candidates.get(i), e.getCause()));
+          LOGGER.debug("Transformer [{}] could not create metacard.", candidates.get(i), e);
+          selection = null;
+        }
+        errors.addAll(candidateErrors.get(i));
+        if (selection != null) {
+          return selection;
+        }
+      }
+      return null;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new MetacardCreationException("Interrupted while creating metacard.");
+    } finally {
+      futures.forEach(future -> future.cancel(true));
+    }
+  }
+
+  private Selection transform(
+      InputTransformer candidate, Path tmpContentPath, List<String> errors) {
+    try (InputStream transformerStream =
+        com.google.common.io.Files.asByteSource(tmpContentPath.toFile()).openStream()) {
+      Metacard metacard = candidate.transform(transformerStream);
+      if (metacard != null) {
+        return new Selection(candidate, metacard);
+      }
+      errors.add(String.format("Transformer [%s] did not create a metacard.", candidate));
+    } catch (RuntimeException | CatalogTransformerException | IOException e) {
+      errors.add(getFailure(candidate, e));
+      LOGGER.debug("Transformer [{}] could not create metacard.", candidate, e);
+    }
+    return null;
+  }
+
+  private static String getFailure(InputTransformer candidate, Throwable e) {
+    return String.format(
+        "Transformer [%s] could not create metacard: %s",
+        candidate, ExceptionUtils.getRootCauseMessage(e));
+  }
+
+  private static class Selection {
+
+    private final InputTransformer transformer;
+
+    private final Metacard metacard;
+
+    Selection(InputTransformer transformer, Metacard metacard) {
+      this.transformer = transformer;
+      this.metacard = metacard;
+    }
+  }
 }
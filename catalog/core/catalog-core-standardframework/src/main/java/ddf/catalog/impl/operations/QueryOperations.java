@@ -129,6 +129,8 @@ public class QueryOperations extends DescribableImpl {
 
   private Permissions permissions;
 
+  private QueryResponseCache queryResponseCache;
+
   public QueryOperations(
       FrameworkProperties frameworkProperties,
       SourceOperations sourceOperations,
@@ -156,6 +158,10 @@ public void setQueryTimeoutMillis(long queryTimeoutMillis) {
     this.queryTimeoutMillis = queryTimeoutMillis;
   }
 
+  public void setQueryResponseCache(QueryResponseCache queryResponseCache) {
+    this.queryResponseCache = queryResponseCache;
+  }
+
   //
   // Delegate methods
   //
@@ -303,8 +309,33 @@ QueryResponse doQuery(QueryRequest queryRequest, FederationStrategy strategy)
               queryRequest.getProperties());
     }
 
+    List<String> queriedSourceIds =
+        querySources.sourcesToQuery.stream().map(Source::getId).collect(Collectors.toList());
+    String cacheKey = null;
+    long cacheGeneration = 0;
+    if (queryResponseCache != null && querySources.exceptions.isEmpty()) {
+      cacheGeneration = queryResponseCache.getGeneration();
+      cacheKey = queryResponseCache.getCacheKey(queryRequest, queriedSourceIds, strategy);
+      if (cacheKey != null) {
+        QueryResponse cachedResponse = queryResponseCache.get(cacheKey, queryRequest);
+        if (cachedResponse != null) {
+          return cachedResponse;
+        }
+      }
+    }
+
     QueryResponse response = strategy.federate(querySources.sourcesToQuery, queryRequest);
     frameworkProperties.getQueryResponsePostProcessor().processResponse(response);
+
+    if (cacheKey != null) {
+      queryResponseCache.put(
+          cacheKey,
+          response,
+          queriedSourceIds,
+          querySources.sourcesToQuery.contains(sourceOperations.getCatalog()),
+          cacheGeneration);
+    }
+
     return addProcessingDetails(querySources.exceptions, response);
   }
 
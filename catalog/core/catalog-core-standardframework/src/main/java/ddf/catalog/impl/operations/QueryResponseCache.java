@@ -0,0 +1,378 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.impl.operations;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import ddf.catalog.Constants;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.federation.FederationStrategy;
+import ddf.catalog.operation.CreateResponse;
+import ddf.catalog.operation.DeleteResponse;
+import ddf.catalog.operation.Query;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.QueryResponse;
+import ddf.catalog.operation.Request;
+import ddf.catalog.operation.UpdateResponse;
+import ddf.catalog.operation.impl.QueryImpl;
+import ddf.catalog.operation.impl.QueryResponseImpl;
+import ddf.catalog.plugin.PostIngestPlugin;
+import ddf.catalog.util.impl.Requests;
+import ddf.security.SecurityConstants;
+import ddf.security.Subject;
+import ddf.security.SubjectOperations;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+import org.opengis.filter.Filter;
+import org.opengis.filter.sort.SortBy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Opt-in cache of federated query responses used by {@link QueryOperations}.
+ *
+ * <p>Responses are keyed by a canonical form of the filter, the paging and sorting parameters, the
+ * sources queried and the security attributes of the requesting subject. Only responses without
+ * processing errors are cached. Entries expire after a fixed time and the least recently used
+ * entries are evicted once the cache is full. Entries that include a source are invalidated when
+ * metacards are created, updated or deleted in that source.
+ *
+ * <p>Cached responses are captured before the post-query access and post-query plugins run, so
+ * those plugins are still applied to every response returned from the cache.
+ */
+public class QueryResponseCache implements PostIngestPlugin {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(QueryResponseCache.class);
+
+  private static final String METRIC_PREFIX = "ddf.catalog.query.cache";
+
+  private static final long DEFAULT_EXPIRATION_SECONDS = 30;
+
+  private static final long DEFAULT_MAXIMUM_SIZE = 500;
+
+  /** Request properties that change the response and are part of the cache key. */
+  private static final List<String> KEYED_PROPERTIES =
+      Collections.unmodifiableList(
+          Arrays.asList(Constants.QUERY_HIGHLIGHT_KEY, Constants.ADDITIONAL_SORT_BYS));
+
+  /** Request properties that make a query uncacheable. */
+  private static final List<String> UNCACHEABLE_PROPERTIES =
+      Collections.unmodifiableList(
+          Arrays.asList(
+              Constants.QUERY_CURSOR_MARK_KEY,
+              Constants.EXPERIMENTAL_FACET_PROPERTIES_KEY,
+              Constants.SUGGESTION_QUERY_KEY,
+              "mode"));
+
+  private final SubjectOperations subjectOperations;
+
+  private final Counter hitCounter;
+
+  private final Counter missCounter;
+
+  private final Counter evictionCounter;
+
+  private volatile boolean enabled = false;
+
+  private long expirationSeconds = DEFAULT_EXPIRATION_SECONDS;
+
+  private long maximumSize = DEFAULT_MAXIMUM_SIZE;
+
+  private volatile Cache<String, CachedResponse> cache;
+
+  /** Incremented whenever metacards are created, updated or deleted. */
+  private final AtomicLong generation = new AtomicLong();
+
+  public QueryResponseCache(SubjectOperations subjectOperations) {
+    this.subjectOperations = subjectOperations;
+    this.hitCounter = Metrics.counter(METRIC_PREFIX + ".hits");
+    this.missCounter = Metrics.counter(METRIC_PREFIX + ".misses");
+    this.evictionCounter = Metrics.counter(METRIC_PREFIX + ".evictions");
+    this.cache = buildCache();
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+    if (!enabled) {
+      cache.invalidateAll();
+    }
+  }
+
+  public void setExpirationSeconds(long expirationSeconds) {
+    if (expirationSeconds != this.expirationSeconds) {
+      this.expirationSeconds = expirationSeconds;
+      cache = buildCache();
+    }
+  }
+
+  public void setMaximumSize(long maximumSize) {
+    if (maximumSize != this.maximumSize) {
+      this.maximumSize = maximumSize;
+      cache = buildCache();
+    }
+  }
+
+  /**
+   * Builds the cache key for a query request about to be federated.
+   *
+   * @param request the query request, after the pre-query plugins have run
+   * @param sourceIds IDs of the sources the request will be sent to
+   * @param strategy the federation strategy that will execute the request
+   * @return the cache key, or {@code null} if the request cannot be cached
+   */
+  @Nullable
+  String getCacheKey(
+      QueryRequest request, Collection<String> sourceIds, FederationStrategy strategy) {
+    if (!enabled || request == null || request.getQuery() == null) {
+      return null;
+    }
+
+    for (String property : UNCACHEABLE_PROPERTIES) {
+      if (request.getPropertyValue(property) != null) {
+        return null;
+      }
+    }
+
+    Query query = request.getQuery();
+    String filter = canonicalize(query);
+    if (filter == null) {
+      return null;
+    }
+
+    StringBuilder key = new StringBuilder(filter);
+    key.append("|start=").append(query.getStartIndex());
+    key.append("|size=").append(query.getPageSize());
+    key.append("|count=").append(query.requestsTotalResultsCount());
+    key.append("|sort=").append(canonicalize(query.getSortBy()));
+    for (String property : KEYED_PROPERTIES) {
+      Serializable value = request.getPropertyValue(property);
+      if (value instanceof SortBy[]) {
+        key.append('|').append(property).append('=');
+        for (SortBy sortBy : (SortBy[]) value) {
+          key.append(canonicalize(sortBy)).append(';');
+        }
+      } else if (value != null) {
+        key.append('|').append(property).append('=').append(value);
+      }
+    }
+    key.append("|sources=").append(new TreeSet<>(sourceIds));
+    key.append("|strategy=").append(strategy.getClass().getName());
+    key.append("|subject=").append(getSubjectAttributes(request));
+
+    return key.toString();
+  }
+
+  /** @return a copy of the cached response for the key, or {@code null} if there is none */
+  @Nullable
+  QueryResponse get(String key, QueryRequest request) {
+    CachedResponse cachedResponse = cache.getIfPresent(key);
+    if (cachedResponse == null) {
+      missCounter.increment();
+      return null;
+    }
+
+    hitCounter.increment();
+    LOGGER.trace("Query response cache hit for {}", key);
+    return new QueryResponseImpl(
+        request,
+        copyResults(cachedResponse.results),
+        true,
+        cachedResponse.hits,
+        new HashMap<>(cachedResponse.properties),
+        null);
+  }
+
+  /**
+   * @return the current generation, to be taken before a query is federated and passed to {@link
+   *     #put}
+   */
+  long getGeneration() {
+    return generation.get();
+  }
+
+  /**
+   * Caches a completed response, unless it has processing details or metacards were created,
+   * updated or deleted while the query ran, in which case the response may already be stale.
+   *
+   * @param key key returned by {@link #getCacheKey}
+   * @param response completed federated response
+   * @param sourceIds IDs of the sources the request was sent to
+   * @param includesLocalProvider whether the local catalog provider was queried
+   * @param queryGeneration value of {@link #getGeneration()} before the query was federated
+   */
+  void put(
+      String key,
+      QueryResponse response,
+      Collection<String> sourceIds,
+      boolean includesLocalProvider,
+      long queryGeneration) {
+    if (!enabled
+        || !response.getProcessingDetails().isEmpty()
+        || generation.get() != queryGeneration) {
+      return;
+    }
+
+    Cache<String, CachedResponse> currentCache = cache;
+    CachedResponse cachedResponse =
+        new CachedResponse(
+            copyResults(response.getResults()),
+            response.getHits(),
+            new HashMap<>(response.getProperties()),
+            new HashSet<>(sourceIds),
+            includesLocalProvider);
+    currentCache.put(key, cachedResponse);
+
+    // an invalidation between the check above and the put may have missed the new entry
+    if (generation.get() != queryGeneration) {
+      currentCache.asMap().remove(key, cachedResponse);
+    }
+  }
+
+  @Override
+  public CreateResponse process(CreateResponse input) {
+    invalidate(input.getRequest());
+    return input;
+  }
+
+  @Override
+  public UpdateResponse process(UpdateResponse input) {
+    invalidate(input.getRequest());
+    return input;
+  }
+
+  @Override
+  public DeleteResponse process(DeleteResponse input) {
+    invalidate(input.getRequest());
+    return input;
+  }
+
+  private void invalidate(Request request) {
+    generation.incrementAndGet();
+    if (cache.size() == 0) {
+      return;
+    }
+
+    boolean local = Requests.isLocal(request);
+    Set<String> storeIds =
+        request == null || request.getStoreIds() == null
+            ? Collections.emptySet()
+            : request.getStoreIds();
+
+    cache
+        .asMap()
+        .values()
+        .removeIf(
+            cachedResponse ->
+                (local && cachedResponse.includesLocalProvider)
+                    || !Collections.disjoint(cachedResponse.sourceIds, storeIds));
+  }
+
+  private Cache<String, CachedResponse> buildCache() {
+    return CacheBuilder.newBuilder()
+        .expireAfterWrite(expirationSeconds, TimeUnit.SECONDS)
+        .maximumSize(maximumSize)
+        .removalListener(this::onRemoval)
+        .build();
+  }
+
+  private void onRemoval(RemovalNotification<String, CachedResponse> notification) {
+    if (notification.wasEvicted()) {
+      evictionCounter.increment();
+    }
+  }
+
+  private Map<String, ? extends Collection<String>> getSubjectAttributes(QueryRequest request) {
+    Serializable subject = request.getPropertyValue(SecurityConstants.SECURITY_SUBJECT);
+    if (subject instanceof Subject && subjectOperations != null) {
+      return new TreeMap<>(subjectOperations.getSubjectAttributes((Subject) subject));
+    }
+    return Collections.emptyMap();
+  }
+
+  @Nullable
+  private static String canonicalize(Query query) {
+    Filter filter = query;
+    while (filter instanceof QueryImpl) {
+      filter = ((QueryImpl) filter).getFilter();
+    }
+    return filter instanceof Query ? null : CacheKeyFilterVisitor.toKey(filter);
+  }
+
+  private static String canonicalize(@Nullable SortBy sortBy) {
+    if (sortBy == null || sortBy.getPropertyName() == null) {
+      return "";
+    }
+    return sortBy.getPropertyName().getPropertyName() + " " + sortBy.getSortOrder();
+  }
+
+  private static List<Result> copyResults(List<Result> results) {
+    List<Result> copies = new ArrayList<>(results.size());
+    for (Result result : results) {
+      Metacard metacard = result.getMetacard();
+      ResultImpl copy = new ResultImpl(new MetacardImpl(metacard, metacard.getMetacardType()));
+      copy.setRelevanceScore(result.getRelevanceScore());
+      copy.setDistanceInMeters(result.getDistanceInMeters());
+      copies.add(copy);
+    }
+    return copies;
+  }
+
+  private static class CachedResponse {
+    private final List<Result> results;
+
+    private final long hits;
+
+    private final Map<String, Serializable> properties;
+
+    private final Set<String> sourceIds;
+
+    private final boolean includesLocalProvider;
+
+    CachedResponse(
+        List<Result> results,
+        long hits,
+        Map<String, Serializable> properties,
+        Set<String> sourceIds,
+        boolean includesLocalProvider) {
+      this.results = results;
+      this.hits = hits;
+      this.properties = properties;
+      this.sourceIds = sourceIds;
+      this.includesLocalProvider = includesLocalProvider;
+    }
+  }
+}
@@ -42,6 +42,7 @@ class MetacardFactorySpec extends Specification {
     private InputTransformer itBad
     private InputTransformer itRuntimeBad
     private MetacardFactory metacardFactory
+    private MimeTypeToTransformerMapper mimeTypeToTransformerMapper
     private UuidGenerator uuidGenerator
     private Path path
 
@@ -65,7 +66,7 @@ class MetacardFactorySpec extends Specification {
         itXml.transform(_ as InputStream) >> { metacardXml }
         itXml2.transform(_ as InputStream) >> { metacardXml2 }
 
-        def mimeTypeToTransformerMapper = Mock(MimeTypeToTransformerMapper)
+        mimeTypeToTransformerMapper = Mock(MimeTypeToTransformerMapper)
         mimeTypeToTransformerMapper.findMatches(_ as Class<InputTransformer>, _ as MimeType) >> { x, MimeType m ->
             if (m.baseType == 'application/xml') {
                 [itXml, itXml2, itBad]
@@ -169,4 +170,74 @@ class MetacardFactorySpec extends Specification {
 
         metacard == metacardXml2
     }
+
+    def 'keeps the ranking order when the preferred transformer failed on one content'() {
+        setup:
+        file.text = '<?xml version="1.0"?><metacard xmlns="urn:catalog:metacard"/>'
+
+        when:
+        def first = metacardFactory.generateMetacard('application/xml3', 'first-id', 'filename', path)
+        def second = metacardFactory.generateMetacard('application/xml3', 'second-id', 'filename', path)
+
+        then:
+        2 * itBad.transform(_ as InputStream) >> { throw new IOException() } >> metacardXml2
+        1 * itXml.transform(_ as InputStream) >> { metacardXml }
+
+        first == metacardXml
+        second == metacardXml2
+    }
+
+    def 'tries a transformer that keeps failing for the same kind of content last'() {
+        setup:
+        file.text = '<?xml version="1.0"?><metacard xmlns="urn:catalog:metacard"/>'
+
+        when:
+        (MetacardFactory.SKIP_AFTER_FAILURES + 1).times {
+            metacardFactory.generateMetacard('application/xml3', "id-$it", 'filename', path)
+        }
+
+        then:
+        MetacardFactory.SKIP_AFTER_FAILURES * itBad.transform(_ as InputStream) >> { throw new IOException() }
+        (MetacardFactory.SKIP_AFTER_FAILURES + 1) * itXml.transform(_ as InputStream) >> { metacardXml }
+    }
+
+    def 'still tries a transformer that keeps failing when the others fail'() {
+        setup:
+        file.text = '<?xml version="1.0"?><metacard xmlns="urn:catalog:metacard"/>'
+        def badCalls = 0
+
+        when:
+        MetacardFactory.SKIP_AFTER_FAILURES.times {
+            metacardFactory.generateMetacard('application/xml3', "id-$it", 'filename', path)
+        }
+        def metacard = metacardFactory.generateMetacard('application/xml3', 'last-id', 'filename', path)
+
+        then:
+        (MetacardFactory.SKIP_AFTER_FAILURES + 1) * itBad.transform(_ as InputStream) >> {
+            if (++badCalls <= MetacardFactory.SKIP_AFTER_FAILURES) {
+                throw new IOException()
+            }
+            metacardXml2
+        }
+        MetacardFactory.SKIP_AFTER_FAILURES * itXml.transform(_ as InputStream) >> { metacardXml }
+        1 * itXml.transform(_ as InputStream) >> { throw new IOException() }
+
+        metacard == metacardXml2
+    }
+
+    def 'keeps the highest ranked metacard when candidates run at the same time'() {
+        setup:
+        def parallelFactory = new MetacardFactory(mimeTypeToTransformerMapper, uuidGenerator, 2)
+
+        when:
+        def xml = parallelFactory.generateMetacard('application/xml', 'test-id', 'filename', path)
+        def xml3 = parallelFactory.generateMetacard('application/xml3', 'test-id', 'filename', path)
+
+        then:
+        xml == metacardXml
+        xml3 == metacardXml
+
+        cleanup:
+        parallelFactory.destroy()
+    }
 }
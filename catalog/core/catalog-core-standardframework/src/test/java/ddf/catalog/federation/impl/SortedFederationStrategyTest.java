@@ -22,6 +22,7 @@
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
@@ -31,6 +32,7 @@
 import ddf.catalog.data.Result;
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.federation.FederationException;
 import ddf.catalog.operation.ProcessingDetails;
 import ddf.catalog.operation.Query;
 import ddf.catalog.operation.QueryRequest;
@@ -56,7 +58,10 @@
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletionService;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import org.geotools.filter.NullFilterImpl;
 import org.junit.Before;
@@ -488,6 +493,129 @@ public void testValidCollectionWithNullSource() throws Exception {
     strategy.federate(sources, fedQueryRequest);
   }
 
+  @Test
+  public void testSlowSourceIsSkipped() throws Exception {
+    FakeTicker ticker = new FakeTicker();
+    strategy =
+        new SortedFederationStrategy(
+            queryExecutor,
+            Arrays.asList(preQueryPlugin),
+            new ArrayList<>(),
+            new SortedQueryMonitorFactory(),
+            ticker);
+    strategy.setCircuitBreakerEnabled(true);
+    when(mockQuery.getTimeoutMillis()).thenReturn(10L);
+    when(mockResponse.getProperties()).thenReturn(properties);
+    QueryRequest fedQueryRequest = new QueryRequestImpl(mockQuery, properties);
+
+    Source slowSource = mock(Source.class);
+    when(slowSource.getId()).thenReturn("slow source");
+    when(slowSource.query(any(QueryRequest.class)))
+        .thenAnswer(
+            invocation -> {
+              ticker.advance(30);
+              return mockResponse;
+            });
+    strategy.federate(Collections.singletonList(slowSource), fedQueryRequest);
+
+    QueryResponse federateResponse =
+        strategy.federate(Collections.singletonList(slowSource), fedQueryRequest);
+
+    verify(slowSource, times(1)).query(any(QueryRequest.class));
+    assertThat(federateResponse.getProcessingDetails().size(), is(1));
+    ProcessingDetails details = federateResponse.getProcessingDetails().iterator().next();
+    assertThat(details.getSourceId(), is("slow source"));
+    assertThat(details.getException(), instanceOf(FederationException.class));
+  }
+
+  @Test
+  public void testSlowSourceIsQueriedWithCircuitBreakerDisabled() throws Exception {
+    FakeTicker ticker = new FakeTicker();
+    strategy =
+        new SortedFederationStrategy(
+            queryExecutor,
+            Arrays.asList(preQueryPlugin),
+            new ArrayList<>(),
+            new SortedQueryMonitorFactory(),
+            ticker);
+    when(mockQuery.getTimeoutMillis()).thenReturn(10L);
+    when(mockResponse.getProperties()).thenReturn(properties);
+    QueryRequest fedQueryRequest = new QueryRequestImpl(mockQuery, properties);
+    strategy.setCircuitBreakerEnabled(false);
+
+    Source slowSource = mock(Source.class);
+    when(slowSource.getId()).thenReturn("slow source");
+    when(slowSource.query(any(QueryRequest.class)))
+        .thenAnswer(
+            invocation -> {
+              ticker.advance(30);
+              return mockResponse;
+            });
+    strategy.federate(Collections.singletonList(slowSource), fedQueryRequest);
+    strategy.federate(Collections.singletonList(slowSource), fedQueryRequest);
+
+    verify(slowSource, times(2)).query(any(QueryRequest.class));
+  }
+
+  @Test
+  public void testSourceWithTooManyWaitingQueriesIsSkipped() throws Exception {
+    List<Runnable> dispatched = new ArrayList<>();
+    ExecutorService executor = mock(ExecutorService.class);
+    doAnswer(invocation -> dispatched.add(invocation.getArgument(0)))
+        .when(executor)
+        .execute(any(Runnable.class));
+    strategy =
+        new SortedFederationStrategy(executor, Arrays.asList(preQueryPlugin), new ArrayList<>());
+    strategy.setMaximumSourceConcurrency(1);
+    strategy.setMaximumQueuedSourceQueries(0);
+    QueryRequest fedQueryRequest = new QueryRequestImpl(mockQuery, properties);
+    Source source = mock(Source.class);
+    when(source.getId()).thenReturn("busy source");
+
+    strategy.federate(Collections.singletonList(source), fedQueryRequest);
+    QueryResponse federateResponse =
+        strategy.federate(Collections.singletonList(source), fedQueryRequest);
+
+    assertThat(federateResponse.getProcessingDetails().size(), is(1));
+    ProcessingDetails details = federateResponse.getProcessingDetails().iterator().next();
+    assertThat(details.getSourceId(), is("busy source"));
+    assertThat(details.getException(), instanceOf(FederationException.class));
+  }
+
+  @Test
+  public void testHedgedQueryUsesFirstResponse() throws Exception {
+    ExecutorService executor = Executors.newCachedThreadPool();
+    try {
+      strategy =
+          new SortedFederationStrategy(executor, Arrays.asList(preQueryPlugin), new ArrayList<>());
+      strategy.setHedgedSourceIds(Collections.singletonList("replicated source"));
+      strategy.setHedgeDelayMillis(10);
+      when(mockResponse.getProperties()).thenReturn(properties);
+      QueryRequest fedQueryRequest = new QueryRequestImpl(mockQuery, properties);
+
+      CountDownLatch neverReleased = new CountDownLatch(1);
+      AtomicInteger calls = new AtomicInteger();
+      Source replicatedSource = mock(Source.class);
+      when(replicatedSource.getId()).thenReturn("replicated source");
+      when(replicatedSource.query(any(QueryRequest.class)))
+          .thenAnswer(
+              invocation -> {
+                if (calls.incrementAndGet() == 1) {
+                  neverReleased.await();
+                }
+                return mockResponse;
+              });
+
+      QueryResponse federateResponse =
+          strategy.federate(Collections.singletonList(replicatedSource), fedQueryRequest);
+
+      assertThat(federateResponse.getResults().size(), is(1));
+      verify(replicatedSource, times(2)).query(any(QueryRequest.class));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
   private Source getMockSource() throws UnsupportedQueryException {
     Source mockSource = mock(Source.class);
     when(mockSource.getId()).thenReturn(UUID.randomUUID().toString());
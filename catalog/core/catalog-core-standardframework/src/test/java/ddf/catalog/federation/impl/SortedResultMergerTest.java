@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.federation.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.ResultImpl;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+public class SortedResultMergerTest {
+
+  private static final Comparator<Result> BY_TITLE =
+      Comparator.comparing(result -> result.getMetacard().getTitle());
+
+  @Test
+  public void testMergeKeepsBestResultsInOrder() {
+    SortedResultMerger merger = new SortedResultMerger(BY_TITLE, 3);
+
+    merger.addAll(results("a", "d", "f"));
+    merger.addAll(results("b", "c", "e"));
+
+    assertThat(titles(merger.getSortedResults())).containsExactly("a", "b", "c");
+    assertThat(merger.getDroppedCount()).isEqualTo(3);
+  }
+
+  @Test
+  public void testUnboundedCapacityKeepsEveryResult() {
+    SortedResultMerger merger = new SortedResultMerger(BY_TITLE, 0);
+
+    merger.addAll(results("c", "a"));
+    merger.addAll(results("b"));
+
+    assertThat(titles(merger.getSortedResults())).containsExactly("a", "b", "c");
+    assertThat(merger.getDroppedCount()).isZero();
+  }
+
+  @Test
+  public void testEqualResultsKeepArrivalOrder() {
+    SortedResultMerger merger = new SortedResultMerger((r1, r2) -> 0, 2);
+    List<Result> first = results("first", "second");
+
+    merger.addAll(first);
+    merger.addAll(results("third"));
+
+    assertThat(merger.getSortedResults()).containsExactlyElementsOf(first);
+    assertThat(merger.getDroppedCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void testMatchesStableSortAndTruncate() {
+    Random random = new Random(42);
+    List<Result> all = new ArrayList<>();
+    SortedResultMerger merger = new SortedResultMerger(BY_TITLE, 25);
+
+    for (int source = 0; source < 10; source++) {
+      List<Result> sourceResults = new ArrayList<>();
+      for (int i = 0; i < 20; i++) {
+        sourceResults.add(result(Integer.toString(random.nextInt(50))));
+      }
+      all.addAll(sourceResults);
+      merger.addAll(sourceResults);
+    }
+
+    Collections.sort(all, BY_TITLE);
+    assertThat(merger.getSortedResults()).containsExactlyElementsOf(all.subList(0, 25));
+    assertThat(merger.getDroppedCount()).isEqualTo(175);
+  }
+
+  private static List<Result> results(String... titles) {
+    List<Result> results = new ArrayList<>();
+    Arrays.stream(titles).map(SortedResultMergerTest::result).forEach(results::add);
+    return results;
+  }
+
+  private static Result result(String title) {
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setTitle(title);
+    return new ResultImpl(metacard);
+  }
+
+  private static List<String> titles(List<Result> results) {
+    List<String> titles = new ArrayList<>();
+    results.forEach(result -> titles.add(result.getMetacard().getTitle()));
+    return titles;
+  }
+}
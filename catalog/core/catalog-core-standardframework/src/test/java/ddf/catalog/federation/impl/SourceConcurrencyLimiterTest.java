@@ -0,0 +1,224 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.federation.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import ddf.catalog.source.UnsupportedQueryException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class SourceConcurrencyLimiterTest {
+
+  private static final String SOURCE_ID = "source";
+
+  @Test
+  public void testQueriesOverLimitWaitForRunningQueries() {
+    List<Runnable> dispatched = new ArrayList<>();
+    SourceConcurrencyLimiter limiter = new SourceConcurrencyLimiter(dispatched::add);
+    limiter.setMaximumLimit(2);
+    AtomicInteger completed = new AtomicInteger();
+
+    Executor executor = limiter.executorFor(SOURCE_ID);
+    for (int i = 0; i < 3; i++) {
+      executor.execute(completed::incrementAndGet);
+    }
+
+    assertThat(dispatched).hasSize(2);
+
+    dispatched.get(0).run();
+
+    assertThat(dispatched).hasSize(3);
+    dispatched.get(1).run();
+    dispatched.get(2).run();
+    assertThat(completed.get()).isEqualTo(3);
+  }
+
+  @Test
+  public void testSourcesHaveSeparateLimits() {
+    List<Runnable> dispatched = new ArrayList<>();
+    SourceConcurrencyLimiter limiter = new SourceConcurrencyLimiter(dispatched::add);
+    limiter.setMaximumLimit(1);
+
+    limiter.executorFor(SOURCE_ID).execute(() -> {});
+    limiter.executorFor(SOURCE_ID).execute(() -> {});
+    limiter.executorFor("other").execute(() -> {});
+
+    assertThat(dispatched).hasSize(2);
+  }
+
+  @Test
+  public void testQueriesOverQueueLimitAreRejected() {
+    List<Runnable> dispatched = new ArrayList<>();
+    SourceConcurrencyLimiter limiter = new SourceConcurrencyLimiter(dispatched::add);
+    limiter.setMaximumLimit(1);
+    limiter.setMaximumQueued(1);
+
+    Executor executor = limiter.executorFor(SOURCE_ID);
+    executor.execute(() -> {});
+    executor.execute(() -> {});
+
+    assertThatThrownBy(() -> executor.execute(() -> {}))
+        .isInstanceOf(RejectedExecutionException.class);
+
+    dispatched.get(0).run();
+    executor.execute(() -> {});
+    assertThat(dispatched).hasSize(2);
+  }
+
+  @Test
+  public void testWaitingQueriesAreCancelledWhenExecutorRejectsThem() {
+    List<Runnable> dispatched = new ArrayList<>();
+    AtomicBoolean shutdown = new AtomicBoolean();
+    SourceConcurrencyLimiter limiter =
+        new SourceConcurrencyLimiter(
+            task -> {
+              if (shutdown.get()) {
+                throw new RejectedExecutionException();
+              }
+              dispatched.add(task);
+            });
+    limiter.setMaximumLimit(1);
+
+    Executor executor = limiter.executorFor(SOURCE_ID);
+    FutureTask<Object> running = new FutureTask<>(() -> null);
+    FutureTask<Object> waiting = new FutureTask<>(() -> null);
+    executor.execute(running);
+    executor.execute(waiting);
+
+    shutdown.set(true);
+    dispatched.get(0).run();
+
+    assertThat(running.isDone()).isTrue();
+    assertThat(waiting.isCancelled()).isTrue();
+
+    shutdown.set(false);
+    executor.execute(() -> {});
+    assertThat(dispatched).hasSize(2);
+  }
+
+  @Test
+  public void testLimitDecreasesWhenLatencyIncreases() throws Exception {
+    FakeTicker ticker = new FakeTicker();
+    SourceConcurrencyLimiter limiter =
+        new SourceConcurrencyLimiter(MoreExecutors.directExecutor(), ticker);
+    limiter.setMaximumLimit(20);
+
+    query(limiter, ticker, 5);
+    assertThat(limiter.getLimit(SOURCE_ID)).isEqualTo(20);
+
+    query(limiter, ticker, 50);
+    assertThat(limiter.getLimit(SOURCE_ID)).isEqualTo(18);
+  }
+
+  @Test
+  public void testFastFailuresDoNotLowerLimit() throws Exception {
+    FakeTicker ticker = new FakeTicker();
+    SourceConcurrencyLimiter limiter =
+        new SourceConcurrencyLimiter(MoreExecutors.directExecutor(), ticker);
+    limiter.setMaximumLimit(20);
+
+    query(limiter, ticker, 50);
+    for (int i = 0; i < 10; i++) {
+      Callable<Object> failure =
+          limiter.measure(
+              SOURCE_ID,
+              () -> {
+                throw new UnsupportedQueryException();
+              });
+      assertThatThrownBy(failure::call).isInstanceOf(UnsupportedQueryException.class);
+    }
+    query(limiter, ticker, 50);
+
+    assertThat(limiter.getLimit(SOURCE_ID)).isEqualTo(20);
+  }
+
+  @Test
+  public void testCircuitOpensWhenLatencyExceedsTimeout() throws Exception {
+    FakeTicker ticker = new FakeTicker();
+    SourceConcurrencyLimiter limiter =
+        new SourceConcurrencyLimiter(MoreExecutors.directExecutor(), ticker);
+    limiter.setCircuitBreakerResetMillis(60000);
+
+    assertThat(limiter.isCircuitOpen(SOURCE_ID, 10)).isFalse();
+
+    query(limiter, ticker, 30);
+
+    assertThat(limiter.isCircuitOpen(SOURCE_ID, 10)).isTrue();
+    assertThat(limiter.isCircuitOpen(SOURCE_ID, 0)).isFalse();
+    assertThat(limiter.isCircuitOpen(SOURCE_ID, 60000)).isFalse();
+  }
+
+  @Test
+  public void testSlowFailuresOpenCircuit() throws Exception {
+    FakeTicker ticker = new FakeTicker();
+    SourceConcurrencyLimiter limiter =
+        new SourceConcurrencyLimiter(MoreExecutors.directExecutor(), ticker);
+    limiter.setCircuitBreakerResetMillis(60000);
+
+    Callable<Object> timeout =
+        limiter.measure(
+            SOURCE_ID,
+            () -> {
+              ticker.advance(30);
+              throw new TimeoutException();
+            });
+    assertThatThrownBy(timeout::call).isInstanceOf(TimeoutException.class);
+
+    assertThat(limiter.isCircuitOpen(SOURCE_ID, 10)).isTrue();
+  }
+
+  @Test
+  public void testCircuitLetsProbeThroughAfterReset() throws Exception {
+    FakeTicker ticker = new FakeTicker();
+    SourceConcurrencyLimiter limiter =
+        new SourceConcurrencyLimiter(MoreExecutors.directExecutor(), ticker);
+    limiter.setCircuitBreakerResetMillis(50);
+
+    query(limiter, ticker, 30);
+    assertThat(limiter.isCircuitOpen(SOURCE_ID, 10)).isTrue();
+
+    ticker.advance(49);
+    assertThat(limiter.isCircuitOpen(SOURCE_ID, 10)).isTrue();
+
+    ticker.advance(1);
+    assertThat(limiter.isCircuitOpen(SOURCE_ID, 10)).isFalse();
+    assertThat(limiter.isCircuitOpen(SOURCE_ID, 10)).isTrue();
+
+    query(limiter, ticker, 0);
+    assertThat(limiter.isCircuitOpen(SOURCE_ID, 10)).isFalse();
+  }
+
+  private static void query(SourceConcurrencyLimiter limiter, FakeTicker ticker, long millis)
+      throws Exception {
+    limiter
+        .measure(
+            SOURCE_ID,
+            () -> {
+              ticker.advance(millis);
+              return null;
+            })
+        .call();
+  }
+}
@@ -27,9 +27,11 @@
 import static org.mockito.Mockito.when;
 
 import com.google.common.collect.ImmutableList;
+import ddf.catalog.Constants;
 import ddf.catalog.content.StorageException;
 import ddf.catalog.content.StorageProvider;
 import ddf.catalog.content.data.ContentItem;
+import ddf.catalog.content.operation.CreateStorageRequest;
 import ddf.catalog.content.operation.CreateStorageResponse;
 import ddf.catalog.content.operation.DeleteStorageRequest;
 import ddf.catalog.content.operation.ReadStorageRequest;
@@ -440,6 +442,46 @@ public void testReadStorageException()
     verify(catalogProvider, times(0)).create(any());
   }
 
+  @Test
+  public void testVersionedContentSources()
+      throws StorageException, UnsupportedQueryException, SourceUnavailableException,
+          IngestException {
+    List<Metacard> metacards = getMetacardUpdatePair();
+
+    StorageProvider mockStorageProvider = mock(StorageProvider.class);
+    ContentItem item = mock(ContentItem.class);
+    when(item.getId()).thenReturn(METACARD_ID);
+    when(item.getUri()).thenReturn(RESOURCE_URI);
+    when(item.getMetacard()).thenReturn(metacards.get(0));
+
+    ReadStorageResponse readStorageResponse = mock(ReadStorageResponse.class);
+    when(readStorageResponse.getContentItem()).thenReturn(item);
+    when(mockStorageProvider.read(any())).thenReturn(readStorageResponse);
+    when(mockStorageProvider.create(any())).thenReturn(mock(CreateStorageResponse.class));
+    historian.setStorageProviders(Collections.singletonList(mockStorageProvider));
+
+    UpdateStorageRequest storageRequest = mock(UpdateStorageRequest.class);
+    UpdateStorageResponse storageResponse = mock(UpdateStorageResponse.class);
+    UpdateResponse updateResponse = mock(UpdateResponse.class);
+    Update update1 = mock(Update.class);
+    when(update1.getOldMetacard()).thenReturn(metacards.get(0));
+    when(updateResponse.getUpdatedMetacards()).thenReturn(ImmutableList.of(update1));
+    updateMetacard(storageRequest, storageResponse, metacards.get(1));
+
+    mockQuery(metacards.get(1));
+    historian.version(storageRequest, storageResponse, updateResponse);
+
+    ArgumentCaptor<CreateStorageRequest> createCaptor =
+        ArgumentCaptor.forClass(CreateStorageRequest.class);
+    verify(mockStorageProvider).create(createCaptor.capture());
+    CreateStorageRequest createRequest = createCaptor.getValue();
+    String versionedUri = createRequest.getContentItems().get(0).getUri();
+    assertThat(versionedUri, not(equalTo(RESOURCE_URI)));
+    assertThat(
+        (Map<String, String>) createRequest.getPropertyValue(Constants.STORE_CONTENT_SOURCES_KEY),
+        hasEntry(versionedUri, RESOURCE_URI));
+  }
+
   @Test(expected = IngestException.class)
   public void testTryCommitStorageException()
       throws StorageException, UnsupportedQueryException, SourceUnavailableException,
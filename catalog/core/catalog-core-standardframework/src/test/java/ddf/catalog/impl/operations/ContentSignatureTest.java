@@ -0,0 +1,59 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.impl.operations;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.apache.commons.lang.StringUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ContentSignatureTest {
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void testXmlRootElement() throws Exception {
+    assertThat(
+        signature(
+            "\uFEFF<?xml version=\"1.0\"?>\n<!-- comment -->\n"
+                + "<csw:Record xmlns:csw=\"http://www.opengis.net/cat/csw/2.0.2\"><unclosed>"),
+        is("xml:{http://www.opengis.net/cat/csw/2.0.2}Record"));
+    assertThat(signature("<metacard/>"), is("xml:metacard"));
+  }
+
+  @Test
+  public void testXmlRootElementBeyondPrefix() throws Exception {
+    String comment = "<!--" + StringUtils.repeat(" ", ContentSignature.SNIFF_LENGTH) + "-->";
+    assertThat(signature(comment + "<metacard/>"), is("xml:"));
+  }
+
+  @Test
+  public void testOtherContent() throws Exception {
+    assertThat(signature("  {\"type\": \"Feature\"}"), is("json"));
+    assertThat(signature("%PDF-1.4"), is("magic:25504446"));
+    assertThat(signature(" \n"), is("empty"));
+  }
+
+  private String signature(String content) throws Exception {
+    Path path = temporaryFolder.newFile().toPath();
+    Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+    return ContentSignature.of(path);
+  }
+}
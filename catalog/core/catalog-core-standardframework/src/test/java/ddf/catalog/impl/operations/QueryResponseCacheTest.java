@@ -0,0 +1,239 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.impl.operations;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import ddf.catalog.Constants;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.AttributeImpl;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.federation.FederationStrategy;
+import ddf.catalog.filter.FilterBuilder;
+import ddf.catalog.filter.proxy.builder.GeotoolsFilterBuilder;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.QueryResponse;
+import ddf.catalog.operation.impl.CreateRequestImpl;
+import ddf.catalog.operation.impl.CreateResponseImpl;
+import ddf.catalog.operation.impl.ProcessingDetailsImpl;
+import ddf.catalog.operation.impl.QueryImpl;
+import ddf.catalog.operation.impl.QueryRequestImpl;
+import ddf.catalog.operation.impl.QueryResponseImpl;
+import ddf.security.SecurityConstants;
+import ddf.security.Subject;
+import ddf.security.SubjectOperations;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import org.junit.Before;
+import org.junit.Test;
+import org.opengis.filter.Filter;
+
+public class QueryResponseCacheTest {
+
+  private static final List<String> SOURCE_IDS = Collections.singletonList("ddf.distribution");
+
+  private final FilterBuilder filterBuilder = new GeotoolsFilterBuilder();
+
+  private final FederationStrategy strategy = mock(FederationStrategy.class);
+
+  private SubjectOperations subjectOperations;
+
+  private QueryResponseCache cache;
+
+  @Before
+  public void setUp() {
+    subjectOperations = mock(SubjectOperations.class);
+    cache = new QueryResponseCache(subjectOperations);
+    cache.setEnabled(true);
+  }
+
+  @Test
+  public void testDisabledCacheHasNoKey() {
+    cache.setEnabled(false);
+
+    assertThat(cache.getCacheKey(request(titleOrDescription()), SOURCE_IDS, strategy), nullValue());
+  }
+
+  @Test
+  public void testKeyIgnoresLogicalChildOrder() {
+    Filter title = filterBuilder.attribute(Metacard.TITLE).is().like().text("foo");
+    Filter description = filterBuilder.attribute(Metacard.DESCRIPTION).is().like().text("bar");
+
+    String key =
+        cache.getCacheKey(request(filterBuilder.anyOf(title, description)), SOURCE_IDS, strategy);
+    String reorderedKey =
+        cache.getCacheKey(request(filterBuilder.anyOf(description, title)), SOURCE_IDS, strategy);
+
+    assertThat(key, notNullValue());
+    assertThat(reorderedKey, is(key));
+  }
+
+  @Test
+  public void testKeyIncludesCaseSensitivity() {
+    Filter caseInsensitive = filterBuilder.attribute(Metacard.TITLE).is().like().text("foo");
+    Filter caseSensitive =
+        filterBuilder.attribute(Metacard.TITLE).is().like().caseSensitiveText("foo");
+
+    String key = cache.getCacheKey(request(caseInsensitive), SOURCE_IDS, strategy);
+    String caseSensitiveKey = cache.getCacheKey(request(caseSensitive), SOURCE_IDS, strategy);
+
+    assertThat(key, notNullValue());
+    assertThat(caseSensitiveKey, notNullValue());
+    assertThat(caseSensitiveKey, not(key));
+  }
+
+  @Test
+  public void testKeyIncludesPagingAndSubjectAttributes() {
+    QueryRequest request = request(titleOrDescription());
+    String key = cache.getCacheKey(request, SOURCE_IDS, strategy);
+
+    QueryRequest nextPage =
+        new QueryRequestImpl(
+            new QueryImpl(titleOrDescription(), 11, 10, null, false, 0), false, null, null);
+    assertThat(cache.getCacheKey(nextPage, SOURCE_IDS, strategy), not(key));
+
+    Subject subject = mock(Subject.class);
+    Map<String, SortedSet<String>> attributes = new HashMap<>();
+    attributes.put("clearance", new TreeSet<>(Collections.singleton("secret")));
+    when(subjectOperations.getSubjectAttributes(any(Subject.class))).thenReturn(attributes);
+    request.getProperties().put(SecurityConstants.SECURITY_SUBJECT, subject);
+    assertThat(cache.getCacheKey(request, SOURCE_IDS, strategy), not(key));
+  }
+
+  @Test
+  public void testCursorQueryIsNotCached() {
+    QueryRequest request = request(titleOrDescription());
+    request.getProperties().put(Constants.QUERY_CURSOR_MARK_KEY, Constants.QUERY_CURSOR_MARK_START);
+
+    assertThat(cache.getCacheKey(request, SOURCE_IDS, strategy), nullValue());
+  }
+
+  @Test
+  public void testCachedResponseIsCopied() {
+    QueryRequest request = request(titleOrDescription());
+    String key = cache.getCacheKey(request, SOURCE_IDS, strategy);
+    Result result = new ResultImpl(new MetacardImpl());
+    result.getMetacard().setAttribute(new AttributeImpl(Metacard.TITLE, "foo"));
+
+    cache.put(key, response(request, result), SOURCE_IDS, true, cache.getGeneration());
+    QueryResponse cached = cache.get(key, request);
+    cached
+        .getResults()
+        .get(0)
+        .getMetacard()
+        .setAttribute(new AttributeImpl(Metacard.TITLE, "changed"));
+
+    QueryResponse cachedAgain = cache.get(key, request);
+    assertThat(cachedAgain.getHits(), is(1L));
+    assertThat(cachedAgain.getResults().get(0).getMetacard().getTitle(), is("foo"));
+    assertThat(cachedAgain.getResults().get(0), not(sameInstance(cached.getResults().get(0))));
+  }
+
+  @Test
+  public void testResponseWithProcessingDetailsIsNotCached() {
+    QueryRequest request = request(titleOrDescription());
+    String key = cache.getCacheKey(request, SOURCE_IDS, strategy);
+    QueryResponseImpl response = response(request, new ResultImpl(new MetacardImpl()));
+    response
+        .getProcessingDetails()
+        .add(new ProcessingDetailsImpl("ddf.distribution", new Exception("timeout")));
+
+    cache.put(key, response, SOURCE_IDS, true, cache.getGeneration());
+
+    assertThat(cache.get(key, request), nullValue());
+  }
+
+  @Test
+  public void testLocalCreateInvalidatesLocalResponses() {
+    QueryRequest request = request(titleOrDescription());
+    String localKey = cache.getCacheKey(request, SOURCE_IDS, strategy);
+    List<String> remoteSourceIds = Collections.singletonList("remote");
+    String remoteKey = cache.getCacheKey(request, remoteSourceIds, strategy);
+    long generation = cache.getGeneration();
+    cache.put(
+        localKey,
+        response(request, new ResultImpl(new MetacardImpl())),
+        SOURCE_IDS,
+        true,
+        generation);
+    cache.put(
+        remoteKey,
+        response(request, new ResultImpl(new MetacardImpl())),
+        remoteSourceIds,
+        false,
+        generation);
+
+    cache.process(
+        new CreateResponseImpl(
+            new CreateRequestImpl(new MetacardImpl()),
+            new HashMap<>(),
+            Collections.singletonList(new MetacardImpl())));
+
+    assertThat(cache.get(localKey, request), nullValue());
+    assertThat(cache.get(remoteKey, request), notNullValue());
+  }
+
+  @Test
+  public void testResponseOfQueryRacingIngestIsNotCached() {
+    QueryRequest request = request(titleOrDescription());
+    String key = cache.getCacheKey(request, SOURCE_IDS, strategy);
+    long generation = cache.getGeneration();
+
+    cache.process(
+        new CreateResponseImpl(
+            new CreateRequestImpl(new MetacardImpl()),
+            new HashMap<>(),
+            Collections.singletonList(new MetacardImpl())));
+    cache.put(
+        key, response(request, new ResultImpl(new MetacardImpl())), SOURCE_IDS, true, generation);
+
+    assertThat(cache.get(key, request), nullValue());
+  }
+
+  private Filter titleOrDescription() {
+    return filterBuilder.anyOf(
+        filterBuilder.attribute(Metacard.TITLE).is().like().text("foo"),
+        filterBuilder.attribute(Metacard.DESCRIPTION).is().like().text("bar"));
+  }
+
+  private QueryRequest request(Filter filter) {
+    return new QueryRequestImpl(
+        new QueryImpl(filter, 1, 10, null, false, 0), false, null, new HashMap<>());
+  }
+
+  private QueryResponseImpl response(QueryRequest request, Result result) {
+    return new QueryResponseImpl(
+        request,
+        Collections.singletonList(result),
+        true,
+        1,
+        new HashMap<String, Serializable>(),
+        null);
+  }
+}
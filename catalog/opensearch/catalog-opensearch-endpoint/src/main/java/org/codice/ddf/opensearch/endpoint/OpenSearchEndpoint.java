@@ -16,6 +16,7 @@
 import ddf.catalog.CatalogFramework;
 import ddf.catalog.Constants;
 import ddf.catalog.data.BinaryContent;
+import ddf.catalog.data.StreamingBinaryContent;
 import ddf.catalog.federation.FederationException;
 import ddf.catalog.filter.FilterBuilder;
 import ddf.catalog.operation.QueryRequest;
@@ -40,6 +41,7 @@
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -344,7 +346,7 @@ private Response executeQuery(
 
         // pass in the format for the transform
         BinaryContent content = framework.transform(queryResponse, queryFormat, arguments);
-        response = Response.ok(content.getInputStream(), content.getMimeTypeValue()).build();
+        response = createResponse(content);
       } else {
         // No query was specified
         QueryRequest queryRequest =
@@ -357,7 +359,7 @@ private Response executeQuery(
         // pass in the format for the transform
         BinaryContent content = framework.transform(queryResponseQueue, queryFormat, arguments);
         if (null != content) {
-          response = Response.ok(content.getInputStream(), content.getMimeTypeValue()).build();
+          response = createResponse(content);
         }
       }
     } catch (UnsupportedQueryException ce) {
@@ -505,6 +507,15 @@ private OpenSearchQuery createNewQuery(
     return new OpenSearchQuery(startIndex, count, sortField, sortOrder, maxTimeout, filterBuilder);
   }
 
+  /** Streams content that supports it, so results are sent while they are being transformed. */
+  private Response createResponse(BinaryContent content) {
+    if (content instanceof StreamingBinaryContent) {
+      StreamingOutput output = ((StreamingBinaryContent) content)::writeTo;
+      return Response.ok(output, content.getMimeTypeValue()).build();
+    }
+    return Response.ok(content.getInputStream(), content.getMimeTypeValue()).build();
+  }
+
   private String wrapStringInPreformattedTags(String stringToWrap) {
     return "<pre>" + stringToWrap + "</pre>";
   }
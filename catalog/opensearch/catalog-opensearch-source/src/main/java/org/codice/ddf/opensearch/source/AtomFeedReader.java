@@ -0,0 +1,474 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.opensearch.source;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.Nullable;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import org.apache.commons.lang3.StringUtils;
+import org.jdom2.CDATA;
+import org.jdom2.Element;
+import org.jdom2.Namespace;
+import org.jdom2.Text;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads an Atom OpenSearch response one element at a time instead of building the whole feed in
+ * memory. The metadata of each entry is copied into its own buffer together with the namespaces of
+ * its elements, so that an input transformer can be chosen without parsing the metadata again.
+ */
+class AtomFeedReader {
+
+  static final String ATOM_NAMESPACE = "http://www.w3.org/2005/Atom";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(AtomFeedReader.class);
+
+  /** How much of the response may be read while looking for the root element. */
+  private static final int ROOT_ELEMENT_READ_LIMIT = 64 * 1024;
+
+  private static final String TOTAL_RESULTS = "totalResults";
+
+  private static final String SCORE = "score";
+
+  private final XMLInputFactory xmlInputFactory;
+
+  private final XMLOutputFactory xmlOutputFactory;
+
+  AtomFeedReader(XMLInputFactory xmlInputFactory) {
+    this.xmlInputFactory = xmlInputFactory;
+    this.xmlOutputFactory = XMLOutputFactory.newInstance();
+    this.xmlOutputFactory.setProperty(XMLOutputFactory.IS_REPAIRING_NAMESPACES, Boolean.TRUE);
+  }
+
+  /**
+   * Checks whether the root element of the stream is an Atom feed. The stream must support {@link
+   * InputStream#mark(int)} and is reset before returning.
+   */
+  boolean isAtomFeed(InputStream inputStream) throws IOException {
+    inputStream.mark(ROOT_ELEMENT_READ_LIMIT);
+    XMLStreamReader reader = null;
+    try {
+      reader = xmlInputFactory.createXMLStreamReader(inputStream);
+      while (reader.hasNext()) {
+        if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+          return ATOM_NAMESPACE.equals(reader.getNamespaceURI())
+              && "feed".equals(reader.getLocalName());
+        }
+      }
+      return false;
+    } catch (XMLStreamException e) {
+      LOGGER.debug("Unable to read the root element of the response.", e);
+      return false;
+    } finally {
+      close(reader);
+      inputStream.reset();
+    }
+  }
+
+  /**
+   * Reads an Atom feed.
+   *
+   * @param inputStream the feed
+   * @param markUpSet names of the entry elements, outside of the Atom namespace, that contain
+   *     metadata to transform in addition to the entry content
+   */
+  Feed read(InputStream inputStream, Collection<String> markUpSet) throws XMLStreamException {
+    XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(inputStream);
+    try {
+      reader.nextTag();
+      Feed feed = new Feed();
+      while (reader.next() != XMLStreamConstants.END_ELEMENT) {
+        if (reader.getEventType() != XMLStreamConstants.START_ELEMENT) {
+          continue;
+        }
+
+        if (!ATOM_NAMESPACE.equals(reader.getNamespaceURI())) {
+          Element element = readElement(reader);
+          if (TOTAL_RESULTS.equals(element.getName())) {
+            feed.totalResults = parseTotalResults(element.getTextTrim());
+          }
+          feed.foreignMarkup.add(element);
+        } else if ("entry".equals(reader.getLocalName())) {
+          feed.entries.add(readEntry(reader, markUpSet));
+        } else {
+          skipElement(reader);
+        }
+      }
+      return feed;
+    } finally {
+      close(reader);
+    }
+  }
+
+  private Entry readEntry(XMLStreamReader reader, Collection<String> markUpSet)
+      throws XMLStreamException {
+    Entry entry = new Entry();
+    while (reader.next() != XMLStreamConstants.END_ELEMENT) {
+      if (reader.getEventType() != XMLStreamConstants.START_ELEMENT) {
+        continue;
+      }
+
+      String localName = reader.getLocalName();
+      if (ATOM_NAMESPACE.equals(reader.getNamespaceURI())) {
+        switch (localName) {
+          case "id":
+            entry.id = readText(reader).trim();
+            break;
+          case "title":
+            entry.title = readText(reader);
+            break;
+          case "category":
+            entry.categories.add(reader.getAttributeValue(null, "term"));
+            skipElement(reader);
+            break;
+          case "content":
+            Metadata content = readContent(reader);
+            if (content != null) {
+              entry.contents.add(content);
+            }
+            break;
+          default:
+            skipElement(reader);
+        }
+      } else if (SCORE.equals(localName)) {
+        entry.relevance = readText(reader).trim();
+      } else if (markUpSet.contains(localName)) {
+        entry.markups.add(copyElement(reader));
+      } else {
+        skipElement(reader);
+      }
+    }
+    return entry;
+  }
+
+  /**
+   * Reads an Atom content element. XML content is copied from its first child element, any other
+   * content is kept as text.
+   */
+  @Nullable
+  private Metadata readContent(XMLStreamReader reader) throws XMLStreamException {
+    Metadata metadata = null;
+    StringBuilder text = new StringBuilder();
+    while (reader.next() != XMLStreamConstants.END_ELEMENT) {
+      switch (reader.getEventType()) {
+        case XMLStreamConstants.START_ELEMENT:
+          if (metadata == null) {
+            metadata = copyElement(reader);
+          } else {
+            LOGGER.debug("Ignoring additional {} element in Atom content.", reader.getName());
+            skipElement(reader);
+          }
+          break;
+        case XMLStreamConstants.CHARACTERS:
+        case XMLStreamConstants.CDATA:
+        case XMLStreamConstants.SPACE:
+          text.append(reader.getText());
+          break;
+        default:
+          break;
+      }
+    }
+
+    if (metadata != null) {
+      return metadata;
+    }
+    return StringUtils.isNotBlank(text)
+        ? new Metadata(
+            Collections.emptyList(), text.toString().trim().getBytes(StandardCharsets.UTF_8))
+        : null;
+  }
+
+  /**
+   * Copies the element at the current position of the reader, leaving the reader on its end tag.
+   */
+  private Metadata copyElement(XMLStreamReader reader) throws XMLStreamException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    Set<String> namespaces = new LinkedHashSet<>();
+    XMLStreamWriter writer =
+        xmlOutputFactory.createXMLStreamWriter(outputStream, StandardCharsets.UTF_8.name());
+    try {
+      int depth = 0;
+      do {
+        switch (reader.getEventType()) {
+          case XMLStreamConstants.START_ELEMENT:
+            depth++;
+            namespaces.add(StringUtils.defaultString(reader.getNamespaceURI()));
+            writeStartElement(reader, writer);
+            break;
+          case XMLStreamConstants.END_ELEMENT:
+            depth--;
+            writer.writeEndElement();
+            break;
+          case XMLStreamConstants.CHARACTERS:
+          case XMLStreamConstants.SPACE:
+            writer.writeCharacters(reader.getText());
+            break;
+          case XMLStreamConstants.CDATA:
+            writer.writeCData(reader.getText());
+            break;
+          default:
+            break;
+        }
+        if (depth > 0) {
+          reader.next();
+        }
+      } while (depth > 0);
+      writer.writeEndDocument();
+      writer.flush();
+    } finally {
+      writer.close();
+    }
+    return new Metadata(new ArrayList<>(namespaces), outputStream.toByteArray());
+  }
+
+  private void writeStartElement(XMLStreamReader reader, XMLStreamWriter writer)
+      throws XMLStreamException {
+    writer.writeStartElement(
+        StringUtils.defaultString(reader.getPrefix()),
+        reader.getLocalName(),
+        StringUtils.defaultString(reader.getNamespaceURI()));
+
+    for (int i = 0; i < reader.getNamespaceCount(); i++) {
+      writer.writeNamespace(
+          StringUtils.defaultString(reader.getNamespacePrefix(i)),
+          StringUtils.defaultString(reader.getNamespaceURI(i)));
+    }
+
+    for (int i = 0; i < reader.getAttributeCount(); i++) {
+      String namespaceUri = reader.getAttributeNamespace(i);
+      if (StringUtils.isEmpty(namespaceUri)) {
+        writer.writeAttribute(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+      } else {
+        writer.writeAttribute(
+            StringUtils.defaultString(reader.getAttributePrefix(i)),
+            namespaceUri,
+            reader.getAttributeLocalName(i),
+            reader.getAttributeValue(i));
+      }
+    }
+  }
+
+  /**
+   * Builds a JDOM element from the element at the current position of the reader, leaving the
+   * reader on its end tag.
+   */
+  private Element readElement(XMLStreamReader reader) throws XMLStreamException {
+    Namespace namespace = getNamespace(reader.getPrefix(), reader.getNamespaceURI());
+    Element element = new Element(reader.getLocalName(), namespace);
+
+    for (int i = 0; i < reader.getNamespaceCount(); i++) {
+      Namespace declared = getNamespace(reader.getNamespacePrefix(i), reader.getNamespaceURI(i));
+      if (!declared.getPrefix().equals(namespace.getPrefix())) {
+        element.addNamespaceDeclaration(declared);
+      }
+    }
+
+    for (int i = 0; i < reader.getAttributeCount(); i++) {
+      element.setAttribute(
+          reader.getAttributeLocalName(i),
+          reader.getAttributeValue(i),
+          getNamespace(reader.getAttributePrefix(i), reader.getAttributeNamespace(i)));
+    }
+
+    while (reader.next() != XMLStreamConstants.END_ELEMENT) {
+      switch (reader.getEventType()) {
+        case XMLStreamConstants.START_ELEMENT:
+          element.addContent(readElement(reader));
+          break;
+        case XMLStreamConstants.CHARACTERS:
+        case XMLStreamConstants.SPACE:
+          element.addContent(new Text(reader.getText()));
+          break;
+        case XMLStreamConstants.CDATA:
+          element.addContent(new CDATA(reader.getText()));
+          break;
+        default:
+          break;
+      }
+    }
+    return element;
+  }
+
+  private static Namespace getNamespace(@Nullable String prefix, @Nullable String uri) {
+    return Namespace.getNamespace(
+        StringUtils.defaultString(prefix), StringUtils.defaultString(uri));
+  }
+
+  /**
+   * Reads the text of the element at the current position of the reader, including the text of any
+   * child elements, leaving the reader on its end tag.
+   */
+  private static String readText(XMLStreamReader reader) throws XMLStreamException {
+    StringBuilder text = new StringBuilder();
+    int depth = 1;
+    while (depth > 0) {
+      switch (reader.next()) {
+        case XMLStreamConstants.START_ELEMENT:
+          depth++;
+          break;
+        case XMLStreamConstants.END_ELEMENT:
+          depth--;
+          break;
+        case XMLStreamConstants.CHARACTERS:
+        case XMLStreamConstants.CDATA:
+        case XMLStreamConstants.SPACE:
+          text.append(reader.getText());
+          break;
+        default:
+          break;
+      }
+    }
+    return text.toString();
+  }
+
+  /** Skips the element at the current position of the reader, leaving the reader on its end tag. */
+  private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+    int depth = 1;
+    while (depth > 0) {
+      int event = reader.next();
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        depth++;
+      } else if (event == XMLStreamConstants.END_ELEMENT) {
+        depth--;
+      }
+    }
+  }
+
+  @Nullable
+  private static Long parseTotalResults(String totalResults) {
+    try {
+      return Long.parseLong(totalResults);
+    } catch (NumberFormatException e) {
+      LOGGER.debug("Received invalid number of results.", e);
+      return null;
+    }
+  }
+
+  private static void close(@Nullable XMLStreamReader reader) {
+    if (reader != null) {
+      try {
+        reader.close();
+      } catch (XMLStreamException e) {
+        LOGGER.debug("Failed to close the Atom feed reader", e);
+      }
+    }
+  }
+
+  /** The parts of an Atom feed that are used to build a source response. */
+  static class Feed {
+
+    private final List<Element> foreignMarkup = new ArrayList<>();
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    private Long totalResults;
+
+    /** @return the elements of the feed that are not in the Atom namespace */
+    List<Element> getForeignMarkup() {
+      return foreignMarkup;
+    }
+
+    List<Entry> getEntries() {
+      return entries;
+    }
+
+    /** @return the OpenSearch totalResults of the feed, or {@code null} if it has none */
+    @Nullable
+    Long getTotalResults() {
+      return totalResults;
+    }
+  }
+
+  /** The parts of an Atom entry that are used to build results. */
+  static class Entry {
+
+    private final List<String> categories = new ArrayList<>();
+
+    private final List<Metadata> markups = new ArrayList<>();
+
+    private final List<Metadata> contents = new ArrayList<>();
+
+    private String id;
+
+    private String title;
+
+    private String relevance;
+
+    @Nullable
+    String getId() {
+      return id;
+    }
+
+    @Nullable
+    String getTitle() {
+      return title;
+    }
+
+    /** @return the terms of the entry categories, in order */
+    List<String> getCategories() {
+      return categories;
+    }
+
+    @Nullable
+    String getRelevance() {
+      return relevance;
+    }
+
+    /** @return the metadata found in the entry elements named in the mark up set */
+    List<Metadata> getMarkups() {
+      return markups;
+    }
+
+    List<Metadata> getContents() {
+      return contents;
+    }
+  }
+
+  /** Metadata copied out of an entry, with the namespaces of its elements in document order. */
+  static class Metadata {
+
+    private final List<String> namespaces;
+
+    private final byte[] bytes;
+
+    Metadata(List<String> namespaces, byte[] bytes) {
+      this.namespaces = namespaces;
+      this.bytes = bytes;
+    }
+
+    /** @return the element namespaces, empty if the metadata is text */
+    List<String> getNamespaces() {
+      return namespaces;
+    }
+
+    byte[] getBytes() {
+      return bytes;
+    }
+  }
+}
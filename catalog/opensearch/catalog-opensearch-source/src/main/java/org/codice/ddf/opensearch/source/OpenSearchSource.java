@@ -45,6 +45,7 @@
 import ddf.security.SecurityConstants;
 import ddf.security.Subject;
 import ddf.security.encryption.EncryptionService;
+import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -64,7 +65,10 @@
 import java.util.Objects;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
@@ -88,6 +92,7 @@
 import org.codice.ddf.libs.geo.util.GeospatialUtil;
 import org.codice.ddf.opensearch.OpenSearch;
 import org.codice.ddf.opensearch.OpenSearchConstants;
+import org.codice.ddf.platform.util.ForkJoinPoolFactory;
 import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
 import org.codice.ddf.platform.util.TemporaryFileBackedOutputStream;
 import org.geotools.filter.FilterTransformer;
@@ -144,6 +149,9 @@ public class OpenSearchSource implements OAuthFederatedSource, ConfiguredService
 
   private static final String OAUTH_AUTH_TYPE = "oauth";
 
+  /** Pages with at least this many entries are transformed in parallel. */
+  private static final int PARALLEL_TRANSFORM_THRESHOLD = 16;
+
   private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
 
   private static final Logger LOGGER = LoggerFactory.getLogger(OpenSearchSource.class);
@@ -193,6 +201,10 @@ public class OpenSearchSource implements OAuthFederatedSource, ConfiguredService
 
   private XMLInputFactory xmlInputFactory;
 
+  private AtomFeedReader atomFeedReader;
+
+  private final ForkJoinPool transformPool = ForkJoinPoolFactory.getNewForkJoinPool(null, false);
+
   protected ResourceReader resourceReader;
 
   protected final OpenSearchParser openSearchParser;
@@ -317,6 +329,7 @@ public void destroy(int code) {
       LOGGER.debug("Cancelling availability poll task on Source {}", getId());
       scheduler.shutdownNow();
     }
+    transformPool.shutdownNow();
   }
 
   protected SecureCxfClientFactory<OpenSearch> createClientFactory(
@@ -379,6 +392,7 @@ private void configureXmlInputFactory() {
     xmlInputFactory.setProperty(
         XMLInputFactory.SUPPORT_DTD, Boolean.FALSE); // This disables DTDs entirely for that factory
     xmlInputFactory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.FALSE);
+    atomFeedReader = new AtomFeedReader(xmlInputFactory);
   }
 
   @Override
@@ -605,6 +619,109 @@ void setForeignMarkupBiConsumer(
 
   private SourceResponseImpl processResponse(InputStream is, QueryRequest queryRequest)
       throws UnsupportedQueryException {
+    InputStream inputStream = new BufferedInputStream(is);
+    try {
+      if (atomFeedReader.isAtomFeed(inputStream)) {
+        return processAtomResponse(inputStream, queryRequest);
+      }
+    } catch (IOException e) {
+      throw new UnsupportedQueryException("Unable to read the response from the remote source.", e);
+    }
+    return processSyndFeedResponse(inputStream, queryRequest);
+  }
+
+  /** Reads Atom responses without building a {@link SyndFeed}. */
+  private SourceResponseImpl processAtomResponse(InputStream is, QueryRequest queryRequest)
+      throws UnsupportedQueryException {
+    AtomFeedReader.Feed feed = null;
+    try {
+      feed = atomFeedReader.read(is, markUpSet != null ? markUpSet : Collections.emptySet());
+    } catch (XMLStreamException e) {
+      LOGGER.debug("Unable to read Atom feed.", e);
+    }
+
+    if (feed == null) {
+      SourceResponseImpl response = new SourceResponseImpl(queryRequest, new ArrayList<>());
+      response.setHits(0);
+      return response;
+    }
+
+    List<AtomFeedReader.Entry> entries = feed.getEntries();
+    SourceResponseImpl response =
+        new SourceResponseImpl(queryRequest, createResponseFromEntries(entries));
+    response.setHits(
+        feed.getTotalResults() != null ? feed.getTotalResults() : (long) entries.size());
+    this.foreignMarkupBiConsumer.accept(
+        Collections.unmodifiableList(feed.getForeignMarkup()), response);
+    return response;
+  }
+
+  /**
+   * Transforms the entries in order. Large pages are transformed in parallel, since every entry is
+   * already copied into its own buffer.
+   */
+  private List<Result> createResponseFromEntries(List<AtomFeedReader.Entry> entries)
+      throws UnsupportedQueryException {
+    List<Result> results = new ArrayList<>();
+    if (entries.size() < PARALLEL_TRANSFORM_THRESHOLD) {
+      for (AtomFeedReader.Entry entry : entries) {
+        results.addAll(createResponseFromEntry(entry));
+      }
+      return results;
+    }
+
+    List<ForkJoinTask<List<Result>>> tasks = new ArrayList<>(entries.size());
+    for (AtomFeedReader.Entry entry : entries) {
+      tasks.add(transformPool.submit(() -> createResponseFromEntry(entry)));
+    }
+    try {
+      for (ForkJoinTask<List<Result>> task : tasks) {
+        results.addAll(task.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new UnsupportedQueryException("Interrupted while transforming Atom entries.", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof UnsupportedQueryException) {
+        throw (UnsupportedQueryException) e.getCause();
+      }
+      throw new UnsupportedQueryException("Unable to transform Atom entries.", e.getCause());
+    } finally {
+      tasks.forEach(task -> task.cancel(true));
+    }
+    return results;
+  }
+
+  private List<Result> createResponseFromEntry(AtomFeedReader.Entry entry)
+      throws UnsupportedQueryException {
+    String id = entry.getId();
+    if (StringUtils.isNotEmpty(id)) {
+      id = id.substring(id.lastIndexOf(':') + 1);
+    }
+
+    List<Metacard> metacards = new ArrayList<>();
+    for (AtomFeedReader.Metadata markup : entry.getMarkups()) {
+      Metacard metacard = parseContent(markup, id);
+      if (metacard != null) {
+        metacards.add(metacard);
+      }
+    }
+    for (AtomFeedReader.Metadata content : entry.getContents()) {
+      Metacard metacard = parseContent(content, id);
+      if (metacard != null) {
+        metacard.setSourceId(this.shortname);
+        if (StringUtils.isEmpty(metacard.getTitle())) {
+          metacard.setAttribute(new AttributeImpl(Core.TITLE, entry.getTitle()));
+        }
+        metacards.add(metacard);
+      }
+    }
+
+    return createResults(metacards, entry.getCategories(), entry.getRelevance());
+  }
+
+  private SourceResponseImpl processSyndFeedResponse(InputStream is, QueryRequest queryRequest)
+      throws UnsupportedQueryException {
     List<Result> resultQueue = new ArrayList<>();
 
     SyndFeedInput syndFeedInput = new SyndFeedInput();
@@ -685,11 +802,20 @@ private List<Result> createResponseFromEntry(SyndEntry entry) throws Unsupported
         metacards.add(metacard);
       }
     }
-    for (int i = 0; i < categories.size() && i < metacards.size(); i++) {
-      SyndCategory category = categories.get(i);
+    List<String> categoryNames = new ArrayList<>(categories.size());
+    for (SyndCategory category : categories) {
+      categoryNames.add(category.getName());
+    }
+
+    return createResults(metacards, categoryNames, relevance);
+  }
+
+  private List<Result> createResults(
+      List<Metacard> metacards, List<String> categoryNames, @Nullable String relevance) {
+    for (int i = 0; i < categoryNames.size() && i < metacards.size(); i++) {
       Metacard metacard = metacards.get(i);
       if (StringUtils.isBlank(metacard.getContentTypeName())) {
-        metacard.setAttribute(new AttributeImpl(Metacard.CONTENT_TYPE, category.getName()));
+        metacard.setAttribute(new AttributeImpl(Metacard.CONTENT_TYPE, categoryNames.get(i)));
       }
     }
 
@@ -727,6 +853,23 @@ private Metacard parseContent(String content, String id) throws UnsupportedQuery
     return null;
   }
 
+  @Nullable
+  private Metacard parseContent(AtomFeedReader.Metadata metadata, String id)
+      throws UnsupportedQueryException {
+    InputTransformer inputTransformer =
+        metadata.getNamespaces().isEmpty()
+            ? getInputTransformer(new ByteArrayInputStream(metadata.getBytes()))
+            : getInputTransformer(metadata.getNamespaces());
+    try {
+      return inputTransformer.transform(new ByteArrayInputStream(metadata.getBytes()), id);
+    } catch (IOException e) {
+      LOGGER.debug("Unable to read metacard content from Atom feed.", e);
+    } catch (CatalogTransformerException e) {
+      LOGGER.debug("Unable to convert metacard content from Atom feed into Metacard object.", e);
+    }
+    return null;
+  }
+
   /** Get the URL of the endpoint. */
   public String getEndpointUrl() {
     LOGGER.trace("getEndpointUrl:  endpointUrl = {}", endpointUrl);
@@ -809,6 +952,24 @@ private InputTransformer getInputTransformer(InputStream inputStream)
         "Unable to find applicable InputTransformer for metacard content from Atom feed.");
   }
 
+  /** Finds the transformer for the first of the namespaces that has one. */
+  private InputTransformer getInputTransformer(List<String> namespaces)
+      throws UnsupportedQueryException {
+    try {
+      for (String namespaceUri : namespaces) {
+        InputTransformer transformerReference = lookupTransformerReference(namespaceUri);
+        if (transformerReference != null) {
+          return transformerReference;
+        }
+      }
+    } catch (InvalidSyntaxException e) {
+      LOGGER.debug("Failed to look up transformer by namespace", e);
+    }
+
+    throw new UnsupportedQueryException(
+        "Unable to find applicable InputTransformer for metacard content from Atom feed.");
+  }
+
   @Nullable
   protected InputTransformer lookupTransformerReference(String namespaceUri)
       throws InvalidSyntaxException {
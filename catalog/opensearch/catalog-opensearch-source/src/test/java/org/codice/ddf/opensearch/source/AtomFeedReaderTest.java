@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.opensearch.source;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.stream.Collectors;
+import javax.xml.stream.XMLInputFactory;
+import org.apache.commons.io.IOUtils;
+import org.codehaus.stax2.XMLInputFactory2;
+import org.jdom2.Element;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AtomFeedReaderTest {
+
+  private static final String FEED =
+      "<feed xmlns=\"http://www.w3.org/2005/Atom\" xmlns:os=\"http://a9.com/-/spec/opensearch/1.1/\""
+          + " xmlns:relevance=\"http://a9.com/-/opensearch/extensions/relevance/1.0/\">"
+          + "<title type=\"text\">Query Response</title>"
+          + "<os:totalResults>42</os:totalResults>"
+          + "<os:itemsPerPage>10</os:itemsPerPage>"
+          + "<entry>"
+          + "<relevance:score>0.19</relevance:score>"
+          + "<id>urn:catalog:id:first</id>"
+          + "<title type=\"text\">First</title>"
+          + "<category term=\"Resource\" />"
+          + "<res:Resource xmlns:res=\"http://sample.com/resource\"><res:name>markup</res:name>"
+          + "</res:Resource>"
+          + "<content type=\"application/xml\">\n  "
+          + "<ns3:metacard xmlns:ns3=\"urn:catalog:metacard\" xmlns:gml=\"http://www.opengis.net/gml\""
+          + " gml:id=\"first\"><ns3:string name=\"title\"><ns3:value>First</ns3:value></ns3:string>"
+          + "<gml:Point><gml:pos>1 2</gml:pos></gml:Point></ns3:metacard>\n"
+          + "</content>"
+          + "</entry>"
+          + "<entry>"
+          + "<id>urn:catalog:id:second</id>"
+          + "<title type=\"xhtml\"><div xmlns=\"http://www.w3.org/1999/xhtml\">Second</div></title>"
+          + "<content type=\"text\">&lt;metacard xmlns=\"urn:catalog:metacard\"/&gt;</content>"
+          + "</entry>"
+          + "</feed>";
+
+  private AtomFeedReader reader;
+
+  @Before
+  public void setUp() {
+    XMLInputFactory xmlInputFactory = XMLInputFactory2.newInstance();
+    xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+    xmlInputFactory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.FALSE);
+    reader = new AtomFeedReader(xmlInputFactory);
+  }
+
+  @Test
+  public void testIsAtomFeed() throws Exception {
+    InputStream inputStream = new BufferedInputStream(stream(FEED));
+    assertThat(reader.isAtomFeed(inputStream), is(true));
+    assertThat(IOUtils.toString(inputStream, StandardCharsets.UTF_8), is(FEED));
+
+    assertThat(
+        reader.isAtomFeed(new BufferedInputStream(stream("<rss version=\"2.0\"/>"))), is(false));
+    assertThat(reader.isAtomFeed(new BufferedInputStream(stream("not xml"))), is(false));
+  }
+
+  @Test
+  public void testReadFeed() throws Exception {
+    AtomFeedReader.Feed feed = reader.read(stream(FEED), Collections.singleton("Resource"));
+
+    assertThat(feed.getTotalResults(), is(42L));
+    assertThat(
+        feed.getForeignMarkup().stream().map(Element::getName).collect(Collectors.toList()),
+        is(Arrays.asList("totalResults", "itemsPerPage")));
+    assertThat(feed.getEntries(), hasSize(2));
+
+    AtomFeedReader.Entry first = feed.getEntries().get(0);
+    assertThat(first.getId(), is("urn:catalog:id:first"));
+    assertThat(first.getTitle(), is("First"));
+    assertThat(first.getRelevance(), is("0.19"));
+    assertThat(first.getCategories(), is(Collections.singletonList("Resource")));
+    assertThat(first.getMarkups(), hasSize(1));
+    assertThat(
+        first.getMarkups().get(0).getNamespaces(),
+        is(Collections.singletonList("http://sample.com/resource")));
+
+    assertThat(first.getContents(), hasSize(1));
+    AtomFeedReader.Metadata content = first.getContents().get(0);
+    assertThat(
+        content.getNamespaces(),
+        is(Arrays.asList("urn:catalog:metacard", "http://www.opengis.net/gml")));
+    String xml = new String(content.getBytes(), StandardCharsets.UTF_8);
+    assertThat(xml, containsString("<ns3:metacard"));
+    assertThat(xml, containsString("xmlns:gml=\"http://www.opengis.net/gml\""));
+    assertThat(xml, containsString("<gml:pos>1 2</gml:pos>"));
+
+    AtomFeedReader.Entry second = feed.getEntries().get(1);
+    assertThat(second.getTitle(), is("Second"));
+    assertThat(second.getRelevance(), is(nullValue()));
+    assertThat(second.getContents().get(0).getNamespaces(), hasSize(0));
+    assertThat(
+        new String(second.getContents().get(0).getBytes(), StandardCharsets.UTF_8),
+        is("<metacard xmlns=\"urn:catalog:metacard\"/>"));
+  }
+
+  @Test
+  public void testInvalidTotalResults() throws Exception {
+    AtomFeedReader.Feed feed =
+        reader.read(
+            stream(
+                "<feed xmlns=\"http://www.w3.org/2005/Atom\""
+                    + " xmlns:os=\"http://a9.com/-/spec/opensearch/1.1/\">"
+                    + "<os:totalResults>many</os:totalResults></feed>"),
+            Collections.emptySet());
+
+    assertThat(feed.getTotalResults(), is(nullValue()));
+    assertThat(feed.getForeignMarkup(), hasSize(1));
+    assertThat(feed.getEntries(), hasSize(0));
+  }
+
+  private static InputStream stream(String xml) {
+    return new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+  }
+}
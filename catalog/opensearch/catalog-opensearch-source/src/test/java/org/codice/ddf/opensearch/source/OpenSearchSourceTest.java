@@ -60,6 +60,7 @@
 import java.io.Serializable;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -609,6 +610,46 @@ public void testQueryResponseWithForeignMarkup() throws UnsupportedQueryExceptio
     assertThat(metacard.getContentTypeName(), is(RESOURCE_TAG));
   }
 
+  @Test
+  public void testQueryResponseWithLargePage() throws Exception {
+    InputTransformer inputTransformer = mock(InputTransformer.class);
+    when(inputTransformer.transform(isA(InputStream.class), isA(String.class)))
+        .thenAnswer(
+            invocation -> {
+              MetacardImpl metacard = new MetacardImpl();
+              metacard.setId(invocation.getArgument(1));
+              return metacard;
+            });
+    source.setBundle(getMockBundleContext(inputTransformer));
+
+    String entry =
+        SAMPLE_ATOM.substring(
+            SAMPLE_ATOM.indexOf("<entry"),
+            SAMPLE_ATOM.lastIndexOf("</entry>") + "</entry>".length());
+    StringBuilder feed = new StringBuilder(SAMPLE_ATOM.substring(0, SAMPLE_ATOM.indexOf("<entry")));
+    List<String> ids = new ArrayList<>();
+    for (int i = 0; i < 40; i++) {
+      String id = "id" + i;
+      ids.add(id);
+      feed.append(entry.replace("ee7a161e01754b9db1872bfe39d1ea09</id>", id + "</id>"));
+    }
+    feed.append("</feed>");
+    when(response.getEntity())
+        .thenReturn(new ByteArrayInputStream(feed.toString().getBytes(StandardCharsets.UTF_8)));
+
+    Filter filter =
+        FILTER_BUILDER.attribute(NOT_ID_ATTRIBUTE_NAME).like().text(SAMPLE_SEARCH_PHRASE);
+
+    SourceResponse sourceResponse = source.query(getQueryRequest(filter));
+    assertThat(sourceResponse.getHits(), is(1L));
+    assertThat(
+        sourceResponse.getResults().stream()
+            .map(Result::getMetacard)
+            .map(Metacard::getId)
+            .collect(Collectors.toList()),
+        is(ids));
+  }
+
   /** Basic retrieve product case. Tests the url sent to the connection is correct. */
   @Test
   public void testRetrieveResource() throws Exception {
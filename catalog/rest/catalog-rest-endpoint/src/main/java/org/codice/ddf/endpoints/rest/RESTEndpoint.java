@@ -15,6 +15,7 @@
 
 import ddf.catalog.data.BinaryContent;
 import ddf.catalog.data.Metacard;
+import ddf.catalog.data.StreamingBinaryContent;
 import ddf.catalog.plugin.OAuthPluginException;
 import ddf.catalog.resource.DataUsageLimitExceededException;
 import ddf.catalog.resource.Resource;
@@ -40,6 +41,7 @@
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.ResponseBuilder;
 import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriBuilder;
 import javax.ws.rs.core.UriInfo;
 import org.apache.commons.codec.CharEncoding;
@@ -183,7 +185,7 @@ public Response getDocument(@Context UriInfo uriInfo, @Context HttpServletReques
     ResponseBuilder responseBuilder;
 
     final BinaryContent content = catalogService.getSourcesInfo();
-    responseBuilder = Response.ok(content.getInputStream(), content.getMimeTypeValue());
+    responseBuilder = createOkResponse(content);
 
     // Add the Accept-ranges header to let the client know that we accept ranges in bytes
     responseBuilder.header(HEADER_ACCEPT_RANGES, BYTES);
@@ -231,7 +233,7 @@ public Response getDocument(
       }
 
       LOGGER.debug("Read and transform complete, preparing response.");
-      responseBuilder = Response.ok(content.getInputStream(), content.getMimeTypeValue());
+      responseBuilder = createOkResponse(content);
 
       // Add the Accept-ranges header to let the client know that we accept ranges in bytes
       responseBuilder.header(HEADER_ACCEPT_RANGES, BYTES);
@@ -274,8 +276,7 @@ public Response createMetacard(
     try {
       final BinaryContent content = catalogService.createMetacard(multipartBody, transformerParam);
 
-      Response.ResponseBuilder responseBuilder =
-          Response.ok(content.getInputStream(), content.getMimeTypeValue());
+      Response.ResponseBuilder responseBuilder = createOkResponse(content);
       return responseBuilder.build();
     } catch (CatalogServiceException e) {
       return createBadRequestResponse(e.getMessage());
@@ -415,6 +416,18 @@ private void setFileNameOnResponseBuilder(
     }
   }
 
+  /**
+   * Writes {@link StreamingBinaryContent} straight to the response stream instead of reading it
+   * back from {@link BinaryContent#getInputStream()}.
+   */
+  private ResponseBuilder createOkResponse(BinaryContent content) {
+    if (content instanceof StreamingBinaryContent) {
+      StreamingOutput output = ((StreamingBinaryContent) content)::writeTo;
+      return Response.ok(output, content.getMimeTypeValue());
+    }
+    return Response.ok(content.getInputStream(), content.getMimeTypeValue());
+  }
+
   private Response createBadRequestResponse(String entityMessage) {
     return Response.status(Status.BAD_REQUEST)
         .entity("<pre>" + entityMessage + "</pre>")
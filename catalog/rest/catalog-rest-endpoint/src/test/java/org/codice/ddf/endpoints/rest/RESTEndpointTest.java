@@ -13,7 +13,9 @@
  */
 package org.codice.ddf.endpoints.rest;
 
+import static org.hamcrest.Matchers.instanceOf;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.isA;
 import static org.mockito.ArgumentMatchers.isNull;
@@ -27,6 +29,7 @@
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
 import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.StreamingBinaryContentImpl;
 import ddf.catalog.filter.FilterBuilder;
 import ddf.catalog.filter.proxy.builder.GeotoolsFilterBuilder;
 import ddf.catalog.operation.CreateRequest;
@@ -39,6 +42,7 @@
 import ddf.mime.MimeTypeMapper;
 import ddf.mime.tika.TikaMimeTypeResolver;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -46,8 +50,10 @@
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import javax.activation.MimeType;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
 import org.apache.tika.io.IOUtils;
 import org.codice.ddf.attachment.impl.AttachmentParserImpl;
@@ -255,6 +261,20 @@ public void testGetDocumentKml() throws Exception {
     assertEquals(GET_KML_TYPE_OUTPUT, response.getMetadata().toString());
   }
 
+  @Test
+  public void testGetDocumentStreamingContent() throws Exception {
+
+    CatalogFramework framework = givenCatalogFramework();
+    String transformer = mockTestSetup(framework, TestType.STREAMING_TEST);
+    Response response = executeTest(framework, transformer, true);
+
+    assertThat(response.getEntity(), instanceOf(StreamingOutput.class));
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    ((StreamingOutput) response.getEntity()).write(outputStream);
+    assertEquals(GET_STREAM, outputStream.toString(GET_OUTPUT_TYPE));
+    assertEquals(OK, response.getStatus());
+  }
+
   /** Tests federated retrieve with a successful response */
   @Test
   public void testGetDocumentFedSuccess() throws Exception {
@@ -364,6 +384,23 @@ private String mockTestSetup(CatalogFramework framework, TestType testType) thro
         when(framework.transform(isA(Metacard.class), anyString(), isA(Map.class)))
             .thenReturn(content);
         break;
+
+      case STREAMING_TEST:
+        list = new ArrayList<>();
+        list.add(result);
+        when(queryResponse.getResults()).thenReturn(list);
+
+        metacard = new MetacardImpl();
+        metacard.setSourceId(GET_SITENAME);
+        when(result.getMetacard()).thenReturn(metacard);
+
+        BinaryContent streamingContent =
+            new StreamingBinaryContentImpl(
+                outputStream -> outputStream.write(GET_STREAM.getBytes(GET_OUTPUT_TYPE)),
+                new MimeType(GET_MIME_TYPE));
+        when(framework.transform(isA(Metacard.class), anyString(), isA(Map.class)))
+            .thenReturn(streamingContent);
+        break;
     }
 
     return transformer;
@@ -430,6 +467,7 @@ protected enum TestType {
     METACARD_TEST,
     SUCCESS_TEST,
     RESOURCE_TEST,
-    KML_TEST
+    KML_TEST,
+    STREAMING_TEST
   }
 }
@@ -0,0 +1,104 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.solr.cache.impl;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps track of how often and how recently cached documents were returned by the cache, so that
+ * documents that are rarely used can be evicted first when the cache grows too large.
+ *
+ * <p>Access information is only kept in memory for up to {@code maximumTrackedDocuments} documents.
+ * Documents without access information are treated as never accessed.
+ */
+class CacheAccessTracker {
+
+  /** Order in which documents are evicted when the cache grows too large. */
+  public enum EvictionPolicy {
+    /** Evict the least recently accessed documents first. */
+    LRU,
+    /** Evict the least frequently accessed documents first. */
+    LFU
+  }
+
+  private static final Access NEVER_ACCESSED = new Access(0);
+
+  private final Map<String, Access> accesses = new ConcurrentHashMap<>();
+
+  private final int maximumTrackedDocuments;
+
+  CacheAccessTracker(int maximumTrackedDocuments) {
+    this.maximumTrackedDocuments = maximumTrackedDocuments;
+  }
+
+  /** @param uniqueId value of {@link SolrCache#METACARD_UNIQUE_ID_NAME} of the accessed document */
+  void recordAccess(String uniqueId) {
+    long now = System.currentTimeMillis();
+    Access access = accesses.get(uniqueId);
+    if (access == null) {
+      if (accesses.size() >= maximumTrackedDocuments) {
+        return;
+      }
+      access = accesses.computeIfAbsent(uniqueId, id -> new Access(now));
+    }
+    access.record(now);
+  }
+
+  void remove(String uniqueId) {
+    accesses.remove(uniqueId);
+  }
+
+  int size() {
+    return accesses.size();
+  }
+
+  /**
+   * @return comparator that orders document unique IDs so the ones that should be evicted first
+   *     come first
+   */
+  Comparator<String> evictionOrder(EvictionPolicy policy) {
+    Comparator<Access> order =
+        policy == EvictionPolicy.LFU
+            ? Comparator.comparingLong(Access::getCount).thenComparingLong(Access::getLastAccess)
+            : Comparator.comparingLong(Access::getLastAccess);
+    return Comparator.comparing(id -> accesses.getOrDefault(id, NEVER_ACCESSED), order);
+  }
+
+  private static class Access {
+
+    private final AtomicLong count = new AtomicLong();
+
+    private volatile long lastAccess;
+
+    Access(long lastAccess) {
+      this.lastAccess = lastAccess;
+    }
+
+    void record(long time) {
+      count.incrementAndGet();
+      lastAccess = time;
+    }
+
+    long getCount() {
+      return count.get();
+    }
+
+    long getLastAccess() {
+      return lastAccess;
+    }
+  }
+}
@@ -13,39 +13,103 @@
  */
 package org.codice.ddf.catalog.solr.cache.impl;
 
-import com.google.common.collect.Lists;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.MetacardImpl;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-/** Bulk adds metacards to the cache that are not needed immediately. */
+/**
+ * Bulk adds metacards to the cache that are not needed immediately.
+ *
+ * <p>Pending metacards are kept in stripes keyed by metacard ID, and each stripe is flushed to the
+ * cache by its own flush worker. A metacard that is added again while it is still pending replaces
+ * the pending copy. What happens when the backlog is full is controlled by the {@link
+ * BacklogPolicy}.
+ */
 public class CacheBulkProcessor {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(CacheBulkProcessor.class);
 
+  private static final String METRIC_PREFIX = "ddf.catalog.solr.cache.bulk";
+
+  /** What to do with a new metacard when the backlog is full. */
+  public enum BacklogPolicy {
+    /** Only update metacards that are already pending; new metacards are dropped. */
+    COALESCE,
+    /** Drop the oldest pending metacard to make room for the new one. */
+    DROP_OLDEST,
+    /**
+     * Wait for a flush to make room, and drop the new metacard if none is made in time. A single
+     * call to {@link #add(List)} waits at most the block timeout in total.
+     */
+    BLOCK
+  }
+
   private final ScheduledExecutorService batchScheduler =
       Executors.newSingleThreadScheduledExecutor();
 
-  private final Map<String, Metacard> metacardsToCache = new ConcurrentHashMap<>();
+  private final ThreadPoolExecutor flushWorkers;
+
+  /** Guards replacing the stripes when the number of flush workers changes. */
+  private final ReadWriteLock stripesLock = new ReentrantReadWriteLock();
+
+  private volatile List<Stripe> stripes;
+
+  private final SolrCache cache;
+
+  /** Number of pending metacards, including the ones currently being flushed. */
+  private final AtomicInteger pendingCount = new AtomicInteger();
+
+  private final Object backlogMonitor = new Object();
+
+  private final Counter droppedCounter;
+
+  private final DistributionSummary flushLatency;
 
   private long flushInterval = TimeUnit.SECONDS.toMillis(10);
 
-  private int maximumBacklogSize = 10000;
+  private volatile int maximumBacklogSize = 10000;
+
+  private volatile int batchSize = 500;
+
+  private volatile BacklogPolicy backlogPolicy = BacklogPolicy.COALESCE;
+
+  private volatile long blockTimeout = TimeUnit.SECONDS.toMillis(1);
 
-  private int batchSize = 500;
+  private volatile Path pendingMetacardsFile;
 
-  private Date lastBulkAdd = new Date();
+  private volatile Date lastBulkAdd = new Date();
 
   private CacheStrategy cacheStrategy;
 
@@ -53,6 +117,14 @@ public CacheBulkProcessor(final SolrCache cache) {
     this(cache, 1, TimeUnit.SECONDS, CacheStrategy.FEDERATED);
   }
 
+  public CacheBulkProcessor(
+      final SolrCache cache,
+      final long delay,
+      final TimeUnit delayUnit,
+      CacheStrategy cacheStrategy) {
+    this(cache, delay, delayUnit, cacheStrategy, 1);
+  }
+
   /**
    * Create a new cache bulk processor that will check added metacards for bulk processing at the
    * configured delay interval.
@@ -60,32 +132,46 @@ public CacheBulkProcessor(final SolrCache cache) {
    * @param cache target Solr cache to bulk add metacards
    * @param delay delay between decision to bulk add
    * @param delayUnit units of the delay
+   * @param cacheStrategy strategy that selects which results are cached
+   * @param flushWorkerCount number of threads flushing pending metacards to the cache in parallel
    */
   @SuppressWarnings("squid:S1181" /*Catching throwable intentionally*/)
   public CacheBulkProcessor(
       final SolrCache cache,
       final long delay,
       final TimeUnit delayUnit,
-      CacheStrategy cacheStrategy) {
+      CacheStrategy cacheStrategy,
+      int flushWorkerCount) {
     Validate.notNull(cache, "Valid SolrCache required.");
+    Validate.isTrue(flushWorkerCount > 0, "At least one flush worker required.");
 
-    batchScheduler.scheduleWithFixedDelay(
-        () -> {
-          try {
-            if (metacardsToCache.size() > 0
-                && (metacardsToCache.size() >= batchSize || timeToFlush())) {
-              LOGGER.debug("{} metacards to batch add to cache", metacardsToCache.size());
+    this.cache = cache;
+    this.cacheStrategy = cacheStrategy;
 
-              List<Metacard> metacards = new ArrayList<>(metacardsToCache.values());
-              for (Collection<Metacard> batch : Lists.partition(metacards, batchSize)) {
-                LOGGER.debug("Caching a batch of {} metacards", batch.size());
-                cache.put(batch);
+    stripes = newStripes(flushWorkerCount);
+    flushWorkers =
+        new ThreadPoolExecutor(
+            flushWorkerCount,
+            flushWorkerCount,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>());
 
-                for (Metacard metacard : batch) {
-                  metacardsToCache.remove(metacard.getId());
-                }
-              }
+    droppedCounter = Metrics.counter(METRIC_PREFIX + ".dropped");
+    flushLatency =
+        DistributionSummary.builder(METRIC_PREFIX + ".flush.latency")
+            .baseUnit("milliseconds")
+            .publishPercentiles(0.5, 0.95)
+            .register(Metrics.globalRegistry);
+    Metrics.gauge(METRIC_PREFIX + ".pending", pendingCount);
 
+    batchScheduler.scheduleWithFixedDelay(
+        () -> {
+          try {
+            int pending = pendingCount.get();
+            if (pending > 0 && (pending >= batchSize || timeToFlush())) {
+              LOGGER.debug("{} metacards to batch add to cache", pending);
+              scheduleFlushes();
               lastBulkAdd = new Date();
             }
           } catch (VirtualMachineError vme) {
@@ -97,8 +183,14 @@ public CacheBulkProcessor(
         delay,
         delay,
         delayUnit);
+  }
 
-    this.cacheStrategy = cacheStrategy;
+  private static List<Stripe> newStripes(int count) {
+    List<Stripe> newStripes = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      newStripes.add(new Stripe());
+    }
+    return newStripes;
   }
 
   private boolean timeToFlush() {
@@ -106,28 +198,256 @@ private boolean timeToFlush() {
     return now.getTime() - lastBulkAdd.getTime() > flushInterval;
   }
 
+  private void scheduleFlushes() {
+    for (Stripe stripe : stripes) {
+      if (stripe.hasPending() && stripe.flushing.compareAndSet(false, true)) {
+        flushWorkers.execute(() -> flush(stripe));
+      }
+    }
+  }
+
+  @SuppressWarnings("squid:S1181" /*Catching throwable intentionally*/)
+  private void flush(Stripe stripe) {
+    try {
+      List<Metacard> batch = stripe.take(batchSize);
+      while (!batch.isEmpty()) {
+        LOGGER.debug("Caching a batch of {} metacards", batch.size());
+        long start = System.currentTimeMillis();
+        try {
+          cache.put(batch);
+        } catch (RuntimeException e) {
+          release(batch.size() - restore(batch));
+          throw e;
+        }
+        flushLatency.record(System.currentTimeMillis() - start);
+        release(batch.size());
+
+        batch = stripe.take(batchSize);
+      }
+    } catch (VirtualMachineError vme) {
+      throw vme;
+    } catch (Throwable throwable) {
+      LOGGER.warn("Bulk ingest to cache failed", throwable);
+    } finally {
+      stripe.flushing.set(false);
+    }
+  }
+
   /**
-   * Adds metacards to be bulk added to cache. Metacards will be ignored if backlog grows too large.
-   * Metacard currently in backlog will be updated if added again.
+   * Adds metacards to be bulk added to cache. Metacard currently in backlog will be updated if
+   * added again. When the backlog is full, the configured {@link BacklogPolicy} decides whether new
+   * metacards are dropped, replace the oldest pending metacards or wait for room. Waiting happens
+   * on the calling thread, so callers that add faster than the cache is written to are slowed down.
    *
    * @param results metacards to add to current batch
    */
   public void add(final List<Result> results) {
-    if (metacardsToCache.size() < maximumBacklogSize) {
-      LOGGER.debug("{} results pending to be added to cache.", results.size());
-      cacheStrategy
-          .getCacheStrategyFunction()
-          .accept(results, m -> metacardsToCache.put(m.getId(), m));
+    LOGGER.debug("{} results pending to be added to cache.", results.size());
+    long deadline = System.currentTimeMillis() + blockTimeout;
+    cacheStrategy
+        .getCacheStrategyFunction()
+        .accept(results, metacard -> enqueue(metacard, deadline));
+  }
+
+  private void enqueue(Metacard metacard, long deadline) {
+    String id = metacard.getId();
+
+    stripesLock.readLock().lock();
+    try {
+      if (stripeFor(id).offer(id, metacard, this::reserve)) {
+        return;
+      }
+    } finally {
+      stripesLock.readLock().unlock();
+    }
+
+    if (makeRoom(id, deadline)) {
+      if (!put(id, metacard)) {
+        // another thread added the same metacard while waiting for room
+        release(1);
+      }
+    } else {
+      droppedCounter.increment();
+      LOGGER.trace("Cache backlog is full, dropping metacard {}", id);
+    }
+  }
+
+  private boolean makeRoom(String id, long deadline) {
+    switch (backlogPolicy) {
+      case DROP_OLDEST:
+        return dropOldest(id);
+      case BLOCK:
+        return awaitRoom(deadline);
+      default:
+        return false;
+    }
+  }
+
+  private boolean dropOldest(String id) {
+    stripesLock.readLock().lock();
+    try {
+      if (stripeFor(id).removeOldest()) {
+        droppedCounter.increment();
+        return true;
+      }
+      for (Stripe other : stripes) {
+        if (other.removeOldest()) {
+          droppedCounter.increment();
+          return true;
+        }
+      }
+      return false;
+    } finally {
+      stripesLock.readLock().unlock();
+    }
+  }
+
+  private boolean awaitRoom(long deadline) {
+    synchronized (backlogMonitor) {
+      while (!reserve()) {
+        long remaining = deadline - System.currentTimeMillis();
+        if (remaining <= 0) {
+          return false;
+        }
+        try {
+          backlogMonitor.wait(remaining);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  private boolean reserve() {
+    int current;
+    do {
+      current = pendingCount.get();
+      if (current >= maximumBacklogSize) {
+        return false;
+      }
+    } while (!pendingCount.compareAndSet(current, current + 1));
+    return true;
+  }
+
+  private void release(int count) {
+    if (count > 0) {
+      pendingCount.addAndGet(-count);
+      synchronized (backlogMonitor) {
+        backlogMonitor.notifyAll();
+      }
+    }
+  }
+
+  /** @return true if the metacard was not already pending */
+  private boolean put(String id, Metacard metacard) {
+    stripesLock.readLock().lock();
+    try {
+      return stripeFor(id).put(id, metacard);
+    } finally {
+      stripesLock.readLock().unlock();
     }
   }
 
-  /** Shutdown scheduled tasks. */
+  /**
+   * Puts back metacards that could not be flushed, unless a newer version was added meanwhile.
+   *
+   * @return number of metacards put back
+   */
+  private int restore(Collection<Metacard> metacards) {
+    stripesLock.readLock().lock();
+    try {
+      int restored = 0;
+      for (Metacard metacard : metacards) {
+        if (stripeFor(metacard.getId()).restore(metacard)) {
+          restored++;
+        }
+      }
+      return restored;
+    } finally {
+      stripesLock.readLock().unlock();
+    }
+  }
+
+  private Stripe stripeFor(String id) {
+    return stripes.get(Math.floorMod(id == null ? 0 : id.hashCode(), stripes.size()));
+  }
+
+  /**
+   * Shutdown scheduled tasks. If a pending metacards file is configured, metacards that were not
+   * flushed yet are written to it so they can be restored on the next start.
+   */
   public void shutdown() {
     batchScheduler.shutdown();
+    flushWorkers.shutdown();
+    try {
+      if (!flushWorkers.awaitTermination(5, TimeUnit.SECONDS)) {
+        LOGGER.debug("Timed out waiting for cache flushes to complete");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    savePendingMetacards();
   }
 
   int pendingMetacards() {
-    return metacardsToCache.size();
+    return pendingCount.get();
+  }
+
+  private void savePendingMetacards() {
+    Path file = pendingMetacardsFile;
+    if (file == null) {
+      return;
+    }
+
+    ArrayList<Metacard> pending = new ArrayList<>();
+    for (Stripe stripe : stripes) {
+      List<Metacard> metacards = stripe.take(Integer.MAX_VALUE);
+      release(metacards.size());
+      // Only MetacardImpl and its attribute classes are read back by MetacardObjectInputStream
+      metacards.forEach(
+          metacard ->
+              pending.add(
+                  metacard instanceof MetacardImpl ? metacard : new MetacardImpl(metacard)));
+    }
+    if (pending.isEmpty()) {
+      return;
+    }
+
+    try {
+      Files.createDirectories(file.toAbsolutePath().getParent());
+      try (OutputStream outputStream = Files.newOutputStream(file);
+          ObjectOutputStream objectOutputStream = new ObjectOutputStream(outputStream)) {
+        objectOutputStream.writeObject(pending);
+      }
+      LOGGER.debug("Saved {} pending cache metacards to {}", pending.size(), file);
+    } catch (IOException e) {
+      LOGGER.info("Unable to save pending cache metacards to {}", file, e);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void restorePendingMetacards(Path file) {
+    if (!file.toFile().exists()) {
+      return;
+    }
+
+    try (InputStream inputStream = Files.newInputStream(file);
+        ObjectInputStream objectInputStream = new MetacardObjectInputStream(inputStream)) {
+      List<Metacard> pending = (List<Metacard>) objectInputStream.readObject();
+      long deadline = System.currentTimeMillis() + blockTimeout;
+      pending.forEach(metacard -> enqueue(metacard, deadline));
+      LOGGER.debug("Restored {} pending cache metacards from {}", pending.size(), file);
+    } catch (IOException | ClassNotFoundException | ClassCastException e) {
+      LOGGER.info("Unable to restore pending cache metacards from {}", file, e);
+    }
+
+    try {
+      Files.delete(file);
+    } catch (IOException e) {
+      LOGGER.debug("Unable to delete pending cache metacards file {}", file, e);
+    }
   }
 
   public void setFlushInterval(long flushInterval) {
@@ -142,7 +462,123 @@ public void setMaximumBacklogSize(int maximumBacklogSize) {
     this.maximumBacklogSize = maximumBacklogSize;
   }
 
+  public void setBacklogPolicy(BacklogPolicy backlogPolicy) {
+    this.backlogPolicy = backlogPolicy;
+  }
+
+  public void setBlockTimeout(long blockTimeout) {
+    this.blockTimeout = blockTimeout;
+  }
+
+  /**
+   * Sets the number of threads flushing pending metacards to the cache in parallel. Pending
+   * metacards are redistributed over the new number of stripes.
+   */
+  public synchronized void setFlushWorkerCount(int flushWorkerCount) {
+    Validate.isTrue(flushWorkerCount > 0, "At least one flush worker required.");
+    if (flushWorkerCount == stripes.size()) {
+      return;
+    }
+
+    if (flushWorkerCount > flushWorkers.getMaximumPoolSize()) {
+      flushWorkers.setMaximumPoolSize(flushWorkerCount);
+      flushWorkers.setCorePoolSize(flushWorkerCount);
+    } else {
+      flushWorkers.setCorePoolSize(flushWorkerCount);
+      flushWorkers.setMaximumPoolSize(flushWorkerCount);
+    }
+
+    stripesLock.writeLock().lock();
+    try {
+      List<Stripe> previousStripes = stripes;
+      stripes = newStripes(flushWorkerCount);
+      for (Stripe stripe : previousStripes) {
+        List<Metacard> metacards = stripe.take(Integer.MAX_VALUE);
+        release(metacards.size() - restore(metacards));
+      }
+    } finally {
+      stripesLock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Sets the file used to keep pending metacards across restarts. Metacards saved to the file by a
+   * previous shutdown are restored immediately.
+   *
+   * @param pendingMetacardsFile path of the file, or blank to not keep pending metacards
+   */
+  public void setPendingMetacardsFile(String pendingMetacardsFile) {
+    if (StringUtils.isBlank(pendingMetacardsFile)) {
+      this.pendingMetacardsFile = null;
+      return;
+    }
+
+    Path file = Paths.get(pendingMetacardsFile);
+    if (!file.equals(this.pendingMetacardsFile)) {
+      this.pendingMetacardsFile = file;
+      restorePendingMetacards(file);
+    }
+  }
+
   public void setCacheStrategy(CacheStrategy cacheStrategy) {
     this.cacheStrategy = cacheStrategy;
   }
+
+  /** Pending metacards for one range of metacard IDs, in the order they were first added. */
+  private static class Stripe {
+
+    private final Map<String, Metacard> pending = new LinkedHashMap<>();
+
+    private final AtomicBoolean flushing = new AtomicBoolean();
+
+    synchronized boolean hasPending() {
+      return !pending.isEmpty();
+    }
+
+    /**
+     * Replaces the metacard if it is already pending, or adds it if room can be reserved for it.
+     *
+     * @return true if the metacard is now pending
+     */
+    synchronized boolean offer(String id, Metacard metacard, BooleanSupplier reserve) {
+      if (pending.replace(id, metacard) != null) {
+        return true;
+      }
+      if (reserve.getAsBoolean()) {
+        pending.put(id, metacard);
+        return true;
+      }
+      return false;
+    }
+
+    /** @return true if the metacard was not already pending */
+    synchronized boolean put(String id, Metacard metacard) {
+      return pending.put(id, metacard) == null;
+    }
+
+    synchronized boolean removeOldest() {
+      Iterator<Metacard> iterator = pending.values().iterator();
+      if (iterator.hasNext()) {
+        iterator.next();
+        iterator.remove();
+        return true;
+      }
+      return false;
+    }
+
+    synchronized List<Metacard> take(int count) {
+      List<Metacard> batch = new ArrayList<>(Math.min(count, pending.size()));
+      Iterator<Metacard> iterator = pending.values().iterator();
+      while (batch.size() < count && iterator.hasNext()) {
+        batch.add(iterator.next());
+        iterator.remove();
+      }
+      return batch;
+    }
+
+    /** @return true if the metacard was put back because no newer version is pending */
+    synchronized boolean restore(Metacard metacard) {
+      return pending.putIfAbsent(metacard.getId(), metacard) == null;
+    }
+  }
 }
@@ -89,6 +89,12 @@ protected SolrInputDocument getSolrInputDocument(Metacard metacard)
     return solrInputDocument;
   }
 
+  @Override
+  protected SolrInputDocument getPartialUpdateDocument(Metacard oldMetacard, Metacard newMetacard) {
+    // cached documents carry additional fields, so they are always replaced
+    return null;
+  }
+
   private String getMetacardId(SolrDocument doc) {
     return doc.getFirstValue(SolrCache.METACARD_ID_NAME).toString();
   }
@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.solr.cache.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Reads metacards written by {@link java.io.ObjectOutputStream}, refusing every class other than
+ * the {@code ddf.catalog.data.impl} metacard classes, the JDK collections they use and {@code
+ * java.*} value types, so that a tampered file cannot instantiate arbitrary classes.
+ */
+class MetacardObjectInputStream extends ObjectInputStream {
+
+  private static final String METACARD_IMPL_PACKAGE = "ddf.catalog.data.impl.";
+
+  private static final Set<String> ALLOWED_CLASSES =
+      Collections.unmodifiableSet(
+          new HashSet<>(
+              Arrays.asList(
+                  "ddf.catalog.data.AttributeType$AttributeFormat",
+                  "java.io.Serializable",
+                  "java.lang.Boolean",
+                  "java.lang.Byte",
+                  "java.lang.Character",
+                  "java.lang.Double",
+                  "java.lang.Enum",
+                  "java.lang.Float",
+                  "java.lang.Integer",
+                  "java.lang.Long",
+                  "java.lang.Number",
+                  "java.lang.Short",
+                  "java.lang.String",
+                  "java.math.BigDecimal",
+                  "java.math.BigInteger",
+                  "java.net.URI",
+                  "java.sql.Timestamp",
+                  "java.util.ArrayList",
+                  "java.util.Date",
+                  "java.util.HashMap",
+                  "java.util.HashSet",
+                  "java.util.LinkedHashMap",
+                  "java.util.LinkedHashSet",
+                  "java.util.LinkedList",
+                  "[B",
+                  "[C",
+                  "[D",
+                  "[F",
+                  "[I",
+                  "[J",
+                  "[S",
+                  "[Z",
+                  "[Ljava.lang.String;")));
+
+  MetacardObjectInputStream(InputStream inputStream) throws IOException {
+    super(inputStream);
+  }
+
+  @Override
+  protected Class<?> resolveClass(ObjectStreamClass desc)
+      throws IOException, ClassNotFoundException {
+    String name = desc.getName();
+    if (!name.startsWith(METACARD_IMPL_PACKAGE) && !ALLOWED_CLASSES.contains(name)) {
+      throw new InvalidClassException(name, "Class is not allowed in pending metacards");
+    }
+    return super.resolveClass(desc);
+  }
+}
@@ -30,6 +30,7 @@
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
@@ -43,10 +44,14 @@ public class QueryResultCachePlugin implements PostFederatedQueryPlugin {
 
   private final ExecutorService cacheExecutorService;
 
+  private static final int FLUSH_WORKER_COUNT = 4;
+
   private final CacheBulkProcessor cacheBulkProcessor;
 
   private boolean isCachingFederatedResponses = true;
 
+  private volatile boolean blockingOnFullBacklog = false;
+
   public QueryResultCachePlugin(
       SolrCache solrCache,
       SolrCacheSource solrCacheSource,
@@ -59,7 +64,9 @@ public QueryResultCachePlugin(
     cacheSource = solrCacheSource;
     cacheExecutorService = solrCacheExecutorService;
 
-    cacheBulkProcessor = new CacheBulkProcessor(solrCache);
+    cacheBulkProcessor =
+        new CacheBulkProcessor(
+            solrCache, 1, TimeUnit.SECONDS, CacheStrategy.FEDERATED, FLUSH_WORKER_COUNT);
   }
 
   @Override
@@ -94,13 +101,36 @@ public void setCachingFederatedResponses(boolean cachingFederatedResponses) {
     this.isCachingFederatedResponses = cachingFederatedResponses;
   }
 
+  public void setBacklogPolicy(String backlogPolicy) {
+    CacheBulkProcessor.BacklogPolicy policy =
+        CacheBulkProcessor.BacklogPolicy.valueOf(backlogPolicy);
+    cacheBulkProcessor.setBacklogPolicy(policy);
+    blockingOnFullBacklog = policy == CacheBulkProcessor.BacklogPolicy.BLOCK;
+  }
+
+  public void setBlockTimeout(long blockTimeout) {
+    cacheBulkProcessor.setBlockTimeout(blockTimeout);
+  }
+
+  public void setFlushWorkerCount(int flushWorkerCount) {
+    cacheBulkProcessor.setFlushWorkerCount(flushWorkerCount);
+  }
+
+  public void setMaximumBacklogSize(int maximumBacklogSize) {
+    cacheBulkProcessor.setMaximumBacklogSize(maximumBacklogSize);
+  }
+
+  public void setPendingMetacardsFile(String pendingMetacardsFile) {
+    cacheBulkProcessor.setPendingMetacardsFile(pendingMetacardsFile);
+  }
+
   public void shutdown() {
     cacheBulkProcessor.shutdown();
   }
 
   private void addToCache(QueryResponse input) {
     SourceResponse clonedSourceResponse = cloneResponse(input);
-    cacheExecutorService.submit(
+    Runnable add =
         () -> {
           try {
             cacheBulkProcessor.add(clonedSourceResponse.getResults());
@@ -109,7 +139,15 @@ private void addToCache(QueryResponse input) {
           } catch (Throwable throwable) {
             LOGGER.warn("Unable to add results for bulk processing", throwable);
           }
-        });
+        };
+
+    if (blockingOnFullBacklog) {
+      // wait for room on the query thread, so that queries slow down instead of piling up
+      // responses in the cache thread pool while the backlog is full
+      add.run();
+    } else {
+      cacheExecutorService.submit(add);
+    }
   }
 
   private SourceResponse cloneResponse(SourceResponse sourceResponse) {
@@ -19,6 +19,7 @@
 import ddf.catalog.data.ContentType;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.MetacardCreationException;
+import ddf.catalog.data.Result;
 import ddf.catalog.filter.FilterAdapter;
 import ddf.catalog.operation.DeleteRequest;
 import ddf.catalog.operation.QueryRequest;
@@ -28,22 +29,35 @@
 import ddf.catalog.source.solr.SchemaFields;
 import ddf.catalog.source.solr.SolrFilterDelegateFactory;
 import ddf.catalog.source.solr.SolrMetacardClient;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.math.NumberUtils;
+import org.apache.solr.client.solrj.SolrQuery;
 import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.client.solrj.util.ClientUtils;
+import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrException;
+import org.apache.solr.common.params.CursorMarkParams;
 import org.codice.ddf.catalog.solr.cache.CachePutPlugin;
+import org.codice.ddf.catalog.solr.cache.impl.CacheAccessTracker.EvictionPolicy;
 import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
 import org.codice.solr.client.solrj.SolrClient;
 import org.codice.solr.client.solrj.UnavailableSolrException;
@@ -67,6 +81,13 @@ public class SolrCache {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(SolrCache.class);
 
+  private static final String METRIC_PREFIX = "ddf.catalog.solr.cache";
+
+  private static final int MAXIMUM_TRACKED_DOCUMENTS = 100000;
+
+  /** Number of eviction candidates looked at for every document evicted. */
+  private static final int EVICTION_SAMPLE_FACTOR = 2;
+
   private static final CachePutPlugin REQUIRED_ATTRIBUTES_PUT_PLUGIN =
       metacard -> {
         if (StringUtils.isNotBlank(metacard.getSourceId())
@@ -90,8 +111,31 @@ public class SolrCache {
 
   private long expirationAgeInMinutes = TimeUnit.DAYS.toMinutes(7);
 
+  private volatile Map<String, Long> sourceExpirationAgesInMinutes = Collections.emptyMap();
+
+  private int expirationBatchSize = 1000;
+
+  private long expirationBatchDelayInMillis = 1000;
+
+  private long maximumCacheSize = 0;
+
+  private EvictionPolicy evictionPolicy = EvictionPolicy.LRU;
+
   private final List<CachePutPlugin> cachePutPlugins;
 
+  private final CacheAccessTracker accessTracker =
+      new CacheAccessTracker(MAXIMUM_TRACKED_DOCUMENTS);
+
+  private final AtomicLong cacheSize = new AtomicLong();
+
+  private final Counter addedCounter = Metrics.counter(METRIC_PREFIX + ".added");
+
+  private final Counter expiredCounter = Metrics.counter(METRIC_PREFIX + ".expired");
+
+  private final Counter evictedCounter = Metrics.counter(METRIC_PREFIX + ".evicted");
+
+  private final Counter hitCounter = Metrics.counter(METRIC_PREFIX + ".hits");
+
   /**
    * Constructor.
    *
@@ -133,6 +177,7 @@ public SolrCache(
     this.metacardClient = metacardClient;
     this.schedulerCreator = schedulerCreator;
     this.cachePutPlugins = cachePutPlugins;
+    Metrics.gauge(METRIC_PREFIX + ".size", cacheSize);
     configureCacheExpirationScheduler();
   }
 
@@ -152,7 +197,17 @@ private SolrCache(
   }
 
   public SourceResponse query(QueryRequest request) throws UnsupportedQueryException {
-    return metacardClient.query(request);
+    SourceResponse response = metacardClient.query(request);
+    if (response != null && response.getResults() != null) {
+      for (Result result : response.getResults()) {
+        Metacard metacard = result.getMetacard();
+        if (metacard != null) {
+          accessTracker.recordAccess(metacard.getSourceId() + metacard.getId());
+          hitCounter.increment();
+        }
+      }
+    }
+    return response;
   }
 
   public void put(Collection<Metacard> metacards) {
@@ -169,6 +224,7 @@ public void put(Collection<Metacard> metacards) {
     try {
       metacardClient.add(updatedMetacards, false);
       dirty.set(true);
+      addedCounter.increment(updatedMetacards.size());
     } catch (SolrServerException | SolrException | IOException | MetacardCreationException e) {
       LOGGER.info("Solr client exception caching metacard(s)", e);
     }
@@ -207,6 +263,46 @@ public void setExpirationAgeInMinutes(long expirationAgeInMinutes) {
     this.expirationAgeInMinutes = expirationAgeInMinutes;
   }
 
+  /**
+   * Sets expiration ages that override the default expiration age for the results of specific
+   * sources.
+   *
+   * @param sourceExpirationAges entries of the form {@code sourceId=minutes}
+   */
+  public void setSourceExpirationAgesInMinutes(String[] sourceExpirationAges) {
+    Map<String, Long> expirationAges = new HashMap<>();
+    if (sourceExpirationAges != null) {
+      for (String sourceExpirationAge : sourceExpirationAges) {
+        String[] keyValue = sourceExpirationAge.split("=", 2);
+        if (keyValue.length == 2
+            && StringUtils.isNotBlank(keyValue[0])
+            && NumberUtils.isDigits(keyValue[1].trim())) {
+          expirationAges.put(keyValue[0].trim(), Long.parseLong(keyValue[1].trim()));
+        } else {
+          LOGGER.debug("Ignoring invalid source expiration age [{}]", sourceExpirationAge);
+        }
+      }
+    }
+    this.sourceExpirationAgesInMinutes = expirationAges;
+  }
+
+  public void setExpirationBatchSize(int expirationBatchSize) {
+    this.expirationBatchSize = expirationBatchSize;
+  }
+
+  public void setExpirationBatchDelayInMillis(long expirationBatchDelayInMillis) {
+    this.expirationBatchDelayInMillis = expirationBatchDelayInMillis;
+  }
+
+  /** @param maximumCacheSize maximum number of cached documents, or 0 for no maximum */
+  public void setMaximumCacheSize(long maximumCacheSize) {
+    this.maximumCacheSize = maximumCacheSize;
+  }
+
+  public void setEvictionPolicy(String evictionPolicy) {
+    this.evictionPolicy = EvictionPolicy.valueOf(evictionPolicy);
+  }
+
   private List<Metacard> applyCachePutPlugins(Collection<Metacard> metacards) {
     List<Metacard> updatedMetacards = new ArrayList<>();
     for (Metacard metacard : metacards) {
@@ -291,6 +387,144 @@ Set<ContentType> getContentTypes() {
     return metacardClient.getContentTypes();
   }
 
+  /**
+   * Removes expired documents, and then evicts the least used documents if the cache is still
+   * larger than its maximum size. Documents are looked up through the index and deleted by ID a
+   * batch at a time, pausing between batches, so a large cache is never expired in one big delete.
+   * The expired documents are soft committed before the cache is counted, because deleted documents
+   * are still counted and found until they are committed.
+   */
+  @VisibleForTesting
+  void expire() throws IOException, SolrServerException, InterruptedException {
+    Map<String, Long> sourceExpirationAges = sourceExpirationAgesInMinutes;
+
+    long expired = 0;
+    StringBuilder defaultQuery = new StringBuilder(expiredQuery(expirationAgeInMinutes));
+    for (Map.Entry<String, Long> sourceExpirationAge : sourceExpirationAges.entrySet()) {
+      String sourceQuery = sourceQuery(sourceExpirationAge.getKey());
+      defaultQuery.append(" -").append(sourceQuery);
+      expired +=
+          deleteAll(
+              sourceQuery + " AND " + expiredQuery(sourceExpirationAge.getValue()), expiredCounter);
+    }
+    expired += deleteAll(defaultQuery.toString(), expiredCounter);
+
+    if (expired > 0) {
+      client.commit(true, true, true);
+    }
+    evict();
+  }
+
+  private void evict() throws IOException, SolrServerException, InterruptedException {
+    SolrQuery countQuery = new SolrQuery("*:*");
+    countQuery.setRows(0);
+    long size = client.query(countQuery).getResults().getNumFound();
+    cacheSize.set(size);
+
+    if (maximumCacheSize <= 0 || size <= maximumCacheSize) {
+      return;
+    }
+
+    long overflow = size - maximumCacheSize;
+    LOGGER.debug("Evicting {} documents from cache.", overflow);
+
+    String cursorMark = CursorMarkParams.CURSOR_MARK_START;
+    while (overflow > 0) {
+      int evictions = (int) Math.min(overflow, expirationBatchSize);
+      SolrQuery query = idQuery("*:*", evictions * EVICTION_SAMPLE_FACTOR, cursorMark);
+      QueryResponse response = client.query(query);
+
+      List<String> candidates = getIds(response);
+      if (candidates.isEmpty()) {
+        return;
+      }
+      candidates.sort(accessTracker.evictionOrder(evictionPolicy));
+      List<String> evicted = candidates.subList(0, Math.min(evictions, candidates.size()));
+      delete(evicted, evictedCounter);
+      overflow -= evicted.size();
+
+      if (cursorMark.equals(response.getNextCursorMark())) {
+        return;
+      }
+      cursorMark = response.getNextCursorMark();
+      pauseBetweenBatches();
+    }
+  }
+
+  /** @return the number of deleted documents */
+  private long deleteAll(String expiredQuery, Counter counter)
+      throws IOException, SolrServerException, InterruptedException {
+    long deleted = 0;
+    String cursorMark = CursorMarkParams.CURSOR_MARK_START;
+    while (true) {
+      QueryResponse response = client.query(idQuery(expiredQuery, expirationBatchSize, cursorMark));
+
+      List<String> ids = getIds(response);
+      if (ids.isEmpty()) {
+        return deleted;
+      }
+      delete(ids, counter);
+      deleted += ids.size();
+
+      if (cursorMark.equals(response.getNextCursorMark())) {
+        return deleted;
+      }
+      cursorMark = response.getNextCursorMark();
+      pauseBetweenBatches();
+    }
+  }
+
+  private void delete(List<String> ids, Counter counter) throws IOException, SolrServerException {
+    LOGGER.trace("Removing {} documents from cache.", ids.size());
+    client.deleteById(ids);
+    ids.forEach(accessTracker::remove);
+    counter.increment(ids.size());
+    dirty.set(true);
+  }
+
+  private void pauseBetweenBatches() throws InterruptedException {
+    if (expirationBatchDelayInMillis > 0) {
+      Thread.sleep(expirationBatchDelayInMillis);
+    }
+  }
+
+  /**
+   * Builds a query that pages through the unique IDs of matching documents, oldest first, with a
+   * cursor. Deleted documents stay visible to the query until the next commit, so the cursor is
+   * used instead of repeatedly asking for the first page.
+   */
+  private static SolrQuery idQuery(String filterQuery, int rows, String cursorMark) {
+    SolrQuery query = new SolrQuery("*:*");
+    query.addFilterQuery(filterQuery);
+    query.setFields(METACARD_UNIQUE_ID_NAME);
+    query.setRows(rows);
+    query.addSort(CACHED_DATE, SolrQuery.ORDER.asc);
+    query.addSort(METACARD_UNIQUE_ID_NAME, SolrQuery.ORDER.asc);
+    query.set(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark);
+    return query;
+  }
+
+  private static List<String> getIds(QueryResponse response) {
+    List<String> ids = new ArrayList<>();
+    if (response.getResults() != null) {
+      for (SolrDocument document : response.getResults()) {
+        Object id = document.getFirstValue(METACARD_UNIQUE_ID_NAME);
+        if (id != null) {
+          ids.add(id.toString());
+        }
+      }
+    }
+    return ids;
+  }
+
+  private static String expiredQuery(long expirationAgeInMinutes) {
+    return CACHED_DATE + ":[* TO NOW-" + expirationAgeInMinutes + "MINUTES]";
+  }
+
+  private static String sourceQuery(String sourceId) {
+    return METACARD_SOURCE_NAME + ":" + ClientUtils.escapeQueryChars(sourceId);
+  }
+
   private static ScheduledExecutorService createScheduler() {
     return Executors.newSingleThreadScheduledExecutor(
         StandardThreadFactoryBuilder.newThreadFactory("solrCacheThread"));
@@ -301,7 +535,10 @@ private class ExpirationRunner implements Runnable {
     public void run() {
       try {
         LOGGER.debug("Expiring cache.");
-        client.deleteByQuery(CACHED_DATE + ":[* TO NOW-" + expirationAgeInMinutes + "MINUTES]");
+        expire();
+      } catch (InterruptedException e) {
+        LOGGER.debug("Cache expiration interrupted.");
+        Thread.currentThread().interrupt();
       } catch (UnavailableSolrException e) {
         LOGGER.debug("Unable to expire cache.", e);
       } catch (SolrServerException | SolrException | IOException e) {
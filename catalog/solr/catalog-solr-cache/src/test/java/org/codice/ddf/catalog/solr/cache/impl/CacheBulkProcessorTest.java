@@ -26,14 +26,22 @@
 import com.google.common.collect.Lists;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.ResultImpl;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.ObjectOutputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import org.junit.After;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
@@ -43,6 +51,8 @@
 @RunWith(MockitoJUnitRunner.class)
 public class CacheBulkProcessorTest {
 
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
   @Captor ArgumentCaptor<Collection<Metacard>> capturedMetacards;
 
   private CacheBulkProcessor cacheBulkProcessor;
@@ -143,6 +153,149 @@ public void updateMetacards() throws Exception {
     assertThat(capturedMetacards.getValue()).containsAll(getMetacards(mockResults));
   }
 
+  @Test
+  public void fullBacklogUpdatesPendingMetacards() throws Exception {
+    cacheBulkProcessor.setFlushInterval(TimeUnit.MINUTES.toMillis(1));
+    cacheBulkProcessor.setMaximumBacklogSize(5);
+    List<Result> mockResults = getMockResults(10);
+    List<Result> updatedResults = getMockResults(5);
+
+    cacheBulkProcessor.add(mockResults);
+    cacheBulkProcessor.add(updatedResults);
+    assertThat(cacheBulkProcessor.pendingMetacards()).isEqualTo(5);
+
+    cacheBulkProcessor.setFlushInterval(1);
+    waitForPendingMetacardsToCache();
+
+    verify(mockSolrCache).put(capturedMetacards.capture());
+    assertThat(capturedMetacards.getValue()).hasSize(5).containsAll(getMetacards(updatedResults));
+  }
+
+  @Test
+  public void fullBacklogDropsOldestMetacards() throws Exception {
+    cacheBulkProcessor.setFlushInterval(TimeUnit.MINUTES.toMillis(1));
+    cacheBulkProcessor.setMaximumBacklogSize(5);
+    cacheBulkProcessor.setBacklogPolicy(CacheBulkProcessor.BacklogPolicy.DROP_OLDEST);
+    List<Result> mockResults = getMockResults(10);
+
+    cacheBulkProcessor.add(mockResults);
+    assertThat(cacheBulkProcessor.pendingMetacards()).isEqualTo(5);
+
+    cacheBulkProcessor.setFlushInterval(1);
+    waitForPendingMetacardsToCache();
+
+    verify(mockSolrCache).put(capturedMetacards.capture());
+    assertThat(capturedMetacards.getValue())
+        .hasSize(5)
+        .containsAll(getMetacards(mockResults.subList(5, 10)));
+  }
+
+  @Test
+  public void fullBacklogBlocksUntilTimeout() throws Exception {
+    cacheBulkProcessor.setFlushInterval(TimeUnit.MINUTES.toMillis(1));
+    cacheBulkProcessor.setMaximumBacklogSize(5);
+    cacheBulkProcessor.setBacklogPolicy(CacheBulkProcessor.BacklogPolicy.BLOCK);
+    cacheBulkProcessor.setBlockTimeout(1);
+
+    cacheBulkProcessor.add(getMockResults(10));
+
+    assertThat(cacheBulkProcessor.pendingMetacards()).isEqualTo(5);
+  }
+
+  @Test
+  public void fullBacklogBlocksOncePerAdd() throws Exception {
+    cacheBulkProcessor.setFlushInterval(TimeUnit.MINUTES.toMillis(1));
+    cacheBulkProcessor.setMaximumBacklogSize(5);
+    cacheBulkProcessor.setBacklogPolicy(CacheBulkProcessor.BacklogPolicy.BLOCK);
+    cacheBulkProcessor.setBlockTimeout(100);
+
+    long start = System.currentTimeMillis();
+    cacheBulkProcessor.add(getMockResults(10));
+
+    assertThat(System.currentTimeMillis() - start).isLessThan(500);
+    assertThat(cacheBulkProcessor.pendingMetacards()).isEqualTo(5);
+  }
+
+  @Test
+  public void changingFlushWorkersKeepsPendingMetacards() throws Exception {
+    cacheBulkProcessor.setFlushInterval(TimeUnit.MINUTES.toMillis(1));
+    List<Result> mockResults = getMockResults(5);
+    cacheBulkProcessor.add(mockResults);
+
+    cacheBulkProcessor.setFlushWorkerCount(4);
+    assertThat(cacheBulkProcessor.pendingMetacards()).isEqualTo(5);
+
+    cacheBulkProcessor.setFlushInterval(1);
+    waitForPendingMetacardsToCache();
+
+    verify(mockSolrCache, atLeast(1)).put(capturedMetacards.capture());
+    List<Metacard> cachedMetacards = new ArrayList<>();
+    capturedMetacards.getAllValues().forEach(cachedMetacards::addAll);
+    assertThat(cachedMetacards).hasSize(5).containsAll(getMetacards(mockResults));
+  }
+
+  @Test
+  public void parallelFlushWorkers() throws Exception {
+    cacheBulkProcessor.shutdown();
+    cacheBulkProcessor =
+        new CacheBulkProcessor(mockSolrCache, 1, TimeUnit.MILLISECONDS, CacheStrategy.ALL, 4);
+    cacheBulkProcessor.setBatchSize(10);
+    cacheBulkProcessor.setFlushInterval(1);
+    List<Result> mockResults = getMockResults(100);
+
+    cacheBulkProcessor.add(mockResults);
+    waitForPendingMetacardsToCache();
+
+    verify(mockSolrCache, atLeast(4)).put(capturedMetacards.capture());
+    List<Metacard> cachedMetacards = new ArrayList<>();
+    capturedMetacards.getAllValues().forEach(cachedMetacards::addAll);
+    assertThat(cachedMetacards).containsAll(getMetacards(mockResults));
+  }
+
+  @Test
+  public void pendingMetacardsKeptAcrossRestart() throws Exception {
+    File pendingFile = new File(temporaryFolder.getRoot(), "pending.ser");
+    cacheBulkProcessor.setFlushInterval(TimeUnit.MINUTES.toMillis(1));
+    cacheBulkProcessor.setPendingMetacardsFile(pendingFile.getAbsolutePath());
+
+    List<Result> results = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      MetacardImpl metacard = new MetacardImpl();
+      metacard.setId(Integer.toString(i));
+      results.add(new ResultImpl(metacard));
+    }
+    cacheBulkProcessor.add(results);
+    cacheBulkProcessor.shutdown();
+
+    assertThat(pendingFile).exists();
+    verify(mockSolrCache, never()).put(anyCollection());
+
+    cacheBulkProcessor =
+        new CacheBulkProcessor(mockSolrCache, 1, TimeUnit.MILLISECONDS, CacheStrategy.ALL);
+    cacheBulkProcessor.setFlushInterval(1);
+    cacheBulkProcessor.setPendingMetacardsFile(pendingFile.getAbsolutePath());
+
+    assertThat(pendingFile).doesNotExist();
+    waitForPendingMetacardsToCache();
+
+    verify(mockSolrCache).put(capturedMetacards.capture());
+    assertThat(capturedMetacards.getValue()).hasSize(3);
+  }
+
+  @Test
+  public void pendingMetacardsFileWithUnexpectedClassesIsIgnored() throws Exception {
+    File pendingFile = new File(temporaryFolder.getRoot(), "pending.ser");
+    try (ObjectOutputStream objectOutputStream =
+        new ObjectOutputStream(new FileOutputStream(pendingFile))) {
+      objectOutputStream.writeObject(new ArrayList<>(Collections.singletonList(new AtomicLong())));
+    }
+
+    cacheBulkProcessor.setPendingMetacardsFile(pendingFile.getAbsolutePath());
+
+    assertThat(pendingFile).doesNotExist();
+    assertThat(cacheBulkProcessor.pendingMetacards()).isEqualTo(0);
+  }
+
   private void waitForPendingMetacardsToCache() throws InterruptedException {
     while (cacheBulkProcessor.pendingMetacards() > 0) {
       Thread.sleep(2);
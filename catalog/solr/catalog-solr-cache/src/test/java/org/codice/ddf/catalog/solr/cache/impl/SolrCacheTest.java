@@ -14,12 +14,17 @@
 package org.codice.ddf.catalog.solr.cache.impl;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -27,6 +32,7 @@
 import ddf.catalog.data.MetacardCreationException;
 import ddf.catalog.data.impl.AttributeImpl;
 import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.ResultImpl;
 import ddf.catalog.operation.DeleteRequest;
 import ddf.catalog.operation.QueryRequest;
 import ddf.catalog.operation.SourceResponse;
@@ -35,17 +41,25 @@
 import ddf.catalog.source.solr.SchemaFields;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ScheduledExecutorService;
 import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.params.CursorMarkParams;
+import org.apache.solr.common.params.SolrParams;
+import org.apache.solr.common.util.NamedList;
 import org.codice.ddf.catalog.solr.cache.CachePutPlugin;
 import org.codice.solr.client.solrj.SolrClient;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.MockitoJUnitRunner;
@@ -249,6 +263,125 @@ public void deleteAbsorbsException() throws Exception {
         .deleteByIds(OTHER_ATTRIBUTE_NAME + SchemaFields.TEXT_SUFFIX, null, false);
   }
 
+  @Test
+  public void expireDeletesExpiredDocumentsInBatches() throws Exception {
+    solrCache.setExpirationBatchSize(2);
+    solrCache.setExpirationBatchDelayInMillis(0);
+    QueryResponse firstBatch = queryResponse(3, "cursor1", ID1, ID2);
+    QueryResponse secondBatch = queryResponse(3, "cursor2", "id3");
+    QueryResponse lastBatch = queryResponse(3, "cursor2");
+    QueryResponse count = queryResponse(0, null);
+    when(mockSolrClient.query(any(SolrParams.class)))
+        .thenReturn(firstBatch, secondBatch, lastBatch, count);
+
+    solrCache.expire();
+
+    verify(mockSolrClient).deleteById(Arrays.asList(ID1, ID2));
+    verify(mockSolrClient).deleteById(Collections.singletonList("id3"));
+    verify(mockSolrClient, never()).deleteByQuery(any(String.class));
+  }
+
+  @Test
+  public void expireCommitsExpiredDocumentsBeforeCountingCache() throws Exception {
+    solrCache.setExpirationBatchDelayInMillis(0);
+    solrCache.setMaximumCacheSize(1);
+    QueryResponse expired = queryResponse(1, "cursor1", ID1);
+    QueryResponse lastBatch = queryResponse(1, "cursor1");
+    QueryResponse count = queryResponse(1, null);
+    when(mockSolrClient.query(any(SolrParams.class))).thenReturn(expired, lastBatch, count);
+
+    solrCache.expire();
+
+    InOrder inOrder = inOrder(mockSolrClient);
+    inOrder.verify(mockSolrClient).deleteById(Collections.singletonList(ID1));
+    inOrder.verify(mockSolrClient).commit(true, true, true);
+    inOrder.verify(mockSolrClient).query(any(SolrParams.class));
+    verify(mockSolrClient, times(1)).deleteById(any(List.class));
+  }
+
+  @Test
+  public void expireDoesNotCommitWithoutExpiredDocuments() throws Exception {
+    QueryResponse empty = queryResponse(0, null);
+    when(mockSolrClient.query(any(SolrParams.class))).thenReturn(empty);
+
+    solrCache.expire();
+
+    verify(mockSolrClient, never()).commit(anyBoolean(), anyBoolean(), anyBoolean());
+  }
+
+  @Test
+  public void expireUsesSourceExpirationAges() throws Exception {
+    solrCache.setExpirationAgeInMinutes(10);
+    solrCache.setSourceExpirationAgesInMinutes(new String[] {SOURCE_ID + "=5", "invalid"});
+    QueryResponse empty = queryResponse(0, null);
+    when(mockSolrClient.query(any(SolrParams.class))).thenReturn(empty);
+
+    solrCache.expire();
+
+    ArgumentCaptor<SolrParams> queryCaptor = ArgumentCaptor.forClass(SolrParams.class);
+    verify(mockSolrClient, times(3)).query(queryCaptor.capture());
+    String sourceQuery = queryCaptor.getAllValues().get(0).get("fq");
+    String defaultQuery = queryCaptor.getAllValues().get(1).get("fq");
+    assertThat(sourceQuery, containsString(SolrCache.METACARD_SOURCE_NAME + ":source\\-id"));
+    assertThat(sourceQuery, containsString("NOW-5MINUTES"));
+    assertThat(defaultQuery, containsString("-" + SolrCache.METACARD_SOURCE_NAME));
+    assertThat(defaultQuery, containsString("NOW-10MINUTES"));
+  }
+
+  @Test
+  public void expireEvictsLeastRecentlyUsedDocuments() throws Exception {
+    solrCache.setExpirationBatchDelayInMillis(0);
+    solrCache.setMaximumCacheSize(1);
+    QueryResponse empty = queryResponse(0, null);
+    QueryResponse count = queryResponse(2, null);
+    QueryResponse candidates = queryResponse(2, "cursor1", SOURCE_ID + ID1, SOURCE_ID + ID2);
+    when(mockSolrClient.query(any(SolrParams.class))).thenReturn(empty, count, candidates);
+
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setSourceId(SOURCE_ID);
+    metacard.setId(ID1);
+    QueryRequest mockQuery = mock(QueryRequest.class);
+    when(mockCacheSolrMetacardClient.query(mockQuery))
+        .thenReturn(
+            new QueryResponseImpl(
+                mockQuery, Collections.singletonList(new ResultImpl(metacard)), 1));
+    solrCache.query(mockQuery);
+
+    solrCache.expire();
+
+    verify(mockSolrClient).deleteById(Collections.singletonList(SOURCE_ID + ID2));
+  }
+
+  @Test
+  public void expireDoesNotEvictWithoutMaximumSize() throws Exception {
+    QueryResponse response = queryResponse(10, null);
+    when(mockSolrClient.query(any(SolrParams.class))).thenReturn(response);
+
+    solrCache.expire();
+
+    verify(mockSolrClient, never()).deleteById(any(List.class));
+  }
+
+  private QueryResponse queryResponse(long numFound, String nextCursorMark, String... ids) {
+    SolrDocumentList documents = new SolrDocumentList();
+    documents.setNumFound(numFound);
+    for (String id : ids) {
+      SolrDocument document = new SolrDocument();
+      document.setField(SolrCache.METACARD_UNIQUE_ID_NAME, id);
+      documents.add(document);
+    }
+
+    NamedList<Object> values = new NamedList<>();
+    values.add("response", documents);
+    if (nextCursorMark != null) {
+      values.add(CursorMarkParams.CURSOR_MARK_NEXT, nextCursorMark);
+    }
+
+    QueryResponse response = new QueryResponse();
+    response.setResponse(values);
+    return response;
+  }
+
   private DeleteRequest setupDeleteRequest(String attributeToReturn) {
     DeleteRequest mockRequest = mock(DeleteRequest.class);
     when(mockRequest.getAttributeName()).thenReturn(attributeToReturn);
@@ -69,8 +69,15 @@ public class ReindexCommand extends SolrCommands {
 
   private Reader readerThread = null;
 
+  /**
+   * Reading documents through this resolver decodes any legacy Java-serialized OBJECT attribute
+   * values, and writing them back through the {@link CatalogFramework} stores them with the current
+   * object attribute codec, so a reindex also migrates the stored format.
+   */
+  private final DynamicSchemaResolver schemaResolver = new DynamicSchemaResolver();
+
   private SolrMetacardClientImpl metacardClient =
-      new SolrMetacardClientImpl(null, null, null, new DynamicSchemaResolver());
+      new SolrMetacardClientImpl(null, null, null, schemaResolver);
 
   private long totalCount = 0;
 
@@ -185,6 +192,12 @@ public Object execute() throws Exception {
 
     printInfoMessage("Re-Indexing has been completed. " + count.get() + " records processed");
 
+    long legacyObjectValues = schemaResolver.getLegacyObjectValuesRead();
+    if (legacyObjectValues > 0) {
+      printInfoMessage(
+          legacyObjectValues + " legacy object attribute values were migrated to the new format");
+    }
+
     return null;
   }
 
@@ -18,6 +18,7 @@
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import ddf.catalog.data.Attribute;
 import ddf.catalog.data.AttributeDescriptor;
 import ddf.catalog.data.AttributeType;
 import ddf.catalog.data.AttributeType.AttributeFormat;
@@ -27,12 +28,10 @@
 import ddf.catalog.data.impl.AttributeDescriptorImpl;
 import ddf.catalog.data.impl.MetacardTypeImpl;
 import ddf.catalog.data.types.experimental.Extracted;
+import ddf.catalog.source.solr.codec.DefaultObjectAttributeCodec;
+import ddf.catalog.source.solr.codec.ObjectAttributeCodec;
 import ddf.catalog.source.solr.json.MetacardTypeMapperFactory;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.io.StringReader;
 import java.security.AccessController;
@@ -41,14 +40,17 @@
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import javax.annotation.Nullable;
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
@@ -88,6 +90,15 @@ public class DynamicSchemaResolver {
 
   private static final String SCORE_FIELD_NAME = "score";
 
+  private static final String ID_FIELD_NAME = Metacard.ID + SchemaFields.TEXT_SUFFIX;
+
+  private static final String SET_OPERATION = "set";
+
+  /** Formats whose fields can be set by an atomic update without the other attributes. */
+  private static final Set<AttributeFormat> PARTIAL_UPDATE_FORMATS =
+      EnumSet.complementOf(
+          EnumSet.of(AttributeFormat.XML, AttributeFormat.GEOMETRY, AttributeFormat.OBJECT));
+
   private static final int TOKEN_MAXIMUM_BYTES = 32766;
 
   static final String PHONETICS_FEATURE = "phonetics";
@@ -157,6 +168,10 @@ public class DynamicSchemaResolver {
 
   private SchemaFields schemaFields;
 
+  private ObjectAttributeCodec objectAttributeCodec = new DefaultObjectAttributeCodec();
+
+  private final LongAdder legacyObjectValuesRead = new LongAdder();
+
   private Cache<String, MetacardType> metacardTypesCache =
       CacheBuilder.newBuilder().maximumSize(4096).initialCapacity(64).build();
 
@@ -197,6 +212,26 @@ public static void addAdditionalFields(
         .forEach(field -> dynamicSchemaResolver.fieldsCache.add(field));
   }
 
+  /**
+   * Sets the codec used to store and read {@link AttributeFormat#OBJECT} attribute values.
+   *
+   * @param objectAttributeCodec codec to use, must be able to read values written by Java
+   *     serialization
+   */
+  public void setObjectAttributeCodec(ObjectAttributeCodec objectAttributeCodec) {
+    this.objectAttributeCodec = Objects.requireNonNull(objectAttributeCodec);
+  }
+
+  /**
+   * Returns the number of {@link AttributeFormat#OBJECT} values read so far that were stored in a
+   * legacy format. Reindexing rewrites these values with the current codec.
+   *
+   * @return number of legacy object values read
+   */
+  public long getLegacyObjectValuesRead() {
+    return legacyObjectValuesRead.sum();
+  }
+
   public void addAdditionalFields(List<AttributeDescriptor> additionalFields) {
     additionalFields.stream().forEach(this::addToFieldsCache);
   }
@@ -261,94 +296,226 @@ void addFields(Metacard metacard, SolrInputDocument solrInputDocument)
     // TODO: register these metacard types when a new one is seen
 
     for (AttributeDescriptor ad : schema.getAttributeDescriptors()) {
-      if (metacard.getAttribute(ad.getName()) != null) {
-        List<Serializable> attributeValues = metacard.getAttribute(ad.getName()).getValues();
-
-        if (CollectionUtils.isNotEmpty(attributeValues) && attributeValues.get(0) != null) {
-          AttributeFormat format = ad.getType().getAttributeFormat();
-          String formatIndexName = ad.getName() + getFieldSuffix(format);
-
-          if (AttributeFormat.XML.equals(format)
-              && solrInputDocument.getFieldValue(
-                      formatIndexName + getSpecialIndexSuffix(AttributeFormat.STRING))
-                  == null) {
-            List<String> parsedTexts = parseTextFrom(attributeValues);
-
-            // parsedTexts => *_txt_tokenized
-            String specialStringIndexName =
-                ad.getName()
-                    + getFieldSuffix(AttributeFormat.STRING)
-                    + getSpecialIndexSuffix(AttributeFormat.STRING);
-            solrInputDocument.addField(specialStringIndexName, parsedTexts);
-          } else if (AttributeFormat.STRING.equals(format)
-              && solrInputDocument.getFieldValue(
-                      ad.getName() + getFieldSuffix(AttributeFormat.STRING))
-                  == null) {
-            List<Serializable> truncatedValues =
-                attributeValues.stream()
-                    .map(value -> value != null ? truncateAsUTF8(value.toString()) : value)
-                    .collect(Collectors.toList());
-            // *_txt
-            solrInputDocument.addField(
-                ad.getName() + getFieldSuffix(AttributeFormat.STRING), truncatedValues);
-
-            // *_txt_tokenized
-            solrInputDocument.addField(
-                ad.getName()
-                    + getFieldSuffix(AttributeFormat.STRING)
-                    + getSpecialIndexSuffix(AttributeFormat.STRING),
-                attributeValues);
-          } else if (AttributeFormat.OBJECT.equals(format)) {
-            ByteArrayOutputStream byteArrayOS = new ByteArrayOutputStream();
-            List<Serializable> byteArrays = new ArrayList<>();
-
-            try (ObjectOutputStream out = new ObjectOutputStream(byteArrayOS)) {
-              for (Serializable serializable : attributeValues) {
-                out.writeObject(serializable);
-                byteArrays.add(byteArrayOS.toByteArray());
-                out.reset();
-              }
-            } catch (IOException e) {
-              throw new MetacardCreationException(COULD_NOT_SERIALIZE_OBJECT_MESSAGE, e);
-            }
+      List<Serializable> attributeValues = getAttributeValues(metacard, ad);
+      if (!attributeValues.isEmpty()) {
+        addAttributeFields(ad, attributeValues, solrInputDocument);
+      }
+    }
 
-            attributeValues = byteArrays;
-          }
+    addMetacardTypeFields(schema, solrInputDocument);
+  }
 
-          if (AttributeFormat.GEOMETRY.equals(format)
-              && solrInputDocument.getFieldValue(formatIndexName + SchemaFields.SORT_SUFFIX)
-                  == null) {
-            solrInputDocument.addField(
-                formatIndexName + SchemaFields.SORT_SUFFIX, createCenterPoint(attributeValues));
-          }
+  /**
+   * Creates a Solr atomic update document that only sets the fields of the attributes that differ
+   * between the old and the new metacard.
+   *
+   * <p>Fields that are neither stored nor have doc values are lost by an atomic update, so the
+   * tokenized fields of the unchanged text attributes are set again. Changes to attributes whose
+   * fields are derived from their values by more than a simple conversion, such as parsed XML,
+   * geometries and serialized objects, require a full update.
+   *
+   * @param oldMetacard metacard currently in the index
+   * @param newMetacard metacard replacing it, with the same ID
+   * @return the atomic update document, or {@code null} if the metacard has to be fully updated
+   * @throws MetacardCreationException if a value cannot be converted to a field value
+   */
+  @Nullable
+  SolrInputDocument getPartialUpdateDocument(Metacard oldMetacard, Metacard newMetacard)
+      throws MetacardCreationException {
+    Map<String, AttributeDescriptor> oldDescriptors =
+        getAttributeDescriptors(oldMetacard.getMetacardType());
+    Map<String, AttributeDescriptor> newDescriptors =
+        getAttributeDescriptors(newMetacard.getMetacardType());
+    Set<String> attributeNames = new HashSet<>(oldDescriptors.keySet());
+    attributeNames.addAll(newDescriptors.keySet());
+
+    SolrInputDocument fields = new SolrInputDocument();
+    Set<String> removedFields = new HashSet<>();
+    for (String attributeName : attributeNames) {
+      AttributeDescriptor oldDescriptor = oldDescriptors.get(attributeName);
+      AttributeDescriptor newDescriptor = newDescriptors.get(attributeName);
+      AttributeFormat format = getFormat(newDescriptor != null ? newDescriptor : oldDescriptor);
+      if (oldDescriptor != null && newDescriptor != null && format != getFormat(oldDescriptor)) {
+        return null;
+      }
 
-          if (AttributeFormat.STRING.equals(format)
-              && caseInsensitiveSort
-              && solrInputDocument.getFieldValue(formatIndexName + SchemaFields.SORT_SUFFIX)
-                  == null) {
-            solrInputDocument.addField(
-                formatIndexName + SchemaFields.SORT_SUFFIX,
-                attributeValues.stream()
-                    .filter(Objects::nonNull)
-                    .map(Object::toString)
-                    .map(value -> truncate(value, textSortCharacterLimit))
-                    .map(String::toLowerCase)
-                    .collect(Collectors.toList()));
-          }
+      List<Serializable> oldValues = getAttributeValues(oldMetacard, oldDescriptor);
+      List<Serializable> newValues = getAttributeValues(newMetacard, newDescriptor);
+      if (valuesEqual(oldValues, newValues)) {
+        if (!newValues.isEmpty()) {
+          addTokenizedField(attributeName, format, newValues, fields);
+        }
+      } else if (PARTIAL_UPDATE_FORMATS.contains(format)) {
+        removedFields.addAll(getFieldNames(attributeName, format));
+        if (!newValues.isEmpty()) {
+          addAttributeFields(newDescriptor, newValues, fields);
+        }
+      } else {
+        LOGGER.trace("Attribute {} requires a full update.", attributeName);
+        return null;
+      }
+    }
+    addMetacardTypeFields(newMetacard.getMetacardType(), fields);
+
+    SolrInputDocument partialUpdateDocument = new SolrInputDocument();
+    partialUpdateDocument.addField(ID_FIELD_NAME, newMetacard.getId());
+    // fails the update instead of creating a partial document if it was deleted in the meantime
+    partialUpdateDocument.addField(SOLR_CLOUD_VERSION_FIELD, 1L);
+    for (String fieldName : fields.getFieldNames()) {
+      if (!ID_FIELD_NAME.equals(fieldName)) {
+        partialUpdateDocument.addField(
+            fieldName, Collections.singletonMap(SET_OPERATION, fields.getFieldValues(fieldName)));
+        removedFields.remove(fieldName);
+      }
+    }
+    for (String fieldName : removedFields) {
+      partialUpdateDocument.addField(fieldName, Collections.singletonMap(SET_OPERATION, null));
+    }
+    return partialUpdateDocument;
+  }
 
-          // Prevent adding a field already on document
-          if (solrInputDocument.getFieldValue(formatIndexName) == null) {
-            solrInputDocument.addField(formatIndexName, attributeValues);
-          } else {
-            LOGGER.trace("Skipping adding field already found on document ({})", formatIndexName);
-          }
+  private void addTokenizedField(
+      String attributeName,
+      AttributeFormat format,
+      List<Serializable> attributeValues,
+      SolrInputDocument solrInputDocument) {
+    String tokenizedFieldName =
+        attributeName
+            + getFieldSuffix(AttributeFormat.STRING)
+            + getSpecialIndexSuffix(AttributeFormat.STRING);
+    if (AttributeFormat.STRING.equals(format)) {
+      solrInputDocument.addField(tokenizedFieldName, attributeValues);
+    } else if (AttributeFormat.XML.equals(format)) {
+      solrInputDocument.addField(tokenizedFieldName, parseTextFrom(attributeValues));
+    }
+  }
+
+  /** @return the names of the fields that the values of an attribute can be indexed in */
+  private List<String> getFieldNames(String attributeName, AttributeFormat format) {
+    String formatIndexName = attributeName + getFieldSuffix(format);
+    if (AttributeFormat.STRING.equals(format)) {
+      return Arrays.asList(
+          formatIndexName,
+          formatIndexName + getSpecialIndexSuffix(AttributeFormat.STRING),
+          formatIndexName + SchemaFields.SORT_SUFFIX);
+    }
+    return Collections.singletonList(formatIndexName);
+  }
+
+  private static Map<String, AttributeDescriptor> getAttributeDescriptors(MetacardType schema) {
+    return schema.getAttributeDescriptors().stream()
+        .collect(
+            Collectors.toMap(AttributeDescriptor::getName, ad -> ad, (first, second) -> first));
+  }
+
+  private static AttributeFormat getFormat(AttributeDescriptor ad) {
+    return ad.getType().getAttributeFormat();
+  }
+
+  /** @return the values of the attribute, or an empty list if it has none */
+  private static List<Serializable> getAttributeValues(
+      Metacard metacard, @Nullable AttributeDescriptor ad) {
+    Attribute attribute = ad != null ? metacard.getAttribute(ad.getName()) : null;
+    if (attribute == null
+        || CollectionUtils.isEmpty(attribute.getValues())
+        || attribute.getValues().get(0) == null) {
+      return Collections.emptyList();
+    }
+    return attribute.getValues();
+  }
+
+  private static boolean valuesEqual(List<Serializable> oldValues, List<Serializable> newValues) {
+    if (oldValues.size() != newValues.size()) {
+      return false;
+    }
+    for (int i = 0; i < oldValues.size(); i++) {
+      if (!Objects.deepEquals(oldValues.get(i), newValues.get(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void addAttributeFields(
+      AttributeDescriptor ad,
+      List<Serializable> attributeValues,
+      SolrInputDocument solrInputDocument)
+      throws MetacardCreationException {
+    AttributeFormat format = ad.getType().getAttributeFormat();
+    String formatIndexName = ad.getName() + getFieldSuffix(format);
+
+    if (AttributeFormat.XML.equals(format)
+        && solrInputDocument.getFieldValue(
+                formatIndexName + getSpecialIndexSuffix(AttributeFormat.STRING))
+            == null) {
+      List<String> parsedTexts = parseTextFrom(attributeValues);
+
+      // parsedTexts => *_txt_tokenized
+      String specialStringIndexName =
+          ad.getName()
+              + getFieldSuffix(AttributeFormat.STRING)
+              + getSpecialIndexSuffix(AttributeFormat.STRING);
+      solrInputDocument.addField(specialStringIndexName, parsedTexts);
+    } else if (AttributeFormat.STRING.equals(format)
+        && solrInputDocument.getFieldValue(ad.getName() + getFieldSuffix(AttributeFormat.STRING))
+            == null) {
+      List<Serializable> truncatedValues =
+          attributeValues.stream()
+              .map(value -> value != null ? truncateAsUTF8(value.toString()) : value)
+              .collect(Collectors.toList());
+      // *_txt
+      solrInputDocument.addField(
+          ad.getName() + getFieldSuffix(AttributeFormat.STRING), truncatedValues);
+
+      // *_txt_tokenized
+      solrInputDocument.addField(
+          ad.getName()
+              + getFieldSuffix(AttributeFormat.STRING)
+              + getSpecialIndexSuffix(AttributeFormat.STRING),
+          attributeValues);
+    } else if (AttributeFormat.OBJECT.equals(format)) {
+      List<Serializable> byteArrays = new ArrayList<>(attributeValues.size());
+
+      try {
+        for (Serializable serializable : attributeValues) {
+          byteArrays.add(objectAttributeCodec.encode(serializable));
         }
+      } catch (IOException e) {
+        throw new MetacardCreationException(COULD_NOT_SERIALIZE_OBJECT_MESSAGE, e);
       }
+
+      attributeValues = byteArrays;
     }
 
-    /*
-     * Lastly the metacardType must be added to the solr document. These are internal fields
-     */
+    if (AttributeFormat.GEOMETRY.equals(format)
+        && solrInputDocument.getFieldValue(formatIndexName + SchemaFields.SORT_SUFFIX) == null) {
+      solrInputDocument.addField(
+          formatIndexName + SchemaFields.SORT_SUFFIX, createCenterPoint(attributeValues));
+    }
+
+    if (AttributeFormat.STRING.equals(format)
+        && caseInsensitiveSort
+        && solrInputDocument.getFieldValue(formatIndexName + SchemaFields.SORT_SUFFIX) == null) {
+      solrInputDocument.addField(
+          formatIndexName + SchemaFields.SORT_SUFFIX,
+          attributeValues.stream()
+              .filter(Objects::nonNull)
+              .map(Object::toString)
+              .map(value -> truncate(value, textSortCharacterLimit))
+              .map(String::toLowerCase)
+              .collect(Collectors.toList()));
+    }
+
+    // Prevent adding a field already on document
+    if (solrInputDocument.getFieldValue(formatIndexName) == null) {
+      solrInputDocument.addField(formatIndexName, attributeValues);
+    } else {
+      LOGGER.trace("Skipping adding field already found on document ({})", formatIndexName);
+    }
+  }
+
+  /** Adds the internal fields describing the metacard type into the {@link SolrInputDocument} */
+  private void addMetacardTypeFields(MetacardType schema, SolrInputDocument solrInputDocument) {
     String schemaName = String.format("%s#%s", schema.getName(), schema.hashCode());
     solrInputDocument.addField(SchemaFields.METACARD_TYPE_FIELD_NAME, schemaName);
     byte[] metacardTypeBytes = metacardTypeNameToSerialCache.getIfPresent(schemaName);
@@ -493,8 +660,6 @@ List<Serializable> getDocValues(String solrFieldName, Collection<Object> docValu
     return values;
   }
 
-  @SuppressWarnings(
-      "squid:S2093" /* try-with-resource will throw IOException with InputStream and we do not care to get that exception */)
   private Serializable getDocValue(String solrFieldName, Object docValue) {
 
     AttributeFormat format = getType(solrFieldName);
@@ -507,22 +672,14 @@ private Serializable getDocValue(String solrFieldName, Object docValue) {
        */
       return Short.parseShort(docValue.toString());
     } else if (AttributeFormat.OBJECT.equals(format)) {
-
-      ByteArrayInputStream bais = null;
-      ObjectInputStream in = null;
-
+      byte[] bytes = (byte[]) docValue;
       try {
-        bais = new ByteArrayInputStream((byte[]) docValue);
-        in = new ObjectInputStream(bais);
-        return (Serializable) in.readObject();
+        if (objectAttributeCodec.isLegacy(bytes)) {
+          legacyObjectValuesRead.increment();
+        }
+        return objectAttributeCodec.decode(bytes);
       } catch (IOException e) {
-        LOGGER.info("IO exception loading input document", e);
-      } catch (ClassNotFoundException e) {
-        LOGGER.info("Could not create object to return.", e);
-        // TODO which exception to throw?
-      } finally {
-        IOUtils.closeQuietly(bais);
-        IOUtils.closeQuietly(in);
+        LOGGER.info("Could not decode object value for field [{}]", solrFieldName, e);
       }
 
       return null;
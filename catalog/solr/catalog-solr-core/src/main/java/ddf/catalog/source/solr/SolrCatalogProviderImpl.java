@@ -305,10 +305,11 @@ public UpdateResponse update(UpdateRequest updateRequest) throws IngestException
       // return an empty list
       return new UpdateResponseImpl(updateRequest, null, new ArrayList<>());
     }
-    List<Metacard> newMetacards = computeMetacardsToUpdate(updates, idToMetacardMap, updateList);
+    computeMetacardsToUpdate(updates, idToMetacardMap, updateList);
 
     try {
-      client.add(newMetacards, isForcedAutoCommit());
+      // only sends the changed attributes of the metacards where possible
+      client.update(updateList, isForcedAutoCommit());
     } catch (SolrServerException | SolrException | IOException | MetacardCreationException e) {
       LOGGER.info("Failed to update metacard(s) with Solr.", e);
       throw new IngestException("Failed to update metacard(s).");
@@ -364,12 +365,10 @@ private void addFieldsFromClientToResolver(SolrClient client) {
     }
   }
 
-  private List<Metacard> computeMetacardsToUpdate(
+  private void computeMetacardsToUpdate(
       List<Entry<Serializable, Metacard>> updates,
       Map<Serializable, Metacard> idToMetacardMap,
       List<Update> updateList) {
-    List<Metacard> newMetacards = new ArrayList<>();
-
     for (Entry<Serializable, Metacard> updateEntry : updates) {
       String localKey = updateEntry.getKey().toString();
       MetacardImpl newMetacard = new MetacardImpl(updateEntry.getValue());
@@ -382,11 +381,9 @@ private List<Metacard> computeMetacardsToUpdate(
         // overwrite the id, in case it has not been done properly/already
         newMetacard.setId(oldMetacard.getId());
         newMetacard.setSourceId(getId());
-        newMetacards.add(newMetacard);
         updateList.add(new UpdateImpl(newMetacard, oldMetacard));
       }
     }
-    return newMetacards;
   }
 
   private Map<Serializable, Metacard> computeOldMetacardIds(
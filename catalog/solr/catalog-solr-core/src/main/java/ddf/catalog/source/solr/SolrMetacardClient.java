@@ -18,6 +18,7 @@
 import ddf.catalog.data.MetacardCreationException;
 import ddf.catalog.operation.QueryRequest;
 import ddf.catalog.operation.SourceResponse;
+import ddf.catalog.operation.Update;
 import ddf.catalog.source.UnsupportedQueryException;
 import java.io.IOException;
 import java.io.Serializable;
@@ -67,6 +68,21 @@ public interface SolrMetacardClient {
   List<SolrInputDocument> add(@Nullable List<Metacard> metacards, boolean forceAutoCommit)
       throws IOException, SolrServerException, MetacardCreationException;
 
+  /**
+   * Replaces the Solr documents of updated {@link Metacard} objects. Documents whose changes are
+   * limited to simple attribute values are updated with Solr atomic updates, which only send the
+   * changed fields; the others are re-indexed completely.
+   *
+   * @param updates old and new {@link Metacard} objects, which must have the same ID
+   * @param forceAutoCommit force an auto-commit after the update
+   * @return list of documents sent
+   * @throws IOException if there is a communication error with the server
+   * @throws SolrServerException if there is an error on the server
+   * @throws MetacardCreationException if a {@link Metacard} could not be converted
+   */
+  List<SolrInputDocument> update(List<Update> updates, boolean forceAutoCommit)
+      throws IOException, SolrServerException, MetacardCreationException;
+
   /**
    * Deletes Solr documents by ID.
    *
@@ -16,6 +16,8 @@
 import static ddf.catalog.Constants.ADDITIONAL_SORT_BYS;
 import static ddf.catalog.Constants.EXPERIMENTAL_FACET_PROPERTIES_KEY;
 import static ddf.catalog.Constants.EXPERIMENTAL_FACET_RESULTS_KEY;
+import static ddf.catalog.Constants.QUERY_CURSOR_MARK_KEY;
+import static ddf.catalog.Constants.QUERY_NEXT_CURSOR_MARK_KEY;
 import static ddf.catalog.Constants.SUGGESTION_BUILD_KEY;
 import static ddf.catalog.Constants.SUGGESTION_CONTEXT_KEY;
 import static ddf.catalog.Constants.SUGGESTION_DICT_KEY;
@@ -45,6 +47,7 @@
 import ddf.catalog.operation.QueryRequest;
 import ddf.catalog.operation.SourceResponse;
 import ddf.catalog.operation.TermFacetProperties;
+import ddf.catalog.operation.Update;
 import ddf.catalog.operation.impl.FacetAttributeResultImpl;
 import ddf.catalog.operation.impl.QueryResponseImpl;
 import ddf.catalog.operation.impl.SourceResponseImpl;
@@ -67,6 +70,7 @@
 import java.util.Set;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.BooleanUtils;
 import org.apache.commons.lang.math.NumberUtils;
@@ -84,6 +88,7 @@
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.SolrInputDocument;
 import org.apache.solr.common.params.CommonParams;
+import org.apache.solr.common.params.CursorMarkParams;
 import org.apache.solr.common.util.SimpleOrderedMap;
 import org.codice.solr.client.solrj.SolrClient;
 import org.opengis.filter.sort.SortBy;
@@ -130,6 +135,8 @@ public class SolrMetacardClientImpl implements SolrMetacardClient {
 
   private static final String RESOURCE_ATTRIBUTE = "resource";
 
+  private static final String CURSOR_SORT_FIELD = Metacard.ID + SchemaFields.TEXT_SUFFIX;
+
   private final SolrClient client;
 
   private final SolrFilterDelegateFactory filterDelegateFactory;
@@ -151,11 +158,21 @@ public class SolrMetacardClientImpl implements SolrMetacardClient {
   private final int commitNrtCommitWithinMs =
       Math.max(NumberUtils.toInt(accessProperty(SOLR_COMMIT_NRT_COMMITWITHINMS, "1000")), 0);
 
+  private static final String SOLR_UPDATE_ATOMIC = "solr.update.atomic";
+
+  private final boolean atomicUpdates =
+      Boolean.parseBoolean(accessProperty(SOLR_UPDATE_ATOMIC, "true"));
+
   private static final String SOLR_QUERY_TIMEALLOWEDMS = "solr.query.timeAllowed";
 
   private final int queryTimeAllowedMs =
       Math.max(NumberUtils.toInt(accessProperty(SOLR_QUERY_TIMEALLOWEDMS, "0")), 0);
 
+  private static final String SOLR_QUERY_CURSOR_PAGE_SIZE = "solr.query.cursorPageSize";
+
+  private final int cursorPageSize =
+      Math.max(NumberUtils.toInt(accessProperty(SOLR_QUERY_CURSOR_PAGE_SIZE, "1000")), 1);
+
   protected ResultHighlighter highlighter;
 
   public SolrMetacardClientImpl(
@@ -226,6 +243,14 @@ public SourceResponse query(QueryRequest request) throws UnsupportedQueryExcepti
         addDocsToResults(docs, results);
         totalHits = docs.getNumFound();
       }
+
+      if (!doRealTimeGet && query.get(CursorMarkParams.CURSOR_MARK_PARAM) != null) {
+        if (getCursorMark(request) != null) {
+          responseProps.put(QUERY_NEXT_CURSOR_MARK_KEY, solrResponse.getNextCursorMark());
+        } else {
+          addRemainingCursorPages(query, solrResponse, results);
+        }
+      }
     } catch (SolrServerException | IOException | SolrException e) {
       throw new UnsupportedQueryException("Could not complete solr query.", e);
     }
@@ -233,6 +258,33 @@ public SourceResponse query(QueryRequest request) throws UnsupportedQueryExcepti
     return new SourceResponseImpl(request, responseProps, results, totalHits);
   }
 
+  /**
+   * Follows the cursor of a query for all records until Solr reports that there are no more
+   * results, adding each page to the results.
+   */
+  private void addRemainingCursorPages(
+      SolrQuery query, QueryResponse firstResponse, List<Result> results)
+      throws SolrServerException, IOException, UnsupportedQueryException {
+    SolrQuery pageQuery = query.getCopy();
+    // Facets and highlights were already processed from the first page
+    pageQuery.setFacet(false);
+    pageQuery.setHighlight(false);
+
+    String cursorMark = query.get(CursorMarkParams.CURSOR_MARK_PARAM);
+    String nextCursorMark = firstResponse.getNextCursorMark();
+
+    while (nextCursorMark != null && !nextCursorMark.equals(cursorMark)) {
+      cursorMark = nextCursorMark;
+      pageQuery.set(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark);
+
+      QueryResponse pageResponse = client.query(pageQuery, METHOD.POST);
+      if (pageResponse.getResults() != null) {
+        addDocsToResults(pageResponse.getResults(), results);
+      }
+      nextCursorMark = pageResponse.getNextCursorMark();
+    }
+  }
+
   private List<SolrDocument> getSolrDocs(Set<String> ids) throws UnsupportedQueryException {
     List<SolrDocument> solrDocs = new ArrayList<>(ids.size());
     List<List<String>> partitions = Lists.partition(new ArrayList<>(ids), GET_BY_ID_LIMIT);
@@ -658,11 +710,27 @@ protected SolrQuery postAdapt(
     // Solr is 0-based
     query.setStart(request.getQuery().getStartIndex() - 1);
 
-    if (queryingForAllRecords(request)) {
-      try {
-        query.setRows(queryForNumberOfRows(query));
-      } catch (SolrServerException | IOException | SolrException | ArithmeticException exception) {
-        throw new UnsupportedQueryException("Could not retrieve number of records.", exception);
+    String cursorMark = getCursorMark(request);
+    if (cursorMark != null) {
+      // Solr cursors replace the start index and must begin at the first result
+      query.setStart(0);
+      query.setRows(
+          queryingForAllRecords(request) ? cursorPageSize : request.getQuery().getPageSize());
+      query.set(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark);
+    } else if (queryingForAllRecords(request)) {
+      if (request.getQuery().getStartIndex() == 1 && !userSpellcheckIsOn(request)) {
+        // Page through all the records with a cursor instead of requesting them in one response
+        query.setRows(cursorPageSize);
+        query.set(CursorMarkParams.CURSOR_MARK_PARAM, CursorMarkParams.CURSOR_MARK_START);
+      } else {
+        try {
+          query.setRows(queryForNumberOfRows(query));
+        } catch (SolrServerException
+            | IOException
+            | SolrException
+            | ArithmeticException exception) {
+          throw new UnsupportedQueryException("Could not retrieve number of records.", exception);
+        }
       }
     } else {
       query.setRows(request.getQuery().getPageSize());
@@ -670,7 +738,10 @@ protected SolrQuery postAdapt(
 
     setSortProperty(request, query, filterDelegate);
 
-    if (queryTimeAllowedMs > 0) {
+    if (query.get(CursorMarkParams.CURSOR_MARK_PARAM) != null) {
+      addCursorTiebreakerSort(query);
+    } else if (queryTimeAllowedMs > 0) {
+      // Solr rejects cursor queries that also set timeAllowed
       query.setTimeAllowed(queryTimeAllowedMs);
     }
 
@@ -685,6 +756,24 @@ private boolean queryingForAllRecords(QueryRequest request) {
     return request.getQuery().getPageSize() < 0;
   }
 
+  @Nullable
+  private String getCursorMark(QueryRequest request) {
+    Serializable cursorMark = request.getPropertyValue(QUERY_CURSOR_MARK_KEY);
+    return cursorMark instanceof String ? (String) cursorMark : null;
+  }
+
+  /** Solr cursors require the sort to end on the unique key so that every result is ordered. */
+  private void addCursorTiebreakerSort(SolrQuery query) {
+    boolean sortedOnUniqueKey =
+        query.getSorts().stream()
+            .map(SolrQuery.SortClause::getItem)
+            .anyMatch(CURSOR_SORT_FIELD::equals);
+
+    if (!sortedOnUniqueKey) {
+      query.addSort(CURSOR_SORT_FIELD, SolrQuery.ORDER.asc);
+    }
+  }
+
   private int queryForNumberOfRows(SolrQuery query) throws SolrServerException, IOException {
     int numRows;
     query.setRows(0);
@@ -824,6 +913,43 @@ public List<SolrInputDocument> add(List<Metacard> metacards, boolean forceAutoCo
       }
     }
 
+    addDocuments(docs, isNrtCommit, forceAutoCommit);
+    return docs;
+  }
+
+  @Override
+  public List<SolrInputDocument> update(List<Update> updates, boolean forceAutoCommit)
+      throws IOException, SolrServerException, MetacardCreationException {
+    if (CollectionUtils.isEmpty(updates)) {
+      return Collections.emptyList();
+    }
+
+    boolean isNrtCommit = false;
+    int partialUpdates = 0;
+    List<SolrInputDocument> docs = new ArrayList<>();
+    for (Update update : updates) {
+      Metacard metacard = update.getNewMetacard();
+      SolrInputDocument doc =
+          atomicUpdates ? getPartialUpdateDocument(update.getOldMetacard(), metacard) : null;
+      if (doc != null) {
+        partialUpdates++;
+      } else {
+        doc = getSolrInputDocument(metacard);
+      }
+      docs.add(doc);
+      if (commitNrtMetacardType.contains(metacard.getMetacardType().getName())) {
+        isNrtCommit = true;
+      }
+    }
+    LOGGER.debug("Updating {} metacard(s), {} of them partially.", docs.size(), partialUpdates);
+
+    addDocuments(docs, isNrtCommit, forceAutoCommit);
+    return docs;
+  }
+
+  private void addDocuments(
+      List<SolrInputDocument> docs, boolean isNrtCommit, boolean forceAutoCommit)
+      throws IOException, SolrServerException {
     if (!forceAutoCommit) {
       if (isNrtCommit) {
         client.add(docs, commitNrtCommitWithinMs);
@@ -833,8 +959,6 @@ public List<SolrInputDocument> add(List<Metacard> metacards, boolean forceAutoCo
     } else {
       softCommit(docs);
     }
-
-    return docs;
   }
 
   protected SolrInputDocument getSolrInputDocument(Metacard metacard)
@@ -846,6 +970,18 @@ protected SolrInputDocument getSolrInputDocument(Metacard metacard)
     return solrInputDocument;
   }
 
+  /**
+   * @param oldMetacard metacard currently in the index
+   * @param newMetacard metacard replacing it
+   * @return the Solr atomic update document, or {@code null} if the document has to be replaced
+   * @throws MetacardCreationException if a value cannot be converted to a field value
+   */
+  @Nullable
+  protected SolrInputDocument getPartialUpdateDocument(Metacard oldMetacard, Metacard newMetacard)
+      throws MetacardCreationException {
+    return resolver.getPartialUpdateDocument(oldMetacard, newMetacard);
+  }
+
   @Override
   public void deleteByIds(
       String fieldName, List<? extends Serializable> identifiers, boolean forceCommit)
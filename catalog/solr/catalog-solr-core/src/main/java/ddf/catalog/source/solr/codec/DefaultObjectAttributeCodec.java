@@ -0,0 +1,155 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.source.solr.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+
+/**
+ * Default {@link ObjectAttributeCodec}. Common value types are written in a compact tagged binary
+ * form; everything else falls back to Java serialization inside the same envelope.
+ *
+ * <p>Every encoded value starts with a two byte header: {@link #MAGIC} followed by {@link
+ * #VERSION}, then a single type tag and the payload. Values without the header are assumed to be
+ * raw Java serialization streams written before this codec existed.
+ */
+public class DefaultObjectAttributeCodec implements ObjectAttributeCodec {
+
+  static final byte MAGIC = (byte) 0xDD;
+
+  static final byte VERSION = 1;
+
+  private static final int HEADER_LENGTH = 3;
+
+  private static final byte TYPE_STRING = 1;
+
+  private static final byte TYPE_INTEGER = 2;
+
+  private static final byte TYPE_LONG = 3;
+
+  private static final byte TYPE_SHORT = 4;
+
+  private static final byte TYPE_DOUBLE = 5;
+
+  private static final byte TYPE_FLOAT = 6;
+
+  private static final byte TYPE_BOOLEAN = 7;
+
+  private static final byte TYPE_BYTES = 8;
+
+  private static final byte TYPE_DATE = 9;
+
+  private static final byte TYPE_SERIALIZED = 127;
+
+  @Override
+  public byte[] encode(Serializable value) throws IOException {
+    if (value instanceof String) {
+      byte[] utf8 = ((String) value).getBytes(StandardCharsets.UTF_8);
+      return header(TYPE_STRING, utf8.length).put(utf8).array();
+    } else if (value instanceof Integer) {
+      return header(TYPE_INTEGER, Integer.BYTES).putInt((Integer) value).array();
+    } else if (value instanceof Long) {
+      return header(TYPE_LONG, Long.BYTES).putLong((Long) value).array();
+    } else if (value instanceof Short) {
+      return header(TYPE_SHORT, Short.BYTES).putShort((Short) value).array();
+    } else if (value instanceof Double) {
+      return header(TYPE_DOUBLE, Double.BYTES).putDouble((Double) value).array();
+    } else if (value instanceof Float) {
+      return header(TYPE_FLOAT, Float.BYTES).putFloat((Float) value).array();
+    } else if (value instanceof Boolean) {
+      return header(TYPE_BOOLEAN, 1).put((byte) ((Boolean) value ? 1 : 0)).array();
+    } else if (value instanceof byte[]) {
+      byte[] bytes = (byte[]) value;
+      return header(TYPE_BYTES, bytes.length).put(bytes).array();
+    } else if (value != null && value.getClass() == Date.class) {
+      return header(TYPE_DATE, Long.BYTES).putLong(((Date) value).getTime()).array();
+    }
+
+    ByteArrayOutputStream byteArrayOS = new ByteArrayOutputStream();
+    byteArrayOS.write(new byte[] {MAGIC, VERSION, TYPE_SERIALIZED});
+    try (ObjectOutputStream out = new ObjectOutputStream(byteArrayOS)) {
+      out.writeObject(value);
+    }
+    return byteArrayOS.toByteArray();
+  }
+
+  @Override
+  public Serializable decode(byte[] bytes) throws IOException {
+    if (isLegacy(bytes)) {
+      return deserialize(bytes, 0);
+    }
+
+    if (bytes[1] != VERSION) {
+      throw new IOException("Unsupported object attribute codec version: " + bytes[1]);
+    }
+
+    ByteBuffer buffer = ByteBuffer.wrap(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH);
+    try {
+      switch (bytes[2]) {
+        case TYPE_STRING:
+          return new String(
+              bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH, StandardCharsets.UTF_8);
+        case TYPE_INTEGER:
+          return buffer.getInt();
+        case TYPE_LONG:
+          return buffer.getLong();
+        case TYPE_SHORT:
+          return buffer.getShort();
+        case TYPE_DOUBLE:
+          return buffer.getDouble();
+        case TYPE_FLOAT:
+          return buffer.getFloat();
+        case TYPE_BOOLEAN:
+          return buffer.get() != 0;
+        case TYPE_BYTES:
+          return Arrays.copyOfRange(bytes, HEADER_LENGTH, bytes.length);
+        case TYPE_DATE:
+          return new Date(buffer.getLong());
+        case TYPE_SERIALIZED:
+          return deserialize(bytes, HEADER_LENGTH);
+        default:
+          throw new IOException("Unknown object attribute type tag: " + bytes[2]);
+      }
+    } catch (BufferUnderflowException e) {
+      throw new IOException("Truncated object attribute value", e);
+    }
+  }
+
+  @Override
+  public boolean isLegacy(byte[] bytes) {
+    return bytes.length < HEADER_LENGTH || bytes[0] != MAGIC;
+  }
+
+  private ByteBuffer header(byte type, int payloadLength) {
+    return ByteBuffer.allocate(HEADER_LENGTH + payloadLength).put(MAGIC).put(VERSION).put(type);
+  }
+
+  private Serializable deserialize(byte[] bytes, int offset) throws IOException {
+    try (ObjectInputStream in =
+        new ObjectInputStream(new ByteArrayInputStream(bytes, offset, bytes.length - offset))) {
+      return (Serializable) in.readObject();
+    } catch (ClassNotFoundException e) {
+      throw new IOException("Could not create object to return.", e);
+    }
+  }
+}
@@ -0,0 +1,55 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.source.solr.codec;
+
+import java.io.IOException;
+import java.io.Serializable;
+
+/**
+ * Converts {@link ddf.catalog.data.AttributeType.AttributeFormat#OBJECT} attribute values to and
+ * from the binary form stored in the Solr index.
+ *
+ * <p>Implementations must be thread-safe. They must also be able to {@link #decode(byte[])} any
+ * value previously written with Java serialization, since existing indexes contain such values
+ * until they are reindexed.
+ */
+public interface ObjectAttributeCodec {
+
+  /**
+   * Encodes a single attribute value.
+   *
+   * @param value the attribute value, never {@code null}
+   * @return the bytes to store in the index
+   * @throws IOException if the value cannot be encoded
+   */
+  byte[] encode(Serializable value) throws IOException;
+
+  /**
+   * Decodes a single stored attribute value.
+   *
+   * @param bytes the bytes read from the index
+   * @return the decoded attribute value
+   * @throws IOException if the bytes cannot be decoded
+   */
+  Serializable decode(byte[] bytes) throws IOException;
+
+  /**
+   * Indicates whether the stored bytes were written in a format older than the one produced by
+   * {@link #encode(Serializable)} and should be rewritten when the record is reindexed.
+   *
+   * @param bytes the bytes read from the index
+   * @return {@code true} if the bytes use a legacy format
+   */
+  boolean isLegacy(byte[] bytes);
+}
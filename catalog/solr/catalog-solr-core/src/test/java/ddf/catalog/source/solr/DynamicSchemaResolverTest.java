@@ -19,6 +19,7 @@
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
@@ -41,6 +42,7 @@
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -222,6 +224,72 @@ public void testAdditionalFieldConstructor() {
     assertThat(resolver.fieldsCache, hasItem(anotherExtraField));
   }
 
+  @Test
+  public void testPartialUpdateDocumentSetsChangedAttributes() throws Exception {
+    MetacardImpl oldMetacard = basicMetacard();
+    MetacardImpl newMetacard = basicMetacard();
+    newMetacard.setTitle("new title");
+
+    SolrInputDocument doc =
+        dynamicSchemaResolver.getPartialUpdateDocument(oldMetacard, newMetacard);
+
+    assertThat(doc.getFieldValue("id_txt"), is("id"));
+    assertThat(
+        doc.getFieldValue("title_txt"),
+        is(Collections.singletonMap("set", Collections.singletonList("new title"))));
+    assertThat(
+        doc.getFieldValue("title_txt_tokenized"),
+        is(Collections.singletonMap("set", Collections.singletonList("new title"))));
+    // tokenized fields are not stored, so the unchanged ones are set again
+    assertThat(
+        doc.getFieldValue("description_txt_tokenized"),
+        is(Collections.singletonMap("set", Collections.singletonList("description"))));
+    assertThat(doc.getFieldNames(), hasItem("metadata_txt_tokenized"));
+    assertThat(doc.getFieldNames(), not(hasItem("description_txt")));
+    assertThat(doc.getFieldNames(), not(hasItem("metadata_xml")));
+    assertThat(doc.getFieldNames(), not(hasItem("location_geo")));
+    assertThat(doc.getFieldNames(), not(hasItem("created_tdt")));
+  }
+
+  @Test
+  public void testPartialUpdateDocumentRemovesClearedAttributes() throws Exception {
+    MetacardImpl oldMetacard = basicMetacard();
+    MetacardImpl newMetacard = basicMetacard();
+    newMetacard.setAttribute(Metacard.DESCRIPTION, null);
+
+    SolrInputDocument doc =
+        dynamicSchemaResolver.getPartialUpdateDocument(oldMetacard, newMetacard);
+
+    assertThat(doc.getFieldValue("description_txt"), is(Collections.singletonMap("set", null)));
+    assertThat(
+        doc.getFieldValue("description_txt_tokenized"), is(Collections.singletonMap("set", null)));
+  }
+
+  @Test
+  public void testPartialUpdateDocumentNotCreatedForDerivedFields() throws Exception {
+    MetacardImpl oldMetacard = basicMetacard();
+    MetacardImpl newLocation = basicMetacard();
+    newLocation.setLocation("POINT (20 20)");
+    MetacardImpl newMetadata = basicMetacard();
+    newMetadata.setMetadata("<metadata>new</metadata>");
+
+    assertThat(
+        dynamicSchemaResolver.getPartialUpdateDocument(oldMetacard, newLocation), is(nullValue()));
+    assertThat(
+        dynamicSchemaResolver.getPartialUpdateDocument(oldMetacard, newMetadata), is(nullValue()));
+  }
+
+  private MetacardImpl basicMetacard() {
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setId("id");
+    metacard.setTitle("title");
+    metacard.setDescription("description");
+    metacard.setMetadata("<metadata>text</metadata>");
+    metacard.setLocation("POINT (10 10)");
+    metacard.setCreatedDate(new Date(1000L));
+    return metacard;
+  }
+
   private MetacardType deserializeMetacardType(byte[] serializedMetacardType) throws IOException {
     return METACARD_TYPE_MAPPER.readValue(serializedMetacardType, MetacardType.class);
   }
@@ -13,15 +13,21 @@
  */
 package ddf.catalog.source.solr;
 
+import static ddf.catalog.Constants.QUERY_CURSOR_MARK_KEY;
+import static ddf.catalog.Constants.QUERY_CURSOR_MARK_START;
 import static ddf.catalog.Constants.QUERY_HIGHLIGHT_KEY;
+import static ddf.catalog.Constants.QUERY_NEXT_CURSOR_MARK_KEY;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -69,6 +75,7 @@
 import org.apache.solr.client.solrj.response.UpdateResponse;
 import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.params.CursorMarkParams;
 import org.apache.solr.common.util.NamedList;
 import org.codice.solr.client.solrj.SolrClient;
 import org.junit.Before;
@@ -357,6 +364,64 @@ public void testHighlightOn() throws Exception {
     verifyHighlight(descriptionHighlights.get(), new HighlightImpl(44, 50, 0));
   }
 
+  @Test
+  public void testCursorQueryReturnsNextCursorMark() throws Exception {
+    QueryRequest request = createQuery(builder.attribute("anyText").is().like().text("normal"));
+    request.getProperties().put(QUERY_CURSOR_MARK_KEY, QUERY_CURSOR_MARK_START);
+    when(solrFilterDelegateFactory.newInstance(eq(dynamicSchemaResolver), anyMap()))
+        .thenReturn(mock(SolrFilterDelegate.class));
+    when(solrQuery.get(CursorMarkParams.CURSOR_MARK_PARAM)).thenReturn(QUERY_CURSOR_MARK_START);
+    when(queryResponse.getNextCursorMark()).thenReturn("AoE");
+    when(queryResponse.getResults()).thenReturn(new SolrDocumentList());
+
+    SourceResponse response = clientImpl.query(request);
+
+    verify(solrQuery).setStart(0);
+    verify(solrQuery).set(CursorMarkParams.CURSOR_MARK_PARAM, QUERY_CURSOR_MARK_START);
+    verify(solrQuery).addSort("id_txt", SolrQuery.ORDER.asc);
+    assertThat(response.getPropertyValue(QUERY_NEXT_CURSOR_MARK_KEY), is("AoE"));
+  }
+
+  @Test
+  public void testCursorQueryDoesNotSetTimeAllowed() throws Exception {
+    System.setProperty("solr.query.timeAllowed", "1000");
+    try {
+      clientImpl =
+          new TestSolrMetacardClientImpl(
+              client, catalogFilterAdapter, solrFilterDelegateFactory, dynamicSchemaResolver);
+      QueryRequest request = createQuery(builder.attribute("anyText").is().like().text("normal"));
+      request.getProperties().put(QUERY_CURSOR_MARK_KEY, QUERY_CURSOR_MARK_START);
+      when(solrFilterDelegateFactory.newInstance(eq(dynamicSchemaResolver), anyMap()))
+          .thenReturn(mock(SolrFilterDelegate.class));
+      when(solrQuery.get(CursorMarkParams.CURSOR_MARK_PARAM)).thenReturn(QUERY_CURSOR_MARK_START);
+      when(queryResponse.getResults()).thenReturn(new SolrDocumentList());
+
+      clientImpl.query(request);
+
+      verify(solrQuery, never()).setTimeAllowed(any());
+    } finally {
+      System.clearProperty("solr.query.timeAllowed");
+    }
+  }
+
+  @Test
+  public void testQueryWithoutCursorSetsTimeAllowed() throws Exception {
+    System.setProperty("solr.query.timeAllowed", "1000");
+    try {
+      clientImpl =
+          new TestSolrMetacardClientImpl(
+              client, catalogFilterAdapter, solrFilterDelegateFactory, dynamicSchemaResolver);
+      QueryRequest request = createQuery(builder.attribute("anyText").is().like().text("normal"));
+      when(queryResponse.getResults()).thenReturn(new SolrDocumentList());
+
+      clientImpl.query(request);
+
+      verify(solrQuery).setTimeAllowed(1000);
+    } finally {
+      System.clearProperty("solr.query.timeAllowed");
+    }
+  }
+
   private void verifyHighlight(List<Highlight> results, Highlight mustContain) {
     boolean found = false;
     for (Highlight highlight : results) {
@@ -0,0 +1,102 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.source.solr.codec;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import org.junit.Test;
+
+public class DefaultObjectAttributeCodecTest {
+
+  private final DefaultObjectAttributeCodec codec = new DefaultObjectAttributeCodec();
+
+  @Test
+  public void testRoundTripCommonTypes() throws Exception {
+    List<Serializable> values =
+        Arrays.asList(
+            "title \u00e9\u4e2d",
+            "",
+            42,
+            Long.MAX_VALUE,
+            (short) 7,
+            3.14159d,
+            2.5f,
+            true,
+            false,
+            new Date(1234567890L));
+
+    for (Serializable value : values) {
+      byte[] encoded = codec.encode(value);
+      assertThat(codec.isLegacy(encoded), is(false));
+      assertThat(codec.decode(encoded), equalTo(value));
+    }
+  }
+
+  @Test
+  public void testRoundTripByteArray() throws Exception {
+    byte[] value = new byte[] {1, 2, 3, (byte) 0xAC, (byte) 0xED};
+
+    byte[] decoded = (byte[]) codec.decode(codec.encode(value));
+
+    assertThat(Arrays.equals(decoded, value), is(true));
+  }
+
+  @Test
+  public void testRoundTripSerializableFallback() throws Exception {
+    ArrayList<String> value = new ArrayList<>(Arrays.asList("a", "b"));
+
+    byte[] encoded = codec.encode(value);
+
+    assertThat(codec.isLegacy(encoded), is(false));
+    assertThat(codec.decode(encoded), equalTo(value));
+  }
+
+  @Test
+  public void testDecodeLegacyJavaSerialization() throws Exception {
+    byte[] legacy = javaSerialize("legacy value");
+
+    assertThat(codec.isLegacy(legacy), is(true));
+    assertThat(codec.decode(legacy), equalTo("legacy value"));
+  }
+
+  @Test(expected = IOException.class)
+  public void testDecodeUnsupportedVersion() throws Exception {
+    codec.decode(new byte[] {DefaultObjectAttributeCodec.MAGIC, 99, 1});
+  }
+
+  @Test(expected = IOException.class)
+  public void testDecodeTruncatedValue() throws Exception {
+    byte[] encoded = codec.encode(42L);
+
+    codec.decode(Arrays.copyOf(encoded, encoded.length - 1));
+  }
+
+  private byte[] javaSerialize(Serializable value) throws IOException {
+    ByteArrayOutputStream byteArrayOS = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(byteArrayOS)) {
+      out.writeObject(value);
+    }
+    return byteArrayOS.toByteArray();
+  }
+}
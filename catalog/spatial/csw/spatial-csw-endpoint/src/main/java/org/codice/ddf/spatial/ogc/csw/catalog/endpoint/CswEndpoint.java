@@ -15,13 +15,14 @@
 
 import com.google.common.base.Splitter;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.thoughtworks.xstream.XStreamException;
 import ddf.catalog.CatalogFramework;
 import ddf.catalog.data.Attribute;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
 import ddf.catalog.data.impl.AttributeImpl;
 import ddf.catalog.federation.FederationException;
-import ddf.catalog.operation.CreateRequest;
 import ddf.catalog.operation.CreateResponse;
 import ddf.catalog.operation.DeleteResponse;
 import ddf.catalog.operation.QueryRequest;
@@ -46,6 +47,8 @@
 import ddf.catalog.util.impl.CatalogQueryException;
 import ddf.catalog.util.impl.QueryFunction;
 import ddf.catalog.util.impl.ResultIterable;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import java.io.IOException;
 import java.io.Serializable;
 import java.io.StringWriter;
@@ -59,6 +62,7 @@
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -66,6 +70,8 @@
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletionService;
@@ -76,6 +82,7 @@
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -157,7 +164,9 @@
 import org.codice.ddf.spatial.ogc.csw.catalog.common.GetRecordByIdRequest;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.GetRecordsRequest;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.transaction.CswTransactionRequest;
+import org.codice.ddf.spatial.ogc.csw.catalog.common.transaction.InsertActionImpl;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.transformer.TransformerManager;
+import org.codice.ddf.spatial.ogc.csw.catalog.endpoint.reader.StreamingTransactionRequest;
 import org.codice.ddf.spatial.ogc.csw.catalog.endpoint.transformer.CswActionTransformerProvider;
 import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
@@ -184,6 +193,12 @@ public class CswEndpoint implements Csw {
   protected static final String ENDPOINT_THREADPOOL_COUNT =
       "org.codice.ddf.spatial.ogc.csw.catalog.endpoint.threadpool";
 
+  protected static final String TRANSACTION_BATCH_SIZE =
+      "org.codice.ddf.spatial.ogc.csw.catalog.endpoint.transaction.batchSize";
+
+  protected static final String TRANSACTION_PARALLELISM =
+      "org.codice.ddf.spatial.ogc.csw.catalog.endpoint.transaction.parallelism";
+
   protected static final List<String> SERVICE_TYPE_VERSION =
       Collections.unmodifiableList(Arrays.asList(CswConstants.VERSION_2_0_2));
 
@@ -258,6 +273,8 @@ public class CswEndpoint implements Csw {
 
   private static final String QUERY_POOL_NAME = "csw-endpoint-query-pool";
 
+  private static final String TRANSACTION_METRIC_PREFIX = "ddf.catalog.csw.transaction";
+
   private static Map<String, Element> documentElements = new HashMap<>();
 
   private final TransformerManager mimeTypeTransformerManager;
@@ -278,6 +295,10 @@ public class CswEndpoint implements Csw {
 
   private ThreadPoolExecutor queryExecutor;
 
+  private int transactionBatchSize = DEFAULT_BATCH;
+
+  private int transactionParallelism = Runtime.getRuntime().availableProcessors();
+
   @Context private UriInfo uri;
 
   /** JAX-RS Server that represents a CSW v2.0.2 Server. */
@@ -564,126 +585,71 @@ public TransactionResponseType transaction(CswTransactionRequest request) throws
     response.setTransactionSummary(summary);
     response.setVersion(CswConstants.VERSION_2_0_2);
 
-    int numInserted = 0;
     final Subject subject = SecurityUtils.getSubject();
-    for (InsertAction insertAction : request.getInsertActions()) {
-      final InsertAction transformInsertAction = transformInsertAction(insertAction);
-
-      List<Metacard> metacards = transformInsertAction.getRecords();
-      CompletionService<CreateResponse> completionService =
-          new ExecutorCompletionService<>(queryExecutor);
-
-      for (Metacard record : metacards) {
-        CreateRequest createRequest = new CreateRequestImpl(record);
-        Callable<CreateResponse> callable =
-            () -> {
-              try {
-                return framework.create(createRequest);
-              } catch (IngestException | SourceUnavailableException e) {
-                LOGGER.debug("Unable to insert record(s)", e);
-                throw new CswException(
-                    "Unable to insert record(s).",
-                    CswConstants.TRANSACTION_FAILED,
-                    transformInsertAction.getHandle());
-              }
-            };
-        Callable<CreateResponse> createCallable = subject.associateWith(callable);
-        completionService.submit(createCallable);
-      }
 
-      for (int i = 0; i < metacards.size(); i++) {
-        try {
-          Future<CreateResponse> completedFuture = completionService.take();
-
-          try {
-            CreateResponse futureResponse = completedFuture.get();
-            numInserted += futureResponse.getCreatedMetacards().size();
-            if (request.isVerbose()) {
-              response.getInsertResult().add(getInsertResultFromResponse(futureResponse));
-            }
-          } catch (ExecutionException | CancellationException e) {
-            LOGGER.debug("Error ingesting Metacard", e);
-            throw new CswException(
-                "Unable to insert record(s).",
-                CswConstants.TRANSACTION_FAILED,
-                insertAction.getHandle());
-          }
-        } catch (InterruptedException e) {
-          LOGGER.debug("Metacard ingest interrupted", e);
-          Thread.currentThread().interrupt();
-          break;
-        }
+    try {
+      int numInserted = insertRecords(subject, request, response);
+      LOGGER.debug("{} records inserted.", numInserted);
+      response.getTransactionSummary().setTotalInserted(BigInteger.valueOf(numInserted));
+
+      int numUpdated = updateRecords(subject, request.getUpdateActions());
+      LOGGER.debug("{} records updated.", numUpdated);
+      response.getTransactionSummary().setTotalUpdated(BigInteger.valueOf(numUpdated));
+
+      int numDeleted = deleteRecords(subject, request.getDeleteActions());
+      LOGGER.debug("{} records deleted.", numDeleted);
+      response.getTransactionSummary().setTotalDeleted(BigInteger.valueOf(numDeleted));
+    } catch (XStreamException e) {
+      throw new CswException(
+          "Unable to parse the transaction request.",
+          e,
+          CswConstants.INVALID_PARAMETER_VALUE,
+          CswConstants.TRANSACTION);
+    } finally {
+      if (request instanceof StreamingTransactionRequest) {
+        ((StreamingTransactionRequest) request).close();
       }
     }
-    LOGGER.debug("{} records inserted.", numInserted);
-    response.getTransactionSummary().setTotalInserted(BigInteger.valueOf(numInserted));
 
-    int numUpdated = 0;
-    List<UpdateAction> updateActions = request.getUpdateActions();
-    CompletionService<Integer> updateCompletionService =
-        new ExecutorCompletionService<>(queryExecutor);
+    return response;
+  }
 
-    for (final UpdateAction updateAction : updateActions) {
-      Callable<Integer> callable =
-          () -> {
-            try {
-              return updateRecords(subject, updateAction);
-            } catch (CswException
-                | FederationException
-                | IngestException
-                | SourceUnavailableException
-                | UnsupportedQueryException
-                | CatalogQueryException e) {
-              LOGGER.debug("Unable to update record(s)", e);
-              throw new CswException(
-                  "Unable to update record(s).",
-                  CswConstants.TRANSACTION_FAILED,
-                  updateAction.getHandle());
-            }
-          };
-      Callable<Integer> updateCallable = subject.associateWith(callable);
-      updateCompletionService.submit(updateCallable);
-    }
-    for (int i = 0; i < updateActions.size(); i++) {
-      try {
-        Future<Integer> completedFuture = updateCompletionService.take();
-        try {
-          numUpdated += completedFuture.get();
-        } catch (ExecutionException | CancellationException e) {
-          LOGGER.debug("Error updating Metacard", e);
-          throw new CswException(
-              "Unable to update record(s).", CswConstants.TRANSACTION_FAILED, "Update");
+  private int insertRecords(
+      Subject subject, CswTransactionRequest request, TransactionResponseType response)
+      throws CswException {
+    InsertBatches insertBatches = new InsertBatches(subject, request.isVerbose());
+    XStreamException parseException = null;
+    try {
+      // the streaming request validates the whole body before it hands out any record
+      if (request instanceof StreamingTransactionRequest) {
+        ((StreamingTransactionRequest) request).readInsertRecords(insertBatches::add);
+      } else {
+        for (InsertAction insertAction : request.getInsertActions()) {
+          insertAction.getRecords().forEach(record -> insertBatches.add(insertAction, record));
         }
-      } catch (InterruptedException e) {
-        LOGGER.debug("Metacard update interrupted", e);
-        Thread.currentThread().interrupt();
-        break;
       }
+      insertBatches.submitRemaining();
+    } catch (XStreamException e) {
+      parseException = e;
+    } finally {
+      insertBatches.await();
     }
 
-    LOGGER.debug("{} records updated.", numUpdated);
-    response.getTransactionSummary().setTotalUpdated(BigInteger.valueOf(numUpdated));
-
-    int numDeleted = 0;
-    for (DeleteAction deleteAction : request.getDeleteActions()) {
-      try {
-        numDeleted += deleteRecords(deleteAction);
-      } catch (Exception e) {
-        LOGGER.debug("Unable to delete record(s)", e);
-        throw new CswException(
-            "Unable to delete record(s).",
-            CswConstants.TRANSACTION_FAILED,
-            deleteAction.getHandle());
-      }
+    response.getInsertResult().addAll(insertBatches.getInsertResults());
+    if (parseException != null) {
+      throw new CswException(
+          String.format(
+              "Unable to parse the transaction request after inserting %d record(s).",
+              insertBatches.getInsertedCount()),
+          parseException,
+          CswConstants.TRANSACTION_FAILED,
+          CswConstants.TRANSACTION);
     }
-    LOGGER.debug("{} records deleted.", numDeleted);
-    response.getTransactionSummary().setTotalDeleted(BigInteger.valueOf(numDeleted));
-
-    return response;
+    insertBatches.getFailures().throwIfFailed();
+    return insertBatches.getInsertedCount();
   }
 
-  private InsertResultType getInsertResultFromResponse(CreateResponse createResponse)
-      throws CswException {
+  private InsertResultType getInsertResultFromResponse(CreateResponse createResponse) {
     InsertResultType result = new InsertResultType();
     WKTReader reader = new WKTReader();
     for (Metacard metacard : createResponse.getCreatedMetacards()) {
@@ -732,7 +698,26 @@ private InsertResultType getInsertResultFromResponse(CreateResponse createRespon
     return result;
   }
 
-  private int deleteRecords(DeleteAction deleteAction)
+  private int deleteRecords(Subject subject, List<DeleteAction> deleteActions) throws CswException {
+    TransactionFailures failures = new TransactionFailures("delete", "Delete");
+    int numDeleted = 0;
+    for (DeleteAction deleteAction : deleteActions) {
+      try {
+        numDeleted += deleteRecords(subject, deleteAction, failures);
+      } catch (CswException | UnsupportedQueryException | CatalogQueryException e) {
+        LOGGER.debug("Unable to delete record(s)", e);
+        throw new CswException(
+            "Unable to delete record(s).",
+            CswConstants.TRANSACTION_FAILED,
+            deleteAction.getHandle());
+      }
+    }
+    failures.throwIfFailed();
+    return numDeleted;
+  }
+
+  private int deleteRecords(
+      Subject subject, DeleteAction deleteAction, TransactionFailures failures)
       throws CswException, UnsupportedQueryException {
 
     final DeleteAction transformDeleteAction = transformDeleteAction(deleteAction);
@@ -747,64 +732,43 @@ private int deleteRecords(DeleteAction deleteAction)
             schemaTransformerManager.getTransformerSchemaForId(
                 transformDeleteAction.getTypeName()));
 
-    int batchCount = 1;
+    int pageSize = Math.max(DEFAULT_BATCH, transactionBatchSize);
+    int pageCount = 0;
     int deletedCount = 0;
 
-    String[] idsToDelete = getNextQueryBatch(queryRequest);
-
-    CompletionService<DeleteResponse> deleteCompletionService =
-        new ExecutorCompletionService<>(queryExecutor);
+    String[] idsToDelete = getNextQueryBatch(queryRequest, pageSize);
 
     while (idsToDelete.length > 0) {
       LOGGER.debug(
-          "Attempting to delete {} metacards from batch {}.", idsToDelete.length, ++batchCount);
-      final Subject subject = SecurityUtils.getSubject();
-      for (final String id : idsToDelete) {
-        Callable<DeleteResponse> callable =
-            () -> {
-              try {
-                DeleteRequestImpl deleteRequest = new DeleteRequestImpl(id);
-                return framework.delete(deleteRequest);
-              } catch (IngestException | SourceUnavailableException | CatalogQueryException e) {
-                LOGGER.debug("Unable to delete record: {}", id, e);
-                throw new CswException(
-                    "Unable to delete record(s).",
-                    CswConstants.TRANSACTION_FAILED,
-                    transformDeleteAction.getHandle());
-              }
-            };
-        Callable<DeleteResponse> deleteCallable = subject.associateWith(callable);
-        deleteCompletionService.submit(deleteCallable);
+          "Attempting to delete {} metacards from batch {}.", idsToDelete.length, ++pageCount);
+      List<List<String>> batches =
+          Lists.partition(Arrays.asList(idsToDelete), transactionBatchSize);
+      List<Callable<DeleteResponse>> callables = new ArrayList<>(batches.size());
+      for (List<String> batch : batches) {
+        callables.add(() -> framework.delete(new DeleteRequestImpl(batch.toArray(new String[0]))));
       }
+      Map<Integer, DeleteResponse> deleteResponses = executeBatches(subject, "delete", callables);
 
-      for (int i = 0; i < idsToDelete.length; i++) {
-        try {
-          Future<DeleteResponse> completedFuture = deleteCompletionService.take();
-
-          try {
-            deletedCount += completedFuture.get().getDeletedMetacards().size();
-          } catch (ExecutionException | CancellationException e) {
-            LOGGER.debug("Error deleting Metacard", e);
-            throw new CswException(
-                "Unable to delete record(s).",
-                CswConstants.TRANSACTION_FAILED,
-                deleteAction.getHandle());
-          }
-        } catch (InterruptedException e) {
-          LOGGER.debug("Metacard delete interrupted", e);
-          Thread.currentThread().interrupt();
-          break;
+      for (int i = 0; i < batches.size(); i++) {
+        DeleteResponse deleteResponse = deleteResponses.get(i);
+        failures.add(deleteAction.getHandle(), batches.get(i).size(), deleteResponse != null);
+        if (deleteResponse != null) {
+          deletedCount += deleteResponse.getDeletedMetacards().size();
         }
       }
 
-      idsToDelete = getNextQueryBatch(queryRequest);
+      if (deleteResponses.size() < batches.size()) {
+        // the records that could not be deleted would match the next query again
+        break;
+      }
+      idsToDelete = getNextQueryBatch(queryRequest, pageSize);
     }
 
     return deletedCount;
   }
 
-  private String[] getNextQueryBatch(QueryRequest queryRequest) {
-    return ResultIterable.resultIterable(framework, queryRequest, DEFAULT_BATCH).stream()
+  private String[] getNextQueryBatch(QueryRequest queryRequest, int pageSize) {
+    return ResultIterable.resultIterable(framework, queryRequest, pageSize).stream()
         .filter(Objects::nonNull)
         .map(Result::getMetacard)
         .filter(Objects::nonNull)
@@ -834,85 +798,100 @@ private UpdateAction transformUpdateAction(UpdateAction updateAction) {
         .orElse(updateAction);
   }
 
-  private int updateRecords(Subject subject, UpdateAction updateAction)
-      throws CswException, FederationException, IngestException, SourceUnavailableException,
-          UnsupportedQueryException {
+  private int updateRecords(Subject subject, List<UpdateAction> updateActions) throws CswException {
+    List<TransactionRecord> records = new ArrayList<>();
+    List<UpdateAction> constraintActions = new ArrayList<>();
+    for (UpdateAction updateAction : updateActions) {
+      UpdateAction transformUpdateAction = transformUpdateAction(updateAction);
+      Metacard newRecord = transformUpdateAction.getMetacard();
+
+      if (newRecord != null) {
+        if (newRecord.getId() == null) {
+          throw new CswException(
+              "Unable to update record.  No ID was specified in the request.",
+              CswConstants.MISSING_PARAMETER_VALUE,
+              updateAction.getHandle());
+        }
+        records.add(new TransactionRecord(updateAction.getHandle(), newRecord));
+      } else if (transformUpdateAction.getConstraint() != null) {
+        constraintActions.add(transformUpdateAction);
+      }
+    }
 
-    updateAction = transformUpdateAction(updateAction);
+    List<List<TransactionRecord>> batches = Lists.partition(records, transactionBatchSize);
+    List<Callable<Integer>> callables = new ArrayList<>(batches.size());
+    for (List<TransactionRecord> batch : batches) {
+      callables.add(
+          () -> {
+            List<Metacard> metacards = getMetacards(batch);
+            String[] ids = metacards.stream().map(Metacard::getId).toArray(String[]::new);
+            LOGGER.debug("Attempting to update {} metacards by ID.", ids.length);
+            return framework
+                .update(new UpdateRequestImpl(ids, metacards))
+                .getUpdatedMetacards()
+                .size();
+          });
+    }
+    Map<Integer, Integer> updatedCounts = executeBatches(subject, "update", callables);
 
-    if (updateAction.getMetacard() != null) {
-      Metacard newRecord = updateAction.getMetacard();
+    TransactionFailures failures = new TransactionFailures("update", "Update");
+    int numUpdated = 0;
+    for (int i = 0; i < batches.size(); i++) {
+      Integer updatedCount = updatedCounts.get(i);
+      failures.add(batches.get(i), updatedCount != null);
+      if (updatedCount != null) {
+        numUpdated += updatedCount;
+      }
+    }
 
-      if (newRecord.getId() != null) {
-        UpdateRequest updateRequest = new UpdateRequestImpl(newRecord.getId(), newRecord);
-        LOGGER.debug("Attempting to update {} ", newRecord.getId());
-        UpdateResponse updateResponse = framework.update(updateRequest);
-        return updateResponse.getUpdatedMetacards().size();
-      } else {
+    for (UpdateAction updateAction : constraintActions) {
+      try {
+        numUpdated += updateRecordsByConstraint(subject, updateAction, failures);
+      } catch (CswException | UnsupportedQueryException | CatalogQueryException e) {
+        LOGGER.debug("Unable to update record(s)", e);
         throw new CswException(
-            "Unable to update record.  No ID was specified in the request.",
-            CswConstants.MISSING_PARAMETER_VALUE,
+            "Unable to update record(s).",
+            CswConstants.TRANSACTION_FAILED,
             updateAction.getHandle());
       }
-    } else if (updateAction.getConstraint() != null) {
-      QueryConstraintType constraint = updateAction.getConstraint();
-      QueryRequest queryRequest = queryFactory.getQuery(constraint, updateAction.getTypeName());
-
-      queryRequest =
-          queryFactory.updateQueryRequestTags(
-              queryRequest,
-              schemaTransformerManager.getTransformerSchemaForId(updateAction.getTypeName()));
-
-      Map<String, Serializable> recordProperties = updateAction.getRecordProperties();
-      Iterable<List<Result>> resultList =
-          Iterables.partition(
-              ResultIterable.resultIterable(framework, queryRequest), DEFAULT_BATCH);
-      int batchCount = 1;
-      int updatedCount = 0;
-
-      CompletionService<Integer> completionService = new ExecutorCompletionService<>(queryExecutor);
-      final UpdateAction callableUpdateAction = updateAction;
-      for (List<Result> results : resultList) {
-        final int batch = batchCount;
-        Callable<Integer> callable =
-            () -> {
-              try {
-                return updateResultList(recordProperties, batch, results);
-              } catch (IngestException | SourceUnavailableException e) {
-                LOGGER.debug("Unable to update record(s)", e);
-                throw new CswException(
-                    "Unable to update record(s).",
-                    CswConstants.TRANSACTION_FAILED,
-                    callableUpdateAction.getHandle());
-              }
-            };
-        batchCount++;
-        Callable<Integer> updateCallable = subject.associateWith(callable);
-        completionService.submit(updateCallable);
-      }
+    }
+    failures.throwIfFailed();
+    return numUpdated;
+  }
 
-      for (int i = 0; i < batchCount - 1; i++) {
-        try {
-          Future<Integer> completedFuture = completionService.take();
-          try {
-            updatedCount += completedFuture.get();
-          } catch (ExecutionException | CancellationException e) {
-            LOGGER.debug("Error updating", e);
-            throw new CswException(
-                "Unable to update record(s).",
-                CswConstants.TRANSACTION_FAILED,
-                updateAction.getHandle());
-          }
-        } catch (InterruptedException e) {
-          LOGGER.debug("Metacard update interrupted", e);
-          Thread.currentThread().interrupt();
-          break;
-        }
-      }
+  private int updateRecordsByConstraint(
+      Subject subject, UpdateAction updateAction, TransactionFailures failures)
+      throws CswException, UnsupportedQueryException {
+    QueryConstraintType constraint = updateAction.getConstraint();
+    QueryRequest queryRequest = queryFactory.getQuery(constraint, updateAction.getTypeName());
+
+    queryRequest =
+        queryFactory.updateQueryRequestTags(
+            queryRequest,
+            schemaTransformerManager.getTransformerSchemaForId(updateAction.getTypeName()));
+
+    Map<String, Serializable> recordProperties = updateAction.getRecordProperties();
+    List<List<Result>> batches =
+        Lists.newArrayList(
+            Iterables.partition(
+                ResultIterable.resultIterable(framework, queryRequest), transactionBatchSize));
+    List<Callable<Integer>> callables = new ArrayList<>(batches.size());
+    for (int i = 0; i < batches.size(); i++) {
+      final int batch = i + 1;
+      final List<Result> results = batches.get(i);
+      callables.add(() -> updateResultList(recordProperties, batch, results));
+    }
+    Map<Integer, Integer> updatedCounts = executeBatches(subject, "update", callables);
 
-      return updatedCount;
+    int updatedCount = 0;
+    for (int i = 0; i < batches.size(); i++) {
+      Integer batchCount = updatedCounts.get(i);
+      failures.add(updateAction.getHandle(), batches.get(i).size(), batchCount != null);
+      if (batchCount != null) {
+        updatedCount += batchCount;
+      }
     }
-    return 0;
+    return updatedCount;
   }
 
   private int updateResultList(
@@ -951,6 +930,273 @@ private int updateResultList(
     return updatedCount;
   }
 
+  /**
+   * Runs the batches on the query executor, keeping at most {@link #transactionParallelism} of them
+   * in flight, and records how long each batch takes. A batch that fails is logged and left out of
+   * the returned map.
+   *
+   * @return the result of each batch that succeeded, keyed by the index of the batch
+   */
+  private <T> Map<Integer, T> executeBatches(
+      Subject subject, String operation, List<Callable<T>> batches) {
+    TransactionBatches<T> transactionBatches = new TransactionBatches<>(subject, operation);
+    Map<Integer, T> results = new HashMap<>();
+    for (int i = 0; i < batches.size(); i++) {
+      final int batchIndex = i;
+      transactionBatches.submit(
+          batches.get(i),
+          result -> {
+            if (result != null) {
+              results.put(batchIndex, result);
+            }
+          });
+    }
+    transactionBatches.await();
+    return results;
+  }
+
+  private static List<Metacard> getMetacards(List<TransactionRecord> records) {
+    return records.stream().map(TransactionRecord::getMetacard).collect(Collectors.toList());
+  }
+
+  /** A record that is inserted or updated in a batch, with the handle of its action. */
+  private static class TransactionRecord {
+
+    private final String handle;
+
+    private final Metacard metacard;
+
+    TransactionRecord(String handle, Metacard metacard) {
+      this.handle = handle;
+      this.metacard = metacard;
+    }
+
+    String getHandle() {
+      return handle;
+    }
+
+    Metacard getMetacard() {
+      return metacard;
+    }
+  }
+
+  /**
+   * Runs batches on the query executor as they are submitted, keeping at most {@link
+   * #transactionParallelism} of them in flight, and records how long each batch takes. Submitting a
+   * batch waits for an earlier one to complete when too many are in flight. The callback of each
+   * batch is called on the submitting thread with the result of the batch, or {@code null} if it
+   * failed.
+   */
+  private class TransactionBatches<T> {
+
+    private final Subject subject;
+
+    private final String operation;
+
+    private final Timer batchTimer;
+
+    private final CompletionService<T> completionService =
+        new ExecutorCompletionService<>(queryExecutor);
+
+    private final Map<Future<T>, Consumer<T>> pending = new HashMap<>();
+
+    private boolean interrupted;
+
+    TransactionBatches(Subject subject, String operation) {
+      this.subject = subject;
+      this.operation = operation;
+      this.batchTimer =
+          Timer.builder(TRANSACTION_METRIC_PREFIX + ".batch.latency")
+              .tag("operation", operation)
+              .publishPercentiles(0.5, 0.95)
+              .register(Metrics.globalRegistry);
+    }
+
+    void submit(Callable<T> batch, Consumer<T> callback) {
+      while (pending.size() >= transactionParallelism && !interrupted) {
+        completeNext();
+      }
+      if (interrupted) {
+        callback.accept(null);
+        return;
+      }
+      Callable<T> timedBatch = subject.associateWith(() -> batchTimer.recordCallable(batch));
+      pending.put(completionService.submit(timedBatch), callback);
+    }
+
+    void await() {
+      while (!pending.isEmpty() && !interrupted) {
+        completeNext();
+      }
+    }
+
+    private void completeNext() {
+      try {
+        Future<T> completedFuture = completionService.take();
+        Consumer<T> callback = pending.remove(completedFuture);
+        T result = null;
+        try {
+          result = completedFuture.get();
+        } catch (ExecutionException | CancellationException e) {
+          LOGGER.debug("Unable to {} batch", operation, e);
+        }
+        callback.accept(result);
+      } catch (InterruptedException e) {
+        LOGGER.debug("Transaction {} interrupted", operation, e);
+        interrupted = true;
+        pending.keySet().forEach(future -> future.cancel(true));
+        pending.values().forEach(callback -> callback.accept(null));
+        pending.clear();
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * Collects insert records into batches of {@link #transactionBatchSize} and submits each batch as
+   * soon as it is full, so that only the batches in flight are held in memory. The records of each
+   * action in a batch are passed through its {@link
+   * org.codice.ddf.spatial.ogc.csw.catalog.endpoint.transformer.CswActionTransformer} together.
+   */
+  private class InsertBatches {
+
+    private final TransactionBatches<CreateResponse> batches;
+
+    private final boolean verbose;
+
+    private final TransactionFailures failures = new TransactionFailures("insert", "Insert");
+
+    private final SortedMap<Integer, InsertResultType> insertResults = new TreeMap<>();
+
+    private List<TransactionRecord> batch = new ArrayList<>();
+
+    private InsertAction action;
+
+    private List<Metacard> actionRecords = new ArrayList<>();
+
+    private int batchCount;
+
+    private int insertedCount;
+
+    InsertBatches(Subject subject, boolean verbose) {
+      this.batches = new TransactionBatches<>(subject, "insert");
+      this.verbose = verbose;
+    }
+
+    void add(InsertAction insertAction, Metacard record) {
+      if (insertAction != action) {
+        transformActionRecords();
+        action = insertAction;
+      }
+      actionRecords.add(record);
+      if (batch.size() + actionRecords.size() >= transactionBatchSize) {
+        submitRemaining();
+      }
+    }
+
+    void submitRemaining() {
+      transformActionRecords();
+      if (batch.isEmpty()) {
+        return;
+      }
+      List<TransactionRecord> records = batch;
+      int batchIndex = batchCount++;
+      batch = new ArrayList<>();
+      batches.submit(
+          () -> framework.create(new CreateRequestImpl(getMetacards(records))),
+          createResponse -> {
+            failures.add(records, createResponse != null);
+            if (createResponse != null) {
+              insertedCount += createResponse.getCreatedMetacards().size();
+              if (verbose) {
+                insertResults.put(batchIndex, getInsertResultFromResponse(createResponse));
+              }
+            }
+          });
+    }
+
+    void await() {
+      batches.await();
+    }
+
+    Collection<InsertResultType> getInsertResults() {
+      return insertResults.values();
+    }
+
+    TransactionFailures getFailures() {
+      return failures;
+    }
+
+    int getInsertedCount() {
+      return insertedCount;
+    }
+
+    private void transformActionRecords() {
+      if (actionRecords.isEmpty()) {
+        return;
+      }
+      InsertAction transformedAction =
+          transformInsertAction(
+              new InsertActionImpl(action.getTypeName(), action.getHandle(), actionRecords));
+      for (Metacard metacard : transformedAction.getRecords()) {
+        batch.add(new TransactionRecord(action.getHandle(), metacard));
+      }
+      actionRecords = new ArrayList<>();
+    }
+  }
+
+  /**
+   * Counts the records attempted and failed for each action handle, so that one failed batch is
+   * reported against the actions it contained instead of aborting the rest of the transaction.
+   */
+  private static class TransactionFailures {
+
+    private final String operation;
+
+    private final String defaultHandle;
+
+    private final Map<String, int[]> recordCounts = new LinkedHashMap<>();
+
+    TransactionFailures(String operation, String defaultHandle) {
+      this.operation = operation;
+      this.defaultHandle = defaultHandle;
+    }
+
+    void add(List<TransactionRecord> batch, boolean succeeded) {
+      batch.forEach(record -> add(record.getHandle(), 1, succeeded));
+    }
+
+    void add(String handle, int recordCount, boolean succeeded) {
+      int[] counts =
+          recordCounts.computeIfAbsent(
+              StringUtils.defaultIfBlank(handle, defaultHandle), h -> new int[2]);
+      counts[0] += recordCount;
+      if (!succeeded) {
+        counts[1] += recordCount;
+      }
+    }
+
+    void throwIfFailed() throws CswException {
+      List<String> failedHandles = new ArrayList<>();
+      List<String> failures = new ArrayList<>();
+      for (Entry<String, int[]> entry : recordCounts.entrySet()) {
+        int[] counts = entry.getValue();
+        if (counts[1] > 0) {
+          failedHandles.add(entry.getKey());
+          failures.add(
+              String.format("%s (%d of %d record(s))", entry.getKey(), counts[1], counts[0]));
+        }
+      }
+
+      if (!failures.isEmpty()) {
+        throw new CswException(
+            String.format("Unable to %s record(s): %s.", operation, String.join(", ", failures)),
+            CswConstants.TRANSACTION_FAILED,
+            String.join(",", failedHandles));
+      }
+    }
+  }
+
   @GET
   @Consumes({MediaType.TEXT_XML, MediaType.APPLICATION_XML})
   @Produces({MediaType.TEXT_XML, MediaType.APPLICATION_XML})
@@ -1657,20 +1903,10 @@ Bundle getBundle() {
 
   public void init() {
 
-    int numThreads = 2 * Runtime.getRuntime().availableProcessors();
-    String threadProp = System.getProperty(ENDPOINT_THREADPOOL_COUNT);
-    if (threadProp != null) {
-      try {
-        numThreads = Integer.parseInt(threadProp);
-      } catch (NumberFormatException nfe) {
-        LOGGER.info(
-            "Unable to use configured {} pool size: {}, defaulting to: {}",
-            ENDPOINT_THREADPOOL_COUNT,
-            threadProp,
-            numThreads,
-            nfe);
-      }
-    }
+    int numThreads =
+        getIntProperty(ENDPOINT_THREADPOOL_COUNT, 2 * Runtime.getRuntime().availableProcessors());
+    setTransactionBatchSize(getIntProperty(TRANSACTION_BATCH_SIZE, transactionBatchSize));
+    setTransactionParallelism(getIntProperty(TRANSACTION_PARALLELISM, transactionParallelism));
 
     LOGGER.debug("{} size: {}", QUERY_POOL_NAME, numThreads);
 
@@ -1691,6 +1927,44 @@ public void init() {
     queryExecutor.prestartAllCoreThreads();
   }
 
+  /**
+   * Sets the maximum number of records sent to the catalog framework in one create, update or
+   * delete request of a transaction.
+   */
+  public void setTransactionBatchSize(int transactionBatchSize) {
+    if (transactionBatchSize < 1) {
+      LOGGER.debug("Ignoring invalid transaction batch size: {}", transactionBatchSize);
+      return;
+    }
+    this.transactionBatchSize = transactionBatchSize;
+  }
+
+  /** Sets the maximum number of batches of one transaction action that run at the same time. */
+  public void setTransactionParallelism(int transactionParallelism) {
+    if (transactionParallelism < 1) {
+      LOGGER.debug("Ignoring invalid transaction parallelism: {}", transactionParallelism);
+      return;
+    }
+    this.transactionParallelism = transactionParallelism;
+  }
+
+  private static int getIntProperty(String property, int defaultValue) {
+    String value = System.getProperty(property);
+    if (value != null) {
+      try {
+        return Integer.parseInt(value);
+      } catch (NumberFormatException nfe) {
+        LOGGER.info(
+            "Unable to use configured {} value: {}, defaulting to: {}",
+            property,
+            value,
+            defaultValue,
+            nfe);
+      }
+    }
+    return defaultValue;
+  }
+
   public void destroy() {
     queryExecutor.shutdown();
 
@@ -0,0 +1,191 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.spatial.ogc.csw.catalog.endpoint.reader;
+
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.converters.DataHolder;
+import com.thoughtworks.xstream.io.HierarchicalStreamDriver;
+import com.thoughtworks.xstream.io.HierarchicalStreamReader;
+import com.thoughtworks.xstream.io.StreamException;
+import ddf.catalog.data.Metacard;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.function.BiConsumer;
+import org.codice.ddf.platform.util.TemporaryFileBackedOutputStream;
+import org.codice.ddf.spatial.ogc.csw.catalog.actions.DeleteAction;
+import org.codice.ddf.spatial.ogc.csw.catalog.actions.InsertAction;
+import org.codice.ddf.spatial.ogc.csw.catalog.actions.UpdateAction;
+import org.codice.ddf.spatial.ogc.csw.catalog.common.CswConstants;
+import org.codice.ddf.spatial.ogc.csw.catalog.common.transaction.CswTransactionRequest;
+import org.codice.ddf.spatial.ogc.csw.catalog.converter.TransactionRequestConverter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link CswTransactionRequest} that is parsed from the spooled request body when it is first
+ * used.
+ *
+ * <p>Calling {@link #readInsertRecords(BiConsumer)} first parses the whole body once without
+ * keeping any insert record, so that a malformed request is rejected before anything is inserted,
+ * and then parses it again, handing each insert record to the caller as soon as it is parsed. So a
+ * large transaction never has all of its records in memory at once. Any other accessor parses the
+ * whole request, keeping every insert record, like a regular {@link CswTransactionRequest}. The
+ * version, service and verbose flag are read from the root element without parsing the rest of the
+ * body. The spooled body is deleted once it has been parsed, or when the request is {@link #close()
+ * closed}.
+ */
+public class StreamingTransactionRequest extends CswTransactionRequest implements Closeable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(StreamingTransactionRequest.class);
+
+  private static final BiConsumer<InsertAction, Metacard> DISCARD_RECORD = (action, record) -> {};
+
+  private final XStream xStream;
+
+  private final HierarchicalStreamDriver driver;
+
+  private final TemporaryFileBackedOutputStream body;
+
+  private final String version;
+
+  private final String service;
+
+  private final boolean verbose;
+
+  private CswTransactionRequest request;
+
+  /**
+   * @param xStream configured to unmarshal {@link CswTransactionRequest}s
+   * @param driver creates the readers of the request body
+   * @param body spooled request body, which is closed once it has been parsed
+   * @param root reader positioned at the root element of the request body
+   */
+  StreamingTransactionRequest(
+      XStream xStream,
+      HierarchicalStreamDriver driver,
+      TemporaryFileBackedOutputStream body,
+      HierarchicalStreamReader root) {
+    this.xStream = xStream;
+    this.driver = driver;
+    this.body = body;
+    this.version = root.getAttribute(CswConstants.VERSION);
+    this.service = root.getAttribute(CswConstants.SERVICE);
+    this.verbose = Boolean.valueOf(root.getAttribute(CswConstants.VERBOSE_RESPONSE));
+  }
+
+  /**
+   * Validates the whole request, then parses it again, giving each insert record to {@code
+   * recordHandler} instead of keeping it in its {@link InsertAction}. If the request has already
+   * been parsed, the records it holds are given to the handler instead.
+   *
+   * @param recordHandler called with the insert action and each of its records, in document order
+   * @throws com.thoughtworks.xstream.XStreamException if the request body cannot be parsed, in
+   *     which case no record has been given to the handler
+   */
+  public void readInsertRecords(BiConsumer<InsertAction, Metacard> recordHandler) {
+    if (request == null) {
+      try {
+        parse(DISCARD_RECORD);
+        request = parse(recordHandler);
+      } finally {
+        close();
+      }
+      return;
+    }
+    for (InsertAction insertAction : request.getInsertActions()) {
+      insertAction.getRecords().forEach(record -> recordHandler.accept(insertAction, record));
+    }
+  }
+
+  @Override
+  public String getVersion() {
+    return request != null ? request.getVersion() : version;
+  }
+
+  @Override
+  public void setVersion(String version) {
+    getRequest().setVersion(version);
+  }
+
+  @Override
+  public String getService() {
+    return request != null ? request.getService() : service;
+  }
+
+  @Override
+  public void setService(String service) {
+    getRequest().setService(service);
+  }
+
+  @Override
+  public boolean isVerbose() {
+    return request != null ? request.isVerbose() : verbose;
+  }
+
+  @Override
+  public void setVerbose(boolean verbose) {
+    getRequest().setVerbose(verbose);
+  }
+
+  @Override
+  public List<InsertAction> getInsertActions() {
+    return getRequest().getInsertActions();
+  }
+
+  @Override
+  public List<DeleteAction> getDeleteActions() {
+    return getRequest().getDeleteActions();
+  }
+
+  @Override
+  public List<UpdateAction> getUpdateActions() {
+    return getRequest().getUpdateActions();
+  }
+
+  /** Deletes the spooled request body. */
+  @Override
+  public void close() {
+    try {
+      body.close();
+    } catch (IOException e) {
+      LOGGER.debug("Unable to delete the spooled transaction request.", e);
+    }
+  }
+
+  private CswTransactionRequest getRequest() {
+    if (request == null) {
+      try {
+        request = parse(null);
+      } finally {
+        close();
+      }
+    }
+    return request;
+  }
+
+  private CswTransactionRequest parse(BiConsumer<InsertAction, Metacard> recordHandler) {
+    DataHolder dataHolder = xStream.newDataHolder();
+    if (recordHandler != null) {
+      dataHolder.put(TransactionRequestConverter.INSERT_RECORD_HANDLER, recordHandler);
+    }
+    try (InputStream inputStream = body.asByteSource().openStream()) {
+      HierarchicalStreamReader reader = driver.createReader(inputStream);
+      return (CswTransactionRequest) xStream.unmarshal(reader, null, dataHolder);
+    } catch (IOException e) {
+      throw new StreamException("Unable to read the transaction request.", e);
+    }
+  }
+}
@@ -15,6 +15,8 @@
 
 import com.thoughtworks.xstream.XStream;
 import com.thoughtworks.xstream.converters.Converter;
+import com.thoughtworks.xstream.io.HierarchicalStreamDriver;
+import com.thoughtworks.xstream.io.HierarchicalStreamReader;
 import com.thoughtworks.xstream.io.naming.NoNameCoder;
 import com.thoughtworks.xstream.io.xml.Xpp3Driver;
 import com.thoughtworks.xstream.security.NoTypePermission;
@@ -30,25 +32,36 @@
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.ext.MessageBodyReader;
 import javax.ws.rs.ext.Provider;
+import org.apache.commons.io.IOUtils;
+import org.codice.ddf.platform.util.TemporaryFileBackedOutputStream;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.CswConstants;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.transaction.CswTransactionRequest;
 import org.codice.ddf.spatial.ogc.csw.catalog.converter.CswRecordConverter;
 import org.codice.ddf.spatial.ogc.csw.catalog.converter.TransactionRequestConverter;
 
+/**
+ * Reads CSW transaction requests. The XStream configuration is built once and shared by all
+ * requests; the body itself is spooled and parsed lazily by the returned {@link
+ * StreamingTransactionRequest}.
+ */
 @Provider
 @Consumes({MediaType.TEXT_XML, MediaType.APPLICATION_XML})
 public class TransactionMessageBodyReader implements MessageBodyReader<CswTransactionRequest> {
-  private Converter cswRecordConverter;
-
-  private MetacardType metacardType;
+  private final HierarchicalStreamDriver driver = new Xpp3Driver(new NoNameCoder());
 
-  private AttributeRegistry registry;
+  private final XStream xStream;
 
   public TransactionMessageBodyReader(
       Converter converter, MetacardType metacardType, AttributeRegistry registry) {
-    this.cswRecordConverter = converter;
-    this.metacardType = metacardType;
-    this.registry = registry;
+    xStream = new XStream(driver);
+    xStream.addPermission(NoTypePermission.NONE);
+    TransactionRequestConverter transactionRequestConverter =
+        new TransactionRequestConverter(converter, registry);
+    transactionRequestConverter.setCswRecordConverter(new CswRecordConverter(metacardType));
+    xStream.registerConverter(transactionRequestConverter);
+    xStream.allowTypeHierarchy(CswTransactionRequest.class);
+    xStream.alias("csw:" + CswConstants.TRANSACTION, CswTransactionRequest.class);
+    xStream.alias(CswConstants.TRANSACTION, CswTransactionRequest.class);
   }
 
   @Override
@@ -66,15 +79,24 @@ public CswTransactionRequest readFrom(
       MultivaluedMap<String, String> multivaluedMap,
       InputStream inputStream)
       throws IOException, WebApplicationException {
-    XStream xStream = new XStream(new Xpp3Driver(new NoNameCoder()));
-    xStream.addPermission(NoTypePermission.NONE);
-    TransactionRequestConverter transactionRequestConverter =
-        new TransactionRequestConverter(cswRecordConverter, registry);
-    transactionRequestConverter.setCswRecordConverter(new CswRecordConverter(metacardType));
-    xStream.registerConverter(transactionRequestConverter);
-    xStream.allowTypeHierarchy(CswTransactionRequest.class);
-    xStream.alias("csw:" + CswConstants.TRANSACTION, CswTransactionRequest.class);
-    xStream.alias(CswConstants.TRANSACTION, CswTransactionRequest.class);
-    return (CswTransactionRequest) xStream.fromXML(inputStream);
+    // The body is spooled so that it can be validated before any of its records are inserted.
+    TemporaryFileBackedOutputStream body = new TemporaryFileBackedOutputStream();
+    try (InputStream spooled = spool(inputStream, body)) {
+      HierarchicalStreamReader root = driver.createReader(spooled);
+      // Resolving the root element checks it against the XStream permissions before any of the
+      // body is unmarshalled.
+      xStream.getMapper().realClass(root.getNodeName());
+      return new StreamingTransactionRequest(xStream, driver, body, root);
+    } catch (IOException | RuntimeException e) {
+      body.close();
+      throw e;
+    }
+  }
+
+  private InputStream spool(InputStream inputStream, TemporaryFileBackedOutputStream body)
+      throws IOException {
+    IOUtils.copy(inputStream, body);
+    body.flush();
+    return body.asByteSource().openStream();
   }
 }
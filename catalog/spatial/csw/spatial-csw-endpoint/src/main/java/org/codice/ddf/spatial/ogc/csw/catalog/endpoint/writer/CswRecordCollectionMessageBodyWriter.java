@@ -14,6 +14,7 @@
 package org.codice.ddf.spatial.ogc.csw.catalog.endpoint.writer;
 
 import ddf.catalog.data.BinaryContent;
+import ddf.catalog.data.StreamingBinaryContent;
 import ddf.catalog.resource.Resource;
 import ddf.catalog.transform.CatalogTransformerException;
 import ddf.catalog.transform.QueryResponseTransformer;
@@ -141,7 +142,9 @@ public void writeTo(
       throw new WebApplicationException(e);
     }
 
-    if (content != null) {
+    if (content instanceof StreamingBinaryContent) {
+      ((StreamingBinaryContent) content).writeTo(outStream);
+    } else if (content != null) {
       try (InputStream inputStream = content.getInputStream()) {
         IOUtils.copy(inputStream, outStream);
       }
@@ -30,6 +30,7 @@
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -37,6 +38,9 @@
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
+import com.thoughtworks.xstream.converters.Converter;
+import com.thoughtworks.xstream.converters.UnmarshallingContext;
+import com.thoughtworks.xstream.io.HierarchicalStreamReader;
 import ddf.catalog.CatalogFramework;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
@@ -74,6 +78,7 @@
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -123,6 +128,7 @@
 import net.opengis.ows.v_1_0_0.SectionsType;
 import net.opengis.ows.v_1_0_0.ServiceIdentification;
 import net.opengis.ows.v_1_0_0.ServiceProvider;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.shiro.mgt.DefaultSecurityManager;
 import org.apache.shiro.session.mgt.SimpleSession;
@@ -147,6 +153,7 @@
 import org.codice.ddf.spatial.ogc.csw.catalog.common.transaction.InsertActionImpl;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.transaction.UpdateActionImpl;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.transformer.TransformerManager;
+import org.codice.ddf.spatial.ogc.csw.catalog.endpoint.reader.TransactionMessageBodyReader;
 import org.codice.ddf.spatial.ogc.csw.catalog.endpoint.transformer.CswActionTransformerProvider;
 import org.junit.Test;
 import org.locationtech.jts.io.ParseException;
@@ -1700,6 +1707,175 @@ public void testIngestTransaction()
         cswQnameOutPutSchema);
   }
 
+  @Test
+  public void testIngestTransactionBatching()
+      throws CswException, SourceUnavailableException, FederationException, IngestException {
+    csw.setTransactionBatchSize(2);
+    when(catalogFramework.create(any(CreateRequest.class)))
+        .thenAnswer(
+            invocation -> {
+              CreateRequest createRequest = (CreateRequest) invocation.getArguments()[0];
+              return new CreateResponseImpl(createRequest, null, createRequest.getMetacards());
+            });
+
+    CswTransactionRequest request = new CswTransactionRequest();
+    request
+        .getInsertActions()
+        .add(
+            new InsertActionImpl(
+                CswConstants.CSW_TYPE,
+                "first",
+                Arrays.asList(new MetacardImpl(), new MetacardImpl(), new MetacardImpl())));
+    request
+        .getInsertActions()
+        .add(
+            new InsertActionImpl(
+                CswConstants.CSW_TYPE,
+                "second",
+                Arrays.asList(new MetacardImpl(), new MetacardImpl())));
+    request.setVerbose(true);
+
+    TransactionResponseType response = csw.transaction(request);
+    assertThat(response.getTransactionSummary().getTotalInserted().intValue(), is(5));
+    assertThat(response.getInsertResult().size(), is(3));
+
+    ArgumentCaptor<CreateRequest> captor = ArgumentCaptor.forClass(CreateRequest.class);
+    verify(catalogFramework, times(3)).create(captor.capture());
+    assertThat(
+        captor.getAllValues().stream()
+            .map(createRequest -> createRequest.getMetacards().size())
+            .sorted()
+            .collect(toList()),
+        is(Arrays.asList(1, 2, 2)));
+  }
+
+  @Test
+  public void testIngestTransactionReportsFailedHandles()
+      throws SourceUnavailableException, FederationException, IngestException {
+    csw.setTransactionBatchSize(2);
+    when(catalogFramework.create(any(CreateRequest.class)))
+        .thenAnswer(
+            invocation -> {
+              CreateRequest createRequest = (CreateRequest) invocation.getArguments()[0];
+              if (createRequest.getMetacards().size() == 1) {
+                throw new IngestException("Unable to ingest");
+              }
+              return new CreateResponseImpl(createRequest, null, createRequest.getMetacards());
+            });
+
+    CswTransactionRequest request = new CswTransactionRequest();
+    request
+        .getInsertActions()
+        .add(
+            new InsertActionImpl(
+                CswConstants.CSW_TYPE,
+                "first",
+                Arrays.asList(new MetacardImpl(), new MetacardImpl())));
+    request
+        .getInsertActions()
+        .add(
+            new InsertActionImpl(
+                CswConstants.CSW_TYPE, "second", Arrays.asList(new MetacardImpl())));
+
+    try {
+      csw.transaction(request);
+      fail("Expected the failed insert batch to be reported.");
+    } catch (CswException e) {
+      assertThat(e.getExceptionCode(), is(CswConstants.TRANSACTION_FAILED));
+      assertThat(e.getLocator(), is("second"));
+      assertThat(e.getMessage(), is("Unable to insert record(s): second (1 of 1 record(s))."));
+    }
+    verify(catalogFramework, times(2)).create(any(CreateRequest.class));
+  }
+
+  @Test
+  public void testIngestStreamingTransaction() throws Exception {
+    csw.setTransactionBatchSize(2);
+    when(catalogFramework.create(any(CreateRequest.class)))
+        .thenAnswer(
+            invocation -> {
+              CreateRequest createRequest = (CreateRequest) invocation.getArguments()[0];
+              return new CreateResponseImpl(createRequest, null, createRequest.getMetacards());
+            });
+    Converter recordConverter = mock(Converter.class);
+    when(recordConverter.canConvert(any(Class.class))).thenReturn(true);
+    when(recordConverter.unmarshal(
+            any(HierarchicalStreamReader.class), any(UnmarshallingContext.class)))
+        .thenAnswer(invocation -> new MetacardImpl());
+
+    String record = "<csw:Record><dc:title>Title</dc:title></csw:Record>";
+    String transaction =
+        "<csw:Transaction service=\"CSW\" version=\"2.0.2\" verboseResponse=\"true\""
+            + " xmlns:csw=\"http://www.opengis.net/cat/csw/2.0.2\""
+            + " xmlns:dc=\"http://purl.org/dc/elements/1.1/\">"
+            + "<csw:Insert handle=\"first\">"
+            + record
+            + record
+            + "</csw:Insert>"
+            + "<csw:Insert handle=\"second\">"
+            + record
+            + "</csw:Insert>"
+            + "</csw:Transaction>";
+    CswTransactionRequest request =
+        new TransactionMessageBodyReader(
+                recordConverter, CswQueryFactoryTest.getCswMetacardType(), null)
+            .readFrom(
+                CswTransactionRequest.class,
+                null,
+                null,
+                null,
+                null,
+                IOUtils.toInputStream(transaction, StandardCharsets.UTF_8));
+
+    TransactionResponseType response = csw.transaction(request);
+    assertThat(response.getTransactionSummary().getTotalInserted().intValue(), is(3));
+    assertThat(response.getInsertResult().size(), is(2));
+    verify(catalogFramework, times(2)).create(any(CreateRequest.class));
+
+    assertThat(request.getInsertActions().size(), is(2));
+    assertThat(request.getInsertActions().get(0).getHandle(), is("first"));
+    assertThat(request.getInsertActions().get(0).getRecords(), is(empty()));
+  }
+
+  @Test
+  public void testMalformedStreamingTransactionInsertsNothing() throws Exception {
+    csw.setTransactionBatchSize(1);
+    Converter recordConverter = mock(Converter.class);
+    when(recordConverter.canConvert(any(Class.class))).thenReturn(true);
+    when(recordConverter.unmarshal(
+            any(HierarchicalStreamReader.class), any(UnmarshallingContext.class)))
+        .thenAnswer(invocation -> new MetacardImpl());
+
+    String record = "<csw:Record><dc:title>Title</dc:title></csw:Record>";
+    String transaction =
+        "<csw:Transaction service=\"CSW\" version=\"2.0.2\""
+            + " xmlns:csw=\"http://www.opengis.net/cat/csw/2.0.2\""
+            + " xmlns:dc=\"http://purl.org/dc/elements/1.1/\">"
+            + "<csw:Insert handle=\"first\">"
+            + record
+            + record
+            + "</csw:Insert>"
+            + "<csw:Update><csw:Record>";
+    CswTransactionRequest request =
+        new TransactionMessageBodyReader(
+                recordConverter, CswQueryFactoryTest.getCswMetacardType(), null)
+            .readFrom(
+                CswTransactionRequest.class,
+                null,
+                null,
+                null,
+                null,
+                IOUtils.toInputStream(transaction, StandardCharsets.UTF_8));
+
+    try {
+      csw.transaction(request);
+      fail("Expected the malformed transaction to be rejected.");
+    } catch (CswException e) {
+      assertThat(e.getExceptionCode(), is(CswConstants.INVALID_PARAMETER_VALUE));
+    }
+    verify(catalogFramework, never()).create(any(CreateRequest.class));
+  }
+
   @Test
   public void testIngestVerboseTransaction()
       throws CswException, SourceUnavailableException, FederationException, IngestException {
@@ -1822,7 +1998,7 @@ public void testDeleteBatching() throws Exception {
     TransactionResponseType response = csw.transaction(deleteRequest);
     assertThat(response.getTransactionSummary().getTotalDeleted().intValue(), equalTo(800));
     verify(catalogFramework, times(4)).query(any());
-    verify(catalogFramework, times(800)).delete(any());
+    verify(catalogFramework, times(2)).delete(any());
   }
 
   @Test
@@ -14,13 +14,17 @@
 package org.codice.ddf.spatial.ogc.csw.catalog.endpoint.reader;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import com.thoughtworks.xstream.XStreamException;
 import com.thoughtworks.xstream.converters.ConversionException;
 import com.thoughtworks.xstream.converters.Converter;
 import com.thoughtworks.xstream.converters.UnmarshallingContext;
@@ -40,7 +44,9 @@
 import java.io.Serializable;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
 import net.opengis.cat.csw.v_2_0_2.QueryConstraintType;
 import net.opengis.filter.v_1_1_0.FilterType;
@@ -350,6 +356,68 @@ public void testReadInsertFrom() throws Exception {
     assertThat(request.isVerbose(), is(true));
   }
 
+  @Test
+  public void testReadInsertRecords() throws Exception {
+    Converter mockConverter = mock(Converter.class);
+    when(mockConverter.canConvert(any(Class.class))).thenReturn(true);
+    when(mockConverter.unmarshal(
+            any(HierarchicalStreamReader.class), any(UnmarshallingContext.class)))
+        .thenReturn(mock(Metacard.class));
+    TransactionMessageBodyReader reader =
+        new TransactionMessageBodyReader(
+            mockConverter, CswQueryFactoryTest.getCswMetacardType(), registry);
+    CswTransactionRequest request =
+        reader.readFrom(
+            CswTransactionRequest.class,
+            null,
+            null,
+            null,
+            null,
+            IOUtils.toInputStream(getInsertRequest(COUNT)));
+    assertThat(request, instanceOf(StreamingTransactionRequest.class));
+
+    List<InsertAction> insertActions = new ArrayList<>();
+    ((StreamingTransactionRequest) request)
+        .readInsertRecords((insertAction, record) -> insertActions.add(insertAction));
+    assertThat(insertActions.size(), is(COUNT));
+    assertThat(insertActions.get(0).getTypeName(), is(CswConstants.CSW_RECORD));
+
+    assertThat(request.getInsertActions().size(), is(1));
+    assertThat(request.getInsertActions().get(0), is(insertActions.get(0)));
+    assertThat(request.getInsertActions().get(0).getRecords().size(), is(0));
+    assertThat(request.isVerbose(), is(true));
+  }
+
+  @Test
+  public void testReadInsertRecordsFromTruncatedRequest() throws Exception {
+    Converter mockConverter = mock(Converter.class);
+    when(mockConverter.canConvert(any(Class.class))).thenReturn(true);
+    when(mockConverter.unmarshal(
+            any(HierarchicalStreamReader.class), any(UnmarshallingContext.class)))
+        .thenReturn(mock(Metacard.class));
+    TransactionMessageBodyReader reader =
+        new TransactionMessageBodyReader(
+            mockConverter, CswQueryFactoryTest.getCswMetacardType(), registry);
+    String request = getInsertRequest(COUNT);
+    StreamingTransactionRequest transactionRequest =
+        (StreamingTransactionRequest)
+            reader.readFrom(
+                CswTransactionRequest.class,
+                null,
+                null,
+                null,
+                null,
+                IOUtils.toInputStream(request.substring(0, request.length() - 40)));
+
+    List<Metacard> records = new ArrayList<>();
+    try {
+      transactionRequest.readInsertRecords((insertAction, record) -> records.add(record));
+      fail("Expected the truncated request to be rejected.");
+    } catch (XStreamException e) {
+      assertThat(records, is(empty()));
+    }
+  }
+
   @Test
   public void testReadDeleteWithFilterFrom() throws IOException {
     TransactionMessageBodyReader reader =
@@ -613,13 +681,15 @@ public void testConversionExceptionWhenNoNameInUpdateRecordProperty() throws IOE
     TransactionMessageBodyReader reader =
         new TransactionMessageBodyReader(
             mock(Converter.class), CswQueryFactoryTest.getCswMetacardType(), registry);
-    reader.readFrom(
-        CswTransactionRequest.class,
-        null,
-        null,
-        null,
-        null,
-        IOUtils.toInputStream(UPDATE_REQUEST_NO_RECORDPROPERTY_NAME_XML));
+    reader
+        .readFrom(
+            CswTransactionRequest.class,
+            null,
+            null,
+            null,
+            null,
+            IOUtils.toInputStream(UPDATE_REQUEST_NO_RECORDPROPERTY_NAME_XML))
+        .getUpdateActions();
   }
 
   @Test(expected = ConversionException.class)
@@ -627,13 +697,15 @@ public void testConversionExceptionWhenNoConstraintInUpdate() throws IOException
     TransactionMessageBodyReader reader =
         new TransactionMessageBodyReader(
             mock(Converter.class), CswQueryFactoryTest.getCswMetacardType(), registry);
-    reader.readFrom(
-        CswTransactionRequest.class,
-        null,
-        null,
-        null,
-        null,
-        IOUtils.toInputStream(UPDATE_REQUEST_NO_CONSTRAINT_XML));
+    reader
+        .readFrom(
+            CswTransactionRequest.class,
+            null,
+            null,
+            null,
+            null,
+            IOUtils.toInputStream(UPDATE_REQUEST_NO_CONSTRAINT_XML))
+        .getUpdateActions();
   }
 
   @Test(expected = ForbiddenClassException.class)
@@ -19,12 +19,14 @@
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import ddf.catalog.data.BinaryContent;
 import ddf.catalog.data.Metacard;
+import ddf.catalog.data.StreamingBinaryContent;
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.operation.SourceResponse;
 import ddf.catalog.resource.Resource;
@@ -172,6 +174,28 @@ public void testWriteToWithMimeType()
     // TODO failure case
   }
 
+  @Test
+  public void testWriteToStreamsContent()
+      throws WebApplicationException, IOException, CatalogTransformerException {
+    CswRecordCollectionMessageBodyWriter writer =
+        new CswRecordCollectionMessageBodyWriter(mockManager);
+    when(mockManager.getTransformerBySchema(anyString())).thenReturn(mockTransformer);
+    StreamingBinaryContent streamingContent = mock(StreamingBinaryContent.class);
+    when(mockTransformer.transform(any(SourceResponse.class), any(Map.class)))
+        .thenReturn(streamingContent);
+
+    CswRecordCollection collection = createCswRecordCollection(6);
+    collection.setOutputSchema(CswConstants.CSW_OUTPUT_SCHEMA);
+    collection.setResultType(ResultType.RESULTS);
+    collection.setSourceResponse(mock(SourceResponse.class));
+
+    ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    writer.writeTo(collection, null, null, null, null, null, stream);
+
+    verify(streamingContent).writeTo(stream);
+    verify(streamingContent, never()).getInputStream();
+  }
+
   @Test
   public void testWriteToProductData() throws MimeTypeParseException, IOException {
     CswRecordCollectionMessageBodyWriter writer =
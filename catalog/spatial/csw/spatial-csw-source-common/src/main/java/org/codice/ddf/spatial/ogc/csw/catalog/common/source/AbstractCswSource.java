@@ -54,6 +54,8 @@
 import ddf.security.encryption.EncryptionService;
 import ddf.security.permission.Permissions;
 import ddf.security.service.SecurityManager;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -206,6 +208,7 @@ public abstract class AbstractCswSource extends MaskableImpl
   private static final String OCTET_STREAM_OUTPUT_SCHEMA =
       "http://www.iana.org/assignments/media-types/application/octet-stream";
   private static final String ERROR_ID_PRODUCT_RETRIEVAL = "Error retrieving resource for ID: %s";
+  private static final String CAPABILITIES_FETCH_METRIC = "ddf.catalog.csw.capabilities.fetch";
   private static Properties describableProperties = new Properties();
   private static Map<String, Consumer<Object>> consumerMap = new HashMap<>();
 
@@ -643,7 +646,11 @@ protected List<Object> initProviders(
     GetRecordsMessageBodyReader grmbr =
         new GetRecordsMessageBodyReader(cswTransformProvider, cswSourceConfiguration);
 
-    return Arrays.asList(getRecordsTypeProvider, new CswResponseExceptionMapper(), grmbr);
+    return Arrays.asList(
+        getRecordsTypeProvider,
+        new CswResponseExceptionMapper(),
+        grmbr,
+        new CswCapabilitiesCache(cswSourceConfiguration.getId()));
   }
 
   /**
@@ -1539,6 +1546,7 @@ protected CapabilitiesType getCapabilities() {
     Subject subject = getSystemSubject();
     Csw csw = factory.getClientForSystemSubject(subject);
 
+    Timer.Sample sample = Timer.start(Metrics.globalRegistry);
     try {
       LOGGER.debug("Doing getCapabilities() call for CSW");
       GetCapabilitiesRequest request = new GetCapabilitiesRequest(CswConstants.CSW);
@@ -1555,6 +1563,12 @@ protected CapabilitiesType getCapabilities() {
       LOGGER.debug(handleWebApplicationException(wae), wae);
     } catch (Exception ce) {
       handleClientException(ce);
+    } finally {
+      sample.stop(
+          Timer.builder(CAPABILITIES_FETCH_METRIC)
+              .tag("source", String.valueOf(cswSourceConfiguration.getId()))
+              .publishPercentiles(0.5, 0.95)
+              .register(Metrics.globalRegistry));
     }
     return caps;
   }
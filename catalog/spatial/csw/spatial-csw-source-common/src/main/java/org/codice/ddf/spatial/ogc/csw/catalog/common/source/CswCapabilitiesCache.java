@@ -0,0 +1,191 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.spatial.ogc.csw.catalog.common.source;
+
+import io.micrometer.core.instrument.Metrics;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.client.ClientRequestFilter;
+import javax.ws.rs.client.ClientResponseContext;
+import javax.ws.rs.client.ClientResponseFilter;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.ReaderInterceptor;
+import javax.ws.rs.ext.ReaderInterceptorContext;
+import net.opengis.cat.csw.v_2_0_2.CapabilitiesType;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+import org.codice.ddf.spatial.ogc.csw.catalog.common.CswConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches the capabilities document of a CSW source so that polling the source does not parse the
+ * same document over and over.
+ *
+ * <p>GetCapabilities requests are sent with the {@code ETag} and {@code Last-Modified} values of
+ * the cached document, and a {@code 304 Not Modified} response is answered from the cache. A
+ * document that is sent again anyway is compared by digest and, if it has not changed, the cached
+ * {@link CapabilitiesType} is returned instead of parsing it again.
+ *
+ * <p>Every response is counted in the {@code ddf.catalog.csw.capabilities.responses} metric, tagged
+ * with the source id and whether it was {@code not_modified}, {@code unchanged} or {@code parsed}.
+ */
+public class CswCapabilitiesCache
+    implements ClientRequestFilter, ClientResponseFilter, ReaderInterceptor {
+
+  static final String RESPONSES_METRIC = "ddf.catalog.csw.capabilities.responses";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CswCapabilitiesCache.class);
+
+  private static final String DIGEST_ALGORITHM = "SHA-256";
+
+  private static final String GET_CAPABILITIES_QUERY = "request=" + CswConstants.GET_CAPABILITIES;
+
+  private final String sourceId;
+
+  private final ThreadLocal<Boolean> notModified = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+  private volatile CachedCapabilities cached;
+
+  /** @param sourceId id of the source, used to tag the metrics */
+  public CswCapabilitiesCache(String sourceId) {
+    this.sourceId = sourceId;
+  }
+
+  @Override
+  public void filter(ClientRequestContext requestContext) {
+    if (!isGetCapabilities(requestContext)) {
+      return;
+    }
+    notModified.set(Boolean.FALSE);
+
+    CachedCapabilities capabilities = cached;
+    if (capabilities == null) {
+      return;
+    }
+    if (capabilities.entityTag != null) {
+      requestContext.getHeaders().putSingle(HttpHeaders.IF_NONE_MATCH, capabilities.entityTag);
+    }
+    if (capabilities.lastModified != null) {
+      requestContext
+          .getHeaders()
+          .putSingle(HttpHeaders.IF_MODIFIED_SINCE, capabilities.lastModified);
+    }
+  }
+
+  @Override
+  public void filter(ClientRequestContext requestContext, ClientResponseContext responseContext) {
+    CachedCapabilities capabilities = cached;
+    if (capabilities == null
+        || responseContext.getStatus() != Response.Status.NOT_MODIFIED.getStatusCode()
+        || !isGetCapabilities(requestContext)) {
+      return;
+    }
+
+    LOGGER.debug("Capabilities of source {} have not been modified.", sourceId);
+    notModified.set(Boolean.TRUE);
+    responseContext.setStatus(Response.Status.OK.getStatusCode());
+    responseContext.getHeaders().putSingle(HttpHeaders.CONTENT_TYPE, capabilities.mediaType);
+    responseContext.setEntityStream(new ByteArrayInputStream(capabilities.document));
+  }
+
+  @Override
+  public Object aroundReadFrom(ReaderInterceptorContext context) throws IOException {
+    if (!CapabilitiesType.class.equals(context.getType())) {
+      return context.proceed();
+    }
+
+    byte[] document = IOUtils.toByteArray(context.getInputStream());
+    byte[] digest = digest(document);
+
+    CachedCapabilities capabilities = cached;
+    if (capabilities != null && MessageDigest.isEqual(capabilities.digest, digest)) {
+      boolean replayed = notModified.get();
+      notModified.set(Boolean.FALSE);
+      countResponse(replayed ? "not_modified" : "unchanged");
+      return capabilities.capabilities;
+    }
+
+    context.setInputStream(new ByteArrayInputStream(document));
+    Object parsed = context.proceed();
+    cached =
+        new CachedCapabilities(
+            parsed,
+            document,
+            digest,
+            context.getHeaders().getFirst(HttpHeaders.ETAG),
+            context.getHeaders().getFirst(HttpHeaders.LAST_MODIFIED),
+            String.valueOf(context.getMediaType()));
+    LOGGER.debug("Parsed new capabilities of source {}.", sourceId);
+    countResponse("parsed");
+    return parsed;
+  }
+
+  private boolean isGetCapabilities(ClientRequestContext requestContext) {
+    URI uri = requestContext.getUri();
+    return HttpMethod.GET.equals(requestContext.getMethod())
+        && uri != null
+        && StringUtils.containsIgnoreCase(uri.getRawQuery(), GET_CAPABILITIES_QUERY);
+  }
+
+  private void countResponse(String result) {
+    Metrics.counter(RESPONSES_METRIC, "source", String.valueOf(sourceId), "result", result)
+        .increment();
+  }
+
+  private static byte[] digest(byte[] document) {
+    try {
+      return MessageDigest.getInstance(DIGEST_ALGORITHM).digest(document);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(DIGEST_ALGORITHM + " is not supported", e);
+    }
+  }
+
+  /** A parsed capabilities document along with what is needed to revalidate it. */
+  private static class CachedCapabilities {
+
+    private final Object capabilities;
+
+    private final byte[] document;
+
+    private final byte[] digest;
+
+    private final String entityTag;
+
+    private final String lastModified;
+
+    private final String mediaType;
+
+    CachedCapabilities(
+        Object capabilities,
+        byte[] document,
+        byte[] digest,
+        String entityTag,
+        String lastModified,
+        String mediaType) {
+      this.capabilities = capabilities;
+      this.document = document;
+      this.digest = digest;
+      this.entityTag = entityTag;
+      this.lastModified = lastModified;
+      this.mediaType = mediaType;
+    }
+  }
+}
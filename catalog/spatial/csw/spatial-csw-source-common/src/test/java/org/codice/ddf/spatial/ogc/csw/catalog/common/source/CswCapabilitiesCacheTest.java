@@ -0,0 +1,160 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.spatial.ogc.csw.catalog.common.source;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.client.ClientResponseContext;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.ReaderInterceptorContext;
+import net.opengis.cat.csw.v_2_0_2.CapabilitiesType;
+import org.apache.commons.io.IOUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+public class CswCapabilitiesCacheTest {
+
+  private static final String DOCUMENT = "<csw:Capabilities version=\"2.0.2\"/>";
+
+  private static final String CHANGED_DOCUMENT = "<csw:Capabilities version=\"2.0.1\"/>";
+
+  private static final URI GET_CAPABILITIES_URI =
+      URI.create("http://localhost/csw?service=CSW&request=GetCapabilities");
+
+  private CswCapabilitiesCache cache;
+
+  private ClientRequestContext requestContext;
+
+  private MultivaluedMap<String, Object> requestHeaders;
+
+  @Before
+  public void setUp() {
+    cache = new CswCapabilitiesCache("cswSource");
+    requestHeaders = new MultivaluedHashMap<>();
+    requestContext = mock(ClientRequestContext.class);
+    when(requestContext.getMethod()).thenReturn(HttpMethod.GET);
+    when(requestContext.getUri()).thenReturn(GET_CAPABILITIES_URI);
+    when(requestContext.getHeaders()).thenReturn(requestHeaders);
+  }
+
+  @Test
+  public void testUnchangedDocumentIsNotParsedAgain() throws Exception {
+    CapabilitiesType capabilities = new CapabilitiesType();
+    ReaderInterceptorContext first = readerContext(DOCUMENT, capabilities);
+    assertThat(cache.aroundReadFrom(first), is(sameInstance(capabilities)));
+    verify(first).proceed();
+
+    ReaderInterceptorContext second = readerContext(DOCUMENT, new CapabilitiesType());
+    assertThat(cache.aroundReadFrom(second), is(sameInstance(capabilities)));
+    verify(second, never()).proceed();
+
+    CapabilitiesType changedCapabilities = new CapabilitiesType();
+    ReaderInterceptorContext changed = readerContext(CHANGED_DOCUMENT, changedCapabilities);
+    assertThat(cache.aroundReadFrom(changed), is(sameInstance(changedCapabilities)));
+    verify(changed).proceed();
+  }
+
+  @Test
+  public void testConditionalRequestHeaders() throws Exception {
+    cache.filter(requestContext);
+    assertThat(requestHeaders.isEmpty(), is(true));
+
+    cache.aroundReadFrom(readerContext(DOCUMENT, new CapabilitiesType()));
+    cache.filter(requestContext);
+    assertThat((String) requestHeaders.getFirst(HttpHeaders.IF_NONE_MATCH), is("\"v1\""));
+    assertThat(
+        (String) requestHeaders.getFirst(HttpHeaders.IF_MODIFIED_SINCE),
+        is("Wed, 21 Oct 2015 07:28:00 GMT"));
+  }
+
+  @Test
+  public void testOtherRequestsAreNotConditional() throws Exception {
+    cache.aroundReadFrom(readerContext(DOCUMENT, new CapabilitiesType()));
+
+    when(requestContext.getUri())
+        .thenReturn(URI.create("http://localhost/csw?service=CSW&request=GetRecordById"));
+    cache.filter(requestContext);
+    assertThat(requestHeaders.isEmpty(), is(true));
+  }
+
+  @Test
+  public void testNotModifiedResponseIsAnsweredFromCache() throws Exception {
+    CapabilitiesType capabilities = new CapabilitiesType();
+    cache.aroundReadFrom(readerContext(DOCUMENT, capabilities));
+
+    MultivaluedMap<String, String> responseHeaders = new MultivaluedHashMap<>();
+    ClientResponseContext responseContext = mock(ClientResponseContext.class);
+    when(responseContext.getStatus()).thenReturn(304);
+    when(responseContext.getHeaders()).thenReturn(responseHeaders);
+    cache.filter(requestContext);
+    cache.filter(requestContext, responseContext);
+
+    verify(responseContext).setStatus(200);
+    assertThat(responseHeaders.getFirst(HttpHeaders.CONTENT_TYPE), is(MediaType.TEXT_XML));
+    ArgumentCaptor<InputStream> entityStream = ArgumentCaptor.forClass(InputStream.class);
+    verify(responseContext).setEntityStream(entityStream.capture());
+    String replayed = IOUtils.toString(entityStream.getValue(), StandardCharsets.UTF_8);
+    assertThat(replayed, is(DOCUMENT));
+
+    ReaderInterceptorContext replay = readerContext(replayed, new CapabilitiesType());
+    assertThat(cache.aroundReadFrom(replay), is(sameInstance(capabilities)));
+    verify(replay, never()).proceed();
+  }
+
+  @Test
+  public void testOtherTypesAreNotCached() throws Exception {
+    ReaderInterceptorContext context = mock(ReaderInterceptorContext.class);
+    when(context.getType()).thenReturn((Class) String.class);
+    when(context.proceed()).thenReturn("response");
+
+    assertThat(cache.aroundReadFrom(context), is("response"));
+    assertThat(cache.aroundReadFrom(context), is("response"));
+    verify(context, times(2)).proceed();
+    verify(context, never()).setInputStream(any(InputStream.class));
+  }
+
+  private ReaderInterceptorContext readerContext(String document, Object capabilities)
+      throws Exception {
+    MultivaluedMap<String, String> headers = new MultivaluedHashMap<>();
+    headers.putSingle(HttpHeaders.ETAG, "\"v1\"");
+    headers.putSingle(HttpHeaders.LAST_MODIFIED, "Wed, 21 Oct 2015 07:28:00 GMT");
+
+    ReaderInterceptorContext context = mock(ReaderInterceptorContext.class);
+    when(context.getType()).thenReturn((Class) CapabilitiesType.class);
+    when(context.getInputStream())
+        .thenReturn(new ByteArrayInputStream(document.getBytes(StandardCharsets.UTF_8)));
+    when(context.getHeaders()).thenReturn(headers);
+    when(context.getMediaType()).thenReturn(MediaType.TEXT_XML_TYPE);
+    when(context.proceed()).thenReturn(capabilities);
+    return context;
+  }
+}
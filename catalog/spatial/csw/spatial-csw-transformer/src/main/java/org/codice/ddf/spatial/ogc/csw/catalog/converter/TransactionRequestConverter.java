@@ -35,6 +35,7 @@
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.function.BiConsumer;
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBElement;
 import javax.xml.bind.JAXBException;
@@ -57,6 +58,13 @@
 import org.codice.ddf.spatial.ogc.csw.catalog.common.transformer.TransformerManager;
 
 public class TransactionRequestConverter implements Converter {
+  /**
+   * Unmarshalling context key for a {@code BiConsumer<InsertAction, Metacard>} that is given each
+   * insert record as soon as it is converted. When it is set, the records are not kept in the
+   * {@link InsertAction}s of the unmarshalled request.
+   */
+  public static final String INSERT_RECORD_HANDLER = "insertRecordHandler";
+
   private static JAXBContext jaxBContext;
 
   private Converter delegatingTransformer;
@@ -150,22 +158,24 @@ public Object unmarshal(HierarchicalStreamReader reader, UnmarshallingContext co
             StringUtils.defaultIfEmpty(reader.getAttribute(CswConstants.HANDLE_PARAMETER), "");
         context.put(CswConstants.TRANSFORMER_LOOKUP_KEY, TransformerManager.ID);
         context.put(CswConstants.TRANSFORMER_LOOKUP_VALUE, typeName);
+        BiConsumer<InsertAction, Metacard> recordHandler = getInsertRecordHandler(context);
         List<Metacard> metacards = new ArrayList<>();
+        InsertAction insertAction = new InsertActionImpl(typeName, handle, metacards);
         // Loop through the individual records to be inserted, converting each into a Metacard
         while (reader.hasMoreChildren()) {
           reader.moveDown(); // move down to the record's tag
           Metacard metacard =
               (Metacard) context.convertAnother(null, MetacardImpl.class, delegatingTransformer);
-          if (metacard != null) {
+          if (metacard != null && recordHandler != null) {
+            recordHandler.accept(insertAction, metacard);
+          } else if (metacard != null) {
             metacards.add(metacard);
           }
 
           // move back up to the <SearchResults> parent of the <csw:Record> tags
           reader.moveUp();
         }
-        cswTransactionRequest
-            .getInsertActions()
-            .add(new InsertActionImpl(typeName, handle, metacards));
+        cswTransactionRequest.getInsertActions().add(insertAction);
       } else if (reader.getNodeName().contains("Delete")) {
         XStreamAttributeCopier.copyXmlNamespaceDeclarationsIntoContext(reader, context);
 
@@ -193,6 +203,14 @@ public Object unmarshal(HierarchicalStreamReader reader, UnmarshallingContext co
     return cswTransactionRequest;
   }
 
+  @SuppressWarnings("unchecked")
+  private BiConsumer<InsertAction, Metacard> getInsertRecordHandler(UnmarshallingContext context) {
+    Object recordHandler = context.get(INSERT_RECORD_HANDLER);
+    return recordHandler instanceof BiConsumer
+        ? (BiConsumer<InsertAction, Metacard>) recordHandler
+        : null;
+  }
+
   private UpdateAction parseUpdateAction(
       HierarchicalStreamReader reader, UnmarshallingContext context) {
     Map<String, String> xmlnsAttributeToUriMappings =
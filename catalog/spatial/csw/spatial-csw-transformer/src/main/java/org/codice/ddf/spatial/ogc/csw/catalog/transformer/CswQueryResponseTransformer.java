@@ -13,28 +13,35 @@
  */
 package org.codice.ddf.spatial.ogc.csw.catalog.transformer;
 
+import com.thoughtworks.xstream.io.StreamException;
 import ddf.catalog.data.BinaryContent;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
 import ddf.catalog.data.impl.BinaryContentImpl;
+import ddf.catalog.data.impl.StreamingBinaryContentImpl;
 import ddf.catalog.operation.SourceResponse;
 import ddf.catalog.transform.CatalogTransformerException;
 import ddf.catalog.transform.MetacardTransformer;
 import ddf.catalog.transform.QueryResponseTransformer;
 import ddf.catalog.transformer.api.PrintWriter;
 import ddf.catalog.transformer.api.PrintWriterProvider;
+import java.io.BufferedWriter;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
-import java.io.CharArrayWriter;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Serializable;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.GregorianCalendar;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
@@ -44,6 +51,7 @@
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 import javax.xml.XMLConstants;
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBElement;
@@ -58,7 +66,6 @@
 import net.opengis.cat.csw.v_2_0_2.GetRecordsType;
 import net.opengis.cat.csw.v_2_0_2.ObjectFactory;
 import net.opengis.cat.csw.v_2_0_2.ResultType;
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.CswConstants;
@@ -126,8 +133,6 @@ public class CswQueryResponseTransformer implements QueryResponseTransformer {
 
   private static final int BLOCKING_Q_INITIAL_SIZE = 1024;
 
-  private static final int ACCUM_INITIAL_SIZE = 4096;
-
   public CswQueryResponseTransformer(
       TransformerManager metacardTransformerManager, PrintWriterProvider writerProvider) {
     this.metacardTransformerManager = metacardTransformerManager;
@@ -142,105 +147,115 @@ public BinaryContent transform(SourceResponse sourceResponse, Map<String, Serial
 
     CswRecordCollection recordCollection = buildCollection(sourceResponse, arguments);
 
-    ByteArrayInputStream bais;
-
     if (ResultType.VALIDATE.equals(recordCollection.getResultType())) {
       ByteArrayOutputStream baos = writeAcknowledgement(recordCollection.getRequest());
-      bais = new ByteArrayInputStream(baos.toByteArray());
-    } else {
-      // "catches" recordCollection.getResultType() == null
-      List<Result> results = sourceResponse.getResults();
-      String xmlString = convert(recordCollection, results, arguments);
-      bais = new ByteArrayInputStream(xmlString.getBytes(StandardCharsets.UTF_8));
+      return new BinaryContentImpl(
+          new ByteArrayInputStream(baos.toByteArray()), CswRecordConverter.XML_MIME_TYPE);
+    }
+
+    // "catches" recordCollection.getResultType() == null
+    AtomicLong numReturned = new AtomicLong(recordCollection.getNumberOfRecordsReturned());
+    List<byte[]> records = Collections.emptyList();
+
+    // The records are transformed before anything is written because the number of records
+    // returned, which is written before them, depends on how many of them could be transformed.
+    if (!ResultType.HITS.equals(recordCollection.getResultType())) {
+      arguments.put(CswConstants.OMIT_XML_DECLARATION, Boolean.TRUE);
+      records =
+          multiThreadedMarshal(
+              sourceResponse.getResults(),
+              numReturned,
+              recordCollection.getOutputSchema(),
+              arguments);
     }
 
-    BinaryContent transformedContent =
-        new BinaryContentImpl(bais, CswRecordConverter.XML_MIME_TYPE);
-    return transformedContent;
+    List<byte[]> transformedRecords = records;
+    return new StreamingBinaryContentImpl(
+        outputStream ->
+            writeResponse(recordCollection, transformedRecords, numReturned.get(), outputStream),
+        CswRecordConverter.XML_MIME_TYPE);
   }
 
-  private String convert(
+  private void writeResponse(
       CswRecordCollection cswRecordCollection,
-      List<Result> results,
-      Map<String, Serializable> arguments)
-      throws CatalogTransformerException {
+      List<byte[]> records,
+      long numReturned,
+      OutputStream outputStream)
+      throws IOException {
+    Writer out = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
 
-    PrintWriter writer = writerProvider.build(Metacard.class);
-    writer.setRawValue(XML_DECL);
-
-    if (cswRecordCollection.isById()) {
-      writer.startNode(RECORD_BY_ID_RESPONSE_QNAME);
-    } else {
-      writer.startNode(RECORDS_RESPONSE_QNAME);
-    }
+    try {
+      PrintWriter writer = writerProvider.build(Metacard.class, out);
+      writer.setRawValue(XML_DECL);
 
-    for (Map.Entry<String, String> entry :
-        DefaultCswRecordMap.getDefaultCswRecordMap().getPrefixToUriMapping().entrySet()) {
-      writer.addAttribute(XML_PREFIX + entry.getKey(), entry.getValue());
-    }
+      if (cswRecordCollection.isById()) {
+        writer.startNode(RECORD_BY_ID_RESPONSE_QNAME);
+      } else {
+        writer.startNode(RECORDS_RESPONSE_QNAME);
+      }
 
-    long start =
-        (cswRecordCollection.getStartPosition() > 0) ? cswRecordCollection.getStartPosition() : 1;
-    long nextRecord = start + cswRecordCollection.getNumberOfRecordsReturned();
-    if (nextRecord > cswRecordCollection.getNumberOfRecordsMatched()) {
-      nextRecord = 0;
-    }
+      for (Map.Entry<String, String> entry :
+          DefaultCswRecordMap.getDefaultCswRecordMap().getPrefixToUriMapping().entrySet()) {
+        writer.addAttribute(XML_PREFIX + entry.getKey(), entry.getValue());
+      }
 
-    String metacardsString = null;
-    AtomicLong numReturned = new AtomicLong(cswRecordCollection.getNumberOfRecordsReturned());
+      long start =
+          (cswRecordCollection.getStartPosition() > 0) ? cswRecordCollection.getStartPosition() : 1;
+      long nextRecord = start + cswRecordCollection.getNumberOfRecordsReturned();
+      if (nextRecord > cswRecordCollection.getNumberOfRecordsMatched()) {
+        nextRecord = 0;
+      }
 
-    if (!ResultType.HITS.equals(cswRecordCollection.getResultType())) {
-      arguments.put(CswConstants.OMIT_XML_DECLARATION, Boolean.TRUE);
-      metacardsString =
-          multiThreadedMarshal(
-              results, numReturned, cswRecordCollection.getOutputSchema(), arguments);
-    }
+      if (!cswRecordCollection.isById()) {
+        writer.addAttribute(VERSION_ATTRIBUTE, CswConstants.VERSION_2_0_2);
 
-    if (!cswRecordCollection.isById()) {
-      writer.addAttribute(VERSION_ATTRIBUTE, CswConstants.VERSION_2_0_2);
+        if (cswRecordCollection.getRequest() != null
+            && StringUtils.isNotBlank(cswRecordCollection.getRequest().getRequestId())) {
+          writer.startNode(REQUEST_ID_QNAME);
+          writer.setValue(cswRecordCollection.getRequest().getRequestId());
+          writer.endNode();
+        }
 
-      if (cswRecordCollection.getRequest() != null
-          && StringUtils.isNotBlank(cswRecordCollection.getRequest().getRequestId())) {
-        writer.startNode(REQUEST_ID_QNAME);
-        writer.setValue(cswRecordCollection.getRequest().getRequestId());
+        writer.startNode(SEARCH_STATUS_QNAME);
+        writer.addAttribute(
+            TIMESTAMP_ATTRIBUTE, ISODateTimeFormat.dateTime().print(new DateTime()));
         writer.endNode();
-      }
 
-      writer.startNode(SEARCH_STATUS_QNAME);
-      writer.addAttribute(TIMESTAMP_ATTRIBUTE, ISODateTimeFormat.dateTime().print(new DateTime()));
-      writer.endNode();
+        writer.startNode(SEARCH_RESULTS_QNAME);
+        writer.addAttribute(
+            NUMBER_OF_RECORDS_MATCHED_ATTRIBUTE,
+            Long.toString(cswRecordCollection.getNumberOfRecordsMatched()));
 
-      writer.startNode(SEARCH_RESULTS_QNAME);
-      writer.addAttribute(
-          NUMBER_OF_RECORDS_MATCHED_ATTRIBUTE,
-          Long.toString(cswRecordCollection.getNumberOfRecordsMatched()));
+        if (ResultType.HITS.equals(cswRecordCollection.getResultType())) {
+          writer.addAttribute(NUMBER_OF_RECORDS_RETURNED_ATTRIBUTE, Long.toString(0));
+        } else {
+          writer.addAttribute(NUMBER_OF_RECORDS_RETURNED_ATTRIBUTE, Long.toString(numReturned));
+          writer.addAttribute(NEXT_RECORD_ATTRIBUTE, Long.toString(nextRecord));
+        }
 
-      if (ResultType.HITS.equals(cswRecordCollection.getResultType())) {
-        writer.addAttribute(NUMBER_OF_RECORDS_RETURNED_ATTRIBUTE, Long.toString(0));
-      } else {
-        writer.addAttribute(NUMBER_OF_RECORDS_RETURNED_ATTRIBUTE, numReturned.toString());
-        writer.addAttribute(NEXT_RECORD_ATTRIBUTE, Long.toString(nextRecord));
-      }
+        writer.addAttribute(RECORD_SCHEMA_ATTRIBUTE, cswRecordCollection.getOutputSchema());
 
-      writer.addAttribute(RECORD_SCHEMA_ATTRIBUTE, cswRecordCollection.getOutputSchema());
+        if (cswRecordCollection.getElementSetType() != null
+            && StringUtils.isNotBlank(cswRecordCollection.getElementSetType().value())) {
+          writer.addAttribute(
+              ELEMENT_SET_ATTRIBUTE, cswRecordCollection.getElementSetType().value());
+        }
+      }
 
-      if (cswRecordCollection.getElementSetType() != null
-          && StringUtils.isNotBlank(cswRecordCollection.getElementSetType().value())) {
-        writer.addAttribute(ELEMENT_SET_ATTRIBUTE, cswRecordCollection.getElementSetType().value());
+      for (byte[] record : records) {
+        writer.setRawValue(new String(record, StandardCharsets.UTF_8));
       }
-    }
 
-    if (!ResultType.HITS.equals(cswRecordCollection.getResultType())) {
-      writer.setRawValue(metacardsString);
-    }
+      if (!cswRecordCollection.isById()) {
+        writer.endNode(); // SEARCH_RESULTS_QNAME
+      }
 
-    if (!cswRecordCollection.isById()) {
-      writer.endNode(); // SEARCH_RESULTS_QNAME
+      writer.endNode(); // RECORDS_RESPONSE_QNAME
+      writer.flush();
+    } catch (StreamException e) {
+      LOGGER.debug("Failed to write CSW response", e);
+      throw new IOException("Failed to write CSW response", e.getCause());
     }
-
-    writer.endNode(); // RECORDS_RESPONSE_QNAME
-
-    return writer.makeString();
   }
 
   /**
@@ -251,10 +266,10 @@ private String convert(
    * @param results - the list of results to marshal
    * @param recordSchema - the schema
    * @param arguments - additional args
-   * @return - the marshaled results
+   * @return - the marshaled results, in the order of the results, without the ones that failed
    * @throws CatalogTransformerException
    */
-  private String multiThreadedMarshal(
+  private List<byte[]> multiThreadedMarshal(
       List<Result> results,
       AtomicLong numResults,
       String recordSchema,
@@ -285,15 +300,15 @@ private String multiThreadedMarshal(
           result);
     }
 
-    InputStream[] contents = new InputStream[results.size()];
+    byte[][] contents = new byte[results.size()][];
 
     while (!futures.isEmpty()) {
       try {
         Future<BinaryContent> completedFuture = completionService.take();
         int index = results.indexOf(futures.get(completedFuture));
         try {
-          contents[index] = completedFuture.get().getInputStream();
-        } catch (ExecutionException | CancellationException e) {
+          contents[index] = completedFuture.get().getByteArray();
+        } catch (ExecutionException | CancellationException | IOException e) {
           LOGGER.debug("Error transforming Metacard", e);
           numResults.decrementAndGet();
         } catch (InterruptedException e) {
@@ -310,18 +325,7 @@ private String multiThreadedMarshal(
       }
     }
 
-    CharArrayWriter accum = new CharArrayWriter(ACCUM_INITIAL_SIZE);
-    for (InputStream is : contents) {
-      try {
-        if (is != null) {
-          IOUtils.copy(is, accum);
-        }
-      } catch (IOException e) {
-        LOGGER.debug("Error copying Metacard Binary content", e);
-      }
-    }
-
-    return accum.toString();
+    return Arrays.stream(contents).filter(Objects::nonNull).collect(Collectors.toList());
   } // end multiThreadedMarshal()
 
   private boolean isByIdQuery(Map<String, Serializable> arguments) {
@@ -32,6 +32,7 @@
 import ddf.catalog.data.BinaryContent;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
+import ddf.catalog.data.StreamingBinaryContent;
 import ddf.catalog.data.impl.BinaryContentImpl;
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.data.impl.ResultImpl;
@@ -48,6 +49,8 @@
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.math.BigInteger;
 import java.util.Collections;
 import java.util.HashMap;
@@ -181,8 +184,8 @@ public void whenNullQueryThenThrowException() throws CatalogTransformerException
   public void whenQueryByIdThenExpectOnlyOneXMLNode()
       throws CatalogTransformerException, IOException {
     // when
-    when(mockPrintWriterProvider.build((Class<Metacard>) notNull())).thenReturn(mockPrintWriter);
-    when(mockPrintWriter.makeString()).thenReturn(new String());
+    when(mockPrintWriterProvider.build((Class<Metacard>) notNull(), any(Writer.class)))
+        .thenReturn(mockPrintWriter);
 
     when(mockSourceResponse.getResults()).thenReturn(Collections.emptyList());
     when(mockSourceResponse.getRequest()).thenReturn(mockQueryRequest);
@@ -196,6 +199,7 @@ public void whenQueryByIdThenExpectOnlyOneXMLNode()
     transformer.init();
     BinaryContent bc = transformer.transform(mockSourceResponse, mockArguments);
     transformer.destroy();
+    bc.getByteArray();
 
     // then
     ArgumentCaptor<String> strArgCaptor = ArgumentCaptor.forClass(String.class);
@@ -212,8 +216,8 @@ public void whenQueryByIdThenExpectOnlyOneXMLNode()
   public void whenQueryByHitsThenTransformZeroMetacards()
       throws CatalogTransformerException, IOException {
     // when
-    when(mockPrintWriterProvider.build((Class<Metacard>) notNull())).thenReturn(mockPrintWriter);
-    when(mockPrintWriter.makeString()).thenReturn(new String());
+    when(mockPrintWriterProvider.build((Class<Metacard>) notNull(), any(Writer.class)))
+        .thenReturn(mockPrintWriter);
 
     when(mockSourceResponse.getResults()).thenReturn(createResults(1, 10));
     when(mockSourceResponse.getRequest()).thenReturn(mockQueryRequest);
@@ -222,7 +226,7 @@ public void whenQueryByHitsThenTransformZeroMetacards()
 
     // given
     transformer.init();
-    transformer.transform(mockSourceResponse, mockArguments);
+    transformer.transform(mockSourceResponse, mockArguments).getByteArray();
     transformer.destroy();
 
     // then
@@ -251,8 +255,8 @@ public void whenQueryByHitsThenTransformZeroMetacards()
   public void whenEmptyResultListThenTransformZeroMetacards()
       throws CatalogTransformerException, IOException {
     // when
-    when(mockPrintWriterProvider.build((Class<Metacard>) notNull())).thenReturn(mockPrintWriter);
-    when(mockPrintWriter.makeString()).thenReturn(new String());
+    when(mockPrintWriterProvider.build((Class<Metacard>) notNull(), any(Writer.class)))
+        .thenReturn(mockPrintWriter);
     when(mockSourceResponse.getResults()).thenReturn(Collections.emptyList());
     when(mockSourceResponse.getRequest()).thenReturn(mockQueryRequest);
     when(mockQueryRequest.getQuery()).thenReturn(mockQuery);
@@ -262,7 +266,7 @@ public void whenEmptyResultListThenTransformZeroMetacards()
 
     // given
     transformer.init();
-    transformer.transform(mockSourceResponse, mockArguments);
+    transformer.transform(mockSourceResponse, mockArguments).getByteArray();
     transformer.destroy();
 
     // then
@@ -278,8 +282,8 @@ public void whenEmptyResultListThenTransformZeroMetacards()
   public void whenEmptyResultListExpectOnlyThreeXMLNodes()
       throws CatalogTransformerException, IOException {
     // when
-    when(mockPrintWriterProvider.build((Class<Metacard>) notNull())).thenReturn(mockPrintWriter);
-    when(mockPrintWriter.makeString()).thenReturn(new String());
+    when(mockPrintWriterProvider.build((Class<Metacard>) notNull(), any(Writer.class)))
+        .thenReturn(mockPrintWriter);
     when(mockSourceResponse.getResults()).thenReturn(Collections.emptyList());
     when(mockSourceResponse.getRequest()).thenReturn(mockQueryRequest);
     when(mockQueryRequest.getQuery()).thenReturn(mockQuery);
@@ -289,7 +293,7 @@ public void whenEmptyResultListExpectOnlyThreeXMLNodes()
 
     // given
     transformer.init();
-    transformer.transform(mockSourceResponse, mockArguments);
+    transformer.transform(mockSourceResponse, mockArguments).getByteArray();
     transformer.destroy();
 
     // then
@@ -356,7 +360,6 @@ public void testMarshalAcknowledgementWithFailedTransforms()
     args.put(CswConstants.RESULT_TYPE_PARAMETER, ResultType.RESULTS);
     args.put(CswConstants.GET_RECORDS, query);
 
-    PrintWriter printWriter = getSimplePrintWriter();
     MetacardTransformer mockMetacardTransformer = mock(MetacardTransformer.class);
 
     final AtomicLong atomicLong = new AtomicLong(0);
@@ -375,7 +378,8 @@ public void testMarshalAcknowledgementWithFailedTransforms()
               return bci;
             });
 
-    when(mockPrintWriterProvider.build((Class<Metacard>) notNull())).thenReturn(printWriter);
+    when(mockPrintWriterProvider.build((Class<Metacard>) notNull(), any(Writer.class)))
+        .thenAnswer(invocationOnMock -> getSimplePrintWriter(invocationOnMock.getArgument(1)));
     when(mockTransformerManager.getTransformerBySchema(anyString()))
         .thenReturn(mockMetacardTransformer);
 
@@ -385,6 +389,7 @@ public void testMarshalAcknowledgementWithFailedTransforms()
     BinaryContent content = cswQueryResponseTransformer.transform(sourceResponse, args);
     cswQueryResponseTransformer.destroy();
 
+    assertThat(content, is(instanceOf(StreamingBinaryContent.class)));
     String xml = new String(content.getByteArray());
     assertThat(
         xml,
@@ -398,8 +403,8 @@ public void testMarshalAcknowledgementWithFailedTransforms()
   @Test
   public void verifyResultOrderIsMaintained() throws CatalogTransformerException, IOException {
     // when
-    when(mockPrintWriterProvider.build((Class<Metacard>) notNull())).thenReturn(mockPrintWriter);
-    when(mockPrintWriter.makeString()).thenReturn(new String());
+    when(mockPrintWriterProvider.build((Class<Metacard>) notNull(), any(Writer.class)))
+        .thenReturn(mockPrintWriter);
     when(mockSourceResponse.getResults()).thenReturn(createResults(1, 10));
     when(mockSourceResponse.getRequest()).thenReturn(mockQueryRequest);
     when(mockQueryRequest.getQuery()).thenReturn(mockQuery);
@@ -421,7 +426,7 @@ public void verifyResultOrderIsMaintained() throws CatalogTransformerException,
 
     // given
     transformer.init();
-    transformer.transform(mockSourceResponse, mockArguments);
+    transformer.transform(mockSourceResponse, mockArguments).getByteArray();
     transformer.destroy();
 
     // then
@@ -433,8 +438,8 @@ public void verifyResultOrderIsMaintained() throws CatalogTransformerException,
     verify(mockMetacardTransformer, times(10)).transform(mcCaptor.capture(), mapCaptor.capture());
 
     ArgumentCaptor<String> strCaptor = ArgumentCaptor.forClass(String.class);
-    verify(mockPrintWriter, times(2)).setRawValue(strCaptor.capture());
-    String order = strCaptor.getAllValues().get(1);
+    verify(mockPrintWriter, times(11)).setRawValue(strCaptor.capture());
+    String order = String.join("", strCaptor.getAllValues().subList(1, 11));
     String[] ids = order.split(",");
     for (int i = 1; i < ids.length; i++) {
       assertThat(ids[i - 1], is(String.valueOf("id_" + i)));
@@ -494,48 +499,52 @@ private JAXBContext getJaxBContext() throws JAXBException {
     return context;
   }
 
-  private PrintWriter getSimplePrintWriter() {
+  private PrintWriter getSimplePrintWriter(Writer writer) {
     return new PrintWriter() {
 
-      StringBuilder stringBuilder = new StringBuilder();
-
       @Override
       public void setRawValue(String s) {
-        stringBuilder.append(s);
+        write(s);
       }
 
       @Override
       public String makeString() {
-        return stringBuilder.toString();
+        return writer.toString();
       }
 
       @Override
       public void startNode(String s, Class aClass) {
-        stringBuilder.append(s);
+        write(s);
       }
 
       @Override
       public void startNode(String s) {
-        stringBuilder.append(s);
+        write(s);
       }
 
       @Override
       public void addAttribute(String s, String s1) {
-        stringBuilder.append(s);
-        stringBuilder.append(" ");
-        stringBuilder.append(s1);
+        write(s);
+        write(" ");
+        write(s1);
       }
 
       @Override
       public void setValue(String s) {
-        stringBuilder.append(s);
+        write(s);
       }
 
       @Override
       public void endNode() {}
 
       @Override
-      public void flush() {}
+      public void flush() {
+        try {
+          writer.flush();
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }
 
       @Override
       public void close() {}
@@ -544,6 +553,14 @@ public void close() {}
       public HierarchicalStreamWriter underlyingWriter() {
         return null;
       }
+
+      private void write(String s) {
+        try {
+          writer.write(s);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }
     };
   }
 }
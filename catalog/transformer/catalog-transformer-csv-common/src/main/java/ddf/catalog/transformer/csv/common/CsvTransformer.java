@@ -22,11 +22,15 @@
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.MetacardType;
 import ddf.catalog.data.impl.BinaryContentImpl;
+import ddf.catalog.data.impl.StreamingBinaryContentImpl;
 import ddf.catalog.transform.CatalogTransformerException;
+import java.io.BufferedWriter;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStreamWriter;
 import java.io.Serializable;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.util.Iterator;
 import java.util.List;
@@ -37,8 +41,6 @@
 import javax.activation.MimeTypeParseException;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /**
  * Common Library used to transform {@link Metacard}s into CSV text.
@@ -51,8 +53,6 @@
  */
 public class CsvTransformer {
 
-  private static final Logger LOGGER = LoggerFactory.getLogger(CsvTransformer.class);
-
   private static final MimeType CSV_MIME_TYPE;
 
   static {
@@ -71,6 +71,23 @@ public static BinaryContent createResponse(final Appendable csv) {
     return new BinaryContentImpl(inputStream, CSV_MIME_TYPE);
   }
 
+  /**
+   * Creates a response that writes the metacards as CSV to the stream it is sent to, instead of
+   * building the whole CSV in memory first.
+   */
+  public static BinaryContent createStreamingResponse(
+      final List<Metacard> metacards,
+      final List<AttributeDescriptor> orderedAttributeDescriptors,
+      final Map<String, String> aliasMap) {
+    return new StreamingBinaryContentImpl(
+        outputStream -> {
+          Writer writer =
+              new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+          writeMetacardsToCsv(metacards, orderedAttributeDescriptors, aliasMap, writer);
+        },
+        CSV_MIME_TYPE);
+  }
+
   public static Appendable writeMetacardsToCsv(
       final List<Metacard> metacards,
       final List<AttributeDescriptor> orderedAttributeDescriptors,
@@ -79,18 +96,34 @@ public static Appendable writeMetacardsToCsv(
     StringBuilder stringBuilder = new StringBuilder();
 
     try {
-      CSVPrinter csvPrinter = new CSVPrinter(stringBuilder, CSVFormat.RFC4180);
-      printColumnHeaders(csvPrinter, orderedAttributeDescriptors, aliasMap);
-
-      metacards.forEach(
-          metacard -> printMetacard(csvPrinter, metacard, orderedAttributeDescriptors));
-
-      return csvPrinter.getOut();
+      writeMetacardsToCsv(metacards, orderedAttributeDescriptors, aliasMap, stringBuilder);
+      return stringBuilder;
     } catch (IOException ioe) {
       throw new CatalogTransformerException(ioe);
     }
   }
 
+  /**
+   * Writes the metacards as CSV to the given {@link Appendable}, which is flushed but not closed.
+   *
+   * @throws IOException if the CSV could not be written to the {@link Appendable}
+   */
+  public static void writeMetacardsToCsv(
+      final List<Metacard> metacards,
+      final List<AttributeDescriptor> orderedAttributeDescriptors,
+      final Map<String, String> aliasMap,
+      final Appendable appendable)
+      throws IOException {
+    CSVPrinter csvPrinter = new CSVPrinter(appendable, CSVFormat.RFC4180);
+    printColumnHeaders(csvPrinter, orderedAttributeDescriptors, aliasMap);
+
+    for (Metacard metacard : metacards) {
+      printMetacard(csvPrinter, metacard, orderedAttributeDescriptors);
+    }
+
+    csvPrinter.flush();
+  }
+
   private static boolean attributeNotBinary(AttributeDescriptor attributeDescriptor) {
     return !AttributeType.AttributeFormat.BINARY.equals(
         attributeDescriptor.getType().getAttributeFormat());
@@ -104,36 +137,21 @@ private static boolean attributeNotObject(AttributeDescriptor attributeDescripto
   private static void printMetacard(
       final CSVPrinter csvPrinter,
       final Metacard metacard,
-      final List<AttributeDescriptor> orderedAttributeDescriptors) {
+      final List<AttributeDescriptor> orderedAttributeDescriptors)
+      throws IOException {
     Iterator<Serializable> metacardIterator =
         new MetacardIterator(metacard, orderedAttributeDescriptors);
-    printMetacardData(csvPrinter, metacardIterator, metacard);
+    csvPrinter.printRecord(() -> metacardIterator);
   }
 
   private static void printColumnHeaders(
       final CSVPrinter csvPrinter,
       final List<AttributeDescriptor> orderedAttributeDescriptors,
-      final Map<String, String> aliasMap) {
+      final Map<String, String> aliasMap)
+      throws IOException {
     Iterator<String> columnHeaderIterator =
         new ColumnHeaderIterator(orderedAttributeDescriptors, aliasMap);
-    printHeaders(csvPrinter, columnHeaderIterator);
-  }
-
-  private static void printHeaders(final CSVPrinter csvPrinter, final Iterator iterator) {
-    try {
-      csvPrinter.printRecord(() -> iterator);
-    } catch (IOException ioe) {
-      LOGGER.debug("Failed to print the CSV header data.", ioe);
-    }
-  }
-
-  private static void printMetacardData(
-      final CSVPrinter csvPrinter, final Iterator iterator, Metacard metacard) {
-    try {
-      csvPrinter.printRecord(() -> iterator);
-    } catch (IOException ioe) {
-      LOGGER.debug("Failed to print the CSV data for metacard with id: {}", metacard.getId(), ioe);
-    }
+    csvPrinter.printRecord(() -> columnHeaderIterator);
   }
 
   public static List<AttributeDescriptor> sortAttributes(
@@ -15,6 +15,7 @@
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.mockito.Mockito.mock;
@@ -25,14 +26,19 @@
 import ddf.catalog.data.Attribute;
 import ddf.catalog.data.AttributeDescriptor;
 import ddf.catalog.data.AttributeType;
+import ddf.catalog.data.BinaryContent;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.MetacardType;
+import ddf.catalog.data.StreamingBinaryContent;
 import ddf.catalog.data.impl.AttributeImpl;
 import ddf.catalog.data.impl.BasicTypes;
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.data.impl.MetacardTypeImpl;
 import ddf.catalog.transform.CatalogTransformerException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -175,6 +181,38 @@ public void writeSearchResultsToCsvWithAliasMap() throws CatalogTransformerExcep
     assertThat(scanner.hasNext(), is(false));
   }
 
+  @Test
+  public void writeSearchResultsToStream() throws IOException {
+    List<AttributeDescriptor> requestedAttributes = new ArrayList<>();
+    requestedAttributes.add(buildAttributeDescriptor("attribute1", BasicTypes.STRING_TYPE));
+
+    BinaryContent binaryContent =
+        CsvTransformer.createStreamingResponse(
+            metacardList, requestedAttributes, Collections.emptyMap());
+    assertThat(binaryContent, instanceOf(StreamingBinaryContent.class));
+    assertThat(binaryContent.getMimeTypeValue(), is("text/csv"));
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    ((StreamingBinaryContent) binaryContent).writeTo(outputStream);
+
+    Scanner scanner = new Scanner(outputStream.toString(StandardCharsets.UTF_8.name()));
+    scanner.useDelimiter(CSV_ITEM_SEPARATOR_REGEX);
+
+    String[] expectedHeaders = {"attribute1"};
+    validate(scanner, expectedHeaders);
+
+    String[] expectedValues = {"", "value1"};
+
+    for (int i = 0; i < METACARD_COUNT; i++) {
+      validate(scanner, expectedValues);
+    }
+
+    // final new line causes an extra "" value at end of file
+    assertThat(scanner.hasNext(), is(true));
+    assertThat(scanner.next(), is(""));
+    assertThat(scanner.hasNext(), is(false));
+  }
+
   private Metacard buildMetacard() {
     MetacardType metacardType = new MetacardTypeImpl("", new HashSet<>(ATTRIBUTE_DESCRIPTOR_LIST));
     Metacard metacard = new MetacardImpl(metacardType);
@@ -14,11 +14,10 @@
 
 package ddf.catalog.transformer.csv;
 
-import static ddf.catalog.transformer.csv.common.CsvTransformer.createResponse;
+import static ddf.catalog.transformer.csv.common.CsvTransformer.createStreamingResponse;
 import static ddf.catalog.transformer.csv.common.CsvTransformer.getAllCsvAttributeDescriptors;
 import static ddf.catalog.transformer.csv.common.CsvTransformer.getOnlyRequestedAttributes;
 import static ddf.catalog.transformer.csv.common.CsvTransformer.sortAttributes;
-import static ddf.catalog.transformer.csv.common.CsvTransformer.writeMetacardsToCsv;
 
 import ddf.catalog.data.AttributeDescriptor;
 import ddf.catalog.data.BinaryContent;
@@ -61,12 +60,8 @@ public class CsvQueryResponseTransformer implements QueryResponseTransformer {
    *           will have a column name of 'Product' instead of 'title'.
    *     </ol>
    *
-   * @return a BinaryContent object that contains an InputStream with the CSV content.
-   * @throws CatalogTransformerException during processing, the CSV output is written to an
-   *     Appendable, whose 'append()' method signature declares that it throws IOException. When
-   *     that Appendable throws IOException, this class will theoretically convert that into a
-   *     CatalogTransformerException and raise that. Because this implementation uses a
-   *     StringBuilder which doesn't throw IOException, this will never occur.
+   * @return a {@link ddf.catalog.data.StreamingBinaryContent} that writes the CSV content as it is
+   *     sent. Errors writing the CSV surface as IOExceptions when the content is written or read.
    */
   @Override
   public BinaryContent transform(
@@ -105,8 +100,6 @@ public BinaryContent transform(
     List<AttributeDescriptor> sortedAttributeDescriptors =
         sortAttributes(filteredAttributeDescriptors, attributeOrder);
 
-    Appendable csv = writeMetacardsToCsv(metacards, sortedAttributeDescriptors, columnAliasMap);
-
-    return createResponse(csv);
+    return createStreamingResponse(metacards, sortedAttributeDescriptors, columnAliasMap);
   }
 }
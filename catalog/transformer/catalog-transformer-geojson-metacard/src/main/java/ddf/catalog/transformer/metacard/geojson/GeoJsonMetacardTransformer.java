@@ -18,12 +18,13 @@
 import ddf.catalog.data.AttributeType;
 import ddf.catalog.data.BinaryContent;
 import ddf.catalog.data.Metacard;
-import ddf.catalog.data.impl.BinaryContentImpl;
+import ddf.catalog.data.impl.StreamingBinaryContentImpl;
 import ddf.catalog.transform.CatalogTransformerException;
 import ddf.catalog.transform.MetacardTransformer;
 import ddf.geo.formatter.CompositeGeometry;
-import java.io.ByteArrayInputStream;
+import java.io.OutputStreamWriter;
 import java.io.Serializable;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -35,7 +36,6 @@
 import javax.activation.MimeTypeParseException;
 import javax.xml.bind.DatatypeConverter;
 import org.json.simple.JSONObject;
-import org.json.simple.JSONValue;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.io.ParseException;
 import org.locationtech.jts.io.WKTReader;
@@ -122,10 +122,15 @@ public BinaryContent transform(Metacard metacard, Map<String, Serializable> argu
 
     JSONObject rootObject = convertToJSON(metacard);
 
-    String jsonText = JSONValue.toJSONString(rootObject);
-
-    return new BinaryContentImpl(
-        new ByteArrayInputStream(jsonText.getBytes(StandardCharsets.UTF_8)), DEFAULT_MIME_TYPE);
+    // Write the JSON straight to the stream it is requested for. When this metacard is part of a
+    // GeoJSON query response, that is the response stream itself.
+    return new StreamingBinaryContentImpl(
+        outputStream -> {
+          Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+          rootObject.writeJSONString(writer);
+          writer.flush();
+        },
+        DEFAULT_MIME_TYPE);
   }
 
   @Override
@@ -14,6 +14,7 @@
 package ddf.catalog.transformer.metacard.geojson;
 
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.CoreMatchers.nullValue;
@@ -24,6 +25,7 @@
 import ddf.catalog.data.BinaryContent;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.MetacardType;
+import ddf.catalog.data.StreamingBinaryContent;
 import ddf.catalog.data.impl.AttributeDescriptorImpl;
 import ddf.catalog.data.impl.BasicTypes;
 import ddf.catalog.data.impl.MetacardImpl;
@@ -37,10 +39,12 @@
 import ddf.geo.formatter.MultiPolygon;
 import ddf.geo.formatter.Point;
 import ddf.geo.formatter.Polygon;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.Serializable;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.util.Arrays;
 import java.util.Date;
@@ -114,6 +118,23 @@ public void testNoGeo() throws CatalogTransformerException, IOException, ParseEx
     verifyBasicMetacardJson(now, obj2);
   }
 
+  @Test
+  public void testWriteToStream() throws CatalogTransformerException, IOException, ParseException {
+    Date now = new Date();
+    MetacardImpl metacard = new MetacardImpl();
+    setupBasicMetacard(now, metacard);
+
+    BinaryContent content = new GeoJsonMetacardTransformer().transform(metacard, null);
+    assertThat(content, instanceOf(StreamingBinaryContent.class));
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    ((StreamingBinaryContent) content).writeTo(outputStream);
+
+    JSONObject obj2 =
+        (JSONObject) PARSER.parse(outputStream.toString(StandardCharsets.UTF_8.name()));
+    verifyBasicMetacardJson(now, obj2);
+  }
+
   /**
    * Tests that improper WKT throws an exception
    *
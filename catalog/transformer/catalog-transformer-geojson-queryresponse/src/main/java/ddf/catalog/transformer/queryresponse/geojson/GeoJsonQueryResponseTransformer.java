@@ -16,23 +16,27 @@
 import ddf.catalog.data.BinaryContent;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
-import ddf.catalog.data.impl.BinaryContentImpl;
+import ddf.catalog.data.StreamingBinaryContent;
+import ddf.catalog.data.impl.StreamingBinaryContentImpl;
 import ddf.catalog.operation.SourceResponse;
 import ddf.catalog.transform.CatalogTransformerException;
 import ddf.catalog.transform.MetacardTransformer;
 import ddf.catalog.transform.QueryResponseTransformer;
-import java.io.ByteArrayInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Serializable;
-import java.io.UnsupportedEncodingException;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import javax.activation.MimeType;
 import javax.activation.MimeTypeParseException;
-import net.minidev.json.JSONArray;
-import net.minidev.json.JSONObject;
 import net.minidev.json.JSONValue;
-import net.minidev.json.parser.JSONParser;
-import net.minidev.json.parser.ParseException;
+import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -72,37 +76,6 @@ public GeoJsonQueryResponseTransformer(MetacardTransformer metacardTransformer)
     this.metacardTransformer = metacardTransformer;
   }
 
-  private JSONObject convertToJSON(Result result) throws CatalogTransformerException {
-    JSONObject rootObject = new JSONObject();
-
-    addNonNullObject(rootObject, "distance", result.getDistanceInMeters());
-    addNonNullObject(rootObject, "relevance", result.getRelevanceScore());
-    addNonNullObject(rootObject, "metacard", createGeoJSON(result.getMetacard()));
-
-    return rootObject;
-  }
-
-  private Object createGeoJSON(Metacard metacard) throws CatalogTransformerException {
-    if (metacardTransformer == null) {
-      throw new CatalogTransformerException("The metacard transformer cannot be null");
-    }
-
-    BinaryContent rawContent = metacardTransformer.transform(metacard, null);
-    JSONParser jsonParser = new JSONParser(JSONParser.DEFAULT_PERMISSIVE_MODE);
-    try {
-      return jsonParser.parse(rawContent.getInputStream());
-    } catch (ParseException | UnsupportedEncodingException e) {
-      throw new CatalogTransformerException(
-          "Unable to parse transformed metacard content as JSON", e);
-    }
-  }
-
-  private static void addNonNullObject(JSONObject obj, String name, Object value) {
-    if (value != null) {
-      obj.put(name, value);
-    }
-  }
-
   @Override
   public BinaryContent transform(
       SourceResponse upstreamResponse, Map<String, Serializable> arguments)
@@ -112,26 +85,88 @@ public BinaryContent transform(
           "Cannot transform null " + SourceResponse.class.getName());
     }
 
-    JSONObject rootObject = new JSONObject();
+    List<Result> results =
+        upstreamResponse.getResults() != null
+            ? upstreamResponse.getResults()
+            : Collections.emptyList();
 
-    addNonNullObject(rootObject, "hits", upstreamResponse.getHits());
+    // Check the results up front, the response is only written after this method has returned
+    if (!results.isEmpty() && metacardTransformer == null) {
+      throw new CatalogTransformerException("The metacard transformer cannot be null");
+    }
+    for (Result result : results) {
+      if (result == null) {
+        throw new CatalogTransformerException("Cannot transform null " + Result.class.getName());
+      }
+      if (result.getMetacard() == null) {
+        throw new CatalogTransformerException("Cannot transform null " + Metacard.class.getName());
+      }
+    }
 
-    JSONArray resultsList = new JSONArray();
+    long hits = upstreamResponse.getHits();
+    return new StreamingBinaryContentImpl(
+        outputStream -> writeResponse(hits, results, outputStream), DEFAULT_MIME_TYPE);
+  }
 
-    if (upstreamResponse.getResults() != null) {
-      for (Result result : upstreamResponse.getResults()) {
-        if (result == null) {
-          throw new CatalogTransformerException("Cannot transform null " + Result.class.getName());
-        }
-        resultsList.add(convertToJSON(result));
+  /**
+   * Writes the response one result at a time. The GeoJSON of each metacard is written straight to
+   * the response stream rather than being parsed and encoded again.
+   */
+  private void writeResponse(long hits, List<Result> results, OutputStream outputStream)
+      throws IOException {
+    // Flushing after every result would send a network packet per result
+    OutputStream responseStream = new NonFlushingOutputStream(outputStream);
+    Writer writer = new OutputStreamWriter(responseStream, StandardCharsets.UTF_8);
+
+    writer.write("{\"hits\":");
+    JSONValue.writeJSONString(hits, writer);
+    writer.write(",\"results\":[");
+
+    boolean first = true;
+    for (Result result : results) {
+      if (!first) {
+        writer.write(',');
       }
+      first = false;
+
+      writer.write('{');
+      writeNonNullValue(writer, "distance", result.getDistanceInMeters());
+      writeNonNullValue(writer, "relevance", result.getRelevanceScore());
+      writer.write("\"metacard\":");
+      writer.flush();
+      writeMetacard(result.getMetacard(), responseStream);
+      writer.write('}');
+    }
+
+    writer.write("]}");
+    writer.flush();
+  }
+
+  private void writeMetacard(Metacard metacard, OutputStream outputStream) throws IOException {
+    BinaryContent content;
+    try {
+      content = metacardTransformer.transform(metacard, null);
+    } catch (CatalogTransformerException e) {
+      throw new IOException("Unable to transform metacard to GeoJSON", e);
     }
-    addNonNullObject(rootObject, "results", resultsList);
 
-    String jsonText = JSONValue.toJSONString(rootObject);
+    if (content instanceof StreamingBinaryContent) {
+      ((StreamingBinaryContent) content).writeTo(outputStream);
+    } else {
+      try (InputStream inputStream = content.getInputStream()) {
+        IOUtils.copy(inputStream, outputStream);
+      }
+    }
+  }
 
-    return new BinaryContentImpl(
-        new ByteArrayInputStream(jsonText.getBytes(StandardCharsets.UTF_8)), DEFAULT_MIME_TYPE);
+  private static void writeNonNullValue(Writer writer, String name, Object value)
+      throws IOException {
+    if (value != null) {
+      JSONValue.writeJSONString(name, writer);
+      writer.write(':');
+      JSONValue.writeJSONString(value, writer);
+      writer.write(',');
+    }
   }
 
   @Override
@@ -145,4 +180,21 @@ public String toString() {
         + DEFAULT_MIME_TYPE
         + "}";
   }
+
+  private static class NonFlushingOutputStream extends FilterOutputStream {
+
+    NonFlushingOutputStream(OutputStream outputStream) {
+      super(outputStream);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      out.write(b, off, len);
+    }
+
+    @Override
+    public void flush() {
+      // the caller decides when the response is flushed
+    }
+  }
 }
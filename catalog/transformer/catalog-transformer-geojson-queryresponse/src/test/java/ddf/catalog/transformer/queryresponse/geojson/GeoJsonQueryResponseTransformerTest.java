@@ -13,6 +13,7 @@
  */
 package ddf.catalog.transformer.queryresponse.geojson;
 
+import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.CoreMatchers.nullValue;
@@ -22,6 +23,7 @@
 import ddf.catalog.data.BinaryContent;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
+import ddf.catalog.data.StreamingBinaryContent;
 import ddf.catalog.data.impl.BinaryContentImpl;
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.data.impl.ResultImpl;
@@ -30,6 +32,7 @@
 import ddf.catalog.transform.CatalogTransformerException;
 import ddf.catalog.transform.MetacardTransformer;
 import ddf.catalog.transformer.metacard.geojson.GeoJsonMetacardTransformer;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -155,6 +158,31 @@ public void testCustomTransformerWithJsonArray()
     assertThat(((JSONObject) metacard.get(1)).get("id"), is("1"));
   }
 
+  @Test
+  public void testStreamsResponse() throws Exception {
+    BinaryContent content = geoJsonQueryResponseTransformer.transform(setupResponse(2, 2L), null);
+    assertThat(content, instanceOf(StreamingBinaryContent.class));
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    ((StreamingBinaryContent) content).writeTo(outputStream);
+
+    JSONObject obj =
+        (JSONObject) PARSER.parse(outputStream.toString(StandardCharsets.UTF_8.name()));
+    verifyResponse(obj, 2, 2L);
+  }
+
+  @Test(expected = IOException.class)
+  public void testMetacardTransformerFailureWhileWriting() throws Exception {
+    GeoJsonQueryResponseTransformer geoJsonQRT =
+        new GeoJsonQueryResponseTransformer(
+            (metacard, arguments) -> {
+              throw new CatalogTransformerException("Unable to transform metacard");
+            });
+
+    BinaryContent content = geoJsonQRT.transform(setupResponse(1, 1L), null);
+    content.getByteArray();
+  }
+
   private MetacardTransformer createCustomMetacardTransformer(String binContent) {
     return (metacard, arguments) ->
         new BinaryContentImpl(IOUtils.toInputStream(binContent, StandardCharsets.UTF_8));
@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.transformer.api;
+
+import com.thoughtworks.xstream.io.HierarchicalStreamWriter;
+import com.thoughtworks.xstream.io.StreamException;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Copies the output of a buffering {@link PrintWriter} to a {@link Writer} each time it is flushed.
+ * Used by {@link PrintWriterProvider#build(Class, Writer)} for providers that can only build
+ * buffering PrintWriters.
+ */
+final class BufferedPrintWriter implements PrintWriter {
+
+  private final PrintWriter delegate;
+
+  private final Writer writer;
+
+  private int written;
+
+  BufferedPrintWriter(PrintWriter delegate, Writer writer) {
+    this.delegate = delegate;
+    this.writer = writer;
+  }
+
+  @Override
+  public void setRawValue(String text) {
+    delegate.setRawValue(text);
+  }
+
+  @Override
+  public String makeString() {
+    return delegate.makeString();
+  }
+
+  @Override
+  public void startNode(String name, Class clazz) {
+    delegate.startNode(name, clazz);
+  }
+
+  @Override
+  public void startNode(String name) {
+    delegate.startNode(name);
+  }
+
+  @Override
+  public void addAttribute(String name, String value) {
+    delegate.addAttribute(name, value);
+  }
+
+  @Override
+  public void setValue(String text) {
+    delegate.setValue(text);
+  }
+
+  @Override
+  public void endNode() {
+    delegate.endNode();
+  }
+
+  @Override
+  public void flush() {
+    String buffered = delegate.makeString();
+    try {
+      writer.write(buffered, written, buffered.length() - written);
+      writer.flush();
+    } catch (IOException e) {
+      throw new StreamException(e);
+    }
+    written = buffered.length();
+  }
+
+  @Override
+  public void close() {
+    flush();
+    delegate.close();
+  }
+
+  @Override
+  public HierarchicalStreamWriter underlyingWriter() {
+    return this;
+  }
+}
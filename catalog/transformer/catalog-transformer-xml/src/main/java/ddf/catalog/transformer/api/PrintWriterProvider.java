@@ -13,6 +13,8 @@
  */
 package ddf.catalog.transformer.api;
 
+import java.io.Writer;
+
 /**
  * PrintWriterProvider is an abstraction layer that supports the export of PrintWriter across bundle
  * boundaries.
@@ -28,4 +30,19 @@ public interface PrintWriterProvider {
    * @return PrintWriter.
    */
   <T> PrintWriter build(Class<T> klass);
+
+  /**
+   * Build a new instance of a PrintWriter that writes to the given {@link Writer} instead of
+   * buffering its output, and will not be shared with other callers.
+   *
+   * <p>The default implementation buffers the output of {@link #build(Class)} and copies it to the
+   * given {@link Writer} each time the PrintWriter is flushed.
+   *
+   * @param klass the {@link Class} of object this PrintWriter can write.
+   * @param writer the {@link Writer} the PrintWriter writes to.
+   * @return PrintWriter.
+   */
+  default <T> PrintWriter build(Class<T> klass, Writer writer) {
+    return new BufferedPrintWriter(build(klass), writer);
+  }
 }
@@ -19,6 +19,8 @@
 import java.util.List;
 import javax.activation.MimeType;
 import javax.activation.MimeTypeParseException;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
 import net.opengis.gml.v_3_1_1.AbstractGeometryType;
 import org.codice.ddf.parser.Parser;
 import org.codice.ddf.parser.ParserConfigurator;
@@ -60,4 +62,13 @@ protected final ParserConfigurator getParserConfigurator() {
   protected final Parser getParser() {
     return parser;
   }
+
+  /**
+   * Creates a JAXB context for the metacard schema, for transformers that reuse their own
+   * marshallers instead of going through the {@link Parser}.
+   */
+  protected static JAXBContext createJaxbContext() throws JAXBException {
+    return JAXBContext.newInstance(
+        String.join(":", CONTEXT_PATH), AbstractXmlTransformer.class.getClassLoader());
+  }
 }
@@ -14,35 +14,79 @@
 package ddf.catalog.transformer.xml;
 
 import ddf.catalog.data.Attribute;
-import ddf.catalog.data.BinaryContent;
-import ddf.catalog.data.impl.BinaryContentImpl;
 import ddf.catalog.transform.CatalogTransformerException;
 import ddf.catalog.transformer.xml.adapter.GeometryAdapter;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
 import org.codice.ddf.parser.Parser;
-import org.codice.ddf.parser.ParserConfigurator;
-import org.codice.ddf.parser.ParserException;
 
-/** Transforms Geometry object to BinaryContent */
+/**
+ * Transforms geometry attributes to GML 3.1.1 fragments of the metacard schema.
+ *
+ * <p>The JAXB context is created once and every thread marshals with its own {@link Marshaller},
+ * since marshallers are not thread-safe but are costly to create for every attribute.
+ */
 class GeometryTransformer extends AbstractXmlTransformer {
   private static final int BUFFER_SIZE = 512;
 
+  private final ThreadLocal<Marshaller> marshallers = new ThreadLocal<>();
+
+  private volatile JAXBContext jaxbContext;
+
   public GeometryTransformer(Parser parser) {
     super(parser);
   }
 
-  public BinaryContent transform(Attribute attribute) throws CatalogTransformerException {
-    ParserConfigurator parserConfigurator =
-        getParserConfigurator().setHandler(new XmlValidationEventHandler());
-
+  /**
+   * @param attribute geometry attribute with WKT values
+   * @return the {@code geometry} element of the attribute, without an XML declaration
+   * @throws CatalogTransformerException if a value is not valid WKT or cannot be marshalled
+   */
+  public String toXml(Attribute attribute) throws CatalogTransformerException {
+    StringWriter writer = new StringWriter(BUFFER_SIZE);
     try {
-      ByteArrayOutputStream os = new ByteArrayOutputStream(BUFFER_SIZE);
-      getParser().marshal(parserConfigurator, GeometryAdapter.marshalFrom(attribute), os);
-      ByteArrayInputStream bais = new ByteArrayInputStream(os.toByteArray());
-      return new BinaryContentImpl(bais, MIME_TYPE);
-    } catch (ParserException e) {
+      getMarshaller().marshal(GeometryAdapter.marshalFrom(attribute), writer);
+    } catch (JAXBException e) {
       throw new CatalogTransformerException("Failed to marshall geometry data", e);
     }
+    return writer.toString();
+  }
+
+  private Marshaller getMarshaller() throws JAXBException {
+    Marshaller marshaller = marshallers.get();
+    if (marshaller == null) {
+      marshaller = createMarshaller();
+      marshallers.set(marshaller);
+    }
+    return marshaller;
+  }
+
+  private Marshaller createMarshaller() throws JAXBException {
+    ClassLoader tccl = Thread.currentThread().getContextClassLoader();
+    try {
+      Thread.currentThread().setContextClassLoader(AbstractXmlTransformer.class.getClassLoader());
+      Marshaller marshaller = getJaxbContext().createMarshaller();
+      marshaller.setEventHandler(new XmlValidationEventHandler());
+      marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+      return marshaller;
+    } finally {
+      Thread.currentThread().setContextClassLoader(tccl);
+    }
+  }
+
+  private JAXBContext getJaxbContext() throws JAXBException {
+    JAXBContext context = jaxbContext;
+    if (context == null) {
+      synchronized (this) {
+        context = jaxbContext;
+        if (context == null) {
+          context = createJaxbContext();
+          jaxbContext = context;
+        }
+      }
+    }
+    return context;
   }
 }
@@ -14,13 +14,9 @@
 package ddf.catalog.transformer.xml;
 
 import com.google.common.collect.ImmutableMap;
-import com.thoughtworks.xstream.io.copy.HierarchicalStreamCopier;
-import com.thoughtworks.xstream.io.xml.XppReader;
-import com.thoughtworks.xstream.io.xml.xppdom.XppFactory;
 import ddf.catalog.data.Attribute;
 import ddf.catalog.data.AttributeDescriptor;
 import ddf.catalog.data.AttributeType;
-import ddf.catalog.data.BinaryContent;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.MetacardType;
 import ddf.catalog.transform.CatalogTransformerException;
@@ -29,24 +25,21 @@
 import ddf.catalog.transformer.api.PrintWriterProvider;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.io.ObjectOutput;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
-import java.io.UnsupportedEncodingException;
-import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.regex.Pattern;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.time.DateFormatUtils;
 import org.codice.ddf.parser.Parser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.xmlpull.v1.XmlPullParser;
 import org.xmlpull.v1.XmlPullParserException;
 
 public class MetacardMarshallerImpl implements MetacardMarshaller {
@@ -65,6 +58,8 @@ public class MetacardMarshallerImpl implements MetacardMarshaller {
 
   private static final String GML_PREFIX = "gml";
 
+  private static final Pattern XML_DECL_PATTERN = Pattern.compile("[<][?]xml.*[?][>]");
+
   private static final Map<String, String> NAMESPACE_MAP;
 
   public static final String OMIT_XML_DECL = "OMIT_XML_DECLARATION";
@@ -151,10 +146,6 @@ public String marshal(Metacard metacard, Map<String, Serializable> arguments)
       writer.endNode(); // source
     }
 
-    // if multi-threading, cannot abstract XmlPullParser creation to class member.
-    // xmlPullParser used only for geometry
-    XmlPullParser xmlPullParser = XppFactory.createDefaultParser();
-
     Set<AttributeDescriptor> attributeDescriptors =
         metacard.getMetacardType().getAttributeDescriptors();
 
@@ -168,7 +159,7 @@ public String marshal(Metacard metacard, Map<String, Serializable> arguments)
 
       if (attribute != null && attribute.getValue() != null) {
         AttributeType.AttributeFormat format = attributeDescriptor.getType().getAttributeFormat();
-        writeAttributeToXml(writer, xmlPullParser, attribute, format);
+        writeAttributeToXml(writer, attribute, format);
       }
     }
     writer.endNode(); // metacard
@@ -176,11 +167,8 @@ public String marshal(Metacard metacard, Map<String, Serializable> arguments)
   }
 
   private String getStringValue(
-      XmlPullParser parser,
-      Attribute attribute,
-      AttributeType.AttributeFormat format,
-      Serializable value)
-      throws IOException, CatalogTransformerException {
+      Attribute attribute, AttributeType.AttributeFormat format, Serializable value)
+      throws IOException {
     switch (format) {
       case STRING:
       case BOOLEAN:
@@ -193,8 +181,6 @@ private String getStringValue(
       case DATE:
         Date date = (Date) value;
         return DateFormatUtils.formatUTC(date, DF_PATTERN);
-      case GEOMETRY:
-        return geoToXml(geometryTransformer.transform(attribute), parser);
       case OBJECT:
         ByteArrayOutputStream bos = new ByteArrayOutputStream();
         try (ObjectOutput output = new ObjectOutputStream(bos)) {
@@ -204,7 +190,7 @@ private String getStringValue(
       case BINARY:
         return Base64.getEncoder().encodeToString((byte[]) value);
       case XML:
-        return value.toString().replaceAll("[<][?]xml.*[?][>]", "");
+        return XML_DECL_PATTERN.matcher(value.toString()).replaceAll("");
       default:
         LOGGER.debug("Unsupported attribute: {}", format);
         return value.toString();
@@ -212,61 +198,37 @@ private String getStringValue(
   }
 
   private void writeAttributeToXml(
-      PrintWriter writer,
-      XmlPullParser parser,
-      Attribute attribute,
-      AttributeType.AttributeFormat format)
+      PrintWriter writer, Attribute attribute, AttributeType.AttributeFormat format)
       throws IOException, CatalogTransformerException {
     String attributeName = attribute.getName();
     List<Serializable> values = attribute.getValues();
 
-    if (!values.isEmpty()) {
-      // The GeometryTransformer creates an XML fragment containing
-      // both the name - with namespaces declared - and the value
-      if (format != AttributeType.AttributeFormat.GEOMETRY) {
-        writer.startNode(TYPE_NAME_LOOKUP.get(format));
-        writer.addAttribute("name", attributeName);
-      }
-
-      for (Serializable value : values) {
-        String stringifiedValue = getStringValue(parser, attribute, format, value);
+    if (values.isEmpty()) {
+      return;
+    }
 
-        if (format != AttributeType.AttributeFormat.GEOMETRY) {
-          writer.startNode("value");
-        }
+    // The GeometryTransformer creates an XML fragment containing
+    // both the name - with namespaces declared - and all of the values
+    if (format == AttributeType.AttributeFormat.GEOMETRY) {
+      writer.setRawValue(geometryTransformer.toXml(attribute));
+      return;
+    }
 
-        if (format == AttributeType.AttributeFormat.XML
-            || format == AttributeType.AttributeFormat.GEOMETRY) {
-          writer.setRawValue(stringifiedValue);
-        } else {
-          writer.setValue(stringifiedValue);
-        }
+    writer.startNode(TYPE_NAME_LOOKUP.get(format));
+    writer.addAttribute("name", attributeName);
 
-        if (format != AttributeType.AttributeFormat.GEOMETRY) {
-          writer.endNode(); // value
-        }
-      }
+    for (Serializable value : values) {
+      String stringifiedValue = getStringValue(attribute, format, value);
 
-      if (format != AttributeType.AttributeFormat.GEOMETRY) {
-        writer.endNode(); // type
+      writer.startNode("value");
+      if (format == AttributeType.AttributeFormat.XML) {
+        writer.setRawValue(stringifiedValue);
+      } else {
+        writer.setValue(stringifiedValue);
       }
+      writer.endNode(); // value
     }
-  }
 
-  private String geoToXml(BinaryContent content, XmlPullParser parser)
-      throws UnsupportedEncodingException, CatalogTransformerException {
-    PrintWriter destination;
-    try (InputStreamReader inputStreamReader =
-        new InputStreamReader(content.getInputStream(), StandardCharsets.UTF_8.name())) {
-      XppReader source = new XppReader(inputStreamReader, parser);
-
-      // if multi-threading, cannot abstract PrintWriter to class member
-      destination = writerProvider.build(Metacard.class);
-
-      new HierarchicalStreamCopier().copy(source, destination);
-    } catch (IOException e) {
-      throw new CatalogTransformerException(e);
-    }
-    return destination.makeString();
+    writer.endNode(); // type
   }
 }
@@ -17,6 +17,7 @@
 import ddf.catalog.transformer.api.PrintWriter;
 import ddf.catalog.transformer.api.PrintWriterProvider;
 import java.io.StringWriter;
+import java.io.Writer;
 
 public class PrintWriterProviderImpl implements PrintWriterProvider {
 
@@ -24,9 +25,14 @@ public class PrintWriterProviderImpl implements PrintWriterProvider {
 
   @Override
   public <T> PrintWriter build(Class<T> klass) {
+    return build(klass, new StringWriter(INITIAL_SIZE));
+  }
+
+  @Override
+  public <T> PrintWriter build(Class<T> klass, Writer writer) {
 
     if (Metacard.class.equals(klass)) {
-      return new EscapingPrintWriter(new StringWriter(INITIAL_SIZE));
+      return new EscapingPrintWriter(writer);
     } else {
       throw new IllegalArgumentException("No PrintWriter for " + klass.getCanonicalName());
     }
@@ -15,31 +15,35 @@
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.thoughtworks.xstream.io.StreamException;
 import ddf.catalog.data.BinaryContent;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
-import ddf.catalog.data.impl.BinaryContentImpl;
+import ddf.catalog.data.impl.StreamingBinaryContentImpl;
 import ddf.catalog.operation.SourceResponse;
 import ddf.catalog.transform.CatalogTransformerException;
 import ddf.catalog.transform.QueryResponseTransformer;
 import ddf.catalog.transformer.api.MetacardMarshaller;
 import ddf.catalog.transformer.api.PrintWriter;
 import ddf.catalog.transformer.api.PrintWriterProvider;
-import java.io.ByteArrayInputStream;
+import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Serializable;
 import java.io.StringWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
-import java.util.HashMap;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ForkJoinPool;
-import java.util.concurrent.RecursiveTask;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.Future;
 import javax.activation.MimeType;
 import javax.activation.MimeTypeParseException;
-import javax.xml.bind.DataBindingException;
 import org.codice.ddf.parser.Parser;
 import org.codice.ddf.platform.util.ForkJoinPoolFactory;
 import org.slf4j.Logger;
@@ -49,122 +53,23 @@
 /**
  * Transforms a {@link SourceResponse} object into Metacard Element XML text, which is GML 3.1.1.
  * compliant XML.
+ *
+ * <p>The XML is written as it is sent. Metacards are marshalled in threshold-sized chunks on a
+ * {@link ForkJoinPool} and written in order as each chunk completes, with only a few chunks ahead
+ * of the writer held in memory.
  */
 public class XmlResponseQueueTransformer extends AbstractXmlTransformer
     implements QueryResponseTransformer {
 
   public static final int BUFFER_SIZE = 1024;
 
-  private static class MetacardForkTask extends RecursiveTask<StringWriter> {
-    private static final long serialVersionUID = 1L;
-
-    private final transient ImmutableList<Result> resultList;
-
-    private final transient ForkJoinPool fjp;
-
-    private final transient GeometryTransformer geometryTransformer;
-
-    private final int threshold;
-
-    private final AtomicBoolean cancelOperation;
-
-    private final transient MetacardMarshaller metacardMarshaller;
-
-    MetacardForkTask(
-        ImmutableList<Result> resultList,
-        ForkJoinPool fjp,
-        GeometryTransformer geometryTransformer,
-        int threshold,
-        MetacardMarshaller mcm) {
-      this(resultList, fjp, geometryTransformer, threshold, new AtomicBoolean(false), mcm);
-    }
-
-    private MetacardForkTask(
-        ImmutableList<Result> resultList,
-        ForkJoinPool fjp,
-        GeometryTransformer geometryTransformer,
-        int threshold,
-        AtomicBoolean cancelOperation,
-        MetacardMarshaller mcm) {
-      this.resultList = resultList;
-      this.fjp = fjp;
-      this.geometryTransformer = geometryTransformer;
-      this.threshold = threshold;
-      this.cancelOperation = cancelOperation;
-      this.metacardMarshaller = mcm;
-    }
-
-    @Override
-    protected StringWriter compute() {
-      if (cancelOperation.get()) {
-        return null;
-      }
-
-      if (resultList.size() < threshold) {
-        return doCompute();
-      } else {
-        int half = resultList.size() / 2;
-
-        MetacardForkTask fLeft =
-            new MetacardForkTask(
-                resultList.subList(0, half),
-                fjp,
-                geometryTransformer,
-                threshold,
-                cancelOperation,
-                metacardMarshaller);
-        fLeft.fork();
-        MetacardForkTask fRight =
-            new MetacardForkTask(
-                resultList.subList(half, resultList.size()),
-                fjp,
-                geometryTransformer,
-                threshold,
-                cancelOperation,
-                metacardMarshaller);
-        StringWriter rightList = fRight.compute();
-        StringWriter leftList = fLeft.join();
-
-        leftList.append(rightList.getBuffer());
-        return leftList;
-      }
-    } // end compute()
-
-    private StringWriter doCompute() {
-      StringWriter sw = new StringWriter(BUFFER_SIZE);
-      Map<String, Serializable> args = new HashMap<>();
-      args.put(MetacardMarshallerImpl.OMIT_XML_DECL, Boolean.TRUE);
-      try {
-        for (Result result : resultList) {
-          Metacard metacard = result.getMetacard();
-          String xmlString = metacardMarshaller.marshal(metacard, args);
-          sw.append(xmlString);
-        }
-      } catch (XmlPullParserException | IOException | CatalogTransformerException e) {
-        cancelOperation.set(true);
-        throw new DataBindingException("Failure to write node; operation aborted", e);
-      }
-      return sw;
-    }
-
-    private void writeObject(ObjectOutputStream stream) throws IOException {
-      stream.defaultWriteObject();
-    }
-
-    private void readObject(ObjectInputStream stream) throws IOException, ClassNotFoundException {
-      stream.defaultReadObject();
-    }
-  } // end MetacardForkTask class
-
   private final ForkJoinPool fjp;
 
-  private final GeometryTransformer geometryTransformer;
-
   private final PrintWriterProvider printWriterProvider;
 
   private final MetacardMarshaller metacardMarshaller;
 
-  private int threshold;
+  private int threshold = 2;
 
   private static final Logger LOGGER = LoggerFactory.getLogger(XmlResponseQueueTransformer.class);
 
@@ -174,6 +79,9 @@ private void readObject(ObjectInputStream stream) throws IOException, ClassNotFo
 
   private static final String GML_PREFIX = "gml";
 
+  private static final Map<String, Serializable> MARSHAL_ARGUMENTS =
+      ImmutableMap.of(MetacardMarshallerImpl.OMIT_XML_DECL, Boolean.TRUE);
+
   static {
     String nsPrefix = "xmlns";
 
@@ -199,7 +107,6 @@ public XmlResponseQueueTransformer(
       Parser parser, PrintWriterProvider pwp, MetacardMarshaller mcm, MimeType mimeType) {
     super(parser);
     this.fjp = ForkJoinPoolFactory.getNewForkJoinPool(null, false);
-    geometryTransformer = new GeometryTransformer(parser);
     this.printWriterProvider = pwp;
     this.metacardMarshaller = mcm;
     this.mimeType = mimeType;
@@ -223,8 +130,26 @@ public void setThreshold(int threshold) {
   @Override
   public BinaryContent transform(SourceResponse response, Map<String, Serializable> args)
       throws CatalogTransformerException {
+    if (response == null) {
+      throw new CatalogTransformerException("Failed Query response transformation");
+    }
+
+    List<Result> results =
+        response.getResults() != null
+            ? ImmutableList.copyOf(response.getResults())
+            : ImmutableList.of();
+
+    return new StreamingBinaryContentImpl(
+        outputStream -> writeResponse(results, outputStream), mimeType);
+  }
+
+  private void writeResponse(List<Result> results, OutputStream outputStream) throws IOException {
+    Writer out = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+    PrintWriter writer = printWriterProvider.build(Metacard.class, out);
+    Deque<Future<String>> pendingChunks = new ArrayDeque<>();
+    int maxPendingChunks = fjp.getParallelism() * 2;
+
     try {
-      PrintWriter writer = printWriterProvider.build(Metacard.class);
       writer.setRawValue("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n");
 
       writer.startNode("metacards");
@@ -232,28 +157,47 @@ public BinaryContent transform(SourceResponse response, Map<String, Serializable
         writer.addAttribute(nsRow.getKey(), nsRow.getValue());
       }
 
-      if (response.getResults() != null && !response.getResults().isEmpty()) {
-        StringWriter metacardContent =
-            fjp.invoke(
-                new MetacardForkTask(
-                    ImmutableList.copyOf(response.getResults()),
-                    fjp,
-                    geometryTransformer,
-                    threshold,
-                    metacardMarshaller));
+      for (int start = 0; start < results.size(); start += threshold) {
+        List<Result> chunk = results.subList(start, Math.min(start + threshold, results.size()));
+        pendingChunks.add(fjp.submit(() -> marshal(chunk)));
+
+        if (pendingChunks.size() >= maxPendingChunks) {
+          writer.setRawValue(getChunk(pendingChunks.remove()));
+        }
+      }
 
-        writer.setRawValue(metacardContent.getBuffer().toString());
+      while (!pendingChunks.isEmpty()) {
+        writer.setRawValue(getChunk(pendingChunks.remove()));
       }
 
       writer.endNode(); // metacards
+      writer.flush();
+    } catch (StreamException e) {
+      LOGGER.debug("Failed to write query response", e);
+      throw new IOException("Failed Query response transformation", e.getCause());
+    } finally {
+      pendingChunks.forEach(chunk -> chunk.cancel(true));
+    }
+  }
 
-      ByteArrayInputStream bais =
-          new ByteArrayInputStream(writer.makeString().getBytes(StandardCharsets.UTF_8));
+  private String marshal(List<Result> chunk)
+      throws XmlPullParserException, IOException, CatalogTransformerException {
+    StringWriter sw = new StringWriter(BUFFER_SIZE * chunk.size());
+    for (Result result : chunk) {
+      sw.append(metacardMarshaller.marshal(result.getMetacard(), MARSHAL_ARGUMENTS));
+    }
+    return sw.toString();
+  }
 
-      return new BinaryContentImpl(bais, mimeType);
-    } catch (Exception e) {
-      LOGGER.info("Failed Query response transformation", e);
-      throw new CatalogTransformerException("Failed Query response transformation");
+  private String getChunk(Future<String> chunk) throws IOException {
+    try {
+      return chunk.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while marshalling metacards");
+    } catch (ExecutionException e) {
+      LOGGER.info("Failed Query response transformation", e.getCause());
+      throw new IOException("Failure to write node; operation aborted", e.getCause());
     }
   }
 }
@@ -39,6 +39,18 @@ public class GeometryAdapter extends XmlAdapter<GeometryElement, Attribute> {
   private static final Logger LOGGER = LoggerFactory.getLogger(GeometryAdapter.class);
   private static GeometryFactory geometryFactory = new GeometryFactory();
 
+  private static final ThreadLocal<WKTReader> WKT_READER_THREAD_LOCAL =
+      ThreadLocal.withInitial(() -> new WKTReader(geometryFactory));
+
+  private static final ThreadLocal<WKTWriter> WKT_WRITER_THREAD_LOCAL =
+      ThreadLocal.withInitial(WKTWriter::new);
+
+  private static final ThreadLocal<JTSToGML311GeometryConverter> JTS_CONVERTER_THREAD_LOCAL =
+      ThreadLocal.withInitial(JTSToGML311GeometryConverter::new);
+
+  private static final ThreadLocal<GML311ToJTSGeometryConverter> GML_CONVERTER_THREAD_LOCAL =
+      ThreadLocal.withInitial(GML311ToJTSGeometryConverter::new);
+
   public static GeometryElement marshalFrom(Attribute attribute)
       throws CatalogTransformerException {
     GeometryElement element = new GeometryElement();
@@ -49,7 +61,7 @@ public static GeometryElement marshalFrom(Attribute attribute)
           continue;
         }
         String wkt = (String) value;
-        WKTReader wktReader = new WKTReader(geometryFactory);
+        WKTReader wktReader = WKT_READER_THREAD_LOCAL.get();
         Geometry jtsGeometry = null;
         try {
           jtsGeometry = wktReader.read(wkt);
@@ -58,7 +70,7 @@ public static GeometryElement marshalFrom(Attribute attribute)
               "Could not transform Metacard to XML.  Invalid WKT.", e);
         }
 
-        JTSToGML311GeometryConverter converter = new JTSToGML311GeometryConverter();
+        JTSToGML311GeometryConverter converter = JTS_CONVERTER_THREAD_LOCAL.get();
 
         @SuppressWarnings("unchecked")
         JAXBElement<AbstractGeometryType> gmlElement =
@@ -74,8 +86,8 @@ public static GeometryElement marshalFrom(Attribute attribute)
 
   public static Attribute unmarshalFrom(GeometryElement element) throws ConversionFailedException {
     AttributeImpl attribute = null;
-    GML311ToJTSGeometryConverter converter = new GML311ToJTSGeometryConverter();
-    WKTWriter wktWriter = new WKTWriter();
+    GML311ToJTSGeometryConverter converter = GML_CONVERTER_THREAD_LOCAL.get();
+    WKTWriter wktWriter = WKT_WRITER_THREAD_LOCAL.get();
 
     for (Value xmlValue : element.getValue()) {
       JAXBElement<AbstractGeometryType> xmlGeometry = xmlValue.getGeometry();
@@ -57,6 +57,11 @@ public class StringxmlAdapter extends XmlAdapter<StringxmlElement, Attribute> {
 
   private static Templates templates = null;
 
+  private static final ThreadLocal<DocumentBuilder> DOCUMENT_BUILDER_THREAD_LOCAL =
+      new ThreadLocal<>();
+
+  private static final ThreadLocal<Transformer> TRANSFORMER_THREAD_LOCAL = new ThreadLocal<>();
+
   static {
     FACTORY = XML_UTILS.getSecureDocumentBuilderFactory();
     FACTORY.setNamespaceAware(true);
@@ -93,14 +98,9 @@ public static StringxmlElement marshalFrom(Attribute attribute)
         }
         String xmlString = (String) value;
         Element anyElement = null;
-        DocumentBuilder builder = null;
         try {
-          synchronized (FACTORY) {
-            builder = FACTORY.newDocumentBuilder();
-            builder.setErrorHandler(null);
-          }
           anyElement =
-              builder
+              getDocumentBuilder()
                   .parse(new ByteArrayInputStream(xmlString.getBytes(StandardCharsets.UTF_8)))
                   .getDocumentElement();
         } catch (ParserConfigurationException | SAXException | IOException e) {
@@ -131,9 +131,7 @@ public static Attribute unmarshalFrom(StringxmlElement element)
 
       StringWriter buffer = new StringWriter();
 
-      Transformer transformer = templates.newTransformer();
-      transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
-      transformer.transform(new DOMSource(anyNode), new StreamResult(buffer));
+      getTransformer().transform(new DOMSource(anyNode), new StreamResult(buffer));
       xmlString = buffer.toString();
 
       // Document document = anyNode.getOwnerDocument();
@@ -155,6 +153,32 @@ public static Attribute unmarshalFrom(StringxmlElement element)
     return attribute;
   }
 
+  // builders and transformers are not thread-safe, so every thread reuses its own
+  private static DocumentBuilder getDocumentBuilder() throws ParserConfigurationException {
+    DocumentBuilder builder = DOCUMENT_BUILDER_THREAD_LOCAL.get();
+    if (builder == null) {
+      synchronized (FACTORY) {
+        builder = FACTORY.newDocumentBuilder();
+      }
+      builder.setErrorHandler(null);
+      DOCUMENT_BUILDER_THREAD_LOCAL.set(builder);
+    } else {
+      builder.reset();
+      builder.setErrorHandler(null);
+    }
+    return builder;
+  }
+
+  private static Transformer getTransformer() throws TransformerConfigurationException {
+    Transformer transformer = TRANSFORMER_THREAD_LOCAL.get();
+    if (transformer == null) {
+      transformer = templates.newTransformer();
+      transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+      TRANSFORMER_THREAD_LOCAL.set(transformer);
+    }
+    return transformer;
+  }
+
   @Override
   public StringxmlElement marshal(Attribute attribute) throws CatalogTransformerException {
     return marshalFrom(attribute);
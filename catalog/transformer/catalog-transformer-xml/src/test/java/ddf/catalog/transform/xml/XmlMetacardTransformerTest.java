@@ -15,6 +15,8 @@
 
 import static org.custommonkey.xmlunit.XMLAssert.assertXpathEvaluatesTo;
 import static org.custommonkey.xmlunit.XMLAssert.assertXpathExists;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -22,6 +24,7 @@
 import ddf.catalog.data.BinaryContent;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.MetacardType;
+import ddf.catalog.data.impl.AttributeImpl;
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.transformer.api.MetacardMarshaller;
 import ddf.catalog.transformer.xml.MetacardMarshallerImpl;
@@ -29,13 +32,18 @@
 import ddf.catalog.transformer.xml.XmlMetacardTransformer;
 import java.io.InputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.apache.commons.io.IOUtils;
 import org.codice.ddf.parser.Parser;
 import org.codice.ddf.parser.xml.XmlParser;
@@ -196,4 +204,40 @@ public void testMultivalueAttribute() throws Exception {
     assertXpathExists(
         "/m:metacard/m:string[@name='metacard-tags']/m:value[text()='another-tag']", outputXml);
   }
+
+  @Test
+  public void testMultivalueGeometryAttribute() throws Exception {
+    MetacardImpl mc = new MetacardImpl();
+    mc.setAttribute(
+        new AttributeImpl(Metacard.GEOGRAPHY, Arrays.asList("POINT (1 2)", "POINT (3 4)")));
+
+    String outputXml = transform(mc);
+
+    assertXpathEvaluatesTo("1", "count(/m:metacard/m:geometry[@name='location'])", outputXml);
+    assertXpathEvaluatesTo(
+        "2", "count(/m:metacard/m:geometry[@name='location']/m:value)", outputXml);
+  }
+
+  @Test
+  public void testConcurrentTransforms() throws Exception {
+    MetacardImpl mc = new MetacardImpl();
+    mc.setId("1234567890987654321");
+    mc.setTitle("Title!");
+    mc.setLocation("POLYGON ((35 10, 10 20, 15 40, 45 45, 35 10))");
+    mc.setMetadata("<?xml version=\"1.0\"?><metadata><title>Title!</title></metadata>");
+    String expected = transform(mc);
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<String>> outputs = new ArrayList<>();
+      for (int i = 0; i < 20; i++) {
+        outputs.add(executor.submit(() -> transform(mc)));
+      }
+      for (Future<String> output : outputs) {
+        assertThat(output.get(), is(expected));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
 }
@@ -16,6 +16,7 @@
 import static org.custommonkey.xmlunit.XMLAssert.assertXpathEvaluatesTo;
 import static org.custommonkey.xmlunit.XMLAssert.assertXpathExists;
 import static org.custommonkey.xmlunit.XMLAssert.assertXpathNotExists;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
@@ -31,22 +32,28 @@
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.MetacardType;
 import ddf.catalog.data.Result;
+import ddf.catalog.data.StreamingBinaryContent;
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.data.impl.ResultImpl;
 import ddf.catalog.operation.SourceResponse;
 import ddf.catalog.operation.impl.SourceResponseImpl;
 import ddf.catalog.transform.CatalogTransformerException;
 import ddf.catalog.transformer.api.MetacardMarshaller;
+import ddf.catalog.transformer.api.PrintWriter;
 import ddf.catalog.transformer.api.PrintWriterProvider;
+import ddf.catalog.transformer.xml.EscapingPrintWriter;
 import ddf.catalog.transformer.xml.MetacardMarshallerImpl;
 import ddf.catalog.transformer.xml.PrintWriterProviderImpl;
 import ddf.catalog.transformer.xml.XmlResponseQueueTransformer;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.StringWriter;
 import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -481,7 +488,7 @@ public void testMimeTypeInitException()
     // then exception
   }
 
-  @Test(expected = CatalogTransformerException.class)
+  @Test(expected = IOException.class)
   public void testMetacardMarshallThrowsXmlPullParserException()
       throws IOException, CatalogTransformerException, XmlPullParserException,
           MimeTypeParseException {
@@ -497,11 +504,64 @@ public void testMetacardMarshallThrowsXmlPullParserException()
         new XmlResponseQueueTransformer(parser, pwp, mockMetacardMarshaller, getMimeType());
     xrqt.setThreshold(2);
 
-    xrqt.transform(response, null);
+    BinaryContent binaryContent = xrqt.transform(response, null);
+    binaryContent.getByteArray();
 
     // then exception
   }
 
+  @Test
+  public void testWriteToStream() throws Exception {
+    transformer.setThreshold(2);
+
+    List<MetacardStub> metacards = new ArrayList<>();
+    for (int i = 0; i < 25; i++) {
+      metacards.add(new MetacardStub("source" + i, "id" + i));
+    }
+    SourceResponse response = givenSourceResponse(metacards.toArray(new MetacardStub[0]));
+
+    BinaryContent binaryContent = transformer.transform(response, null);
+    assertThat(binaryContent, instanceOf(StreamingBinaryContent.class));
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    ((StreamingBinaryContent) binaryContent).writeTo(outputStream);
+    String output = outputStream.toString(StandardCharsets.UTF_8.name());
+
+    assertXpathEvaluatesTo("25", "count(/mc:metacards/mc:metacard)", output);
+    for (int i = 0; i < 25; i++) {
+      assertXpathEvaluatesTo(
+          "id" + i, String.format("/mc:metacards/mc:metacard[%d]/@gml:id", i + 1), output);
+    }
+  }
+
+  @Test
+  public void testWriteToStreamWithProviderThatOnlyBuildsBufferingWriters() throws Exception {
+    PrintWriterProvider bufferingProvider =
+        new PrintWriterProvider() {
+          @Override
+          public <T> PrintWriter build(Class<T> klass) {
+            return new EscapingPrintWriter(new StringWriter());
+          }
+        };
+    XmlResponseQueueTransformer bufferingTransformer =
+        new XmlResponseQueueTransformer(
+            parser,
+            bufferingProvider,
+            new MetacardMarshallerImpl(parser, bufferingProvider),
+            getMimeType());
+    bufferingTransformer.setThreshold(2);
+
+    SourceResponse response =
+        givenSourceResponse(new MetacardStub("source1", "id1"), new MetacardStub("source2", "id2"));
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    ((StreamingBinaryContent) bufferingTransformer.transform(response, null)).writeTo(outputStream);
+    String output = outputStream.toString(StandardCharsets.UTF_8.name());
+
+    assertXpathEvaluatesTo("2", "count(/mc:metacards/mc:metacard)", output);
+    assertXpathEvaluatesTo("id2", "/mc:metacards/mc:metacard[2]/@gml:id", output);
+  }
+
   /** @return */
   private MetacardType getMetacardTypeStub(String name, Set<AttributeDescriptor> descriptors) {
 
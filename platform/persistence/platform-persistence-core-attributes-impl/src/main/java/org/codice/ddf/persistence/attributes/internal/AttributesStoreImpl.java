@@ -13,10 +13,21 @@
  */
 package org.codice.ddf.persistence.attributes.internal;
 
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
 import org.apache.commons.lang.StringUtils;
 import org.codice.ddf.persistence.PersistenceException;
 import org.codice.ddf.persistence.PersistentItem;
@@ -26,38 +37,96 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Keeps the data usage of each user in memory and periodically adds the downloads since the last
+ * flush to the usages in the persistent store, so that downloads neither wait for the persistent
+ * store nor overwrite each other's usage. The usages are loaded from the persistent store at
+ * startup, or when a user is first seen, and read again when they are older than the flush period,
+ * so that changes made by other nodes are picked up. The remaining downloads are flushed at
+ * shutdown.
+ */
 public class AttributesStoreImpl implements AttributesStore {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(AttributesStoreImpl.class);
 
+  private static final String EMPTY_USERNAME_ERROR = "Empty username specified";
+
+  private static final long NO_DATA_LIMIT = -1L;
+
+  private static final long DEFAULT_FLUSH_PERIOD_IN_SECONDS = 10L;
+
+  private static final long SHUTDOWN_TIMEOUT_SECONDS = 30L;
+
+  private static final int FLUSH_BATCH_SIZE = 100;
+
   private PersistentStore persistentStore;
 
   private ReadWriteLock readWriteLock = new ReentrantReadWriteLock();
 
-  private static final String EMPTY_USERNAME_ERROR = "Empty username specified";
+  private final ConcurrentMap<String, DataUsage> dataUsages = new ConcurrentHashMap<>();
 
-  private static final long NO_DATA_LIMIT = -1L;
+  private final ScheduledExecutorService executorService;
+
+  private final Clock clock;
+
+  private ScheduledFuture<?> scheduledFuture;
+
+  private long flushPeriod = DEFAULT_FLUSH_PERIOD_IN_SECONDS;
+
+  public AttributesStoreImpl(
+      PersistentStore persistentStore, ScheduledExecutorService executorService) {
+    this(persistentStore, executorService, Clock.systemUTC());
+  }
 
-  public AttributesStoreImpl(PersistentStore persistentStore) {
+  AttributesStoreImpl(
+      PersistentStore persistentStore, ScheduledExecutorService executorService, Clock clock) {
     this.persistentStore = persistentStore;
+    this.executorService = executorService;
+    this.clock = clock;
+  }
+
+  public void init() {
+    loadDataUsages();
+    scheduleFlush();
+  }
+
+  public void destroy() {
+    if (scheduledFuture != null) {
+      scheduledFuture.cancel(false);
+    }
+    executorService.shutdown();
+    try {
+      if (!executorService.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        executorService.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      executorService.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+    flushDataUsages();
+  }
+
+  public void setFlushPeriod(long flushPeriod) {
+    if (flushPeriod > 0 && this.flushPeriod != flushPeriod) {
+      this.flushPeriod = flushPeriod;
+      if (scheduledFuture != null) {
+        scheduledFuture.cancel(false);
+        scheduleFlush();
+      }
+    }
   }
 
   @Override
   public long getCurrentDataUsageByUser(final String username) throws PersistenceException {
-    long currentDataUsage = 0L;
-
     if (StringUtils.isEmpty(username)) {
       throw new PersistenceException(EMPTY_USERNAME_ERROR);
     }
 
-    try {
-      readWriteLock.readLock().lock();
-      currentDataUsage = getCurrentDataUsageByUserNoLock(username);
-    } finally {
-      readWriteLock.readLock().unlock();
+    DataUsage usage = getDataUsage(username);
+    if (usage.isStale(TimeUnit.SECONDS.toMillis(flushPeriod))) {
+      refresh(username, usage);
     }
-
-    return currentDataUsage;
+    return usage.get();
   }
 
   @Override
@@ -86,18 +155,8 @@ public void updateUserDataUsage(final String username, final long newDataUsage)
     }
 
     if (newDataUsage > 0) {
-      try {
-        readWriteLock.writeLock().lock();
-        long dataUsage = getCurrentDataUsageByUserNoLock(username);
-        dataUsage += newDataUsage;
-
-        LOGGER.debug("Updating user {} data usage to {}", username, dataUsage);
-        persistentStore.add(
-            PersistenceType.USER_ATTRIBUTE_TYPE.toString(),
-            toPersistentItem(username, dataUsage, getDataLimitByUser(username)));
-      } finally {
-        readWriteLock.writeLock().unlock();
-      }
+      LOGGER.debug("Adding {} to user {} data usage", newDataUsage, username);
+      getDataUsage(username).add(newDataUsage);
     }
   }
 
@@ -116,6 +175,9 @@ public void setDataUsage(final String username, final long dataUsage)
         persistentStore.add(
             PersistenceType.USER_ATTRIBUTE_TYPE.toString(),
             toPersistentItem(username, dataUsage, NO_DATA_LIMIT));
+        dataUsages
+            .computeIfAbsent(username, user -> new DataUsage(dataUsage, clock))
+            .reset(dataUsage);
       } finally {
         readWriteLock.writeLock().unlock();
       }
@@ -133,10 +195,21 @@ public void setDataLimit(final String username, final long dataLimit)
       try {
         readWriteLock.writeLock().lock();
 
+        // the usage is written along with the limit, so the downloads since the last flush are
+        // flushed with it
+        DataUsage usage = dataUsages.get(username);
+        long added = usage != null ? usage.getAdded() : 0L;
+        long dataUsage =
+            getCurrentDataUsageByUserNoLock(username)
+                + (usage != null ? usage.getUnflushed(added) : 0L);
+
         LOGGER.debug("Updating user {} data limit to {}", username, dataLimit);
         persistentStore.add(
             PersistenceType.USER_ATTRIBUTE_TYPE.toString(),
-            toPersistentItem(username, getCurrentDataUsageByUser(username), dataLimit));
+            toPersistentItem(username, dataUsage, dataLimit));
+        if (usage != null) {
+          usage.flushed(dataUsage, added);
+        }
       } finally {
         readWriteLock.writeLock().unlock();
       }
@@ -145,6 +218,8 @@ public void setDataLimit(final String username, final long dataLimit)
 
   @Override
   public List<Map<String, Object>> getAllUsers() throws PersistenceException {
+    flushDataUsages();
+
     List<Map<String, Object>> userMap;
     try {
       readWriteLock.readLock().lock();
@@ -158,20 +233,188 @@ public List<Map<String, Object>> getAllUsers() throws PersistenceException {
   @Override
   public void resetUserDataUsages() throws PersistenceException {
     List<Map<String, Object>> users = getAllUsers();
-    for (Map<String, Object> user : users) {
-      String username = (String) user.get(AttributesStore.USER_KEY + "_txt");
-      long dataLimit = (long) user.get(AttributesStore.DATA_USAGE_LIMIT_KEY + "_lng");
-      try {
-        readWriteLock.writeLock().lock();
+    try {
+      readWriteLock.writeLock().lock();
+
+      for (Map<String, Object> user : users) {
+        String username = (String) user.get(AttributesStore.USER_KEY + "_txt");
+        long dataLimit = (long) user.get(AttributesStore.DATA_USAGE_LIMIT_KEY + "_lng");
 
         LOGGER.debug("Resetting Data usage for user : {}", username);
         persistentStore.add(
             PersistenceType.USER_ATTRIBUTE_TYPE.toString(),
             toPersistentItem(username, 0L, dataLimit));
-      } finally {
-        readWriteLock.writeLock().unlock();
+      }
+      dataUsages.values().forEach(usage -> usage.reset(0L));
+    } finally {
+      readWriteLock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Adds the downloads of each user since the last flush to the user's data usage in the persistent
+   * store. The usages are read from the persistent store again, so that usages changed by other
+   * nodes are not overwritten. They are read in batches without holding the lock, and a user whose
+   * usage was set or flushed in the meantime is left for the next flush. Downloads that cannot be
+   * flushed are kept for the next flush.
+   */
+  void flushDataUsages() {
+    List<PendingFlush> pending = new ArrayList<>();
+    for (Map.Entry<String, DataUsage> entry : dataUsages.entrySet()) {
+      DataUsage usage = entry.getValue();
+      long added = usage.getAdded();
+      long unflushed = usage.getUnflushed(added);
+      if (unflushed > 0) {
+        pending.add(new PendingFlush(entry.getKey(), usage, added, unflushed));
+      }
+    }
+
+    for (int i = 0; i < pending.size(); i += FLUSH_BATCH_SIZE) {
+      flushDataUsages(pending.subList(i, Math.min(i + FLUSH_BATCH_SIZE, pending.size())));
+    }
+  }
+
+  private void flushDataUsages(List<PendingFlush> batch) {
+    Map<String, Map<String, Object>> attributesByUser = new HashMap<>();
+    try {
+      attributesByUser.putAll(getUserAttributes(batch));
+    } catch (PersistenceException | RuntimeException e) {
+      LOGGER.debug(
+          "Unable to read {} user data usages at once, reading them one at a time",
+          batch.size(),
+          e);
+      List<PendingFlush> read = new ArrayList<>();
+      for (PendingFlush flush : batch) {
+        try {
+          attributesByUser.put(flush.username, getUserAttributesNoLock(flush.username));
+          read.add(flush);
+        } catch (PersistenceException | RuntimeException userException) {
+          LOGGER.debug(
+              "Unable to read user {} data usage, will retry on the next flush",
+              flush.username,
+              userException);
+        }
+      }
+      batch = read;
+    }
+
+    try {
+      readWriteLock.writeLock().lock();
+
+      List<Map<String, Object>> items = new ArrayList<>();
+      List<Runnable> flushed = new ArrayList<>();
+      for (PendingFlush flush : batch) {
+        if (!flush.isCurrent()) {
+          continue;
+        }
+
+        Map<String, Object> attributes =
+            attributesByUser.getOrDefault(flush.username, Collections.emptyMap());
+        long dataUsage = getLong(attributes, DATA_USAGE_KEY, 0L) + flush.unflushed;
+        items.add(
+            toPersistentItem(
+                flush.username,
+                dataUsage,
+                getLong(attributes, DATA_USAGE_LIMIT_KEY, NO_DATA_LIMIT)));
+        flushed.add(() -> flush.usage.flushed(dataUsage, flush.added));
+      }
+
+      if (items.isEmpty()) {
+        return;
+      }
+
+      LOGGER.debug("Flushing the data usage of {} users", items.size());
+      persistentStore.add(PersistenceType.USER_ATTRIBUTE_TYPE.toString(), items);
+      flushed.forEach(Runnable::run);
+    } catch (PersistenceException | RuntimeException e) {
+      LOGGER.warn("Unable to save user data usages, will retry on the next flush", e);
+    } finally {
+      readWriteLock.writeLock().unlock();
+    }
+  }
+
+  /** Reads the persisted attributes of the users of the given flushes with a single query. */
+  private Map<String, Map<String, Object>> getUserAttributes(List<PendingFlush> batch)
+      throws PersistenceException {
+    String cql =
+        batch.stream().map(flush -> userCql(flush.username)).collect(Collectors.joining(" OR "));
+    List<Map<String, Object>> users =
+        persistentStore.get(
+            PersistenceType.USER_ATTRIBUTE_TYPE.toString(), cql, 0, FLUSH_BATCH_SIZE);
+
+    Map<String, Map<String, Object>> attributesByUser = new HashMap<>();
+    if (users != null) {
+      for (Map<String, Object> user : users) {
+        Map<String, Object> attributes = PersistentItem.stripSuffixes(user);
+        Object username = attributes.get(USER_KEY);
+        if (username instanceof String) {
+          attributesByUser.put((String) username, attributes);
+        }
       }
     }
+    return attributesByUser;
+  }
+
+  private void scheduleFlush() {
+    scheduledFuture =
+        executorService.scheduleWithFixedDelay(
+            this::flushDataUsages, flushPeriod, flushPeriod, TimeUnit.SECONDS);
+  }
+
+  /** Loads the data usages of all users that were persisted before startup. */
+  private void loadDataUsages() {
+    List<Map<String, Object>> users;
+    try {
+      readWriteLock.readLock().lock();
+      users = persistentStore.get(PersistenceType.USER_ATTRIBUTE_TYPE.toString());
+    } catch (PersistenceException e) {
+      LOGGER.debug("Unable to load user data usages, they will be loaded when first used", e);
+      return;
+    } finally {
+      readWriteLock.readLock().unlock();
+    }
+
+    if (users != null) {
+      for (Map<String, Object> user : users) {
+        Map<String, Object> attributes = PersistentItem.stripSuffixes(user);
+        Object username = attributes.get(USER_KEY);
+        if (username instanceof String) {
+          dataUsages.putIfAbsent(
+              (String) username, new DataUsage(getLong(attributes, DATA_USAGE_KEY, 0L), clock));
+        }
+      }
+      LOGGER.debug("Loaded the data usage of {} users", dataUsages.size());
+    }
+  }
+
+  private DataUsage getDataUsage(final String username) throws PersistenceException {
+    DataUsage usage = dataUsages.get(username);
+    if (usage != null) {
+      return usage;
+    }
+
+    try {
+      readWriteLock.readLock().lock();
+      DataUsage loaded = new DataUsage(getCurrentDataUsageByUserNoLock(username), clock);
+      usage = dataUsages.putIfAbsent(username, loaded);
+      return usage != null ? usage : loaded;
+    } finally {
+      readWriteLock.readLock().unlock();
+    }
+  }
+  /**
+   * Reads the usage of a user from the persistent store again, so that usages reset or changed by
+   * other nodes are picked up even if the user has not downloaded anything since.
+   */
+  private void refresh(final String username, final DataUsage usage) {
+    try {
+      readWriteLock.readLock().lock();
+      usage.refreshed(getCurrentDataUsageByUserNoLock(username));
+    } catch (PersistenceException e) {
+      LOGGER.debug("Unable to refresh user {} data usage, using the cached usage", username, e);
+    } finally {
+      readWriteLock.readLock().unlock();
+    }
   }
 
   private PersistentItem toPersistentItem(
@@ -190,36 +433,124 @@ private PersistentItem toPersistentItem(
   }
 
   private long getCurrentDataUsageByUserNoLock(final String username) throws PersistenceException {
-    long currentDataUsage = 0L;
-    List<Map<String, Object>> attributesList;
-    attributesList =
-        persistentStore.get(
-            PersistenceType.USER_ATTRIBUTE_TYPE.toString(),
-            String.format("%s = '%s'", USER_KEY, username));
+    long currentDataUsage = getLong(getUserAttributesNoLock(username), DATA_USAGE_KEY, 0L);
+    LOGGER.debug("User {} data usage {} ", username, currentDataUsage);
+    return currentDataUsage;
+  }
+
+  private long getDataLimitByUserNoLock(final String username) throws PersistenceException {
+    long dataLimit =
+        getLong(getUserAttributesNoLock(username), DATA_USAGE_LIMIT_KEY, NO_DATA_LIMIT);
+    LOGGER.debug("User {} data limit {} ", username, dataLimit);
+    return dataLimit;
+  }
+
+  private Map<String, Object> getUserAttributesNoLock(final String username)
+      throws PersistenceException {
+    List<Map<String, Object>> attributesList =
+        persistentStore.get(PersistenceType.USER_ATTRIBUTE_TYPE.toString(), userCql(username));
 
     if (attributesList != null && attributesList.size() == 1) {
-      Map<String, Object> attributes = PersistentItem.stripSuffixes(attributesList.get(0));
-      currentDataUsage = (long) attributes.get(DATA_USAGE_KEY);
+      return PersistentItem.stripSuffixes(attributesList.get(0));
+    }
+    return Collections.emptyMap();
+  }
 
-      LOGGER.debug("User {} data usage {} ", username, currentDataUsage);
+  private static String userCql(final String username) {
+    return String.format("%s = '%s'", USER_KEY, username.replace("'", "''"));
+  }
+
+  private static long getLong(Map<String, Object> attributes, String key, long defaultValue) {
+    Object value = attributes.get(key);
+    return value instanceof Long ? (long) value : defaultValue;
+  }
+
+  /** Downloads of one user that are about to be flushed. */
+  private static class PendingFlush {
+
+    private final String username;
+
+    private final DataUsage usage;
+
+    private final long added;
+
+    private final long unflushed;
+
+    PendingFlush(String username, DataUsage usage, long added, long unflushed) {
+      this.username = username;
+      this.usage = usage;
+      this.added = added;
+      this.unflushed = unflushed;
+    }
+
+    /** @return false if the usage was set or flushed since these downloads were collected */
+    boolean isCurrent() {
+      return usage.getUnflushed(added) == unflushed;
     }
-    return currentDataUsage;
   }
 
-  private long getDataLimitByUserNoLock(final String username) throws PersistenceException {
-    long dataLimit = NO_DATA_LIMIT;
-    List<Map<String, Object>> attributesList;
-    attributesList =
-        persistentStore.get(
-            PersistenceType.USER_ATTRIBUTE_TYPE.toString(),
-            String.format("%s = '%s'", USER_KEY, username));
+  /**
+   * Data usage of one user. Downloads are added to a {@link LongAdder}, so that concurrent
+   * downloads do not contend with each other. The part of them that has already been flushed to the
+   * persistent store is tracked separately.
+   */
+  private static class DataUsage {
 
-    if (attributesList != null && attributesList.size() == 1) {
-      Map<String, Object> attributes = PersistentItem.stripSuffixes(attributesList.get(0));
-      dataLimit = (long) attributes.get(DATA_USAGE_LIMIT_KEY);
+    /** Bytes added since the usage was loaded, which is never reset so no download is lost. */
+    private final LongAdder added = new LongAdder();
+
+    /** Usage in the persistent store. */
+    private long persisted;
+
+    /** Value of {@link #added} that is included in {@link #persisted}. */
+    private long flushedAdded;
 
-      LOGGER.debug("User {} data limit {} ", username, dataLimit);
+    private final Clock clock;
+
+    /** Time {@link #persisted} was last read from or written to the persistent store. */
+    private long persistedAt;
+
+    DataUsage(long persisted, Clock clock) {
+      this.persisted = persisted;
+      this.clock = clock;
+      this.persistedAt = clock.millis();
+    }
+
+    void add(long bytes) {
+      added.add(bytes);
+    }
+
+    synchronized long get() {
+      return persisted + added.sum() - flushedAdded;
+    }
+
+    long getAdded() {
+      return added.sum();
+    }
+
+    synchronized long getUnflushed(long addedSoFar) {
+      return addedSoFar - flushedAdded;
+    }
+
+    synchronized boolean isStale(long maxAgeMillis) {
+      return clock.millis() - persistedAt >= maxAgeMillis;
+    }
+
+    synchronized void refreshed(long persistedUsage) {
+      persisted = persistedUsage;
+      persistedAt = clock.millis();
+    }
+
+    synchronized void flushed(long persistedUsage, long addedSoFar) {
+      persisted = persistedUsage;
+      flushedAdded = addedSoFar;
+      persistedAt = clock.millis();
+    }
+
+    synchronized void reset(long usage) {
+      persisted = usage;
+      flushedAdded = added.sum();
+      persistedAt = clock.millis();
     }
-    return dataLimit;
   }
 }
@@ -13,20 +13,34 @@
  */
 package org.codice.ddf.persistence.attributes.internal;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.Mockito.atLeast;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.Clock;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import org.codice.ddf.persistence.PersistenceException;
 import org.codice.ddf.persistence.PersistentItem;
 import org.codice.ddf.persistence.PersistentStore;
@@ -44,8 +58,14 @@ public class AttributesStoreImplTest {
 
   private PersistentStore persistentStore = mock(PersistentStore.class);
 
+  private ScheduledExecutorService executorService = mock(ScheduledExecutorService.class);
+
   private static final String USER = "user";
 
+  private static final String OTHER_USER = "other";
+
+  private static final String USER_TXT = AttributesStore.USER_KEY + PersistentItem.TEXT_SUFFIX;
+
   private static final String CQL = String.format("%s = '%s'", AttributesStoreImpl.USER_KEY, USER);
 
   private static final String DATA_USAGE_LONG =
@@ -60,9 +80,14 @@ public class AttributesStoreImplTest {
 
   private static final Long LONG_5 = 500L;
 
+  private final AtomicLong now = new AtomicLong();
+
+  private final Clock clock = mock(Clock.class);
+
   @Before
   public void setup() {
-    attributesStore = new AttributesStoreImpl(persistentStore);
+    when(clock.millis()).then(invocation -> now.get());
+    attributesStore = new AttributesStoreImpl(persistentStore, executorService, clock);
   }
 
   @Test
@@ -83,28 +108,205 @@ public void testUpdateDataUsage() throws PersistenceException {
     ArgumentCaptor<String> keyArg1 = ArgumentCaptor.forClass(String.class);
     ArgumentCaptor<String> keyArg2 = ArgumentCaptor.forClass(String.class);
     ArgumentCaptor<String> cqlArg = ArgumentCaptor.forClass(String.class);
-    ArgumentCaptor<PersistentItem> itemArg = ArgumentCaptor.forClass(PersistentItem.class);
+    ArgumentCaptor<Collection<Map<String, Object>>> itemsArg = itemsCaptor();
 
     attributesList = new ArrayList<>();
     Map<String, Object> attributes = new HashMap<>();
+    attributes.put(USER_TXT, USER);
     attributes.put(DATA_USAGE_LONG, LONG_1);
     attributes.put(DATA_LIMIT_LONG, LONG_1);
     attributesList.add(attributes);
     when(persistentStore.get(anyString(), anyString())).thenReturn(attributesList);
+    when(persistentStore.get(anyString(), anyString(), anyInt(), anyInt()))
+        .thenReturn(attributesList);
 
     attributesStore.updateUserDataUsage(USER, LONG_5);
+    attributesStore.flushDataUsages();
 
-    verify(persistentStore, atLeast(2)).get(keyArg1.capture(), cqlArg.capture());
-    verify(persistentStore).add(keyArg2.capture(), itemArg.capture());
+    verify(persistentStore).get(anyString(), anyString());
+    verify(persistentStore).get(keyArg1.capture(), cqlArg.capture(), eq(0), anyInt());
+    verify(persistentStore).add(keyArg2.capture(), itemsArg.capture());
 
     assertThat(keyArg1.getValue(), is(PersistenceType.USER_ATTRIBUTE_TYPE.toString()));
     assertThat(keyArg2.getValue(), is(PersistenceType.USER_ATTRIBUTE_TYPE.toString()));
 
-    assertThat(itemArg.getValue().getLongProperty(AttributesStore.DATA_USAGE_KEY), is(600L));
+    PersistentItem item = getOnlyItem(itemsArg.getValue());
+    assertThat(item.getLongProperty(AttributesStore.DATA_USAGE_KEY), is(600L));
+    assertThat(item.getLongProperty(AttributesStore.DATA_USAGE_LIMIT_KEY), is(LONG_1));
 
     assertThat(cqlArg.getValue(), is(CQL));
   }
 
+  @Test
+  public void testUpdateDataUsageIsNotPersistedUntilFlushed() throws PersistenceException {
+    when(persistentStore.get(anyString(), anyString())).thenReturn(usageOf(LONG_1, LONG_5));
+
+    attributesStore.updateUserDataUsage(USER, LONG_1);
+    attributesStore.updateUserDataUsage(USER, LONG_2);
+
+    assertThat(attributesStore.getCurrentDataUsageByUser(USER), is(400L));
+    verify(persistentStore, times(1)).get(anyString(), anyString());
+    verify(persistentStore, never()).add(anyString(), anyMap());
+    verify(persistentStore, never()).add(anyString(), anyCollection());
+  }
+
+  @Test
+  public void testFlushAddsToUsageChangedInPersistentStore() throws PersistenceException {
+    ArgumentCaptor<Collection<Map<String, Object>>> itemsArg = itemsCaptor();
+    when(persistentStore.get(anyString(), anyString())).thenReturn(usageOf(LONG_1, LONG_5));
+    attributesStore.updateUserDataUsage(USER, LONG_2);
+
+    // another node flushed its own downloads in the meantime
+    whenFlushReads(usageOf(LONG_2, LONG_5));
+    attributesStore.flushDataUsages();
+
+    verify(persistentStore).add(anyString(), itemsArg.capture());
+    PersistentItem item = getOnlyItem(itemsArg.getValue());
+    assertThat(item.getLongProperty(AttributesStore.DATA_USAGE_KEY), is(400L));
+    assertThat(item.getLongProperty(AttributesStore.DATA_USAGE_LIMIT_KEY), is(LONG_5));
+    assertThat(attributesStore.getCurrentDataUsageByUser(USER), is(400L));
+
+    attributesStore.flushDataUsages();
+    verify(persistentStore, times(1)).add(anyString(), anyCollection());
+  }
+
+  @Test
+  public void testFailedFlushIsRetried() throws PersistenceException {
+    ArgumentCaptor<Collection<Map<String, Object>>> itemsArg = itemsCaptor();
+    when(persistentStore.get(anyString(), anyString())).thenReturn(usageOf(LONG_1, LONG_5));
+    whenFlushReads(usageOf(LONG_1, LONG_5));
+    attributesStore.updateUserDataUsage(USER, LONG_2);
+
+    doThrow(new PersistenceException()).when(persistentStore).add(anyString(), anyCollection());
+    attributesStore.flushDataUsages();
+    assertThat(attributesStore.getCurrentDataUsageByUser(USER), is(300L));
+
+    doNothing().when(persistentStore).add(anyString(), anyCollection());
+    attributesStore.flushDataUsages();
+
+    verify(persistentStore, times(2)).add(anyString(), itemsArg.capture());
+    PersistentItem item = getOnlyItem(itemsArg.getValue());
+    assertThat(item.getLongProperty(AttributesStore.DATA_USAGE_KEY), is(300L));
+  }
+
+  @Test
+  public void testFlushReadsAllUsersInOneQuery() throws PersistenceException {
+    ArgumentCaptor<String> cqlArg = ArgumentCaptor.forClass(String.class);
+    ArgumentCaptor<Collection<Map<String, Object>>> itemsArg = itemsCaptor();
+    when(persistentStore.get(anyString(), anyString())).thenReturn(usageOf(LONG_1, LONG_5));
+    List<Map<String, Object>> users = new ArrayList<>(usageOf(LONG_1, LONG_5));
+    users.add(usageOf(OTHER_USER, LONG_2, LONG_5).get(0));
+    whenFlushReads(users);
+
+    attributesStore.updateUserDataUsage(USER, LONG_1);
+    attributesStore.updateUserDataUsage(OTHER_USER, LONG_1);
+    attributesStore.flushDataUsages();
+
+    verify(persistentStore).get(anyString(), cqlArg.capture(), anyInt(), anyInt());
+    assertThat(cqlArg.getValue(), containsString(CQL));
+    assertThat(
+        cqlArg.getValue(),
+        containsString(String.format("%s = '%s'", AttributesStoreImpl.USER_KEY, OTHER_USER)));
+    verify(persistentStore).add(anyString(), itemsArg.capture());
+    assertThat(itemsArg.getValue().size(), is(2));
+    assertThat(attributesStore.getCurrentDataUsageByUser(USER), is(LONG_2));
+    assertThat(attributesStore.getCurrentDataUsageByUser(OTHER_USER), is(300L));
+  }
+
+  @Test
+  public void testFlushSkipsUsageSetWhileReading() throws PersistenceException {
+    when(persistentStore.get(anyString(), anyString())).thenReturn(usageOf(LONG_1, LONG_5));
+    attributesStore.updateUserDataUsage(USER, LONG_2);
+    when(persistentStore.get(anyString(), anyString(), anyInt(), anyInt()))
+        .then(
+            invocation -> {
+              attributesStore.setDataUsage(USER, 0L);
+              return usageOf(LONG_1, LONG_5);
+            });
+
+    attributesStore.flushDataUsages();
+
+    verify(persistentStore, never()).add(anyString(), anyCollection());
+    assertThat(attributesStore.getCurrentDataUsageByUser(USER), is(0L));
+  }
+
+  @Test
+  public void testFlushEscapesQuotesInUsernames() throws PersistenceException {
+    ArgumentCaptor<String> cqlArg = ArgumentCaptor.forClass(String.class);
+    when(persistentStore.get(anyString(), anyString())).thenReturn(usageOf(LONG_1, LONG_5));
+    whenFlushReads(usageOf("o'brien", LONG_1, LONG_5));
+
+    attributesStore.updateUserDataUsage("o'brien", LONG_1);
+    attributesStore.flushDataUsages();
+
+    verify(persistentStore).get(anyString(), cqlArg.capture(), anyInt(), anyInt());
+    assertThat(
+        cqlArg.getValue(), is(String.format("%s = 'o''brien'", AttributesStoreImpl.USER_KEY)));
+  }
+
+  @Test
+  public void testFailedBatchReadFallsBackToReadingEachUser() throws PersistenceException {
+    ArgumentCaptor<Collection<Map<String, Object>>> itemsArg = itemsCaptor();
+    when(persistentStore.get(anyString(), anyString())).thenReturn(usageOf(LONG_1, LONG_5));
+    when(persistentStore.get(anyString(), anyString(), anyInt(), anyInt()))
+        .thenThrow(new PersistenceException());
+
+    attributesStore.updateUserDataUsage(USER, LONG_1);
+    attributesStore.updateUserDataUsage(OTHER_USER, LONG_1);
+    attributesStore.flushDataUsages();
+
+    verify(persistentStore).add(anyString(), itemsArg.capture());
+    assertThat(itemsArg.getValue().size(), is(2));
+    assertThat(attributesStore.getCurrentDataUsageByUser(USER), is(LONG_2));
+    assertThat(attributesStore.getCurrentDataUsageByUser(OTHER_USER), is(LONG_2));
+  }
+
+  @Test
+  public void testUsageIsReadAgainAfterFlushPeriod() throws PersistenceException {
+    when(persistentStore.get(anyString(), anyString())).thenReturn(usageOf(LONG_1, LONG_5));
+    assertThat(attributesStore.getCurrentDataUsageByUser(USER), is(LONG_1));
+
+    // another node reset the usage
+    when(persistentStore.get(anyString(), anyString())).thenReturn(usageOf(0L, LONG_5));
+    now.addAndGet(TimeUnit.SECONDS.toMillis(5));
+    assertThat(attributesStore.getCurrentDataUsageByUser(USER), is(LONG_1));
+
+    now.addAndGet(TimeUnit.SECONDS.toMillis(5));
+    assertThat(attributesStore.getCurrentDataUsageByUser(USER), is(0L));
+  }
+
+  @Test
+  public void testInitLoadsPersistedUsagesAndSchedulesFlush() throws PersistenceException {
+    Map<String, Object> user = new HashMap<>();
+    user.put(AttributesStore.USER_KEY + PersistentItem.TEXT_SUFFIX, USER);
+    user.put(DATA_USAGE_LONG, LONG_2);
+    user.put(DATA_LIMIT_LONG, LONG_5);
+    when(persistentStore.get(anyString())).thenReturn(Collections.singletonList(user));
+
+    attributesStore.init();
+
+    assertThat(attributesStore.getCurrentDataUsageByUser(USER), is(LONG_2));
+    verify(persistentStore, never()).get(anyString(), anyString());
+    verify(executorService)
+        .scheduleWithFixedDelay(any(Runnable.class), anyLong(), anyLong(), any(TimeUnit.class));
+  }
+
+  @Test
+  public void testDestroyFlushesUsage() throws Exception {
+    ArgumentCaptor<Collection<Map<String, Object>>> itemsArg = itemsCaptor();
+    when(persistentStore.get(anyString(), anyString())).thenReturn(usageOf(LONG_1, LONG_5));
+    whenFlushReads(usageOf(LONG_1, LONG_5));
+    when(executorService.awaitTermination(anyLong(), any(TimeUnit.class))).thenReturn(true);
+    attributesStore.updateUserDataUsage(USER, LONG_5);
+
+    attributesStore.destroy();
+
+    verify(executorService).shutdown();
+    verify(persistentStore).add(anyString(), itemsArg.capture());
+    assertThat(
+        getOnlyItem(itemsArg.getValue()).getLongProperty(AttributesStore.DATA_USAGE_KEY), is(600L));
+  }
+
   @Test
   public void testSetDataUsage() throws PersistenceException {
 
@@ -255,4 +457,30 @@ public void resetUserDataUsages() throws PersistenceException {
     assertThat(
         itemArg.getValue().getLongProperty(AttributesStore.DATA_USAGE_LIMIT_KEY), is(LONG_1));
   }
+
+  private void whenFlushReads(List<Map<String, Object>> users) throws PersistenceException {
+    when(persistentStore.get(anyString(), anyString(), anyInt(), anyInt())).thenReturn(users);
+  }
+
+  private List<Map<String, Object>> usageOf(long dataUsage, long dataLimit) {
+    return usageOf(USER, dataUsage, dataLimit);
+  }
+
+  private List<Map<String, Object>> usageOf(String username, long dataUsage, long dataLimit) {
+    Map<String, Object> attributes = new HashMap<>();
+    attributes.put(USER_TXT, username);
+    attributes.put(DATA_USAGE_LONG, dataUsage);
+    attributes.put(DATA_LIMIT_LONG, dataLimit);
+    return Collections.singletonList(attributes);
+  }
+
+  @SuppressWarnings("unchecked")
+  private ArgumentCaptor<Collection<Map<String, Object>>> itemsCaptor() {
+    return ArgumentCaptor.forClass(Collection.class);
+  }
+
+  private PersistentItem getOnlyItem(Collection<Map<String, Object>> items) {
+    assertThat(items.size(), is(1));
+    return (PersistentItem) items.iterator().next();
+  }
 }
@@ -18,6 +18,8 @@
 import com.google.common.annotations.VisibleForTesting;
 import ddf.security.SecurityConstants;
 import ddf.security.audit.SecurityLogger;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -31,8 +33,10 @@
 import java.security.cert.CertificateEncodingException;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
+import java.time.Clock;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -41,6 +45,9 @@
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import javax.ws.rs.ProcessingException;
@@ -74,7 +81,10 @@
 import org.codice.ddf.cxf.client.ClientBuilder;
 import org.codice.ddf.cxf.client.ClientBuilderFactory;
 import org.codice.ddf.cxf.client.SecureCxfClientFactory;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
 import org.codice.ddf.security.OcspService;
+import org.codice.ddf.security.ocsp.checker.OcspResponseCache.CachedStatus;
+import org.codice.ddf.security.ocsp.checker.OcspResponseCache.Key;
 import org.codice.ddf.system.alerts.NoticePriority;
 import org.codice.ddf.system.alerts.SystemNotice;
 import org.osgi.service.event.Event;
@@ -86,18 +96,44 @@ public class OcspChecker implements OcspService {
   private static final Logger LOGGER = LoggerFactory.getLogger(OcspChecker.class);
   private static final String NOT_VERIFIED_MSG = " The certificate status could not be verified.";
   private static final String CONTINUING_MSG = " Continuing OCSP check.";
+  private static final String RESPONDER_LATENCY_METRIC = "ddf.security.ocsp.responder.latency";
+  private static final long SHUTDOWN_TIMEOUT_SECONDS = 60;
 
   private final ClientBuilderFactory factory;
   private final EventAdmin eventAdmin;
+  private final ExecutorService refreshExecutor;
+  private final Clock clock;
 
   private boolean ocspEnabled; // metatype value
   private List<URI> ocspServerUrls = new ArrayList<>(); // metatype value
+  private long ocspCacheMaxAge = 3600; // metatype value
+  private long ocspCacheRefreshAhead = 60; // metatype value
+  private long ocspSoftFailGracePeriod = 3600; // metatype value
+
+  private volatile OcspResponseCache responseCache;
 
   private SecurityLogger securityLogger;
 
   public OcspChecker(ClientBuilderFactory factory, EventAdmin eventAdmin) {
+    this(
+        factory,
+        eventAdmin,
+        Executors.newSingleThreadExecutor(
+            StandardThreadFactoryBuilder.newThreadFactory("ocspRefreshThread")),
+        Clock.systemUTC());
+  }
+
+  @VisibleForTesting
+  OcspChecker(
+      ClientBuilderFactory factory,
+      EventAdmin eventAdmin,
+      ExecutorService refreshExecutor,
+      Clock clock) {
     this.factory = factory;
     this.eventAdmin = eventAdmin;
+    this.refreshExecutor = refreshExecutor;
+    this.clock = clock;
+    this.responseCache = newResponseCache();
   }
 
   /**
@@ -119,8 +155,7 @@ public boolean passesOcspCheck(X509Certificate[] certs) {
     for (X509Certificate cert : certs) {
       try {
         Certificate certificate = convertToBouncyCastleCert(cert);
-        OCSPReq ocspRequest = generateOcspRequest(certificate);
-        Map<URI, CertificateStatus> ocspStatuses = sendOcspRequests(cert, ocspRequest);
+        Map<URI, CertificateStatus> ocspStatuses = getOcspStatuses(cert, certificate);
         URI revokedStatusUrl = getFirstRevokedStatusUrl(ocspStatuses);
         if (revokedStatusUrl != null) {
           securityLogger.audit(
@@ -143,6 +178,58 @@ public boolean passesOcspCheck(X509Certificate[] certs) {
     return true;
   }
 
+  /**
+   * Gets the statuses of the given {@param cert} from all configured {@code ocspServerUrls} & the
+   * OCSP server urls optionally given in the given {@param cert}. Statuses that are remembered in
+   * the response cache are not requested again.
+   *
+   * @param cert - the {@link X509Certificate} to check.
+   * @param certificate - the given {@param cert} as a {@link Certificate}.
+   * @return a {@link Map} of OCSP URLs and their respective {@link CertificateStatus}.
+   * @throws OcspCheckerException if the OCSP request cannot be created.
+   */
+  private Map<URI, CertificateStatus> getOcspStatuses(X509Certificate cert, Certificate certificate)
+      throws OcspCheckerException {
+    OcspResponseCache cache = responseCache;
+    Map<URI, CertificateStatus> ocspStatuses = new HashMap<>();
+    Set<URI> uncachedUrls = new HashSet<>();
+
+    for (URI ocspServerUrl : getOcspUrls(cert)) {
+      CachedStatus cachedStatus =
+          cache.getIfFresh(
+              new Key(ocspServerUrl, cert),
+              () -> refreshOcspStatus(cache, ocspServerUrl, cert, certificate));
+      if (cachedStatus != null) {
+        ocspStatuses.put(ocspServerUrl, cachedStatus.getStatus());
+      } else {
+        uncachedUrls.add(ocspServerUrl);
+      }
+    }
+
+    // a remembered revocation is enough to reject the certificate
+    if (!uncachedUrls.isEmpty() && getFirstRevokedStatusUrl(ocspStatuses) == null) {
+      OCSPReq ocspRequest = generateOcspRequest(certificate);
+      ocspStatuses.putAll(sendOcspRequests(cache, cert, ocspRequest, uncachedUrls));
+    }
+    return ocspStatuses;
+  }
+
+  /**
+   * Requests the status of the given {@param cert} from the given {@param ocspServerUrl} again and
+   * remembers it in the given {@param cache}. Errors are only logged, since the remembered status
+   * is still valid.
+   */
+  private void refreshOcspStatus(
+      OcspResponseCache cache, URI ocspServerUrl, X509Certificate cert, Certificate certificate) {
+    try {
+      OCSPReq ocspRequest = generateOcspRequest(certificate);
+      LOGGER.debug("Refreshing the OCSP status from URL: {}", ocspServerUrl);
+      sendOcspRequest(cache, ocspServerUrl, cert, ocspRequest);
+    } catch (OcspCheckerException e) {
+      LOGGER.debug("Unable to refresh the OCSP status from URL {}.", ocspServerUrl, e);
+    }
+  }
+
   /**
    * Converts a {@link java.security.cert.X509Certificate} to a {@link Certificate}.
    *
@@ -287,14 +374,19 @@ private X509CertificateHolder getCertFromTruststoreWithX500Name(
    */
   @VisibleForTesting
   Map<URI, CertificateStatus> sendOcspRequests(X509Certificate cert, OCSPReq ocspRequest) {
-    Set<URI> urlsToCheck = new HashSet<>();
-    if (ocspServerUrls != null) {
-      urlsToCheck.addAll(ocspServerUrls);
-    }
-
-    // try and pull an OCSP server url off of the cert
-    urlsToCheck.addAll(getOcspUrlsFromCert(cert));
+    return sendOcspRequests(responseCache, cert, ocspRequest, getOcspUrls(cert));
+  }
 
+  /**
+   * Sends the {@param ocspReq} request to the given {@param urlsToCheck}. Statuses that cannot be
+   * retrieved are taken from the given {@param cache} while they are within the soft-fail grace
+   * period.
+   */
+  private Map<URI, CertificateStatus> sendOcspRequests(
+      OcspResponseCache cache,
+      X509Certificate cert,
+      OCSPReq ocspRequest,
+      Collection<URI> urlsToCheck) {
     if (LOGGER.isTraceEnabled()) {
       logRequest(ocspRequest);
     }
@@ -303,40 +395,102 @@ Map<URI, CertificateStatus> sendOcspRequests(X509Certificate cert, OCSPReq ocspR
 
     for (URI ocspServerUrl : urlsToCheck) {
       try {
-        ClientBuilder<WebClient> clientBuilder = factory.getClientBuilder();
-        SecureCxfClientFactory<WebClient> cxfClientFactory =
-            clientBuilder
-                .endpoint(ocspServerUrl.toString())
-                .interfaceClass(WebClient.class)
-                .build();
-        WebClient client =
-            cxfClientFactory
-                .getWebClient()
-                .accept("application/ocsp-response")
-                .type("application/ocsp-request");
-
-        LOGGER.debug("Sending OCSP request to URL: {}", ocspServerUrl);
-        Response response = client.post(ocspRequest.getEncoded());
-        OCSPResp ocspResponse = createOcspResponse(response);
-        if (LOGGER.isTraceEnabled()) {
-          logResponse(ocspResponse);
-        }
-        ocspStatuses.put(ocspServerUrl, getStatusFromOcspResponse(ocspResponse, cert));
+        ocspStatuses.put(ocspServerUrl, sendOcspRequest(cache, ocspServerUrl, cert, ocspRequest));
         continue;
-      } catch (IOException | OcspCheckerException | ProcessingException e) {
+      } catch (OcspCheckerException e) {
         LOGGER.debug(
             "Problem with the response from the OCSP Server at URL {}." + CONTINUING_MSG,
             ocspServerUrl,
             e);
       }
-      ocspStatuses.put(
-          ocspServerUrl,
-          new UnknownStatus()); // if ocspServerUrl is null or if there was an exception
+
+      CachedStatus cachedStatus = cache.getIfWithinGracePeriod(new Key(ocspServerUrl, cert));
+      if (cachedStatus != null) {
+        LOGGER.debug("Using the last known OCSP status from URL {}.", ocspServerUrl);
+        ocspStatuses.put(ocspServerUrl, cachedStatus.getStatus());
+      } else {
+        ocspStatuses.put(
+            ocspServerUrl,
+            new UnknownStatus()); // if ocspServerUrl is null or if there was an exception
+      }
     }
 
     return ocspStatuses;
   }
 
+  /**
+   * Sends the {@param ocspReq} request to the given {@param ocspServerUrl} and remembers the
+   * returned status in the given {@param cache}.
+   *
+   * @return the {@link CertificateStatus} from the OCSP server. Returns an {@link UnknownStatus} if
+   *     the status could not be found in the response.
+   * @throws OcspCheckerException if the OCSP server cannot be reached or returns an invalid
+   *     response.
+   */
+  private CertificateStatus sendOcspRequest(
+      OcspResponseCache cache, URI ocspServerUrl, X509Certificate cert, OCSPReq ocspRequest)
+      throws OcspCheckerException {
+    long start = System.nanoTime();
+    boolean success = false;
+    try {
+      ClientBuilder<WebClient> clientBuilder = factory.getClientBuilder();
+      SecureCxfClientFactory<WebClient> cxfClientFactory =
+          clientBuilder.endpoint(ocspServerUrl.toString()).interfaceClass(WebClient.class).build();
+      WebClient client =
+          cxfClientFactory
+              .getWebClient()
+              .accept("application/ocsp-response")
+              .type("application/ocsp-request");
+
+      LOGGER.debug("Sending OCSP request to URL: {}", ocspServerUrl);
+      Response response = client.post(ocspRequest.getEncoded());
+      OCSPResp ocspResponse = createOcspResponse(response);
+      success = true;
+      if (LOGGER.isTraceEnabled()) {
+        logResponse(ocspResponse);
+      }
+
+      SingleResp singleResp = getSingleRespFromOcspResponse(ocspResponse, cert);
+      if (singleResp == null) {
+        return new UnknownStatus();
+      }
+      cache.put(
+          new Key(ocspServerUrl, cert),
+          singleResp.getCertStatus(),
+          singleResp.getThisUpdate(),
+          singleResp.getNextUpdate());
+      if (singleResp.getCertStatus() == null) {
+        LOGGER.debug("Certificate status from OCSP response is good.");
+        return CertificateStatus.GOOD;
+      }
+      return singleResp.getCertStatus();
+    } catch (IOException | ProcessingException e) {
+      throw new OcspCheckerException(e);
+    } finally {
+      Timer.builder(RESPONDER_LATENCY_METRIC)
+          .tag("responder", ocspServerUrl.toString())
+          .tag("outcome", success ? "success" : "failure")
+          .register(Metrics.globalRegistry)
+          .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  /**
+   * @param cert - the {@link X509Certificate} to check.
+   * @return the configured {@code ocspServerUrls} & the OCSP server urls optionally given in the
+   *     given {@param cert}.
+   */
+  private Set<URI> getOcspUrls(X509Certificate cert) {
+    Set<URI> urlsToCheck = new HashSet<>();
+    if (ocspServerUrls != null) {
+      urlsToCheck.addAll(ocspServerUrls);
+    }
+
+    // try and pull an OCSP server url off of the cert
+    urlsToCheck.addAll(getOcspUrlsFromCert(cert));
+    return urlsToCheck;
+  }
+
   /**
    * Attempts to grab additional OCSP server urls off of the given {@param cert}.
    *
@@ -400,24 +554,25 @@ private OCSPResp createOcspResponse(Response response) throws OcspCheckerExcepti
   }
 
   /**
-   * Gets the {@link CertificateStatus} from the given {@param ocspResponse}.
+   * Gets the {@link SingleResp} of the given {@param certificate} from the given {@param
+   * ocspResponse}.
    *
-   * @param ocspResponse - the {@link OCSPResp} to get the {@link CertificateStatus} from.
-   * @return the {@link CertificateStatus} from the given {@param ocspResponse}. Returns an {@link
-   *     UnknownStatus} if the status could not be found.
+   * @param ocspResponse - the {@link OCSPResp} to get the {@link SingleResp} from.
+   * @return the {@link SingleResp} from the given {@param ocspResponse}, or null if the status
+   *     could not be found.
    */
-  private CertificateStatus getStatusFromOcspResponse(
+  private @Nullable SingleResp getSingleRespFromOcspResponse(
       OCSPResp ocspResponse, X509Certificate certificate) {
     try {
       BasicOCSPResp basicResponse = (BasicOCSPResp) ocspResponse.getResponseObject();
 
       if (basicResponse == null) {
-        return new UnknownStatus();
+        return null;
       }
 
       SingleResp[] singleResps = basicResponse.getResponses();
       if (singleResps == null) {
-        return new UnknownStatus();
+        return null;
       }
       SingleResp response =
           Arrays.stream(singleResps)
@@ -432,15 +587,10 @@ private CertificateStatus getStatusFromOcspResponse(
               .orElse(null);
       if (response == null) {
         LOGGER.debug("Certificate status from OCSP response is unknown.");
-        return new UnknownStatus();
-      }
-      if (response.getCertStatus() == null) {
-        LOGGER.debug("Certificate status from OCSP response is good.");
-        return CertificateStatus.GOOD;
       }
-      return response.getCertStatus();
+      return response;
     } catch (OCSPException e) {
-      return new UnknownStatus();
+      return null;
     }
   }
 
@@ -671,6 +821,97 @@ public void setOcspEnabled(boolean ocspEnabled) {
     this.ocspEnabled = ocspEnabled;
   }
 
+  public void setOcspCacheMaxAge(long ocspCacheMaxAge) {
+    this.ocspCacheMaxAge = ocspCacheMaxAge;
+  }
+
+  public void setOcspCacheRefreshAhead(long ocspCacheRefreshAhead) {
+    this.ocspCacheRefreshAhead = ocspCacheRefreshAhead;
+  }
+
+  public void setOcspSoftFailGracePeriod(long ocspSoftFailGracePeriod) {
+    this.ocspSoftFailGracePeriod = ocspSoftFailGracePeriod;
+  }
+
+  /** Init method to build the response cache once all properties have been set. */
+  public void init() {
+    updateResponseCache();
+  }
+
+  /**
+   * Callback method that is called when the configuration is updated. The response cache is only
+   * rebuilt, dropping the remembered statuses, if one of its settings changed.
+   *
+   * @param properties the updated configuration
+   */
+  public void update(Map<String, Object> properties) {
+    if (properties == null) {
+      return;
+    }
+
+    Object enabled = properties.get("ocspEnabled");
+    if (enabled != null) {
+      setOcspEnabled(Boolean.parseBoolean(enabled.toString()));
+    }
+
+    Object serverUrls = properties.get("ocspServerUrls");
+    if (serverUrls instanceof String[]) {
+      setOcspServerUrls(Arrays.asList((String[]) serverUrls));
+    } else if (serverUrls instanceof Collection) {
+      setOcspServerUrls(
+          ((Collection<?>) serverUrls).stream().map(Object::toString).collect(Collectors.toList()));
+    }
+
+    ocspCacheMaxAge = getLong(properties, "ocspCacheMaxAge", ocspCacheMaxAge);
+    ocspCacheRefreshAhead = getLong(properties, "ocspCacheRefreshAhead", ocspCacheRefreshAhead);
+    ocspSoftFailGracePeriod =
+        getLong(properties, "ocspSoftFailGracePeriod", ocspSoftFailGracePeriod);
+    updateResponseCache();
+  }
+
+  private static long getLong(Map<String, Object> properties, String key, long defaultValue) {
+    Object value = properties.get(key);
+    if (value instanceof Number) {
+      return ((Number) value).longValue();
+    }
+    if (value != null) {
+      try {
+        return Long.parseLong(value.toString().trim());
+      } catch (NumberFormatException e) {
+        LOGGER.warn("Invalid value [{}] for {}. Keeping {}.", value, key, defaultValue);
+      }
+    }
+    return defaultValue;
+  }
+
+  private void updateResponseCache() {
+    if (!responseCache.hasSettings(
+        ocspCacheMaxAge, ocspCacheRefreshAhead, ocspSoftFailGracePeriod)) {
+      responseCache = newResponseCache();
+    }
+  }
+
+  private OcspResponseCache newResponseCache() {
+    return new OcspResponseCache(
+        ocspCacheMaxAge, ocspCacheRefreshAhead, ocspSoftFailGracePeriod, refreshExecutor, clock);
+  }
+
+  /** Destroy method to shutdown the background refreshes when the configuration is deleted. */
+  public void destroy() {
+    refreshExecutor.shutdown();
+    try {
+      if (!refreshExecutor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        refreshExecutor.shutdownNow();
+        if (!refreshExecutor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+          LOGGER.error("OCSP refresh thread was unable to terminate successfully.");
+        }
+      }
+    } catch (InterruptedException e) {
+      refreshExecutor.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+  }
+
   public void setOcspServerUrls(List<String> ocspServerUrls) {
     this.ocspServerUrls =
         ocspServerUrls.stream()
@@ -0,0 +1,263 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.security.ocsp.checker;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import java.math.BigInteger;
+import java.net.URI;
+import java.security.cert.X509Certificate;
+import java.time.Clock;
+import java.util.Date;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import javax.security.auth.x500.X500Principal;
+import org.bouncycastle.cert.ocsp.CertificateStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Remembers the certificate statuses returned by each OCSP server, so that a certificate presented
+ * many times is not checked against the OCSP servers every time.
+ *
+ * <p>A status is remembered until the {@code nextUpdate} time of its response, and never longer
+ * than the configured maximum age. Statuses that are requested shortly before they expire are
+ * refreshed in the background, so that frequently presented certificates are not held up by the
+ * OCSP servers. When an OCSP server cannot be reached, an expired status is still used during a
+ * grace period.
+ */
+class OcspResponseCache {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(OcspResponseCache.class);
+
+  private static final String CACHE_METRIC = "ddf.security.ocsp.cache";
+
+  private static final int MAX_ENTRIES = 10000;
+
+  private final Clock clock;
+
+  private final Executor refreshExecutor;
+
+  private final long maxAgeMillis;
+
+  private final long refreshAheadMillis;
+
+  private final long gracePeriodMillis;
+
+  private final Cache<Key, CachedStatus> statuses;
+
+  private final Set<Key> refreshing = ConcurrentHashMap.newKeySet();
+
+  private final Counter hits =
+      Counter.builder(CACHE_METRIC).tag("result", "hit").register(Metrics.globalRegistry);
+
+  private final Counter misses =
+      Counter.builder(CACHE_METRIC).tag("result", "miss").register(Metrics.globalRegistry);
+
+  private final Counter stale =
+      Counter.builder(CACHE_METRIC).tag("result", "stale").register(Metrics.globalRegistry);
+
+  /**
+   * @param maxAgeSeconds maximum number of seconds a status is remembered for, {@code 0} disables
+   *     the cache
+   * @param refreshAheadSeconds number of seconds before a status expires during which a request for
+   *     it refreshes it in the background
+   * @param gracePeriodSeconds number of seconds an expired status is still used for when the OCSP
+   *     server cannot be reached
+   * @param refreshExecutor runs the background refreshes
+   * @param clock source of the current time
+   */
+  OcspResponseCache(
+      long maxAgeSeconds,
+      long refreshAheadSeconds,
+      long gracePeriodSeconds,
+      Executor refreshExecutor,
+      Clock clock) {
+    this.maxAgeMillis = TimeUnit.SECONDS.toMillis(Math.max(0, maxAgeSeconds));
+    this.refreshAheadMillis = TimeUnit.SECONDS.toMillis(Math.max(0, refreshAheadSeconds));
+    this.gracePeriodMillis = TimeUnit.SECONDS.toMillis(Math.max(0, gracePeriodSeconds));
+    this.refreshExecutor = refreshExecutor;
+    this.clock = clock;
+    this.statuses =
+        CacheBuilder.newBuilder()
+            .maximumSize(MAX_ENTRIES)
+            .expireAfterWrite(maxAgeMillis + gracePeriodMillis, TimeUnit.MILLISECONDS)
+            .ticker(
+                new Ticker() {
+                  @Override
+                  public long read() {
+                    return TimeUnit.MILLISECONDS.toNanos(clock.millis());
+                  }
+                })
+            .build();
+  }
+
+  /**
+   * Returns the remembered status if it has not expired yet. If it is about to expire, it is
+   * refreshed in the background.
+   *
+   * @param key OCSP server and certificate of the status
+   * @param refresh requests the status from the OCSP server again and {@link #put remembers} it
+   * @return the remembered status, or {@code null} if there is none
+   */
+  @Nullable
+  CachedStatus getIfFresh(Key key, Runnable refresh) {
+    if (!isEnabled()) {
+      return null;
+    }
+
+    CachedStatus cachedStatus = statuses.getIfPresent(key);
+    long now = clock.millis();
+    if (cachedStatus == null || now >= cachedStatus.expiresAt) {
+      misses.increment();
+      return null;
+    }
+
+    hits.increment();
+    if (cachedStatus.expiresAt - now <= refreshAheadMillis && refreshing.add(key)) {
+      try {
+        refreshExecutor.execute(
+            () -> {
+              try {
+                refresh.run();
+              } finally {
+                refreshing.remove(key);
+              }
+            });
+      } catch (RejectedExecutionException e) {
+        refreshing.remove(key);
+        LOGGER.debug("Unable to refresh the OCSP status from {}.", key.ocspServerUrl, e);
+      }
+    }
+    return cachedStatus;
+  }
+
+  /**
+   * Returns the remembered status if it has not expired, or expired less than the grace period ago.
+   * Used when the OCSP server cannot be reached.
+   *
+   * @param key OCSP server and certificate of the status
+   * @return the remembered status, or {@code null} if there is none
+   */
+  @Nullable
+  CachedStatus getIfWithinGracePeriod(Key key) {
+    if (!isEnabled()) {
+      return null;
+    }
+
+    CachedStatus cachedStatus = statuses.getIfPresent(key);
+    if (cachedStatus == null || clock.millis() >= cachedStatus.expiresAt + gracePeriodMillis) {
+      return null;
+    }
+    stale.increment();
+    return cachedStatus;
+  }
+
+  /**
+   * Remembers a status returned by an OCSP server.
+   *
+   * @param key OCSP server and certificate of the status
+   * @param status status returned by the OCSP server
+   * @param thisUpdate time at which the status was known to be correct
+   * @param nextUpdate time at or before which newer information will be available, if any
+   */
+  void put(Key key, CertificateStatus status, Date thisUpdate, @Nullable Date nextUpdate) {
+    if (!isEnabled() || thisUpdate == null) {
+      return;
+    }
+
+    long now = clock.millis();
+    long expiresAt =
+        nextUpdate != null ? nextUpdate.getTime() : thisUpdate.getTime() + maxAgeMillis;
+    expiresAt = Math.min(expiresAt, now + maxAgeMillis);
+    if (expiresAt <= now) {
+      LOGGER.debug(
+          "Not caching the OCSP status from {}, because it has already expired.",
+          key.ocspServerUrl);
+      return;
+    }
+    statuses.put(key, new CachedStatus(status, expiresAt));
+  }
+
+  /** @return true if this cache was created with the given settings */
+  boolean hasSettings(long maxAgeSeconds, long refreshAheadSeconds, long gracePeriodSeconds) {
+    return maxAgeMillis == TimeUnit.SECONDS.toMillis(Math.max(0, maxAgeSeconds))
+        && refreshAheadMillis == TimeUnit.SECONDS.toMillis(Math.max(0, refreshAheadSeconds))
+        && gracePeriodMillis == TimeUnit.SECONDS.toMillis(Math.max(0, gracePeriodSeconds));
+  }
+
+  private boolean isEnabled() {
+    return maxAgeMillis > 0;
+  }
+
+  /** Identifies the status of a certificate returned by an OCSP server. */
+  static final class Key {
+    private final URI ocspServerUrl;
+
+    private final X500Principal issuer;
+
+    private final BigInteger serialNumber;
+
+    Key(URI ocspServerUrl, X509Certificate certificate) {
+      this.ocspServerUrl = ocspServerUrl;
+      this.issuer = certificate.getIssuerX500Principal();
+      this.serialNumber = certificate.getSerialNumber();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) o;
+      return ocspServerUrl.equals(key.ocspServerUrl)
+          && issuer.equals(key.issuer)
+          && serialNumber.equals(key.serialNumber);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(ocspServerUrl, issuer, serialNumber);
+    }
+  }
+
+  /** Certificate status remembered until it expires. */
+  static final class CachedStatus {
+    private final CertificateStatus status;
+
+    private final long expiresAt;
+
+    private CachedStatus(CertificateStatus status, long expiresAt) {
+      this.status = status;
+      this.expiresAt = expiresAt;
+    }
+
+    /** @return the status, which is {@code null} for {@link CertificateStatus#GOOD} */
+    @Nullable
+    CertificateStatus getStatus() {
+      return status;
+    }
+  }
+}
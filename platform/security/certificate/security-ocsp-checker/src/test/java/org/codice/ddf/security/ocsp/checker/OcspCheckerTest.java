@@ -24,6 +24,7 @@
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import com.google.common.util.concurrent.MoreExecutors;
 import ddf.security.SecurityConstants;
 import ddf.security.audit.SecurityLogger;
 import ddf.security.service.SecurityManager;
@@ -33,14 +34,20 @@
 import java.net.URL;
 import java.security.cert.CertificateFactory;
 import java.security.cert.X509Certificate;
+import java.time.Clock;
 import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import javax.security.auth.x500.X500Principal;
 import javax.ws.rs.core.Response;
 import org.apache.cxf.jaxrs.client.WebClient;
 import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.CRLReason;
 import org.bouncycastle.asn1.x509.Certificate;
 import org.bouncycastle.cert.ocsp.CertificateStatus;
 import org.bouncycastle.cert.ocsp.OCSPReq;
@@ -82,6 +89,11 @@ public class OcspCheckerTest {
   private final List<URI> revokedEndpoints = new ArrayList<>();
   private final List<URI> unknownEndpoints = new ArrayList<>();
   private final List<URI> brokenEndpoints = new ArrayList<>();
+  private final List<URI> stubEndpoints = new ArrayList<>();
+
+  private final AtomicLong now = new AtomicLong(1_500_000_000_000L);
+  private final Clock clock = mock(Clock.class);
+  private StubOcspResponder stubResponder;
 
   // mocks
   @Mock private Response goodResponse;
@@ -102,6 +114,7 @@ public class OcspCheckerTest {
   private final ArgumentMatcher<URI> inRevokedList = revokedEndpoints::contains;
   private final ArgumentMatcher<URI> inUnknownList = unknownEndpoints::contains;
   private final ArgumentMatcher<URI> inBrokenList = brokenEndpoints::contains;
+  private final ArgumentMatcher<URI> inStubList = stubEndpoints::contains;
 
   @BeforeClass
   public static void setupClass() throws Exception {
@@ -149,6 +162,9 @@ public void setup() throws Exception {
         .then(getResourceStreamAsAnswer("unknownOcspResponse.streamData"));
     when(brokenResponse.getEntity()).thenReturn(null);
 
+    when(clock.millis()).then(invocation -> now.get());
+    stubResponder = new StubOcspResponder();
+
     ClientBuilder<WebClient> clientBuilder =
         new ClientBuilderImpl<WebClient>(
             mock(OAuthSecurity.class),
@@ -170,6 +186,9 @@ public SecureCxfClientFactory<WebClient> build() {
               if (inBrokenList.matches(new URI(endpointUrl))) {
                 return brokenSecureCxfClientFactory;
               }
+              if (inStubList.matches(new URI(endpointUrl))) {
+                return stubResponder.getSecureCxfClientFactory();
+              }
               return null;
             } catch (URISyntaxException e) {
               return null;
@@ -640,6 +659,149 @@ public void testOcspCheckDisabled() throws Exception {
     assertThat(ocspChecker.passesOcspCheck(certs), is(true));
   }
 
+  @Test
+  public void testOcspCheckUsesCachedStatus() throws Exception {
+    stubEndpoints.add(new URI(EMBEDDED_OCSP_SERVER_URL));
+    stubResponder.setThisUpdate(new Date(now.get()));
+    stubResponder.setNextUpdate(new Date(now.get() + TimeUnit.HOURS.toMillis(1)));
+
+    OcspChecker ocspChecker = newCachingOcspChecker();
+    X509Certificate[] certs = new X509Certificate[] {trustedCertX509};
+
+    assertThat(ocspChecker.passesOcspCheck(certs), is(true));
+    assertThat(ocspChecker.passesOcspCheck(certs), is(true));
+    assertThat(stubResponder.getRequestCount(), is(1));
+  }
+
+  @Test
+  public void testOcspCheckCachedStatusExpiresAtNextUpdate() throws Exception {
+    stubEndpoints.add(new URI(EMBEDDED_OCSP_SERVER_URL));
+    stubResponder.setThisUpdate(new Date(now.get()));
+    stubResponder.setNextUpdate(new Date(now.get() + TimeUnit.MINUTES.toMillis(10)));
+
+    OcspChecker ocspChecker = newCachingOcspChecker();
+    X509Certificate[] certs = new X509Certificate[] {trustedCertX509};
+
+    assertThat(ocspChecker.passesOcspCheck(certs), is(true));
+    now.addAndGet(TimeUnit.MINUTES.toMillis(5));
+    assertThat(ocspChecker.passesOcspCheck(certs), is(true));
+    assertThat(stubResponder.getRequestCount(), is(1));
+
+    now.addAndGet(TimeUnit.MINUTES.toMillis(5));
+    assertThat(ocspChecker.passesOcspCheck(certs), is(true));
+    assertThat(stubResponder.getRequestCount(), is(2));
+  }
+
+  @Test
+  public void testOcspCheckRefreshesStatusBeforeExpiry() throws Exception {
+    stubEndpoints.add(new URI(EMBEDDED_OCSP_SERVER_URL));
+    stubResponder.setThisUpdate(new Date(now.get()));
+    stubResponder.setNextUpdate(new Date(now.get() + TimeUnit.MINUTES.toMillis(10)));
+
+    OcspChecker ocspChecker = newCachingOcspChecker();
+    X509Certificate[] certs = new X509Certificate[] {trustedCertX509};
+
+    assertThat(ocspChecker.passesOcspCheck(certs), is(true));
+
+    // the cached status is used while the refresh picks up the revocation
+    stubResponder.setStatus(new RevokedStatus(new Date(now.get()), CRLReason.keyCompromise));
+    stubResponder.setNextUpdate(new Date(now.get() + TimeUnit.MINUTES.toMillis(20)));
+    now.addAndGet(TimeUnit.MINUTES.toMillis(10) - TimeUnit.SECONDS.toMillis(30));
+    assertThat(ocspChecker.passesOcspCheck(certs), is(true));
+    assertThat(stubResponder.getRequestCount(), is(2));
+
+    assertThat(ocspChecker.passesOcspCheck(certs), is(false));
+    assertThat(stubResponder.getRequestCount(), is(2));
+  }
+
+  @Test
+  public void testOcspCheckRevokedStatusWithinGracePeriod() throws Exception {
+    stubEndpoints.add(new URI(EMBEDDED_OCSP_SERVER_URL));
+    stubResponder.setStatus(new RevokedStatus(new Date(now.get()), CRLReason.keyCompromise));
+    stubResponder.setThisUpdate(new Date(now.get()));
+    stubResponder.setNextUpdate(new Date(now.get() + TimeUnit.MINUTES.toMillis(10)));
+
+    OcspChecker ocspChecker = newCachingOcspChecker();
+    ocspChecker.setOcspSoftFailGracePeriod(TimeUnit.MINUTES.toSeconds(30));
+    ocspChecker.init();
+    X509Certificate[] certs = new X509Certificate[] {trustedCertX509};
+
+    assertThat(ocspChecker.passesOcspCheck(certs), is(false));
+
+    stubResponder.setFailing(true);
+    now.addAndGet(TimeUnit.MINUTES.toMillis(20));
+    assertThat(ocspChecker.passesOcspCheck(certs), is(false));
+
+    now.addAndGet(TimeUnit.MINUTES.toMillis(20));
+    assertThat(ocspChecker.passesOcspCheck(certs), is(true));
+    assertThat(stubResponder.getRequestCount(), is(3));
+  }
+
+  @Test
+  public void testOcspCheckCacheDisabled() throws Exception {
+    stubEndpoints.add(new URI(EMBEDDED_OCSP_SERVER_URL));
+    stubResponder.setThisUpdate(new Date(now.get()));
+    stubResponder.setNextUpdate(new Date(now.get() + TimeUnit.HOURS.toMillis(1)));
+
+    OcspChecker ocspChecker = newCachingOcspChecker();
+    ocspChecker.setOcspCacheMaxAge(0);
+    ocspChecker.init();
+    X509Certificate[] certs = new X509Certificate[] {trustedCertX509};
+
+    assertThat(ocspChecker.passesOcspCheck(certs), is(true));
+    assertThat(ocspChecker.passesOcspCheck(certs), is(true));
+    assertThat(stubResponder.getRequestCount(), is(2));
+  }
+
+  @Test
+  public void testUpdateWithUnchangedCacheSettingsKeepsCachedStatus() throws Exception {
+    stubEndpoints.add(new URI(EMBEDDED_OCSP_SERVER_URL));
+    stubResponder.setThisUpdate(new Date(now.get()));
+    stubResponder.setNextUpdate(new Date(now.get() + TimeUnit.HOURS.toMillis(1)));
+
+    OcspChecker ocspChecker = newCachingOcspChecker();
+    X509Certificate[] certs = new X509Certificate[] {trustedCertX509};
+
+    assertThat(ocspChecker.passesOcspCheck(certs), is(true));
+    ocspChecker.update(cacheSettings(3600L, 60L, 3600L));
+    assertThat(ocspChecker.passesOcspCheck(certs), is(true));
+    assertThat(stubResponder.getRequestCount(), is(1));
+  }
+
+  @Test
+  public void testUpdateWithChangedCacheSettingsRebuildsCache() throws Exception {
+    stubEndpoints.add(new URI(EMBEDDED_OCSP_SERVER_URL));
+    stubResponder.setThisUpdate(new Date(now.get()));
+    stubResponder.setNextUpdate(new Date(now.get() + TimeUnit.HOURS.toMillis(1)));
+
+    OcspChecker ocspChecker = newCachingOcspChecker();
+    X509Certificate[] certs = new X509Certificate[] {trustedCertX509};
+
+    assertThat(ocspChecker.passesOcspCheck(certs), is(true));
+    ocspChecker.update(cacheSettings("7200", "60", "3600"));
+    assertThat(ocspChecker.passesOcspCheck(certs), is(true));
+    assertThat(stubResponder.getRequestCount(), is(2));
+  }
+
+  private static Map<String, Object> cacheSettings(
+      Object maxAge, Object refreshAhead, Object gracePeriod) {
+    Map<String, Object> properties = new HashMap<>();
+    properties.put("ocspEnabled", true);
+    properties.put("ocspServerUrls", new String[] {EMBEDDED_OCSP_SERVER_URL});
+    properties.put("ocspCacheMaxAge", maxAge);
+    properties.put("ocspCacheRefreshAhead", refreshAhead);
+    properties.put("ocspSoftFailGracePeriod", gracePeriod);
+    return properties;
+  }
+
+  private OcspChecker newCachingOcspChecker() {
+    OcspChecker ocspChecker =
+        new OcspChecker(factory, eventAdmin, MoreExecutors.newDirectExecutorService(), clock);
+    ocspChecker.setSecurityLogger(mock(SecurityLogger.class));
+    ocspChecker.setOcspEnabled(true);
+    return ocspChecker;
+  }
+
   private static X509Certificate getX509Certificate(String filename) throws Exception {
     try (InputStream certInputStream =
         OcspCheckerTest.class.getClassLoader().getResourceAsStream(filename)) {
@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.security.ocsp.checker;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.core.Response;
+import org.apache.cxf.jaxrs.client.WebClient;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.ocsp.BasicOCSPResp;
+import org.bouncycastle.cert.ocsp.BasicOCSPRespBuilder;
+import org.bouncycastle.cert.ocsp.CertificateStatus;
+import org.bouncycastle.cert.ocsp.OCSPReq;
+import org.bouncycastle.cert.ocsp.OCSPRespBuilder;
+import org.bouncycastle.cert.ocsp.Req;
+import org.bouncycastle.cert.ocsp.RespID;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.codice.ddf.cxf.client.SecureCxfClientFactory;
+
+/**
+ * OCSP server for tests, which answers every request with a signed response of the configured
+ * status and validity and counts the requests it received.
+ */
+class StubOcspResponder {
+
+  private final ContentSigner signer;
+
+  private final SecureCxfClientFactory<WebClient> secureCxfClientFactory;
+
+  private final AtomicInteger requestCount = new AtomicInteger();
+
+  private volatile CertificateStatus status = CertificateStatus.GOOD;
+
+  private volatile Date thisUpdate = new Date();
+
+  private volatile Date nextUpdate;
+
+  private volatile boolean failing;
+
+  @SuppressWarnings("unchecked")
+  StubOcspResponder() throws Exception {
+    KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+    keyPairGenerator.initialize(2048);
+    KeyPair keyPair = keyPairGenerator.generateKeyPair();
+    signer = new JcaContentSignerBuilder("SHA256withRSA").build(keyPair.getPrivate());
+
+    WebClient webClient = mock(WebClient.class);
+    when(webClient.type(anyString())).thenReturn(webClient);
+    when(webClient.accept(anyString())).thenReturn(webClient);
+    when(webClient.post(any())).then(invocation -> respond(invocation.getArgument(0)));
+
+    secureCxfClientFactory = mock(SecureCxfClientFactory.class);
+    when(secureCxfClientFactory.getWebClient()).thenReturn(webClient);
+  }
+
+  /** @param status status of every certificate, {@code null} for {@link CertificateStatus#GOOD} */
+  void setStatus(CertificateStatus status) {
+    this.status = status;
+  }
+
+  void setThisUpdate(Date thisUpdate) {
+    this.thisUpdate = thisUpdate;
+  }
+
+  /** @param nextUpdate next update time of the responses, or {@code null} to leave it out */
+  void setNextUpdate(Date nextUpdate) {
+    this.nextUpdate = nextUpdate;
+  }
+
+  /** @param failing {@code true} to fail every request as if the server could not be reached */
+  void setFailing(boolean failing) {
+    this.failing = failing;
+  }
+
+  int getRequestCount() {
+    return requestCount.get();
+  }
+
+  SecureCxfClientFactory<WebClient> getSecureCxfClientFactory() {
+    return secureCxfClientFactory;
+  }
+
+  private Response respond(byte[] encodedRequest) throws Exception {
+    requestCount.incrementAndGet();
+    if (failing) {
+      throw new ProcessingException("OCSP server is unavailable.");
+    }
+
+    BasicOCSPRespBuilder builder =
+        new BasicOCSPRespBuilder(new RespID(new X500Name("CN=Stub OCSP Responder")));
+    for (Req req : new OCSPReq(encodedRequest).getRequestList()) {
+      builder.addResponse(req.getCertID(), status, thisUpdate, nextUpdate);
+    }
+    BasicOCSPResp basicResponse = builder.build(signer, new X509CertificateHolder[0], new Date());
+    byte[] encodedResponse =
+        new OCSPRespBuilder().build(OCSPRespBuilder.SUCCESSFUL, basicResponse).getEncoded();
+
+    Response response = mock(Response.class);
+    when(response.getEntity()).thenReturn(new ByteArrayInputStream(encodedResponse));
+    return response;
+  }
+}
@@ -33,6 +33,7 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
@@ -282,6 +283,28 @@ public InputStream decrypt(InputStream encryptedInputStream) throws CrypterExcep
     }
   }
 
+  /**
+   * Opens a seekable decrypting channel over content encrypted by {@link #encrypt(InputStream)}.
+   * The content is encrypted in authenticated segments, so reading from any position only decrypts
+   * the segments that are read.
+   *
+   * @param encryptedChannel The channel over the encrypted content.
+   */
+  public SeekableByteChannel decrypt(SeekableByteChannel encryptedChannel) throws CrypterException {
+    if (associatedData == null) {
+      throw new CrypterException("Associated data cannot be null.");
+    }
+    if (encryptedChannel == null) {
+      throw new CrypterException("Encrypted channel cannot be null.");
+    }
+
+    try {
+      return streamingAead.newSeekableDecryptingChannel(encryptedChannel, associatedData);
+    } catch (GeneralSecurityException | IOException e) {
+      throw new CrypterException("Problem decrypting.", e);
+    }
+  }
+
   private int getAvailableBytesLessThanChunkSize(InputStream inputStream) throws IOException {
     int available = inputStream.available();
     return available > CHUNK_SIZE ? CHUNK_SIZE : available;
@@ -25,7 +25,13 @@
 import java.io.FileOutputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.security.SecureRandom;
+import java.util.Arrays;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
@@ -102,6 +108,38 @@ public void testEncryptDecryptStream() throws Exception {
     assertArrayEquals(plainBytes, decryptedBytes);
   }
 
+  @Test
+  public void testDecryptSeekableChannel() throws Exception {
+    final byte[] plainBytes = new byte[CHUNK_SIZE * 3];
+    new SecureRandom().nextBytes(plainBytes);
+    final Crypter crypter = new Crypter();
+    final Path encryptedPath = temporaryFolder.newFile().toPath();
+    try (InputStream encryptedInputStream = crypter.encrypt(new ByteArrayInputStream(plainBytes))) {
+      Files.copy(encryptedInputStream, encryptedPath, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    final int offset = CHUNK_SIZE * 2 + 17;
+    final ByteBuffer buffer = ByteBuffer.allocate(100);
+    try (SeekableByteChannel decryptedChannel =
+        crypter.decrypt(Files.newByteChannel(encryptedPath))) {
+      decryptedChannel.position(offset);
+      while (buffer.hasRemaining() && decryptedChannel.read(buffer) > 0) {
+        // keep reading until the buffer is full
+      }
+      assertEquals(plainBytes.length, decryptedChannel.size());
+    }
+
+    assertArrayEquals(Arrays.copyOfRange(plainBytes, offset, offset + 100), buffer.array());
+  }
+
+  @Test(expected = CrypterException.class)
+  public void testDecryptNullChannel() {
+    final Crypter crypter = new Crypter();
+    final SeekableByteChannel nullChannel = null;
+
+    crypter.decrypt(nullChannel);
+  }
+
   @Test(expected = CrypterException.class)
   public void testEncryptNull() {
     final Crypter crypter = new Crypter();
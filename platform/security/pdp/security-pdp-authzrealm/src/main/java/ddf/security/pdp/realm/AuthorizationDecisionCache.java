@@ -0,0 +1,336 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.security.pdp.realm;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Ordering;
+import ddf.security.permission.CollectionPermission;
+import ddf.security.permission.KeyValueCollectionPermission;
+import ddf.security.permission.KeyValuePermission;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.apache.shiro.authz.AuthorizationInfo;
+import org.apache.shiro.authz.Permission;
+import org.apache.shiro.authz.permission.WildcardPermission;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Remembers the authorization decisions of the {@link AuthzRealm} for each subject, so that the
+ * results of a query that share the same security markings are only evaluated once.
+ *
+ * <p>Decisions are keyed by canonical fingerprints of the subject's roles and permissions and of
+ * the requested permission. The fingerprints hold the sorted keys and values themselves rather than
+ * a hash of them, so different permissions never share a decision. Permissions that cannot be
+ * fingerprinted are not cached.
+ *
+ * <p>The cache must be {@link #invalidateAll() invalidated} whenever anything other than the
+ * subject and the requested permission can change a decision, such as the realm configuration or
+ * the XACML policies. Decisions also expire after a while, because XACML policies can depend on the
+ * current time.
+ */
+public class AuthorizationDecisionCache {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(AuthorizationDecisionCache.class);
+
+  private static final String CACHE_METRIC = "ddf.security.pdp.decision.cache";
+
+  private static final String LATENCY_METRIC = "ddf.security.pdp.decision.latency";
+
+  private static final int MAX_SUBJECTS = 1000;
+
+  private static final Ordering<Iterable<String>> LEXICOGRAPHICAL =
+      Ordering.<String>natural().lexicographical();
+
+  private final int maxDecisionsPerSubject;
+
+  private final long expirationSeconds;
+
+  private final Counter hits =
+      Counter.builder(CACHE_METRIC).tag("result", "hit").register(Metrics.globalRegistry);
+
+  private final Counter misses =
+      Counter.builder(CACHE_METRIC).tag("result", "miss").register(Metrics.globalRegistry);
+
+  private final Timer hitLatency =
+      Timer.builder(LATENCY_METRIC).tag("cache", "hit").register(Metrics.globalRegistry);
+
+  private final Timer missLatency =
+      Timer.builder(LATENCY_METRIC).tag("cache", "miss").register(Metrics.globalRegistry);
+
+  private volatile Cache<List<Object>, Cache<List<Object>, Boolean>> decisions;
+
+  /**
+   * @param maxDecisionsPerSubject maximum number of decisions remembered for each subject, {@code
+   *     0} disables the cache
+   * @param expirationSeconds number of seconds a decision is remembered for
+   */
+  public AuthorizationDecisionCache(int maxDecisionsPerSubject, long expirationSeconds) {
+    this.maxDecisionsPerSubject = Math.max(0, maxDecisionsPerSubject);
+    this.expirationSeconds = Math.max(0, expirationSeconds);
+    this.decisions = newSubjectCache();
+  }
+
+  /** Functional interface for making a decision that is not cached. */
+  @FunctionalInterface
+  public interface Decision {
+    boolean isPermitted();
+  }
+
+  /** Functional interface for making the decisions that are not cached in one go. */
+  @FunctionalInterface
+  public interface Decisions {
+    /**
+     * @param permissions permissions without a remembered decision
+     * @return whether the subject is permitted for each of the permissions, in the same order
+     */
+    boolean[] isPermitted(List<Permission> permissions);
+  }
+
+  /**
+   * Returns the remembered decision for the subject and permission, or makes and remembers it.
+   *
+   * @param primaryPrincipal name of the subject, which XACML policies can refer to
+   * @param authorizationInfo roles and permissions of the subject
+   * @param permission permission being checked
+   * @param decision makes the decision if it is not remembered
+   * @param cachedDenial called when a remembered denial is returned instead of making the decision
+   * @return {@code true} if the subject is permitted
+   */
+  public boolean isPermitted(
+      String primaryPrincipal,
+      AuthorizationInfo authorizationInfo,
+      Permission permission,
+      Decision decision,
+      Runnable cachedDenial) {
+    return isPermitted(
+        primaryPrincipal,
+        authorizationInfo,
+        Collections.singletonList(permission),
+        undecided -> new boolean[] {decision.isPermitted()},
+        denied -> cachedDenial.run())[0];
+  }
+
+  /**
+   * Returns the remembered decisions for the subject and permissions, and makes and remembers the
+   * missing ones with a single call to {@code decision}.
+   *
+   * @param primaryPrincipal name of the subject, which XACML policies can refer to
+   * @param authorizationInfo roles and permissions of the subject
+   * @param permissions permissions being checked
+   * @param decision makes the decisions that are not remembered
+   * @param cachedDenial called for each remembered denial that is returned
+   * @return whether the subject is permitted for each of the permissions, in the same order
+   */
+  public boolean[] isPermitted(
+      String primaryPrincipal,
+      AuthorizationInfo authorizationInfo,
+      List<Permission> permissions,
+      Decisions decision,
+      Consumer<Permission> cachedDenial) {
+    long start = System.nanoTime();
+    boolean[] results = new boolean[permissions.size()];
+    List<Integer> undecidedIndexes = new ArrayList<>();
+    List<Permission> undecided = new ArrayList<>();
+    List<List<Object>> undecidedFingerprints = new ArrayList<>();
+
+    Cache<List<Object>, Boolean> subjectDecisions = null;
+    if (maxDecisionsPerSubject > 0 && expirationSeconds > 0) {
+      List<Object> subjectFingerprint = fingerprint(primaryPrincipal, authorizationInfo);
+      if (subjectFingerprint != null) {
+        // decisions made while the cache is invalidated are stored in the discarded cache
+        subjectDecisions = getSubjectDecisions(decisions, subjectFingerprint);
+      }
+    }
+
+    for (int i = 0; i < permissions.size(); i++) {
+      Permission permission = permissions.get(i);
+      List<Object> permissionFingerprint =
+          subjectDecisions != null ? fingerprint(permission) : null;
+      Boolean permitted =
+          permissionFingerprint != null
+              ? subjectDecisions.getIfPresent(permissionFingerprint)
+              : null;
+      if (permitted == null) {
+        undecidedIndexes.add(i);
+        undecided.add(permission);
+        undecidedFingerprints.add(permissionFingerprint);
+        continue;
+      }
+
+      if (!permitted) {
+        cachedDenial.accept(permission);
+      }
+      results[i] = permitted;
+      hits.increment();
+    }
+    int hitCount = permissions.size() - undecided.size();
+    if (hitCount > 0) {
+      recordEach(hitLatency, System.nanoTime() - start, hitCount);
+    }
+
+    if (!undecided.isEmpty()) {
+      long decisionStart = System.nanoTime();
+      boolean[] undecidedResults = decision.isPermitted(undecided);
+      for (int j = 0; j < undecided.size(); j++) {
+        results[undecidedIndexes.get(j)] = undecidedResults[j];
+        List<Object> permissionFingerprint = undecidedFingerprints.get(j);
+        if (permissionFingerprint != null) {
+          subjectDecisions.put(permissionFingerprint, undecidedResults[j]);
+        }
+        misses.increment();
+      }
+      recordEach(missLatency, System.nanoTime() - decisionStart, undecided.size());
+    }
+    return results;
+  }
+
+  /** Records the average latency of a batch once for each of its permissions. */
+  private static void recordEach(Timer timer, long nanos, int count) {
+    for (int i = 0; i < count; i++) {
+      timer.record(nanos / count, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  /** Forgets every remembered decision. */
+  public void invalidateAll() {
+    decisions = newSubjectCache();
+    LOGGER.debug("Invalidated the authorization decision cache.");
+  }
+
+  private Cache<List<Object>, Boolean> getSubjectDecisions(
+      Cache<List<Object>, Cache<List<Object>, Boolean>> subjects, List<Object> subjectFingerprint) {
+    try {
+      return subjects.get(
+          subjectFingerprint,
+          () ->
+              CacheBuilder.newBuilder()
+                  .maximumSize(maxDecisionsPerSubject)
+                  .expireAfterWrite(expirationSeconds, TimeUnit.SECONDS)
+                  .build());
+    } catch (ExecutionException e) {
+      LOGGER.debug("Unable to cache authorization decisions.", e);
+      return null;
+    }
+  }
+
+  private Cache<List<Object>, Cache<List<Object>, Boolean>> newSubjectCache() {
+    return CacheBuilder.newBuilder()
+        .maximumSize(MAX_SUBJECTS)
+        .expireAfterAccess(expirationSeconds, TimeUnit.SECONDS)
+        .build();
+  }
+
+  /** @return the fingerprint of the subject, or {@code null} if it cannot be fingerprinted */
+  private static List<Object> fingerprint(
+      String primaryPrincipal, AuthorizationInfo authorizationInfo) {
+    if (authorizationInfo == null) {
+      return ImmutableList.of(primaryPrincipal);
+    }
+
+    List<List<String>> keyValues = new ArrayList<>();
+    List<String> wildcards = new ArrayList<>();
+    Collection<Permission> objectPermissions = authorizationInfo.getObjectPermissions();
+    if (objectPermissions != null) {
+      for (Permission objectPermission : objectPermissions) {
+        if (objectPermission instanceof KeyValuePermission) {
+          List<String> keyValue = fingerprint((KeyValuePermission) objectPermission);
+          if (keyValue == null) {
+            return null;
+          }
+          keyValues.add(keyValue);
+        } else if (objectPermission instanceof WildcardPermission) {
+          wildcards.add(objectPermission.toString());
+        } else {
+          return null;
+        }
+      }
+    }
+
+    Set<String> stringPermissions = sorted(authorizationInfo.getStringPermissions());
+    Set<String> roles = sorted(authorizationInfo.getRoles());
+    if (stringPermissions == null || roles == null) {
+      return null;
+    }
+    return ImmutableList.of(
+        primaryPrincipal,
+        ImmutableList.sortedCopyOf(LEXICOGRAPHICAL, keyValues),
+        ImmutableSortedSet.copyOf(wildcards),
+        stringPermissions,
+        roles);
+  }
+
+  /** @return the fingerprint of the permission, or {@code null} if it cannot be fingerprinted */
+  private static List<Object> fingerprint(Permission permission) {
+    if (permission instanceof KeyValuePermission) {
+      List<String> keyValue = fingerprint((KeyValuePermission) permission);
+      return keyValue != null
+          ? ImmutableList.of(CollectionPermission.UNKNOWN_ACTION, ImmutableList.of(keyValue))
+          : null;
+    }
+    if (!(permission instanceof KeyValueCollectionPermission)) {
+      return null;
+    }
+
+    KeyValueCollectionPermission collection = (KeyValueCollectionPermission) permission;
+    List<KeyValuePermission> keyValuePermissions = collection.getKeyValuePermissionList();
+    List<List<String>> keyValues = new ArrayList<>(keyValuePermissions.size());
+    for (KeyValuePermission keyValuePermission : keyValuePermissions) {
+      List<String> keyValue = fingerprint(keyValuePermission);
+      if (keyValue == null) {
+        return null;
+      }
+      keyValues.add(keyValue);
+    }
+    if (collection.getAction() == null) {
+      return null;
+    }
+    return ImmutableList.of(
+        collection.getAction(), ImmutableList.sortedCopyOf(LEXICOGRAPHICAL, keyValues));
+  }
+
+  /** @return the key followed by the sorted values, or {@code null} if any of them is null */
+  private static List<String> fingerprint(KeyValuePermission permission) {
+    Set<String> values = sorted(permission.getValues());
+    if (permission.getKey() == null || values == null) {
+      return null;
+    }
+    return ImmutableList.<String>builder().add(permission.getKey()).addAll(values).build();
+  }
+
+  /** @return the sorted strings, or {@code null} if any of them is null */
+  private static Set<String> sorted(Collection<String> strings) {
+    if (strings == null) {
+      return ImmutableSortedSet.of();
+    }
+    for (String string : strings) {
+      if (string == null) {
+        return null;
+      }
+    }
+    return ImmutableSortedSet.copyOf(strings);
+  }
+}
@@ -63,6 +63,10 @@ public class AuthzRealm extends AbstractAuthorizingRealm {
   private static final String POLICY_EXTENSION_WARNING_MSG =
       "Policy Extension plugin did not complete correctly. This could allow access to a resource.";
 
+  private static final int DEFAULT_DECISION_CACHE_SIZE = 1000;
+
+  private static final long DEFAULT_DECISION_CACHE_EXPIRATION = 60;
+
   private final String dirPath;
 
   private final Parser parser;
@@ -79,6 +83,13 @@ public class AuthzRealm extends AbstractAuthorizingRealm {
 
   private SecurityLogger securityLogger;
 
+  private int decisionCacheSize = DEFAULT_DECISION_CACHE_SIZE;
+
+  private long decisionCacheExpiration = DEFAULT_DECISION_CACHE_EXPIRATION;
+
+  private volatile AuthorizationDecisionCache decisionCache =
+      new AuthorizationDecisionCache(decisionCacheSize, decisionCacheExpiration);
+
   public AuthzRealm(String dirPath, Parser parser) throws PdpException {
     super();
 
@@ -182,6 +193,10 @@ public boolean isPermitted(PrincipalCollection subjectPrincipal, Permission perm
    * <p>This is primarily a performance-enhancing method to help reduce the number of {@link
    * #isPermitted} invocations over the wire in client/server systems.
    *
+   * <p>Decisions are remembered by the {@link AuthorizationDecisionCache}, so that permissions with
+   * the same values are only evaluated once for each subject. The permissions that cannot be
+   * decided without XACML are evaluated by the XACML PDP together.
+   *
    * @param subjectPrincipal the application-specific subject/user identifier.
    * @param permissions the permissions that are being checked.
    * @return an array of booleans whose indices correspond to the index of the permissions in the
@@ -190,34 +205,72 @@ public boolean isPermitted(PrincipalCollection subjectPrincipal, Permission perm
    */
   @Override
   public boolean[] isPermitted(PrincipalCollection subjectPrincipal, List<Permission> permissions) {
-    boolean[] results = new boolean[permissions.size()];
     AuthorizationInfo authorizationInfo = getAuthorizationInfo(subjectPrincipal);
     List<Permission> expandedPermissions = expandPermissions(permissions);
-    int i = 0;
-    for (Permission permission : expandedPermissions) {
-      results[i++] = isPermitted(subjectPrincipal, permission, authorizationInfo);
-    }
-
-    return results;
+    String curUser = getCurrentUser(subjectPrincipal);
+    return decisionCache.isPermitted(
+        curUser,
+        authorizationInfo,
+        expandedPermissions,
+        undecided -> isPermitted(curUser, undecided, authorizationInfo),
+        permission -> auditNotImplied(curUser, permission));
   }
 
   /**
    * Checks if the corresponding Subject/user contained within the AuthorizationInfo object implies
-   * the given Permission.
+   * the given Permissions. The permissions that cannot be implied by the subject's permissions
+   * alone are sent to the XACML PDP in a single batch.
    *
-   * @param permission the permission being checked.
+   * @param permissions the permissions being checked.
    * @param authorizationInfo the application-specific subject/user identifier.
-   * @return true if the user is permitted
+   * @return whether the user is permitted for each of the permissions, in the same order
    */
-  private boolean isPermitted(
-      PrincipalCollection subjectPrincipal,
-      Permission permission,
-      AuthorizationInfo authorizationInfo) {
+  private boolean[] isPermitted(
+      String curUser, List<Permission> permissions, AuthorizationInfo authorizationInfo) {
     Collection<Permission> perms = getPermissions(authorizationInfo);
-    String curUser = "<user>";
-    if (subjectPrincipal != null && subjectPrincipal.getPrimaryPrincipal() != null) {
-      curUser = subjectPrincipal.getPrimaryPrincipal().toString();
+    boolean[] results = new boolean[permissions.size()];
+    List<Integer> xacmlIndexes = new ArrayList<>();
+    List<KeyValueCollectionPermission> xacmlPermissions = new ArrayList<>();
+
+    for (int i = 0; i < permissions.size(); i++) {
+      PermissionCheck check = checkPermission(curUser, permissions.get(i), perms);
+      results[i] = check.implied;
+      if (check.xacmlPermission != null) {
+        xacmlIndexes.add(i);
+        xacmlPermissions.add(check.xacmlPermission);
+      }
+    }
+
+    // if we weren't able to automatically imply these permissions, call out to XACML
+    if (!xacmlPermissions.isEmpty()) {
+      configureXacmlPdp();
+      boolean[] xacmlResults = xacmlPdp.isPermitted(curUser, authorizationInfo, xacmlPermissions);
+      for (int j = 0; j < xacmlResults.length; j++) {
+        int i = xacmlIndexes.get(j);
+        if (!xacmlResults[j]) {
+          securityLogger.audit(
+              PERMISSION_FINISH_1_MSG
+                  + curUser
+                  + PERMISSION_FINISH_2_MSG
+                  + permissions.get(i)
+                  + "] is not implied via XACML.");
+        }
+        results[i] = results[i] && xacmlResults[j];
+      }
     }
+    return results;
+  }
+
+  /**
+   * Checks if the given subject permissions imply the given Permission, leaving the part that can
+   * only be decided by XACML to the caller.
+   *
+   * @param permission the permission being checked.
+   * @param perms the permissions of the subject.
+   * @return the result of the check
+   */
+  private PermissionCheck checkPermission(
+      String curUser, Permission permission, Collection<Permission> perms) {
     if (!CollectionUtils.isEmpty(perms)) {
       if (permission instanceof KeyValuePermission) {
         permission =
@@ -281,58 +334,59 @@ private boolean isPermitted(
         boolean matchAllXacml = subjectAllCollection.implies(matchAllPreXacmlCollection);
         boolean matchOne = subjectOneCollection.implies(matchOneCollection);
         if (!matchAll || !matchOne) {
-          securityLogger.audit(
-              PERMISSION_FINISH_1_MSG
-                  + curUser
-                  + PERMISSION_FINISH_2_MSG
-                  + permission
-                  + "] is not implied.");
+          auditNotImplied(curUser, permission);
         }
 
-        // if we weren't able to automatically imply these permissions, call out to XACML
-        if (!matchAllXacml) {
-          KeyValueCollectionPermission xacmlPermissions =
-              new KeyValueCollectionPermissionImpl(kvcp.getAction(), matchAllPreXacmlPermissions);
-          configureXacmlPdp();
-          matchAllXacml = xacmlPdp.isPermitted(curUser, authorizationInfo, xacmlPermissions);
-          if (!matchAllXacml) {
-            securityLogger.audit(
-                PERMISSION_FINISH_1_MSG
-                    + curUser
-                    + PERMISSION_FINISH_2_MSG
-                    + permission
-                    + "] is not implied via XACML.");
-          }
-        }
-        return matchAll && matchOne && matchAllXacml;
+        return new PermissionCheck(
+            matchAll && matchOne,
+            matchAllXacml
+                ? null
+                : new KeyValueCollectionPermissionImpl(
+                    kvcp.getAction(), matchAllPreXacmlPermissions));
       }
 
       for (Permission perm : perms) {
         if (permission != null && perm.implies(permission)) {
-          return true;
+          return new PermissionCheck(true, null);
         }
       }
     }
 
+    auditNotImplied(curUser, permission);
+    return new PermissionCheck(false, null);
+  }
+
+  private String getCurrentUser(PrincipalCollection subjectPrincipal) {
+    if (subjectPrincipal != null && subjectPrincipal.getPrimaryPrincipal() != null) {
+      return subjectPrincipal.getPrimaryPrincipal().toString();
+    }
+    return "<user>";
+  }
+
+  private void auditNotImplied(String curUser, Permission permission) {
     securityLogger.audit(
         PERMISSION_FINISH_1_MSG
             + curUser
             + PERMISSION_FINISH_2_MSG
             + permission
             + "] is not implied.");
-    return false;
   }
 
   private void configureXacmlPdp() {
     if (xacmlPdp == null) {
       try {
-        xacmlPdp = new XacmlPdp(dirPath, parser, environmentAttributes, securityLogger);
+        xacmlPdp = createXacmlPdp();
       } catch (PdpException e) {
         LOGGER.warn("Unable to create XACML PDP.", e);
       }
     }
   }
 
+  protected XacmlPdp createXacmlPdp() throws PdpException {
+    return new XacmlPdp(
+        dirPath, parser, environmentAttributes, securityLogger, this::invalidateDecisionCache);
+  }
+
   private KeyValueCollectionPermission isPermittedByExtensionAll(
       CollectionPermission subjectAllCollection,
       KeyValueCollectionPermission matchAllCollection,
@@ -458,17 +512,20 @@ private Collection<Permission> resolveRolePermissions(Collection<String> roleNam
    */
   public void setPolicyExtensions(List<PolicyExtension> policyExtensions) {
     this.policyExtensions = policyExtensions;
+    invalidateDecisionCache();
   }
 
   public void addPolicyExtension(PolicyExtension policyExtension) {
     if (policyExtensions != null) {
       policyExtensions.add(policyExtension);
+      invalidateDecisionCache();
     }
   }
 
   public void removePolicyExtension(PolicyExtension policyExtension) {
     if (policyExtensions != null) {
       policyExtensions.remove(policyExtension);
+      invalidateDecisionCache();
     }
   }
 
@@ -502,6 +559,7 @@ public void setMatchAllMappings(List<String> list) {
         }
       }
     }
+    invalidateDecisionCache();
   }
 
   /**
@@ -534,14 +592,59 @@ public void setMatchOneMappings(List<String> list) {
         }
       }
     }
+    invalidateDecisionCache();
   }
 
   public void setEnvironmentAttributes(List<String> environmentAttributes) {
     this.environmentAttributes.clear();
     this.environmentAttributes.addAll(environmentAttributes);
+    invalidateDecisionCache();
+  }
+
+  /**
+   * Sets the maximum number of authorization decisions remembered for each subject.
+   *
+   * @param decisionCacheSize maximum number of decisions, {@code 0} disables the decision cache
+   */
+  public void setDecisionCacheSize(int decisionCacheSize) {
+    this.decisionCacheSize = decisionCacheSize;
+    decisionCache = new AuthorizationDecisionCache(decisionCacheSize, decisionCacheExpiration);
+  }
+
+  /**
+   * Sets how long authorization decisions are remembered for.
+   *
+   * @param decisionCacheExpiration number of seconds
+   */
+  public void setDecisionCacheExpiration(long decisionCacheExpiration) {
+    this.decisionCacheExpiration = decisionCacheExpiration;
+    decisionCache = new AuthorizationDecisionCache(decisionCacheSize, decisionCacheExpiration);
+  }
+
+  /**
+   * Forgets all remembered authorization decisions. Called whenever the configuration or the XACML
+   * policies change.
+   */
+  public void invalidateDecisionCache() {
+    decisionCache.invalidateAll();
   }
 
   public void setSecurityLogger(SecurityLogger securityLogger) {
     this.securityLogger = securityLogger;
   }
+
+  /** Result of checking a permission against the permissions of the subject. */
+  private static class PermissionCheck {
+
+    /** Whether the permission is implied, apart from the part left to XACML. */
+    private final boolean implied;
+
+    /** Part of the permission that XACML has to imply, or {@code null} if there is none. */
+    private final KeyValueCollectionPermission xacmlPermission;
+
+    PermissionCheck(boolean implied, KeyValueCollectionPermission xacmlPermission) {
+      this.implied = implied;
+      this.xacmlPermission = xacmlPermission;
+    }
+  }
 }
@@ -13,6 +13,9 @@
  */
 package ddf.security.pdp.realm.xacml;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import com.google.common.net.InetAddresses;
 import ddf.security.audit.SecurityLogger;
 import ddf.security.pdp.realm.xacml.processor.PdpException;
@@ -20,6 +23,7 @@
 import ddf.security.permission.CollectionPermission;
 import ddf.security.permission.KeyValueCollectionPermission;
 import ddf.security.permission.KeyValuePermission;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 import oasis.names.tc.xacml._3_0.core.schema.wd_17.AttributeType;
@@ -48,10 +52,9 @@ public class XacmlPdp {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(XacmlPdp.class);
 
-  private static final String ROLE_CLAIM =
-      "http://schemas.xmlsoap.org/ws/2005/05/identity/claims/role";
+  static final String ROLE_CLAIM = "http://schemas.xmlsoap.org/ws/2005/05/identity/claims/role";
 
-  private static final String STRING_DATA_TYPE = "http://www.w3.org/2001/XMLSchema#string";
+  static final String STRING_DATA_TYPE = "http://www.w3.org/2001/XMLSchema#string";
 
   private static final String BOOLEAN_DATA_TYPE = "http://www.w3.org/2001/XMLSchema#boolean";
 
@@ -76,30 +79,36 @@ public class XacmlPdp {
   private static final String X500_NAME_DATA_TYPE =
       "urn:oasis:names:tc:xacml:1.0:data-type:x500Name";
 
-  private static final String ACTION_CATEGORY =
-      "urn:oasis:names:tc:xacml:3.0:attribute-category:action";
+  static final String ACTION_CATEGORY = "urn:oasis:names:tc:xacml:3.0:attribute-category:action";
 
-  private static final String RESOURCE_CATEGORY =
+  static final String RESOURCE_CATEGORY =
       "urn:oasis:names:tc:xacml:3.0:attribute-category:resource";
 
-  private static final String ENVIRONMENT_CATEGORY =
+  static final String ENVIRONMENT_CATEGORY =
       "urn:oasis:names:tc:xacml:3.0:attribute-category:environment";
 
-  private static final String ACTION_ID = "urn:oasis:names:tc:xacml:1.0:action:action-id";
+  static final String ACTION_ID = "urn:oasis:names:tc:xacml:1.0:action:action-id";
 
-  private static final String ACCESS_SUBJECT_CATEGORY =
+  static final String ACCESS_SUBJECT_CATEGORY =
       "urn:oasis:names:tc:xacml:1.0:subject-category:access-subject";
 
-  private static final String SUBJECT_ID = "urn:oasis:names:tc:xacml:1.0:subject:subject-id";
+  static final String SUBJECT_ID = "urn:oasis:names:tc:xacml:1.0:subject:subject-id";
 
   private static final String FILTER_ACTION = "filter";
 
+  private static final int DATA_TYPE_CACHE_SIZE = 10000;
+
   private XacmlClient pdp;
 
   private List<String> environmentAttributes;
 
   private SecurityLogger securityLogger;
 
+  private final LoadingCache<String, String> xacmlDataTypes =
+      CacheBuilder.newBuilder()
+          .maximumSize(DATA_TYPE_CACHE_SIZE)
+          .build(CacheLoader.from(this::getXacmlDataType));
+
   /** Creates a general */
   public XacmlPdp(
       String dirPath,
@@ -107,61 +116,117 @@ public XacmlPdp(
       List<String> environmentAttributes,
       SecurityLogger securityLogger)
       throws PdpException {
+    this(dirPath, parser, environmentAttributes, securityLogger, () -> {});
+  }
+
+  /**
+   * Creates a general XACML PDP that notifies the {@code policyChangeListener} whenever the XACML
+   * policies are reloaded.
+   */
+  public XacmlPdp(
+      String dirPath,
+      Parser parser,
+      List<String> environmentAttributes,
+      SecurityLogger securityLogger,
+      Runnable policyChangeListener)
+      throws PdpException {
     super();
     this.securityLogger = securityLogger;
-    pdp = new XacmlClient(dirPath, parser, securityLogger);
+    pdp = new XacmlClient(dirPath, parser, securityLogger, policyChangeListener);
     this.environmentAttributes = environmentAttributes;
     LOGGER.debug("Creating new PDP-backed Authorizing Realm");
   }
 
   public boolean isPermitted(
       String primaryPrincipal, AuthorizationInfo info, KeyValueCollectionPermission curPermission) {
-    boolean curResponse;
-    LOGGER.debug(
-        "Checking if {} has access for action {}", primaryPrincipal, curPermission.getAction());
-
-    if (CollectionUtils.isEmpty(info.getObjectPermissions())
-        && CollectionUtils.isEmpty(info.getStringPermissions())
-        && CollectionUtils.isEmpty(info.getRoles())
-        && !CollectionUtils.isEmpty(curPermission.getKeyValuePermissionList())) {
-      securityLogger.audit(
-          "XACML short-circuit denied ["
-              + primaryPrincipal
-              + "] access for action "
-              + curPermission.getAction());
-      return false;
-    }
+    return isPermitted(primaryPrincipal, info, Collections.singletonList(curPermission))[0];
+  }
 
-    if ((!CollectionUtils.isEmpty(info.getObjectPermissions())
-            || !CollectionUtils.isEmpty(info.getStringPermissions())
-            || !CollectionUtils.isEmpty(info.getRoles()))
-        && CollectionUtils.isEmpty(curPermission.getKeyValuePermissionList())) {
-      securityLogger.audit(
-          "XACML short-circuit permitted ["
-              + primaryPrincipal
-              + "] access for action "
-              + curPermission.getAction());
-      return true;
-    }
+  /**
+   * Checks the permissions of many resources for the same subject. The subject attributes are only
+   * added to the XACML requests once, and the requests are evaluated without marshalling them.
+   *
+   * @param primaryPrincipal name of the subject
+   * @param info roles and permissions of the subject
+   * @param permissions action and security attributes of each resource
+   * @return whether the subject is permitted for each of the permissions, in the same order
+   */
+  public boolean[] isPermitted(
+      String primaryPrincipal,
+      AuthorizationInfo info,
+      List<KeyValueCollectionPermission> permissions) {
+    boolean[] results = new boolean[permissions.size()];
+    XacmlRequestBuilder requestBuilder = null;
+    int i = 0;
+    for (KeyValueCollectionPermission curPermission : permissions) {
+      LOGGER.debug(
+          "Checking if {} has access for action {}", primaryPrincipal, curPermission.getAction());
+
+      if (CollectionUtils.isEmpty(info.getObjectPermissions())
+          && CollectionUtils.isEmpty(info.getStringPermissions())
+          && CollectionUtils.isEmpty(info.getRoles())
+          && !CollectionUtils.isEmpty(curPermission.getKeyValuePermissionList())) {
+        securityLogger.audit(
+            "XACML short-circuit denied ["
+                + primaryPrincipal
+                + "] access for action "
+                + curPermission.getAction());
+        results[i++] = false;
+        continue;
+      }
 
-    LOGGER.debug("Received authZ info, creating XACML request.");
-    RequestType curRequest = createXACMLRequest(primaryPrincipal, info, curPermission);
-    LOGGER.debug("Created XACML request, calling PDP.");
-
-    curResponse = isPermitted(curRequest);
-    if (curResponse) {
-      securityLogger.audit(
-          "XACML permitted ["
-              + primaryPrincipal
-              + "] access for action "
-              + curPermission.getAction());
-    } else {
-      securityLogger.audit(
-          "XACML denied [" + primaryPrincipal + "] access for action " + curPermission.getAction());
+      if ((!CollectionUtils.isEmpty(info.getObjectPermissions())
+              || !CollectionUtils.isEmpty(info.getStringPermissions())
+              || !CollectionUtils.isEmpty(info.getRoles()))
+          && CollectionUtils.isEmpty(curPermission.getKeyValuePermissionList())) {
+        securityLogger.audit(
+            "XACML short-circuit permitted ["
+                + primaryPrincipal
+                + "] access for action "
+                + curPermission.getAction());
+        results[i++] = true;
+        continue;
+      }
+
+      boolean curResponse;
+      try {
+        if (requestBuilder == null) {
+          LOGGER.debug("Received authZ info, creating XACML request builder.");
+          requestBuilder =
+              new XacmlRequestBuilder(
+                  primaryPrincipal, info, environmentAttributes, xacmlDataTypes::getUnchecked);
+        }
+        LOGGER.debug("Calling PDP to evaluate XACML request.");
+        curResponse = pdp.isPermitted(requestBuilder.build(curPermission));
+        LOGGER.debug("Permitted: {}", curResponse);
+      } catch (PdpException e) {
+        LOGGER.debug(e.getMessage(), e);
+        curResponse = false;
+      }
+
+      if (curResponse) {
+        securityLogger.audit(
+            "XACML permitted ["
+                + primaryPrincipal
+                + "] access for action "
+                + curPermission.getAction());
+      } else {
+        securityLogger.audit(
+            "XACML denied ["
+                + primaryPrincipal
+                + "] access for action "
+                + curPermission.getAction());
+      }
+      results[i++] = curResponse;
     }
-    return curResponse;
+    return results;
   }
 
+  /**
+   * @deprecated use {@link #isPermitted(String, AuthorizationInfo, List)}, which builds the XACML
+   *     requests as DOM elements without marshalling them
+   */
+  @Deprecated
   protected RequestType createXACMLRequest(
       String subject, AuthorizationInfo info, CollectionPermission permission) {
     LOGGER.debug(
@@ -247,6 +312,11 @@ protected RequestType createXACMLRequest(
     return xacmlRequestType;
   }
 
+  /**
+   * @deprecated use {@link #isPermitted(String, AuthorizationInfo, List)}, which builds the XACML
+   *     requests as DOM elements without marshalling them
+   */
+  @Deprecated
   protected boolean isPermitted(RequestType xacmlRequest) {
     boolean permitted;
     ResponseType xacmlResponse;
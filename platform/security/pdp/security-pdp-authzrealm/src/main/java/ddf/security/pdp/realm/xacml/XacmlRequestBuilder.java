@@ -0,0 +1,215 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.security.pdp.realm.xacml;
+
+import static ddf.security.pdp.realm.xacml.XacmlPdp.ACCESS_SUBJECT_CATEGORY;
+import static ddf.security.pdp.realm.xacml.XacmlPdp.ACTION_CATEGORY;
+import static ddf.security.pdp.realm.xacml.XacmlPdp.ACTION_ID;
+import static ddf.security.pdp.realm.xacml.XacmlPdp.ENVIRONMENT_CATEGORY;
+import static ddf.security.pdp.realm.xacml.XacmlPdp.RESOURCE_CATEGORY;
+import static ddf.security.pdp.realm.xacml.XacmlPdp.ROLE_CLAIM;
+import static ddf.security.pdp.realm.xacml.XacmlPdp.STRING_DATA_TYPE;
+import static ddf.security.pdp.realm.xacml.XacmlPdp.SUBJECT_ID;
+
+import ddf.security.pdp.realm.xacml.processor.PdpException;
+import ddf.security.permission.KeyValueCollectionPermission;
+import ddf.security.permission.KeyValuePermission;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.ParserConfigurationException;
+import org.apache.shiro.authz.AuthorizationInfo;
+import org.apache.shiro.authz.Permission;
+import org.apache.shiro.util.CollectionUtils;
+import org.codice.ddf.platform.util.XMLUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+/**
+ * Builds the XACML 3.0 requests of one subject directly as DOM elements, which the {@link
+ * ddf.security.pdp.realm.xacml.processor.XacmlClient} evaluates without any marshalling.
+ *
+ * <p>The subject and environment attributes are built once and copied into the request of every
+ * resource, so that checking many resources for the same subject only builds the resource
+ * attributes of each of them.
+ */
+class XacmlRequestBuilder {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(XacmlRequestBuilder.class);
+
+  private static final String XACML30_NAMESPACE = "urn:oasis:names:tc:xacml:3.0:core:schema:wd-17";
+
+  private static final ThreadLocal<DocumentBuilder> DOCUMENT_BUILDER_THREAD_LOCAL =
+      new ThreadLocal<>();
+
+  private final Function<String, String> dataTypes;
+
+  private final Element subjectAttributes;
+
+  private final Element environmentAttributes;
+
+  /**
+   * @param subject name of the subject
+   * @param info roles and permissions of the subject
+   * @param environmentAttributes environment attributes in the format {@code
+   *     attributeId=attributeValue1,attributeValue2}
+   * @param dataTypes returns the XACML data type of an attribute value
+   * @throws PdpException if no DOM document can be created
+   */
+  XacmlRequestBuilder(
+      String subject,
+      AuthorizationInfo info,
+      List<String> environmentAttributes,
+      Function<String, String> dataTypes)
+      throws PdpException {
+    this.dataTypes = dataTypes;
+    Document templates = newDocument();
+    this.subjectAttributes = createSubjectAttributes(templates, subject, info);
+    this.environmentAttributes = createEnvironmentAttributes(templates, environmentAttributes);
+  }
+
+  /**
+   * @param permission action and security attributes of the resource
+   * @return root {@code Request} element of the XACML request for the resource
+   * @throws PdpException if no DOM document can be created
+   */
+  Element build(KeyValueCollectionPermission permission) throws PdpException {
+    Document document = newDocument();
+    Element request = document.createElementNS(XACML30_NAMESPACE, "Request");
+    request.setAttribute("CombinedDecision", "false");
+    request.setAttribute("ReturnPolicyIdList", "false");
+    document.appendChild(request);
+
+    Element actionAttributes = createAttributes(document, ACTION_CATEGORY);
+    actionAttributes.appendChild(
+        createAttribute(document, ACTION_ID, STRING_DATA_TYPE, permission.getAction()));
+    request.appendChild(actionAttributes);
+
+    request.appendChild(document.importNode(subjectAttributes, true));
+
+    Element resourceAttributes = createAttributes(document, RESOURCE_CATEGORY);
+    for (KeyValuePermission keyValuePermission : permission.getKeyValuePermissionList()) {
+      if (!keyValuePermission.getValues().isEmpty()) {
+        resourceAttributes.appendChild(
+            createAttribute(
+                document, keyValuePermission.getKey(), keyValuePermission.getValues(), true));
+      }
+    }
+    request.appendChild(resourceAttributes);
+
+    if (environmentAttributes != null) {
+      request.appendChild(document.importNode(environmentAttributes, true));
+    }
+    return request;
+  }
+
+  private Element createSubjectAttributes(
+      Document document, String subject, AuthorizationInfo info) {
+    Element attributes = createAttributes(document, ACCESS_SUBJECT_CATEGORY);
+    attributes.appendChild(createAttribute(document, SUBJECT_ID, STRING_DATA_TYPE, subject));
+
+    if (!CollectionUtils.isEmpty(info.getRoles())) {
+      attributes.appendChild(createAttribute(document, ROLE_CLAIM, info.getRoles(), false));
+    }
+
+    if (info.getObjectPermissions() != null) {
+      for (Permission permission : info.getObjectPermissions()) {
+        if (permission instanceof KeyValuePermission) {
+          KeyValuePermission keyValuePermission = (KeyValuePermission) permission;
+          if (!keyValuePermission.getValues().isEmpty()) {
+            attributes.appendChild(
+                createAttribute(
+                    document, keyValuePermission.getKey(), keyValuePermission.getValues(), true));
+          }
+        } else {
+          LOGGER.warn(
+              "Permissions for subject were not of type KeyValuePermission, cannot add any subject permissions to the request.");
+        }
+      }
+    }
+    return attributes;
+  }
+
+  private Element createEnvironmentAttributes(
+      Document document, List<String> environmentAttributes) {
+    if (CollectionUtils.isEmpty(environmentAttributes)) {
+      return null;
+    }
+
+    Element attributes = createAttributes(document, ENVIRONMENT_CATEGORY);
+    for (String environmentAttribute : environmentAttributes) {
+      String[] attr = environmentAttribute.split("=");
+      if (attr.length == 2) {
+        Element attribute = createAttribute(document, attr[0].trim());
+        for (String value : attr[1].split(",")) {
+          attribute.appendChild(createAttributeValue(document, STRING_DATA_TYPE, value.trim()));
+        }
+        attributes.appendChild(attribute);
+      }
+    }
+    return attributes;
+  }
+
+  private Element createAttributes(Document document, String category) {
+    Element attributes = document.createElementNS(XACML30_NAMESPACE, "Attributes");
+    attributes.setAttribute("Category", category);
+    return attributes;
+  }
+
+  private Element createAttribute(Document document, String id) {
+    Element attribute = document.createElementNS(XACML30_NAMESPACE, "Attribute");
+    attribute.setAttribute("AttributeId", id);
+    attribute.setAttribute("IncludeInResult", "false");
+    return attribute;
+  }
+
+  private Element createAttribute(Document document, String id, String dataType, String value) {
+    Element attribute = createAttribute(document, id);
+    attribute.appendChild(createAttributeValue(document, dataType, value));
+    return attribute;
+  }
+
+  private Element createAttribute(
+      Document document, String id, Collection<String> values, boolean detectDataType) {
+    Element attribute = createAttribute(document, id);
+    for (String value : values) {
+      String dataType = detectDataType ? dataTypes.apply(value) : STRING_DATA_TYPE;
+      attribute.appendChild(createAttributeValue(document, dataType, value));
+    }
+    return attribute;
+  }
+
+  private Element createAttributeValue(Document document, String dataType, String value) {
+    Element attributeValue = document.createElementNS(XACML30_NAMESPACE, "AttributeValue");
+    attributeValue.setAttribute("DataType", dataType);
+    attributeValue.setTextContent(value);
+    return attributeValue;
+  }
+
+  private static Document newDocument() throws PdpException {
+    DocumentBuilder documentBuilder = DOCUMENT_BUILDER_THREAD_LOCAL.get();
+    if (documentBuilder == null) {
+      try {
+        documentBuilder = XMLUtils.getInstance().getSecureDocumentBuilder(true);
+      } catch (ParserConfigurationException e) {
+        throw new PdpException("Unable to create XACML request.", e);
+      }
+      DOCUMENT_BUILDER_THREAD_LOCAL.set(documentBuilder);
+    }
+    return documentBuilder.newDocument();
+  }
+}
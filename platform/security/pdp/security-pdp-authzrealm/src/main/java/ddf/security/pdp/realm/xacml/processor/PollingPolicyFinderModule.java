@@ -50,15 +50,31 @@ public class PollingPolicyFinderModule extends FileBasedPolicyFinderModule
 
   private SecurityLogger securityLogger;
 
+  private final Runnable policyChangeListener;
+
   /**
    * @param xacmlPolicyDirectories - to search for policies
    * @param pollingInterval - in seconds
    */
   public PollingPolicyFinderModule(
       Set<String> xacmlPolicyDirectories, long pollingInterval, SecurityLogger securityLogger) {
+    this(xacmlPolicyDirectories, pollingInterval, securityLogger, () -> {});
+  }
+
+  /**
+   * @param xacmlPolicyDirectories - to search for policies
+   * @param pollingInterval - in seconds
+   * @param policyChangeListener - called after the policies have been reloaded
+   */
+  public PollingPolicyFinderModule(
+      Set<String> xacmlPolicyDirectories,
+      long pollingInterval,
+      SecurityLogger securityLogger,
+      Runnable policyChangeListener) {
     super(xacmlPolicyDirectories);
     this.xacmlPolicyDirectories = xacmlPolicyDirectories;
     this.securityLogger = securityLogger;
+    this.policyChangeListener = policyChangeListener;
     initialize(pollingInterval);
   }
 
@@ -216,6 +232,7 @@ private FileFilter getXmlFileFilter() {
   public void reloadPolicies() {
     LOGGER.debug("Reloading XACML policies");
     this.loadPolicies();
+    policyChangeListener.run();
   }
 
   private class PrivilegedFileAlterationObserver extends FileAlterationObserver {
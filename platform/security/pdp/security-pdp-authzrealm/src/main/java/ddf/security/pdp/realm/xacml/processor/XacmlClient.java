@@ -15,6 +15,11 @@
 
 import com.connexta.arbitro.PDP;
 import com.connexta.arbitro.PDPConfig;
+import com.connexta.arbitro.ParsingException;
+import com.connexta.arbitro.ctx.AbstractRequestCtx;
+import com.connexta.arbitro.ctx.AbstractResult;
+import com.connexta.arbitro.ctx.RequestCtxFactory;
+import com.connexta.arbitro.ctx.ResponseCtx;
 import com.connexta.arbitro.finder.AttributeFinder;
 import com.connexta.arbitro.finder.AttributeFinderModule;
 import com.connexta.arbitro.finder.PolicyFinder;
@@ -54,6 +59,7 @@
 import org.codice.ddf.platform.util.XMLUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.w3c.dom.Node;
 import org.xml.sax.Attributes;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
@@ -90,6 +96,8 @@ public class XacmlClient {
 
   private SecurityLogger securityLogger;
 
+  private final Runnable policyChangeListener;
+
   /**
    * Creates the proxy to the real XACML PDP.
    *
@@ -101,8 +109,27 @@ public class XacmlClient {
   public XacmlClient(
       String relativeXacmlPoliciesDirectoryPath, Parser parser, SecurityLogger securityLogger)
       throws PdpException {
+    this(relativeXacmlPoliciesDirectoryPath, parser, securityLogger, () -> {});
+  }
+
+  /**
+   * Creates the proxy to the real XACML PDP.
+   *
+   * @param relativeXacmlPoliciesDirectoryPath Relative directory path to the root of the DDF
+   *     installation.
+   * @param parser for marshal and unmarshal
+   * @param policyChangeListener called after the XACML policies have been reloaded
+   * @throws PdpException
+   */
+  public XacmlClient(
+      String relativeXacmlPoliciesDirectoryPath,
+      Parser parser,
+      SecurityLogger securityLogger,
+      Runnable policyChangeListener)
+      throws PdpException {
     this.parser = parser;
     this.securityLogger = securityLogger;
+    this.policyChangeListener = policyChangeListener;
     if (StringUtils.isEmpty(relativeXacmlPoliciesDirectoryPath)) {
       throw new PdpException(NULL_DIRECTORY_EXCEPTION_MSG);
     }
@@ -165,6 +192,40 @@ public ResponseType evaluate(RequestType xacmlRequestType) throws PdpException {
     return unmarshal(domResult);
   }
 
+  /**
+   * Evaluates the XACML request without marshalling it to a string or unmarshalling the response.
+   *
+   * @param xacmlRequest root {@code Request} element of a XACML 3.0 request
+   * @return true if every result of the request is a permit decision
+   * @throws PdpException if the request is not a valid XACML request
+   */
+  public boolean isPermitted(Node xacmlRequest) throws PdpException {
+    if (pdp == null) {
+      throw new PdpException("XACML PDP was not initialized.");
+    }
+
+    AbstractRequestCtx requestCtx;
+    try {
+      requestCtx = RequestCtxFactory.getFactory().getRequestCtx(xacmlRequest);
+    } catch (ParsingException e) {
+      String message = "Unable to read XACML request.";
+      LOGGER.info(message, e);
+      throw new PdpException(message, e);
+    }
+
+    ResponseCtx responseCtx = pdp.evaluate(requestCtx);
+    if (responseCtx.getResults().isEmpty()) {
+      return false;
+    }
+    for (AbstractResult result : responseCtx.getResults()) {
+      if (result.getDecision() != AbstractResult.DECISION_PERMIT) {
+        LOGGER.debug("XACML decision: {}", result.getDecision());
+        return false;
+      }
+    }
+    return true;
+  }
+
   /** Creates the XACML PDP. */
   private void createPdp(PDPConfig pdpConfig) {
     LOGGER.debug("Creating PDP of type: {}", PDP.class.getName());
@@ -201,7 +262,10 @@ private PolicyFinder createPolicyFinder() {
     PolicyFinder policyFinder = new PolicyFinder();
     PollingPolicyFinderModule policyFinderModule =
         new PollingPolicyFinderModule(
-            xacmlPolicyDirectories, defaultPollingIntervalInSeconds, securityLogger);
+            xacmlPolicyDirectories,
+            defaultPollingIntervalInSeconds,
+            securityLogger,
+            policyChangeListener);
     policyFinderModule.start();
     Set<PolicyFinderModule> policyFinderModules = new HashSet<>(1);
     policyFinderModules.add(policyFinderModule);
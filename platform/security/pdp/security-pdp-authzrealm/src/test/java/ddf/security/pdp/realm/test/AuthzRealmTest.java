@@ -13,11 +13,22 @@
  */
 package ddf.security.pdp.realm.test;
 
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import ddf.security.audit.SecurityLogger;
 import ddf.security.pdp.realm.AuthzRealm;
+import ddf.security.pdp.realm.xacml.XacmlPdp;
 import ddf.security.pdp.realm.xacml.processor.PdpException;
 import ddf.security.permission.CollectionPermission;
 import ddf.security.permission.KeyValueCollectionPermission;
@@ -27,8 +38,10 @@
 import ddf.security.policy.extension.PolicyExtension;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import junit.framework.Assert;
 import org.apache.shiro.authz.AuthorizationInfo;
 import org.apache.shiro.authz.Permission;
@@ -38,6 +51,7 @@
 import org.codice.ddf.parser.xml.XmlParser;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
 /** User: tustisos Date: 3/20/13 Time: 9:35 AM */
 public class AuthzRealmTest {
@@ -299,4 +313,129 @@ public KeyValueCollectionPermission isPermittedMatchOne(
 
     testRealm.setPolicyExtensions(Arrays.asList(policyExtension));
   }
+
+  @Test
+  public void testRepeatedDecisionIsCached() {
+    CountingPolicyExtension policyExtension = new CountingPolicyExtension();
+    testRealm.setPolicyExtensions(new ArrayList<>(Arrays.asList(policyExtension)));
+
+    assertThat(testRealm.isPermitted(mockSubjectPrincipal, markings("A", "B")), is(true));
+    int evaluations = policyExtension.invocations.get();
+    assertThat(testRealm.isPermitted(mockSubjectPrincipal, markings("B", "A")), is(true));
+
+    assertThat(policyExtension.invocations.get(), is(evaluations));
+  }
+
+  @Test
+  public void testConfigurationChangeInvalidatesDecisions() {
+    CountingPolicyExtension policyExtension = new CountingPolicyExtension();
+    testRealm.setPolicyExtensions(new ArrayList<>(Arrays.asList(policyExtension)));
+
+    testRealm.isPermitted(mockSubjectPrincipal, markings("A", "B"));
+    int evaluations = policyExtension.invocations.get();
+    testRealm.setMatchAllMappings(Arrays.asList("FineAccessControls=rule"));
+    testRealm.isPermitted(mockSubjectPrincipal, markings("A", "B"));
+
+    assertThat(policyExtension.invocations.get(), greaterThan(evaluations));
+  }
+
+  @Test
+  public void testDisabledDecisionCache() {
+    CountingPolicyExtension policyExtension = new CountingPolicyExtension();
+    testRealm.setPolicyExtensions(new ArrayList<>(Arrays.asList(policyExtension)));
+    testRealm.setDecisionCacheSize(0);
+
+    testRealm.isPermitted(mockSubjectPrincipal, markings("A", "B"));
+    int evaluations = policyExtension.invocations.get();
+    testRealm.isPermitted(mockSubjectPrincipal, markings("A", "B"));
+
+    assertThat(policyExtension.invocations.get(), greaterThan(evaluations));
+  }
+
+  @Test
+  public void testDistinctMarkingsAreNotShared() {
+    assertThat(testRealm.isPermitted(mockSubjectPrincipal, markings("A", "B")), is(true));
+    assertThat(testRealm.isPermitted(mockSubjectPrincipal, markings("A", "B", "C")), is(false));
+    assertThat(testRealm.isPermitted(mockSubjectPrincipal, markings("A")), is(true));
+  }
+
+  @Test
+  public void testCachedDenialIsAudited() {
+    SecurityLogger securityLogger = mock(SecurityLogger.class);
+    testRealm.setSecurityLogger(securityLogger);
+
+    assertThat(testRealm.isPermitted(mockSubjectPrincipal, markings("A", "B", "C")), is(false));
+    assertThat(testRealm.isPermitted(mockSubjectPrincipal, markings("A", "B", "C")), is(false));
+
+    verify(securityLogger, times(2)).audit(endsWith("] is not implied."));
+  }
+
+  @Test
+  public void testXacmlPermissionsAreEvaluatedTogether() {
+    XacmlPdp xacmlPdp = mock(XacmlPdp.class);
+    when(xacmlPdp.isPermitted(eq("user"), any(AuthorizationInfo.class), anyList()))
+        .thenReturn(new boolean[] {true, false});
+    SimpleAuthorizationInfo authorizationInfo = new SimpleAuthorizationInfo();
+    authorizationInfo.addObjectPermission(
+        new KeyValuePermissionImpl("role", Arrays.asList("admin")));
+    AuthzRealm realm =
+        new AuthzRealm("src/test/resources/policies", new XmlParser()) {
+          @Override
+          public AuthorizationInfo getAuthorizationInfo(PrincipalCollection principals) {
+            return authorizationInfo;
+          }
+
+          @Override
+          protected XacmlPdp createXacmlPdp() {
+            return xacmlPdp;
+          }
+        };
+    realm.setSecurityLogger(mock(SecurityLogger.class));
+
+    boolean[] permitted =
+        realm.isPermitted(
+            mockSubjectPrincipal,
+            Arrays.asList(classification("secret"), classification("top secret")));
+
+    assertThat(permitted[0], is(true));
+    assertThat(permitted[1], is(false));
+    ArgumentCaptor<List<KeyValueCollectionPermission>> xacmlPermissions =
+        ArgumentCaptor.forClass(List.class);
+    verify(xacmlPdp, times(1))
+        .isPermitted(eq("user"), eq(authorizationInfo), xacmlPermissions.capture());
+    assertThat(xacmlPermissions.getValue(), hasSize(2));
+  }
+
+  private KeyValueCollectionPermission classification(String classification) {
+    return new KeyValueCollectionPermissionImpl(
+        "action",
+        Collections.singletonMap("classification", Collections.singletonList(classification)));
+  }
+
+  private KeyValueCollectionPermission markings(String... rules) {
+    return new KeyValueCollectionPermissionImpl(
+        "action", Collections.singletonMap("rule", Arrays.asList(rules)));
+  }
+
+  private static class CountingPolicyExtension implements PolicyExtension {
+    private final AtomicInteger invocations = new AtomicInteger();
+
+    @Override
+    public KeyValueCollectionPermission isPermittedMatchAll(
+        CollectionPermission subjectAllCollection,
+        KeyValueCollectionPermission matchAllCollection,
+        KeyValueCollectionPermission allPermissionsCollection) {
+      invocations.incrementAndGet();
+      return matchAllCollection;
+    }
+
+    @Override
+    public KeyValueCollectionPermission isPermittedMatchOne(
+        CollectionPermission subjectAllCollection,
+        KeyValueCollectionPermission matchOneCollection,
+        KeyValueCollectionPermission allPermissionsCollection) {
+      invocations.incrementAndGet();
+      return matchOneCollection;
+    }
+  }
 }
@@ -239,6 +239,48 @@ public void testResourceIsNotPermitted() {
     assertThat(testRealm.isPermitted(request), equalTo(false));
   }
 
+  @Test
+  public void testResourcePermissionsInBatch() {
+    List<KeyValueCollectionPermission> resourcePermissions =
+        Arrays.asList(
+            resourcePermission(ACCESS_TYPE_A),
+            resourcePermission(ACCESS_TYPE_A, ACCESS_TYPE_B, ACCESS_TYPE_C),
+            resourcePermission(ACCESS_TYPE_A, ACCESS_TYPE_B));
+
+    boolean[] permitted =
+        testRealm.isPermitted(USER_NAME, generateSubjectInfo(TEST_COUNTRY), resourcePermissions);
+
+    assertThat(permitted[0], is(true));
+    assertThat(permitted[1], is(false));
+    assertThat(permitted[2], is(true));
+  }
+
+  @Test
+  public void testBatchMatchesMarshalledRequests() {
+    AuthorizationInfo subjectInfo = generateSubjectInfo(TEST_COUNTRY);
+    List<KeyValueCollectionPermission> resourcePermissions =
+        Arrays.asList(
+            resourcePermission(ACCESS_TYPE_B),
+            resourcePermission(ACCESS_TYPE_C),
+            resourcePermission(ACCESS_TYPE_A, ACCESS_TYPE_B));
+
+    boolean[] permitted = testRealm.isPermitted(USER_NAME, subjectInfo, resourcePermissions);
+
+    for (int i = 0; i < resourcePermissions.size(); i++) {
+      RequestType request =
+          testRealm.createXACMLRequest(USER_NAME, subjectInfo, resourcePermissions.get(i));
+      assertThat(permitted[i], is(testRealm.isPermitted(request)));
+    }
+  }
+
+  @Test
+  public void testSingleResourcePermission() {
+    assertThat(
+        testRealm.isPermitted(
+            USER_NAME, generateSubjectInfo(TEST_COUNTRY), resourcePermission(ACCESS_TYPE_C)),
+        is(false));
+  }
+
   @Test
   public void testParseAttributeTypeBoolean() {
     assertThat(testRealm.getXacmlDataType("true"), is(BOOLEAN_DATA_TYPE));
@@ -332,6 +374,12 @@ public void testEnvironmentVariables() {
     assertThat(environmentAttributes.getAttribute().get(2).getAttributeValue().size(), is(3));
   }
 
+  private KeyValueCollectionPermission resourcePermission(String... accessTypes) {
+    HashMap<String, List<String>> security = new HashMap<>();
+    security.put(RESOURCE_ACCESS, Arrays.asList(accessTypes));
+    return new KeyValueCollectionPermissionImpl(CollectionPermission.READ_ACTION, security);
+  }
+
   private AuthorizationInfo generateSubjectInfo(String country) {
     SimpleAuthorizationInfo info = new SimpleAuthorizationInfo();
     Set<Permission> permissions = new HashSet<Permission>();
@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.platform.util;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates executors for tasks that spend most of their time blocked on I/O, such as federated
+ * queries and resource downloads.
+ *
+ * <p>When the {@value #VIRTUAL_THREADS_PROPERTY} system property is {@code true} and the JVM
+ * supports virtual threads, every task runs on its own virtual thread, so the number of tasks
+ * blocked on remote calls is no longer limited by the number of platform threads. Otherwise, or if
+ * virtual threads cannot be created, the usual platform thread pools are returned.
+ */
+public final class BlockingIoExecutors {
+
+  public static final String VIRTUAL_THREADS_PROPERTY = "org.codice.ddf.system.virtualThreads";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(BlockingIoExecutors.class);
+
+  private BlockingIoExecutors() {}
+
+  /**
+   * @param threadName prefix of the names of the created threads
+   * @return executor that runs each task on a virtual thread, or a cached platform thread pool
+   */
+  public static ExecutorService newCachedThreadPool(String threadName) {
+    ExecutorService executor = newVirtualThreadExecutor(threadName);
+    if (executor != null) {
+      return executor;
+    }
+    return Executors.newCachedThreadPool(StandardThreadFactoryBuilder.newThreadFactory(threadName));
+  }
+
+  /**
+   * @param threadPoolSize number of platform threads used when virtual threads are not used
+   * @param threadName prefix of the names of the created threads
+   * @return executor that runs each task on a virtual thread, or a fixed platform thread pool
+   */
+  public static ExecutorService newFixedThreadPool(int threadPoolSize, String threadName) {
+    ExecutorService executor = newVirtualThreadExecutor(threadName);
+    if (executor != null) {
+      return executor;
+    }
+    return Executors.newFixedThreadPool(
+        threadPoolSize, StandardThreadFactoryBuilder.newThreadFactory(threadName));
+  }
+
+  /** @return true if executors created by this class run tasks on virtual threads */
+  public static boolean isVirtualThreadsEnabled() {
+    return Boolean.getBoolean(VIRTUAL_THREADS_PROPERTY) && isVirtualThreadsSupported();
+  }
+
+  static boolean isVirtualThreadsSupported() {
+    try {
+      Thread.class.getMethod("ofVirtual");
+      return true;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Virtual threads are only available on Java 21 and later, so they are created reflectively to
+   * keep this class loadable on older JVMs.
+   */
+  private static ExecutorService newVirtualThreadExecutor(String threadName) {
+    if (!Boolean.getBoolean(VIRTUAL_THREADS_PROPERTY)) {
+      return null;
+    }
+
+    if (!isVirtualThreadsSupported()) {
+      LOGGER.info(
+          "Virtual threads are not supported by this JVM. Using platform threads for {}.",
+          threadName);
+      return null;
+    }
+
+    try {
+      Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      builder =
+          builderClass
+              .getMethod("name", String.class, long.class)
+              .invoke(builder, threadName + " ", 0L);
+      ThreadFactory threadFactory =
+          (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+
+      Method newThreadPerTaskExecutor =
+          Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+      LOGGER.debug("Using virtual threads for {}.", threadName);
+      return (ExecutorService) newThreadPerTaskExecutor.invoke(null, threadFactory);
+    } catch (ClassNotFoundException
+        | NoSuchMethodException
+        | IllegalAccessException
+        | InvocationTargetException
+        | ClassCastException e) {
+      LOGGER.info("Unable to create virtual threads. Using platform threads for {}.", threadName);
+      LOGGER.debug("Unable to create virtual threads.", e);
+      return null;
+    }
+  }
+}
@@ -0,0 +1,79 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.platform.util;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeFalse;
+import static org.junit.Assume.assumeTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.contrib.java.lang.system.RestoreSystemProperties;
+
+public class BlockingIoExecutorsTest {
+
+  @Rule
+  public final RestoreSystemProperties restoreSystemProperties = new RestoreSystemProperties();
+
+  @Test
+  public void testPlatformThreadsByDefault() throws Exception {
+    System.clearProperty(BlockingIoExecutors.VIRTUAL_THREADS_PROPERTY);
+
+    ExecutorService cached = BlockingIoExecutors.newCachedThreadPool("test");
+    ExecutorService fixed = BlockingIoExecutors.newFixedThreadPool(2, "test");
+
+    assertThat(cached, instanceOf(ThreadPoolExecutor.class));
+    assertThat(fixed, instanceOf(ThreadPoolExecutor.class));
+    assertThat(((ThreadPoolExecutor) fixed).getMaximumPoolSize(), is(2));
+    assertThat(BlockingIoExecutors.isVirtualThreadsEnabled(), is(false));
+    shutdown(cached, fixed);
+  }
+
+  @Test
+  public void testFallbackWhenVirtualThreadsAreUnsupported() throws Exception {
+    assumeFalse(BlockingIoExecutors.isVirtualThreadsSupported());
+    System.setProperty(BlockingIoExecutors.VIRTUAL_THREADS_PROPERTY, "true");
+
+    ExecutorService cached = BlockingIoExecutors.newCachedThreadPool("test");
+
+    assertThat(cached, instanceOf(ThreadPoolExecutor.class));
+    assertThat(BlockingIoExecutors.isVirtualThreadsEnabled(), is(false));
+    shutdown(cached);
+  }
+
+  @Test
+  public void testVirtualThreadsWhenEnabled() throws Exception {
+    assumeTrue(BlockingIoExecutors.isVirtualThreadsSupported());
+    System.setProperty(BlockingIoExecutors.VIRTUAL_THREADS_PROPERTY, "true");
+
+    ExecutorService cached = BlockingIoExecutors.newCachedThreadPool("test");
+    Thread thread = cached.submit(Thread::currentThread).get();
+
+    assertThat(Thread.class.getMethod("isVirtual").invoke(thread), is(true));
+    assertThat(BlockingIoExecutors.isVirtualThreadsEnabled(), is(true));
+    shutdown(cached);
+  }
+
+  private static void shutdown(ExecutorService... executors) throws InterruptedException {
+    for (ExecutorService executor : executors) {
+      executor.shutdown();
+      executor.awaitTermination(1, TimeUnit.SECONDS);
+    }
+  }
+}